@@ -0,0 +1,166 @@
+package de.luhmer.owncloudnewsreader.database;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.test.InstrumentationRegistry;
+import androidx.test.filters.LargeTest;
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import de.luhmer.owncloudnewsreader.database.model.DaoMaster;
+import de.luhmer.owncloudnewsreader.database.model.DaoSession;
+import de.luhmer.owncloudnewsreader.database.model.RssItemContent;
+import de.luhmer.owncloudnewsreader.database.model.RssItemContentDao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the compressed storage of the article bodies ({@link BodyCodec#DEFLATE}) with storing
+ * them as they are: size of the database file, insert throughput and the time it takes to load
+ * the body of an article when it is opened.
+ *
+ * Runs on a device, so the numbers are the ones of the SQLite and zlib of a phone.
+ */
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+public class BodyCompressionBenchmark {
+
+    private static final String TAG = BodyCompressionBenchmark.class.getCanonicalName();
+    private static final String DATABASE_NAME = "BodyCompressionBenchmark.db";
+
+    private static final int ITEM_COUNT = 200;
+    private static final int BODY_LENGTH = 100 * 1024; // chars per article
+    private static final int OPEN_COUNT = 100;
+
+    private static final String[] WORDS = {
+            "the", "server", "release", "update", "android", "news", "feed", "privacy", "security",
+            "a", "of", "and", "to", "in", "is", "for", "with", "on", "new", "version", "users",
+            "performance", "database", "memory", "network", "support", "app", "open", "source",
+            "community", "developers", "article", "today", "announced", "features", "important"
+    };
+
+    private List<String> bodies;
+
+    @Before
+    public void setUp() {
+        bodies = new ArrayList<>(ITEM_COUNT);
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            bodies.add(buildArticle(new Random(i)));
+        }
+    }
+
+    @Test
+    public void benchmarkCompressedAgainstPlainStorage() {
+        Result plain = measure(false);
+        Result compressed = measure(true);
+
+        Log.i(TAG, "Plain:      " + plain);
+        Log.i(TAG, "Compressed: " + compressed);
+
+        assertTrue("Compressed database isn't smaller: " + compressed + " vs. " + plain,
+                compressed.databaseBytes < plain.databaseBytes);
+    }
+
+    private Result measure(boolean compress) {
+        Context context = InstrumentationRegistry.getTargetContext();
+        context.deleteDatabase(DATABASE_NAME);
+        File file = context.getDatabasePath(DATABASE_NAME);
+        SQLiteDatabase db = context.openOrCreateDatabase(DATABASE_NAME, Context.MODE_PRIVATE, null);
+        try {
+            DaoMaster.createAllTables(db, false);
+            DaoSession daoSession = new DaoMaster(db).newSession();
+            RssItemContentDao dao = daoSession.getRssItemContentDao();
+
+            List<RssItemContent> contents = new ArrayList<>(ITEM_COUNT);
+            long start = System.nanoTime();
+            for (int i = 0; i < ITEM_COUNT; i++) {
+                contents.add(toContent(i + 1, bodies.get(i), compress));
+            }
+            dao.insertInTx(contents);
+            long insertNanos = System.nanoTime() - start;
+            contents.clear();
+
+            // Open the articles in random order, without any cached entities
+            Random random = new Random(42);
+            long openNanos = 0;
+            for (int i = 0; i < OPEN_COUNT; i++) {
+                int index = random.nextInt(ITEM_COUNT);
+                daoSession.clear();
+                start = System.nanoTime();
+                String body = dao.load((long) index + 1).getBody();
+                openNanos += System.nanoTime() - start;
+                assertEquals(bodies.get(index), body);
+            }
+
+            return new Result(file.length(), ITEM_COUNT * 1e9 / insertNanos, openNanos / 1e6 / OPEN_COUNT);
+        } finally {
+            db.close();
+            context.deleteDatabase(DATABASE_NAME);
+        }
+    }
+
+    private static RssItemContent toContent(long id, String body, boolean compress) {
+        if (!compress) {
+            return new RssItemContent(id, null, BodyCodec.encode(body, BodyCodec.PLAIN), BodyCodec.PLAIN);
+        }
+        RssItemContent content = new RssItemContent(id);
+        content.setBody(body);
+        return content;
+    }
+
+    /**
+     * @return html article with paragraphs, links and images (compresses similar to real articles)
+     */
+    private static String buildArticle(Random random) {
+        StringBuilder sb = new StringBuilder(BODY_LENGTH + 1024);
+        while (sb.length() < BODY_LENGTH) {
+            sb.append("<p>");
+            int sentences = 3 + random.nextInt(5);
+            for (int s = 0; s < sentences; s++) {
+                int words = 6 + random.nextInt(14);
+                for (int w = 0; w < words; w++) {
+                    sb.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+                }
+                if (random.nextInt(4) == 0) {
+                    sb.append("<a href=\"https://example.com/").append(Long.toHexString(random.nextLong())).append("\">link</a> ");
+                }
+                sb.setCharAt(sb.length() - 1, '.');
+                sb.append(' ');
+            }
+            sb.append("</p>\n");
+            if (random.nextInt(6) == 0) {
+                sb.append("<img src=\"https://example.com/images/").append(Long.toHexString(random.nextLong())).append(".jpg\" alt=\"\"/>\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    private static class Result {
+        final long databaseBytes;
+        final double insertsPerSecond;
+        final double openMillis;
+
+        Result(long databaseBytes, double insertsPerSecond, double openMillis) {
+            this.databaseBytes = databaseBytes;
+            this.insertsPerSecond = insertsPerSecond;
+            this.openMillis = openMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("database %d kB, %.0f inserts/s, %.2f ms to open an article",
+                    databaseBytes / 1024, insertsPerSecond, openMillis);
+        }
+    }
+}
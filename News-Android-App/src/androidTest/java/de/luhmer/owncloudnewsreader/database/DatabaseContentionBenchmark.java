@@ -0,0 +1,180 @@
+package de.luhmer.owncloudnewsreader.database;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.test.InstrumentationRegistry;
+import androidx.test.filters.LargeTest;
+import androidx.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import de.greenrobot.dao.identityscope.IdentityScopeType;
+import de.greenrobot.dao.query.LazyList;
+import de.luhmer.owncloudnewsreader.database.model.DaoMaster;
+import de.luhmer.owncloudnewsreader.database.model.DaoSession;
+import de.luhmer.owncloudnewsreader.database.model.Feed;
+import de.luhmer.owncloudnewsreader.database.model.Folder;
+import de.luhmer.owncloudnewsreader.database.model.RssItem;
+
+import static de.luhmer.owncloudnewsreader.ListView.SubscriptionExpandableListAdapter.SPECIAL_FOLDERS.ALL_UNREAD_ITEMS;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Scrolls through the item list, refreshes the unread counts of the drawer and loads the widget
+ * items while a sync writes pages of items into the database. Reports the latency (p50/p95/max)
+ * of these queries with the rollback journal and a single session (previous setup) and with the
+ * write-ahead log and the read session (see {@link DatabaseHelperOrm#getReadDaoSession}).
+ *
+ * Runs on a device because Robolectric executes all SQLite operations on a single thread.
+ */
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+public class DatabaseContentionBenchmark {
+
+    private static final String TAG = DatabaseContentionBenchmark.class.getCanonicalName();
+    private static final String DATABASE_NAME = "ContentionBenchmark.db";
+
+    private static final int FEED_COUNT = 20;
+    private static final int INITIAL_ITEM_COUNT = 2000;
+    private static final int SYNC_PAGES = 20;
+    private static final int SYNC_PAGE_SIZE = 1000;
+    private static final int BODY_LENGTH = 5 * 1024;
+
+    @Test
+    public void benchmarkReadsWhileSyncing() throws InterruptedException {
+        Result rollbackJournal = measure(false);
+        Result writeAheadLog = measure(true);
+
+        Log.i(TAG, "Rollback journal: " + rollbackJournal);
+        Log.i(TAG, "Write-ahead log:  " + writeAheadLog);
+
+        assertTrue(rollbackJournal.queryCount > 0);
+        assertTrue(writeAheadLog.queryCount > 0);
+    }
+
+    private Result measure(boolean writeAheadLogging) throws InterruptedException {
+        Context context = InstrumentationRegistry.getTargetContext();
+        context.deleteDatabase(DATABASE_NAME);
+
+        DaoMaster.DevOpenHelper helper = new DaoMaster.DevOpenHelper(context, DATABASE_NAME, null);
+        helper.setWriteAheadLoggingEnabled(writeAheadLogging);
+        SQLiteDatabase db = helper.getWritableDatabase();
+        try {
+            DaoMaster daoMaster = new DaoMaster(db);
+            DaoSession daoSession = daoMaster.newSession();
+            DaoSession readSession = writeAheadLogging ? daoMaster.newSession(IdentityScopeType.None) : daoSession;
+            final DatabaseConnectionOrm dbConn = new DatabaseConnectionOrm(daoSession, readSession);
+
+            dbConn.deleteOldAndInsertNewFolders(new Folder(1, "Folder"));
+            List<Feed> feeds = new ArrayList<>();
+            for (int i = 1; i <= FEED_COUNT; i++) {
+                feeds.add(new Feed(i, 1L, "Feed " + i, null, "https://example.com/" + i, null));
+            }
+            dbConn.insertNewFeed(feeds);
+            dbConn.insertNewItems(buildItems(1, INITIAL_ITEM_COUNT));
+            DatabaseConnectionOrm.RssItemQuery query = dbConn.getItemsForFolderQuery(ALL_UNREAD_ITEMS.getValue(), false, DatabaseConnectionOrm.SORT_DIRECTION.desc);
+            dbConn.insertIntoRssCurrentViewTable(query);
+
+            final AtomicReference<RuntimeException> syncError = new AtomicReference<>();
+            Thread sync = new Thread(() -> {
+                try {
+                    for (int page = 0; page < SYNC_PAGES; page++) {
+                        dbConn.insertNewItems(buildItems(INITIAL_ITEM_COUNT + page * SYNC_PAGE_SIZE + 1, SYNC_PAGE_SIZE));
+                    }
+                } catch (RuntimeException e) {
+                    syncError.set(e);
+                }
+            });
+
+            List<Long> latencies = new ArrayList<>();
+            String cursor = null;
+            sync.start();
+            for (int i = 0; sync.isAlive(); i++) {
+                long start = System.nanoTime();
+                switch (i % 3) {
+                    case 0:
+                        // Scrolls through the list, starts at the top again at the end
+                        DatabaseConnectionOrm.RssItemPage page = dbConn.getRssItemPage(query, cursor);
+                        cursor = page.hasMore ? page.cursor : null;
+                        break;
+                    case 1:
+                        dbConn.getUnreadItemCountFeedFolder();
+                        break;
+                    default:
+                        LazyList<RssItem> widgetItems = dbConn.getAllUnreadRssItemsForWidget();
+                        widgetItems.size();
+                        widgetItems.close();
+                        break;
+                }
+                latencies.add(System.nanoTime() - start);
+            }
+            sync.join();
+            if (syncError.get() != null) {
+                throw syncError.get();
+            }
+
+            return new Result(latencies);
+        } finally {
+            helper.close();
+            context.deleteDatabase(DATABASE_NAME);
+        }
+    }
+
+    private static List<RssItem> buildItems(long firstId, int count) {
+        char[] body = new char[BODY_LENGTH];
+        Arrays.fill(body, 'x');
+
+        List<RssItem> items = new ArrayList<>(count);
+        for (long id = firstId; id < firstId + count; id++) {
+            Date date = new Date(1600000000000L + id * 1000);
+            RssItem item = new RssItem(id, id % FEED_COUNT + 1, "https://example.com/item/" + id, "Item " + id,
+                    false, false, "Author", "guid-" + id, "hash-" + id, "fingerprint-" + id,
+                    false, false, date, date, null, null, null, false);
+            item.setBody(new String(body));
+            items.add(item);
+        }
+        return items;
+    }
+
+    private static class Result {
+        final int queryCount;
+        final double p50Millis;
+        final double p95Millis;
+        final double maxMillis;
+
+        Result(List<Long> latencies) {
+            long[] sorted = new long[latencies.size()];
+            for (int i = 0; i < sorted.length; i++) {
+                sorted[i] = latencies.get(i);
+            }
+            Arrays.sort(sorted);
+
+            queryCount = sorted.length;
+            p50Millis = percentile(sorted, 0.5);
+            p95Millis = percentile(sorted, 0.95);
+            maxMillis = sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6;
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            return sorted[(int) Math.ceil(percentile * sorted.length) - 1] / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d queries, p50 %.2f ms, p95 %.2f ms, max %.2f ms",
+                    queryCount, p50Millis, p95Millis, maxMillis);
+        }
+    }
+}
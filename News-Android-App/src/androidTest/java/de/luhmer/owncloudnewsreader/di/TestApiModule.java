@@ -100,6 +100,9 @@ public class TestApiModule extends ApiModule {
             String dst = "/data/data/" + application.getApplicationContext().getPackageName() + "/databases/" + filename;
             File dstFile = new File(dst);
             dstFile.getParentFile().mkdirs();
+            // The write-ahead log of a previous run would be applied to the copied database
+            new File(dst + "-wal").delete();
+            new File(dst + "-shm").delete();
 
             // https://stackoverflow.com/a/35690692
             copy(InstrumentationRegistry.getContext().getAssets().open("OwncloudNewsReaderOrm.db"), dstFile);
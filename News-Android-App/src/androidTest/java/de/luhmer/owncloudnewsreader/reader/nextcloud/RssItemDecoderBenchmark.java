@@ -0,0 +1,206 @@
+package de.luhmer.owncloudnewsreader.reader.nextcloud;
+
+import android.os.Build;
+import android.os.Debug;
+import android.util.Log;
+
+import androidx.test.filters.LargeTest;
+import androidx.test.runner.AndroidJUnit4;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.luhmer.owncloudnewsreader.database.model.RssItem;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Compares {@link RssItemJsonDecoder} with the previous JsonObject based parsing
+ * ({@link #readJsonObject} + {@link InsertRssItemIntoDatabase#parseItem}) on a 10k item
+ * items/updated response. The response is built from the items in items_updated_sample.json.
+ *
+ * Runs on a device, so the numbers are the ones of ART and not of the JVM of the build machine.
+ * RssItemJsonDecoderTest checks that both produce the same items.
+ */
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+public class RssItemDecoderBenchmark {
+
+    private static final String TAG = RssItemDecoderBenchmark.class.getCanonicalName();
+
+    private static final int ITEM_COUNT = 10000;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ROUNDS = 5;
+
+    private byte[] fixture;
+
+    @Before
+    public void setUp() throws IOException {
+        // Debug.getRuntimeStat is only available since Marshmallow
+        assumeTrue(Build.VERSION.SDK_INT >= Build.VERSION_CODES.M);
+        fixture = buildFixture(ITEM_COUNT);
+    }
+
+    @Test
+    public void benchmarkDecoderAgainstJsonObjectPath() throws IOException {
+        Result jsonObject = measure(false);
+        Result decoder = measure(true);
+
+        Log.i(TAG, "JsonObject + parseItem: " + jsonObject);
+        Log.i(TAG, "RssItemJsonDecoder:     " + decoder);
+
+        assertTrue("Decoder allocated more than the JsonObject path: " + decoder + " vs. " + jsonObject,
+                decoder.allocatedBytes < jsonObject.allocatedBytes);
+    }
+
+    private Result measure(boolean useDecoder) throws IOException {
+        List<RssItem> sink = new ArrayList<>(ITEM_COUNT);
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            run(useDecoder, sink);
+        }
+
+        long bestTimeNanos = Long.MAX_VALUE;
+        long minAllocatedBytes = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            run(useDecoder, sink);
+            long time = System.nanoTime() - start;
+            long allocated = allocatedBytes() - allocatedBefore;
+
+            bestTimeNanos = Math.min(bestTimeNanos, time);
+            minAllocatedBytes = Math.min(minAllocatedBytes, allocated);
+        }
+        return new Result(ITEM_COUNT * 1e9 / bestTimeNanos, minAllocatedBytes);
+    }
+
+    private void run(boolean useDecoder, List<RssItem> sink) throws IOException {
+        sink.clear();
+        if (useDecoder) {
+            parseWithDecoder(sink);
+        } else {
+            parseWithJsonObject(sink);
+        }
+        assertEquals(ITEM_COUNT, sink.size());
+    }
+
+    private void parseWithDecoder(List<RssItem> sink) throws IOException {
+        try (JsonReader reader = openItemsArray()) {
+            while (reader.hasNext()) {
+                sink.add(RssItemJsonDecoder.decode(reader));
+            }
+        }
+    }
+
+    private void parseWithJsonObject(List<RssItem> sink) throws IOException {
+        try (JsonReader reader = openItemsArray()) {
+            while (reader.hasNext()) {
+                sink.add(InsertRssItemIntoDatabase.parseItem(readJsonObject(reader)));
+            }
+        }
+    }
+
+    private JsonReader openItemsArray() throws IOException {
+        JsonReader reader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(fixture), StandardCharsets.UTF_8));
+        reader.beginObject();
+        while (!reader.nextName().equals("items")) {
+            reader.skipValue();
+        }
+        reader.beginArray();
+        return reader;
+    }
+
+    /**
+     * The JsonObject based parsing which was used by RssItemObservable before the
+     * RssItemJsonDecoder was introduced
+     */
+    private static JsonObject readJsonObject(JsonReader jsonReader) throws IOException {
+        JsonObject jObj = new JsonObject();
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            String name = jsonReader.nextName();
+            JsonToken token = jsonReader.peek();
+            switch (token) {
+                case NUMBER:
+                    jObj.addProperty(name, jsonReader.nextLong());
+                    break;
+                case NULL:
+                case BEGIN_ARRAY:
+                    jsonReader.skipValue();
+                    break;
+                case BOOLEAN:
+                    jObj.addProperty(name, jsonReader.nextBoolean());
+                    break;
+                case BEGIN_OBJECT:
+                    jObj.add(name, readJsonObject(jsonReader));
+                    break;
+                default:
+                    jObj.addProperty(name, jsonReader.nextString());
+            }
+        }
+        jsonReader.endObject();
+        return jObj;
+    }
+
+    private static byte[] buildFixture(int itemCount) throws IOException {
+        JsonArray sampleItems;
+        try (InputStream is = RssItemDecoderBenchmark.class.getClassLoader().getResourceAsStream("items_updated_sample.json")) {
+            sampleItems = JsonParser.parseReader(new InputStreamReader(is, StandardCharsets.UTF_8))
+                    .getAsJsonObject()
+                    .getAsJsonArray("items");
+        }
+
+        JsonArray items = new JsonArray();
+        for (int i = 0; i < itemCount; i++) {
+            JsonObject item = sampleItems.get(i % sampleItems.size()).getAsJsonObject().deepCopy();
+            item.addProperty("id", i + 1);
+            item.addProperty("fingerprint", item.get("fingerprint").getAsString() + i);
+            items.add(item);
+        }
+
+        JsonObject response = new JsonObject();
+        response.add("items", items);
+        return response.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * ART only counts the allocations of the whole process, the benchmark thread is the only one
+     * allocating a notable amount of memory while it runs.
+     */
+    private static long allocatedBytes() {
+        return Long.parseLong(Debug.getRuntimeStat("art.gc.bytes-allocated"));
+    }
+
+    private static class Result {
+        final double itemsPerSecond;
+        final long allocatedBytes;
+
+        Result(double itemsPerSecond, long allocatedBytes) {
+            this.itemsPerSecond = itemsPerSecond;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.0f items/s, %d bytes allocated (%.1f bytes/item)",
+                    itemsPerSecond, allocatedBytes, (double) allocatedBytes / ITEM_COUNT);
+        }
+    }
+}
@@ -8,8 +8,9 @@ import java.util.regex.Pattern;
 public class Constants {
 	public static final Boolean debugModeWidget = false;
 
-    public static final int maxItemsCount = 1500;
     public static final String LAST_UPDATE_NEW_ITEMS_COUNT_STRING = "LAST_UPDATE_NEW_ITEMS_COUNT_STRING";
+    // lastModified of the last full sync - only set if a single feed/folder was refreshed since then
+    public static final String FULL_SYNC_LAST_MODIFIED_STRING = "FULL_SYNC_LAST_MODIFIED_STRING";
     public static final String NOTIFICATION_ACTION_STOP_STRING = "NOTIFICATION_STOP";
     public static final String NOTIFICATION_ACTION_MARK_ALL_AS_READ_STRING = "NOTIFICATION_MARK_ALL_AS_READ";
     protected static final String NEWS_WEB_VERSION_NUMBER_STRING = "NewsWebVersionNumber";
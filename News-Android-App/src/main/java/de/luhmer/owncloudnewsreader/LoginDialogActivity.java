@@ -363,6 +363,7 @@ public class LoginDialogActivity extends AppCompatActivity {
         //Reset Database
         DatabaseConnectionOrm dbConn = new DatabaseConnectionOrm(LoginDialogActivity.this);
         dbConn.resetDatabase();
+        mApi.clearHttpCache();
     }
 
     private void finishLogin(final ProgressDialog dialogLogin) {
@@ -58,6 +58,7 @@ import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
@@ -66,9 +67,9 @@ import javax.inject.Inject;
 import de.luhmer.owncloudnewsreader.adapter.NewsListRecyclerAdapter;
 import de.luhmer.owncloudnewsreader.adapter.RssItemViewHolder;
 import de.luhmer.owncloudnewsreader.database.DatabaseConnectionOrm;
+import de.luhmer.owncloudnewsreader.database.DatabaseConnectionOrm.RssItemPage;
+import de.luhmer.owncloudnewsreader.database.DatabaseConnectionOrm.RssItemQuery;
 import de.luhmer.owncloudnewsreader.database.DatabaseConnectionOrm.SORT_DIRECTION;
-import de.luhmer.owncloudnewsreader.database.model.RssItem;
-import de.luhmer.owncloudnewsreader.database.model.RssItemDao;
 import de.luhmer.owncloudnewsreader.databinding.FragmentNewsreaderDetailBinding;
 import de.luhmer.owncloudnewsreader.helper.AsyncTaskHelper;
 import de.luhmer.owncloudnewsreader.helper.DatabaseUtils;
@@ -114,6 +115,10 @@ public class NewsReaderDetailFragment extends Fragment {
     private String titel;
     private int onResumeCount = 0;
     private RecyclerView.OnItemTouchListener itemTouchListener;
+    // The current rss view (used by the detail view and "mark all as read") is updated after the
+    // first page of the list is shown - actions which depend on it wait until it's ready
+    private int pendingCurrentRssViewUpdates = 0;
+    private final List<Runnable> runWhenCurrentRssViewReady = new ArrayList<>();
 
     protected @Inject SharedPreferences mPrefs;
     protected @Inject PostDelayHandler mPostDelayHandler;
@@ -139,10 +144,16 @@ public class NewsReaderDetailFragment extends Fragment {
         super.onDetach();
     }
 
-    protected DisposableObserver<List<RssItem>> searchResultObserver = new DisposableObserver<List<RssItem>>() {
+    @Override
+    public void onDestroy() {
+        runWhenCurrentRssViewReady.clear();
+        super.onDestroy();
+    }
+
+    protected DisposableObserver<RssItemPage> searchResultObserver = new DisposableObserver<RssItemPage>() {
         @Override
-        public void onNext(@NonNull List<RssItem> rssItems) {
-            loadRssItemsIntoView(rssItems);
+        public void onNext(@NonNull RssItemPage page) {
+            loadRssItemsIntoView(page);
         }
 
         @Override
@@ -238,6 +249,9 @@ public class NewsReaderDetailFragment extends Fragment {
         NewsListRecyclerAdapter nra = ((NewsListRecyclerAdapter) binding.list.getAdapter());
 
         if (nra != null) {
+            if (nra.getQuery() == null) { // e.g. the adapter was recreated
+                nra.setQuery(getRssItemQuery(new DatabaseConnectionOrm(mActivity)));
+            }
             nra.refreshAdapterDataAsync(() -> {
                 binding.pbLoading.setVisibility(View.GONE);
 
@@ -249,6 +263,18 @@ public class NewsReaderDetailFragment extends Fragment {
         }
     }
 
+    /**
+     * Shows the items as read which were marked as read in the database
+     *
+     * @param itemIds ids returned by one of the markAllItemsAsRead methods of {@link DatabaseConnectionOrm}
+     */
+    protected void onItemsMarkedAsRead(List<Long> itemIds) {
+        NewsListRecyclerAdapter nra = ((NewsListRecyclerAdapter) binding.list.getAdapter());
+        if (nra != null) {
+            nra.setItemsRead(itemIds);
+        }
+    }
+
     /**
      * Init fast action for mark all as read shown as floating action bar button (fab)
      *
@@ -280,7 +306,31 @@ public class NewsReaderDetailFragment extends Fragment {
         return (LinearLayoutManager) binding.list.getLayoutManager();
     }
 
-    protected List<RssItem> performSearch(String searchString) {
+    /**
+     * Runs the action as soon as the current rss view contains the items of the list. Until then
+     * the list shows that it's loading. Actions which are still waiting when the fragment is
+     * destroyed are dropped.
+     */
+    public void runWhenCurrentRssViewReady(Runnable action) {
+        if (pendingCurrentRssViewUpdates == 0) {
+            action.run();
+        } else {
+            binding.pbLoading.setVisibility(View.VISIBLE);
+            runWhenCurrentRssViewReady.add(action);
+        }
+    }
+
+    private void setCurrentRssViewUpdating(boolean updating) {
+        pendingCurrentRssViewUpdates += updating ? 1 : -1;
+        if (pendingCurrentRssViewUpdates == 0) {
+            for (Runnable action : runWhenCurrentRssViewReady) {
+                action.run();
+            }
+            runWhenCurrentRssViewReady.clear();
+        }
+    }
+
+    protected RssItemPage performSearch(String searchString) {
         Handler mainHandler = new Handler(mActivity.getMainLooper());
 
         Runnable myRunnable = () -> {
@@ -292,7 +342,7 @@ public class NewsReaderDetailFragment extends Fragment {
         return Search.PerformSearch(mActivity, idFolder, idFeed, searchString, mPrefs);
     }
 
-    void loadRssItemsIntoView(List<RssItem> rssItems) {
+    void loadRssItemsIntoView(RssItemPage page) {
         previousFirstVisibleItem = -1;
         try {
             NewsListRecyclerAdapter nra = ((NewsListRecyclerAdapter) binding.list.getAdapter());
@@ -300,7 +350,7 @@ public class NewsReaderDetailFragment extends Fragment {
                 nra = new NewsListRecyclerAdapter(mActivity, binding.list, mActivity, mPostDelayHandler, mPrefs);
                 binding.list.setAdapter(nra);
             }
-            nra.updateAdapterData(rssItems);
+            nra.updateAdapterData(page);
 
             binding.pbLoading.setVisibility(View.GONE);
             if (nra.getItemCount() <= 0) {
@@ -494,60 +544,69 @@ public class NewsReaderDetailFragment extends Fragment {
         return layoutManager.findFirstVisibleItemPosition();
     }
 
-    private class UpdateCurrentRssViewTask extends AsyncTask<Void, Void, List<RssItem>> {
+    /**
+     * @return query of the items of the selected feed/folder (null if nothing is selected)
+     */
+    private RssItemQuery getRssItemQuery(DatabaseConnectionOrm dbConn) {
+        SORT_DIRECTION sortDirection = getSortDirection(mPrefs);
+        boolean onlyUnreadItems = mPrefs.getBoolean(SettingsActivity.CB_SHOWONLYUNREAD_STRING, false);
+        boolean onlyStarredItems = false;
+        if (idFolder != null && idFolder == ALL_STARRED_ITEMS.getValue())
+            onlyStarredItems = true;
+
+        if (idFeed != null) {
+            if (idFolder != null && idFolder == ALL_UNREAD_ITEMS.getValue()) {
+                onlyUnreadItems = true;
+            }
+            return dbConn.getItemsForFeedQuery(idFeed, onlyUnreadItems, onlyStarredItems, sortDirection);
+        } else if (idFolder != null) {
+            if (idFolder == ALL_STARRED_ITEMS.getValue())
+                onlyUnreadItems = false;
+            return dbConn.getItemsForFolderQuery(idFolder, onlyUnreadItems, sortDirection);
+        }
+        return null;
+    }
+
+    /**
+     * Shows the first page of the list as soon as it's loaded, the current rss view is updated
+     * afterwards.
+     */
+    private class UpdateCurrentRssViewTask extends AsyncTask<Void, RssItemPage, Void> {
 
         @Override
         protected void onPreExecute() {
             binding.pbLoading.setVisibility(View.VISIBLE);
             binding.tvNoItemsAvailable.setVisibility(View.GONE);
+            setCurrentRssViewUpdating(true);
             super.onPreExecute();
         }
 
         @Override
-        protected List<RssItem> doInBackground(Void... voids) {
+        protected Void doInBackground(Void... voids) {
             DatabaseConnectionOrm dbConn = new DatabaseConnectionOrm(NewsReaderDetailFragment.this.getContext());
-            SORT_DIRECTION sortDirection = getSortDirection(mPrefs);
-            boolean onlyUnreadItems = mPrefs.getBoolean(SettingsActivity.CB_SHOWONLYUNREAD_STRING, false);
-            boolean onlyStarredItems = false;
-            if (idFolder != null && idFolder == ALL_STARRED_ITEMS.getValue())
-                onlyStarredItems = true;
-
-            String sqlSelectStatement = null;
-            if (idFeed != null) {
-                if (idFolder != null && idFolder == ALL_UNREAD_ITEMS.getValue()) {
-                    onlyUnreadItems = true;
-                }
-                sqlSelectStatement = dbConn.getAllItemsIdsForFeedSQL(idFeed, onlyUnreadItems, onlyStarredItems, sortDirection);
-            } else if (idFolder != null) {
-                if (idFolder == ALL_STARRED_ITEMS.getValue())
-                    onlyUnreadItems = false;
-                sqlSelectStatement = dbConn.getAllItemsIdsForFolderSQL(idFolder, onlyUnreadItems, sortDirection);
-            }
-            if (sqlSelectStatement != null) {
-                int index = sqlSelectStatement.indexOf("ORDER BY");
-                if (index == -1) {
-                    index = sqlSelectStatement.length();
-                }
-                sqlSelectStatement = new StringBuilder(sqlSelectStatement).insert(index, " GROUP BY " + RssItemDao.Properties.Fingerprint.columnName + " ").toString();
-                dbConn.insertIntoRssCurrentViewTable(sqlSelectStatement);
+            RssItemQuery query = getRssItemQuery(dbConn);
+            if (query == null) {
+                return null;
             }
 
             StopWatch sw = new StopWatch();
             sw.start();
 
-            List<RssItem> items = dbConn.getCurrentRssItemView(0);
+            publishProgress(dbConn.getRssItemPage(query, null));
 
             sw.stop();
             Log.v(TAG, "Time needed (init loading): " + sw.toString());
 
-            return items;
+            dbConn.insertIntoRssCurrentViewTable(query);
+            return null;
         }
 
         @Override
-        protected void onPostExecute(List<RssItem> rssItem) {
-            loadRssItemsIntoView(rssItem);
+        protected void onProgressUpdate(RssItemPage... pages) {
+            RssItemPage page = pages[0];
+            loadRssItemsIntoView(page);
 
-            if (rssItem.size() < 10) { // Less than 10 items in the list (usually 3-5 items fit on one screen)
+            if (page.items.size() < 10) { // Less than 10 items in the list (usually 3-5 items fit on one screen)
                 // There is no API to check, if this listener has already been added. We don't want to
                 // add it multiple times, so we take the safe route here by removing it before adding it.
                 binding.list.removeOnItemTouchListener(itemTouchListener);
@@ -556,6 +615,12 @@ public class NewsReaderDetailFragment extends Fragment {
                 binding.list.removeOnItemTouchListener(itemTouchListener);
             }
         }
+
+        @Override
+        protected void onPostExecute(Void result) {
+            binding.pbLoading.setVisibility(View.GONE);
+            setCurrentRssViewUpdating(false);
+        }
     }
 
     private class RecyclerViewOnGestureListener extends GestureDetector.SimpleOnGestureListener {
@@ -815,9 +880,11 @@ public class NewsReaderDetailFragment extends Fragment {
          * Mark all articles in current view as read.
          */
         private void markAllAsReadForCurrentView() {
-            DatabaseConnectionOrm dbConn2 = new DatabaseConnectionOrm(this.fabMarkAllAsRead.getContext());
-            dbConn2.markAllItemsAsReadForCurrentView();
-            NewsReaderDetailFragment.this.refreshCurrentRssView();
+            runWhenCurrentRssViewReady(() -> {
+                DatabaseConnectionOrm dbConn2 = new DatabaseConnectionOrm(this.fabMarkAllAsRead.getContext());
+                List<Long> itemIds = dbConn2.markAllItemsAsReadForCurrentView();
+                NewsReaderDetailFragment.this.onItemsMarkedAsRead(itemIds);
+            });
         }
     }
 }
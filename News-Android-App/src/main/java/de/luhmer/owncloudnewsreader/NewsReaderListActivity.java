@@ -79,6 +79,7 @@ import org.greenrobot.eventbus.EventBus;
 import org.greenrobot.eventbus.Subscribe;
 import org.greenrobot.eventbus.ThreadMode;
 
+import java.io.InterruptedIOException;
 import java.lang.reflect.Field;
 import java.util.Arrays;
 import java.util.HashSet;
@@ -103,7 +104,8 @@ import de.luhmer.owncloudnewsreader.helper.DatabaseUtils;
 import de.luhmer.owncloudnewsreader.helper.ThemeChooser;
 import de.luhmer.owncloudnewsreader.helper.ThemeUtils;
 import de.luhmer.owncloudnewsreader.model.OcsUser;
-import de.luhmer.owncloudnewsreader.reader.nextcloud.RssItemObservable;
+import de.luhmer.owncloudnewsreader.reader.nextcloud.FeedRefresh;
+import de.luhmer.owncloudnewsreader.reader.nextcloud.SyncSession;
 import de.luhmer.owncloudnewsreader.services.DownloadImagesService;
 import de.luhmer.owncloudnewsreader.services.DownloadWebPageService;
 import de.luhmer.owncloudnewsreader.services.OwnCloudSyncService;
@@ -113,7 +115,9 @@ import de.luhmer.owncloudnewsreader.services.events.SyncStartedEvent;
 import de.luhmer.owncloudnewsreader.ssl.OkHttpSSLClient;
 import de.luhmer.owncloudnewsreader.view.PodcastSlidingUpPanelLayout;
 import io.reactivex.Completable;
+import io.reactivex.Single;
 import io.reactivex.android.schedulers.AndroidSchedulers;
+import io.reactivex.disposables.Disposable;
 import io.reactivex.functions.Action;
 import io.reactivex.functions.Consumer;
 import io.reactivex.schedulers.Schedulers;
@@ -158,13 +162,14 @@ public class NewsReaderListActivity extends PodcastFragmentActivity implements
 	private static final String SEARCH_KEY = "SEARCH_KEY";
 
 	private PublishSubject<String> searchPublishSubject;
+	private Disposable mRefreshDisposable;
 	private static final int REQUEST_CODE_PERMISSION_DOWNLOAD_WEB_ARCHIVE = 1;
 
 	private static final String ID_FEED_STRING = "ID_FEED_STRING";
 	private static final String IS_FOLDER_BOOLEAN = "IS_FOLDER_BOOLEAN";
 	private static final String OPTIONAL_FOLDER_ID = "OPTIONAL_FOLDER_ID";
-	private static final String LIST_ADAPTER_TOTAL_COUNT = "LIST_ADAPTER_TOTAL_COUNT";
-	private static final String LIST_ADAPTER_PAGE_COUNT = "LIST_ADAPTER_PAGE_COUNT";
+	private static final String LIST_ADAPTER_CURSOR = "LIST_ADAPTER_CURSOR";
+	private static final String LIST_ADAPTER_HAS_MORE = "LIST_ADAPTER_HAS_MORE";
 
 	@Inject
 	@Named("sharedPreferencesFileName")
@@ -297,8 +302,8 @@ public class NewsReaderListActivity extends PodcastFragmentActivity implements
 
 			NewsListRecyclerAdapter adapter = (NewsListRecyclerAdapter) ndf.getRecyclerView().getAdapter();
 			if (adapter != null) {
-				outState.putInt(LIST_ADAPTER_TOTAL_COUNT, adapter.getTotalItemCount());
-				outState.putInt(LIST_ADAPTER_PAGE_COUNT, adapter.getCachedPages());
+				outState.putString(LIST_ADAPTER_CURSOR, adapter.getCursor());
+				outState.putBoolean(LIST_ADAPTER_HAS_MORE, adapter.hasMore());
 			}
 		}
 		if (mSearchView != null) {
@@ -314,8 +319,8 @@ public class NewsReaderListActivity extends PodcastFragmentActivity implements
 
 			NewsListRecyclerAdapter adapter = new NewsListRecyclerAdapter(this, getNewsReaderDetailFragment().binding.list, this, mPostDelayHandler, mPrefs);
 
-			adapter.setTotalItemCount(savedInstanceState.getInt(LIST_ADAPTER_TOTAL_COUNT));
-			adapter.setCachedPages(savedInstanceState.getInt(LIST_ADAPTER_PAGE_COUNT));
+			adapter.restoreCursor(savedInstanceState.getString(LIST_ADAPTER_CURSOR),
+					savedInstanceState.getBoolean(LIST_ADAPTER_HAS_MORE));
 
 			getNewsReaderDetailFragment()
 					.getRecyclerView()
@@ -517,6 +522,15 @@ public class NewsReaderListActivity extends PodcastFragmentActivity implements
 		super.onResume();
 	}
 
+	@Override
+	protected void onDestroy() {
+		// Cancels a running refresh of a feed/folder, which would otherwise keep this activity
+		if(mRefreshDisposable != null) {
+			mRefreshDisposable.dispose();
+		}
+		super.onDestroy();
+	}
+
 	@Override
 	protected PodcastSlidingUpPanelLayout getPodcastSlidingUpPanelLayout() {
 		return binding.slidingLayout;
@@ -524,7 +538,55 @@ public class NewsReaderListActivity extends PodcastFragmentActivity implements
 
 	@Override
 	public void onRefresh() {
-		startSync();
+		NewsReaderDetailFragment ndf = getNewsReaderDetailFragment();
+		boolean canRefreshSingleFeed = ndf != null && mApi.getNewsAPI() != null && !OwnCloudSyncService.isSyncRunning();
+
+		if(canRefreshSingleFeed && ndf.getIdFeed() != null) {
+			refreshFeedOrFolder(ndf.getIdFeed(), null);
+		} else if(canRefreshSingleFeed && ndf.getIdFolder() != null && ndf.getIdFolder() >= 0) {
+			refreshFeedOrFolder(null, ndf.getIdFolder());
+		} else {
+			// Special folders (all unread, starred, ..) need a full sync
+			startSync();
+		}
+	}
+
+	/**
+	 * Downloads only the items of the selected feed (or folder) which changed since the last sync
+	 * and reloads the current view
+	 */
+	private void refreshFeedOrFolder(final Long feedId, final Long folderId) {
+		final SyncSession session = SyncSession.tryStart();
+		if(session == null) {
+			// A sync is running - it brings the items of this feed as well
+			updateButtonLayout();
+			return;
+		}
+
+		mRefreshDisposable = Single.fromCallable(() -> {
+			DatabaseConnectionOrm dbConn = new DatabaseConnectionOrm(NewsReaderListActivity.this);
+			if(feedId != null) {
+				return FeedRefresh.PerformFeedRefresh(mApi.getNewsAPI(), dbConn, mPrefs, session, feedId);
+			}
+			return FeedRefresh.PerformFolderRefresh(mApi.getNewsAPI(), dbConn, mPrefs, session, folderId);
+		})
+				.doOnDispose(session::cancel)
+				.doFinally(session::finish)
+				.subscribeOn(SyncSession.getScheduler())
+				.observeOn(AndroidSchedulers.mainThread())
+				.subscribe(itemCount -> {
+					updateCurrentRssView();
+					reloadCountNumbersOfSlidingPaneAdapter();
+					updateButtonLayout();
+				}, throwable -> {
+					updateButtonLayout();
+					if(throwable instanceof InterruptedIOException) {
+						// Cancelled by a full sync
+						return;
+					}
+					Throwable e = OkHttpSSLClient.HandleExceptions(throwable);
+					Toast.makeText(NewsReaderListActivity.this, getString(R.string.login_dialog_text_something_went_wrong) + " - " + e.getMessage(), Toast.LENGTH_SHORT).show();
+				});
 	}
 
 	private void showSnackbar(int newItemsCount) {
@@ -804,11 +866,13 @@ public class NewsReaderListActivity extends PodcastFragmentActivity implements
 		} else if (itemId == R.id.menu_markAllAsRead) {
 			NewsReaderDetailFragment ndf = getNewsReaderDetailFragment();
 			if (ndf != null) {
-				DatabaseConnectionOrm dbConn2 = new DatabaseConnectionOrm(this);
-				dbConn2.markAllItemsAsReadForCurrentView();
+				ndf.runWhenCurrentRssViewReady(() -> {
+					DatabaseConnectionOrm dbConn2 = new DatabaseConnectionOrm(this);
+					List<Long> itemIds = dbConn2.markAllItemsAsReadForCurrentView();
 
-				reloadCountNumbersOfSlidingPaneAdapter();
-				ndf.refreshCurrentRssView();
+					reloadCountNumbersOfSlidingPaneAdapter();
+					ndf.onItemsMarkedAsRead(itemIds);
+				});
 			}
 			return true;
 		} else if (itemId == R.id.menu_downloadMoreItems) {
@@ -894,7 +958,7 @@ public class NewsReaderListActivity extends PodcastFragmentActivity implements
 				int type = 0; // the type of the query (Feed: 0, Folder: 1, Starred: 2, All: 3)
 
 				List<RssItem> buffer = mApi.getNewsAPI().items(100, offset, type, feedId, true, false).execute().body();
-				RssItemObservable.performDatabaseBatchInsert(dbConn, buffer);
+				dbConn.insertNewItems(buffer);
 			}
 		})
 				.subscribeOn(Schedulers.newThread())
@@ -1048,11 +1112,14 @@ public class NewsReaderListActivity extends PodcastFragmentActivity implements
 
 			((NewsListRecyclerAdapter) getNewsReaderDetailFragment().getRecyclerView().getAdapter()).changeReadStateOfItem(vh, true);
 		} else {
-			Intent intentNewsDetailAct = new Intent(this, NewsDetailActivity.class);
-
-			intentNewsDetailAct.putExtra(NewsReaderListActivity.ITEM_ID, position);
-			intentNewsDetailAct.putExtra(NewsReaderListActivity.TITLE, getNewsReaderDetailFragment().getTitel());
-			startActivityForResult(intentNewsDetailAct, Activity.RESULT_CANCELED);
+			// The detail view shows the items of the current rss view
+			getNewsReaderDetailFragment().runWhenCurrentRssViewReady(() -> {
+				Intent intentNewsDetailAct = new Intent(this, NewsDetailActivity.class);
+
+				intentNewsDetailAct.putExtra(NewsReaderListActivity.ITEM_ID, position);
+				intentNewsDetailAct.putExtra(NewsReaderListActivity.TITLE, getNewsReaderDetailFragment().getTitel());
+				startActivityForResult(intentNewsDetailAct, Activity.RESULT_CANCELED);
+			});
 		}
 	}
 
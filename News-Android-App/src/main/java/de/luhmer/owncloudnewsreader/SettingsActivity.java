@@ -80,6 +80,7 @@ public class SettingsActivity extends AppCompatActivity {
 
     public static final String PREF_SERVER_SETTINGS = "pref_server_settings";
     public static final String PREF_SYNC_SETTINGS = "pref_sync_settings";
+    public static final String PREF_SYNC_DIAGNOSTICS = "pref_sync_diagnostics";
 
     public static final String SP_APP_THEME = "sp_app_theme";
     public static final String CB_OLED_MODE = "cb_oled_mode";
@@ -89,6 +90,9 @@ public class SettingsActivity extends AppCompatActivity {
 
     public static final String CACHE_CLEARED = "CACHE_CLEARED";
     public static final String SP_MAX_CACHE_SIZE = "sp_max_cache_size";
+    public static final String SP_RETENTION_MAX_SIZE = "sp_retention_max_size";
+    public static final String SP_RETENTION_MAX_ITEMS_PER_FEED = "sp_retention_max_items_per_feed";
+    public static final String SP_RETENTION_MAX_AGE = "sp_retention_max_age";
     public static final String SP_SORT_ORDER = "sp_sort_order";
     public static final String SP_DISPLAY_BROWSER = "sp_display_browser";
     public static final String SP_SEARCH_IN = "sp_search_in";
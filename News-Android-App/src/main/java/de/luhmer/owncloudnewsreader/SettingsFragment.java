@@ -33,6 +33,7 @@ import javax.inject.Inject;
 import javax.inject.Named;
 
 import de.luhmer.owncloudnewsreader.database.DatabaseConnectionOrm;
+import de.luhmer.owncloudnewsreader.di.ApiProvider;
 import de.luhmer.owncloudnewsreader.helper.ImageHandler;
 import de.luhmer.owncloudnewsreader.helper.NewsFileUtils;
 import de.luhmer.owncloudnewsreader.helper.PostDelayHandler;
@@ -56,12 +57,16 @@ import static de.luhmer.owncloudnewsreader.SettingsActivity.EDT_PASSWORD_STRING;
 import static de.luhmer.owncloudnewsreader.SettingsActivity.EDT_USERNAME_STRING;
 import static de.luhmer.owncloudnewsreader.SettingsActivity.LV_CACHE_IMAGES_OFFLINE_STRING;
 import static de.luhmer.owncloudnewsreader.SettingsActivity.PREF_SERVER_SETTINGS;
+import static de.luhmer.owncloudnewsreader.SettingsActivity.PREF_SYNC_DIAGNOSTICS;
 import static de.luhmer.owncloudnewsreader.SettingsActivity.PREF_SYNC_SETTINGS;
 import static de.luhmer.owncloudnewsreader.SettingsActivity.SP_APP_THEME;
 import static de.luhmer.owncloudnewsreader.SettingsActivity.SP_DISPLAY_BROWSER;
 import static de.luhmer.owncloudnewsreader.SettingsActivity.SP_FEED_LIST_LAYOUT;
 import static de.luhmer.owncloudnewsreader.SettingsActivity.SP_FONT_SIZE;
 import static de.luhmer.owncloudnewsreader.SettingsActivity.SP_MAX_CACHE_SIZE;
+import static de.luhmer.owncloudnewsreader.SettingsActivity.SP_RETENTION_MAX_AGE;
+import static de.luhmer.owncloudnewsreader.SettingsActivity.SP_RETENTION_MAX_ITEMS_PER_FEED;
+import static de.luhmer.owncloudnewsreader.SettingsActivity.SP_RETENTION_MAX_SIZE;
 import static de.luhmer.owncloudnewsreader.SettingsActivity.SP_SEARCH_IN;
 import static de.luhmer.owncloudnewsreader.SettingsActivity.SP_SORT_ORDER;
 import static de.luhmer.owncloudnewsreader.SettingsActivity.SP_SWIPE_LEFT_ACTION;
@@ -70,6 +75,7 @@ import static de.luhmer.owncloudnewsreader.SettingsActivity.SP_SWIPE_RIGHT_ACTIO
 public class SettingsFragment extends PreferenceFragmentCompat {
 
     protected @Inject SharedPreferences mPrefs;
+    protected @Inject ApiProvider mApi;
     protected @Inject @Named("sharedPreferencesFileName") String sharedPreferencesFileName;
     private static String version = "<loading>";
 
@@ -255,11 +261,15 @@ public class SettingsFragment extends PreferenceFragmentCompat {
         // intentSyncSettings.putExtra(Settings.EXTRA_AUTHORITIES, authorities);
         Intent intentSyncSettings = new Intent(getActivity(), SyncIntervalSelectorActivity.class);
         prefFrag.findPreference(PREF_SYNC_SETTINGS).setIntent(intentSyncSettings);
+        prefFrag.findPreference(PREF_SYNC_DIAGNOSTICS).setIntent(new Intent(getActivity(), SyncDiagnosticsActivity.class));
 
         //bindPreferenceSummaryToValue(prefFrag.findPreference(SP_MAX_ITEMS_SYNC));
         Preference clearCachePref = prefFrag.findPreference(EDT_CLEAR_CACHE);
         bindPreferenceSummaryToValue(prefFrag.findPreference(LV_CACHE_IMAGES_OFFLINE_STRING));
         bindPreferenceSummaryToValue(prefFrag.findPreference(SP_MAX_CACHE_SIZE));
+        bindPreferenceSummaryToValue(prefFrag.findPreference(SP_RETENTION_MAX_SIZE));
+        bindPreferenceSummaryToValue(prefFrag.findPreference(SP_RETENTION_MAX_ITEMS_PER_FEED));
+        bindPreferenceSummaryToValue(prefFrag.findPreference(SP_RETENTION_MAX_AGE));
 
 
         clearCachePref.setOnPreferenceClickListener(preference -> {
@@ -306,7 +316,7 @@ public class SettingsFragment extends PreferenceFragmentCompat {
         }
 
         if(resetDatabase) {
-            new ResetDatabaseAsyncTask(context).execute();
+            new ResetDatabaseAsyncTask(context, mApi).execute();
         } else {
             new AlertDialog.Builder(context)
                     .setTitle(context.getString(R.string.warning))
@@ -318,7 +328,7 @@ public class SettingsFragment extends PreferenceFragmentCompat {
                             PostDelayHandler pDelayHandler = new PostDelayHandler(context);
                             pDelayHandler.stopRunningPostDelayHandler();
 
-                            new ResetDatabaseAsyncTask(context).execute();
+                            new ResetDatabaseAsyncTask(context, mApi).execute();
                         }
                     })
                     .setNegativeButton(context.getString(android.R.string.no), null)
@@ -375,9 +385,11 @@ public class SettingsFragment extends PreferenceFragmentCompat {
 
         private ProgressDialog pd;
         private final Context context;
+        private final ApiProvider mApi;
 
-        public ResetDatabaseAsyncTask(Context context) {
+        public ResetDatabaseAsyncTask(Context context, ApiProvider api) {
             this.context = context;
+            this.mApi = api;
         }
 
         @Override
@@ -398,6 +410,7 @@ public class SettingsFragment extends PreferenceFragmentCompat {
 
             DatabaseConnectionOrm dbConn = new DatabaseConnectionOrm(context);
             dbConn.resetDatabase();
+            mApi.clearHttpCache();
             ImageHandler.clearCache();
             NewsFileUtils.clearWebArchiveCache(context);
             NewsFileUtils.clearPodcastCache(context);
@@ -0,0 +1,77 @@
+package de.luhmer.owncloudnewsreader;
+
+import android.os.Bundle;
+import android.text.format.DateFormat;
+import android.text.format.Formatter;
+import android.view.View;
+import android.widget.ArrayAdapter;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import de.luhmer.owncloudnewsreader.database.DatabaseConnectionOrm;
+import de.luhmer.owncloudnewsreader.database.model.SyncStats;
+import de.luhmer.owncloudnewsreader.databinding.ActivitySyncDiagnosticsBinding;
+import de.luhmer.owncloudnewsreader.helper.ThemeChooser;
+
+/**
+ * Shows the statistics of the last sync runs (time spent in each phase, downloaded bytes,
+ * written items and transactions)
+ */
+public class SyncDiagnosticsActivity extends AppCompatActivity {
+
+    protected ActivitySyncDiagnosticsBinding binding;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        ThemeChooser.chooseTheme(this);
+        super.onCreate(savedInstanceState);
+        ThemeChooser.afterOnCreate(this);
+
+        binding = ActivitySyncDiagnosticsBinding.inflate(getLayoutInflater());
+        setContentView(binding.getRoot());
+
+        setSupportActionBar(binding.toolbarLayout.toolbar);
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+
+        List<SyncStats> syncStatsList = new DatabaseConnectionOrm(this).getLastSyncStats();
+        List<String> entries = new ArrayList<>(syncStatsList.size());
+        for (SyncStats syncStats : syncStatsList) {
+            entries.add(format(syncStats));
+        }
+
+        binding.lvSyncStats.setAdapter(new ArrayAdapter<>(this, android.R.layout.simple_list_item_1, android.R.id.text1, entries));
+        binding.tvSyncStatsEmpty.setVisibility(entries.isEmpty() ? View.VISIBLE : View.GONE);
+    }
+
+    private String format(SyncStats syncStats) {
+        String startedAt = DateFormat.getDateFormat(this).format(syncStats.getStartedAt()) + " " +
+                DateFormat.getTimeFormat(this).format(syncStats.getStartedAt());
+        String result = syncStats.getSuccessful()
+                ? getString(R.string.sync_diagnostics_successful)
+                : getString(R.string.sync_diagnostics_failed, syncStats.getError());
+
+        return getString(R.string.sync_diagnostics_entry,
+                startedAt,
+                result,
+                syncStats.getTotalMillis(),
+                syncStats.getStateSyncMillis(),
+                syncStats.getFoldersMillis(),
+                syncStats.getFeedsMillis(),
+                syncStats.getFaviconMillis(),
+                syncStats.getItemPages(),
+                syncStats.getItemPagesMillis(),
+                Formatter.formatShortFileSize(this, syncStats.getBytesDownloaded()),
+                syncStats.getItemsInserted(),
+                syncStats.getItemsReplaced(),
+                syncStats.getItemsStateUpdated(),
+                syncStats.getTransactions(),
+                syncStats.getTransactionMillis());
+    }
+}
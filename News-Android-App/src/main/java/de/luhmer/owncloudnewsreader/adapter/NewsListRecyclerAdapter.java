@@ -17,12 +17,17 @@ import org.greenrobot.eventbus.EventBus;
 import org.greenrobot.eventbus.Subscribe;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import de.luhmer.owncloudnewsreader.NewsReaderListActivity;
 import de.luhmer.owncloudnewsreader.R;
 import de.luhmer.owncloudnewsreader.SettingsActivity;
 import de.luhmer.owncloudnewsreader.database.DatabaseConnectionOrm;
+import de.luhmer.owncloudnewsreader.database.DatabaseConnectionOrm.RssItemPage;
+import de.luhmer.owncloudnewsreader.database.DatabaseConnectionOrm.RssItemQuery;
 import de.luhmer.owncloudnewsreader.database.model.RssItem;
 import de.luhmer.owncloudnewsreader.databinding.SubscriptionDetailListItemCardViewBinding;
 import de.luhmer.owncloudnewsreader.databinding.SubscriptionDetailListItemHeadlineBinding;
@@ -35,7 +40,6 @@ import de.luhmer.owncloudnewsreader.helper.AsyncTaskHelper;
 import de.luhmer.owncloudnewsreader.helper.PostDelayHandler;
 import de.luhmer.owncloudnewsreader.helper.StopWatch;
 import de.luhmer.owncloudnewsreader.interfaces.IPlayPausePodcastClicked;
-import de.luhmer.owncloudnewsreader.model.CurrentRssViewDataHolder;
 
 public class NewsListRecyclerAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
     private static final String TAG = "NewsListRecyclerAdapter";
@@ -51,8 +55,12 @@ public class NewsListRecyclerAdapter extends RecyclerView.Adapter<RecyclerView.V
     private final PostDelayHandler pDelayHandler;
     private final FragmentActivity activity;
 
-    private int totalItemCount = 0;
-    private int cachedPages = 1;
+    // Query of the list and position of the last loaded item (see RssItemCursor)
+    private RssItemQuery query;
+    private String cursor;
+    private boolean hasMore = false;
+    // Items with the same fingerprint (e.g. an article in several feeds) are only shown once
+    private Set<String> fingerprints = new HashSet<>();
 
     private final IPlayPausePodcastClicked playPausePodcastClicked;
 
@@ -92,7 +100,7 @@ public class NewsListRecyclerAdapter extends RecyclerView.Adapter<RecyclerView.V
                                     .findLastVisibleItemPosition();
                             if (!loading &&
                                     adapterTotalItemCount <= (lastVisibleItem + visibleThreshold) &&
-                                    adapterTotalItemCount < totalItemCount) {
+                                    hasMore) {
                                 loading = true;
 
                                 Log.v(TAG, "start load more task...");
@@ -111,20 +119,29 @@ public class NewsListRecyclerAdapter extends RecyclerView.Adapter<RecyclerView.V
         }
     }
 
-    public int getTotalItemCount() {
-        return totalItemCount;
+    public RssItemQuery getQuery() {
+        return query;
     }
 
-    public int getCachedPages() {
-        return cachedPages;
+    public void setQuery(RssItemQuery query) {
+        this.query = query;
     }
 
-    public void setTotalItemCount(int totalItemCount) {
-        this.totalItemCount = totalItemCount;
+    public String getCursor() {
+        return cursor;
     }
 
-    public void setCachedPages(int cachedPages) {
-        this.cachedPages = cachedPages;
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    /**
+     * Restores the position of the list after the activity was recreated. The items up to the
+     * cursor are loaded again by {@link #refreshAdapterDataAsync(IOnRefreshFinished)}.
+     */
+    public void restoreCursor(String cursor, boolean hasMore) {
+        this.cursor = cursor;
+        this.hasMore = hasMore;
     }
 
     /*
@@ -275,6 +292,27 @@ public class NewsListRecyclerAdapter extends RecyclerView.Adapter<RecyclerView.V
         }
     }
 
+    /**
+     * Applies a "mark all as read" which was already written to the database to the loaded items,
+     * so the list doesn't have to be reloaded.
+     *
+     * @param itemIds ids of the items which were marked as read
+     */
+    public void setItemsRead(Collection<Long> itemIds) {
+        if (lazyList == null || itemIds.isEmpty()) {
+            return;
+        }
+
+        Set<Long> readItemIds = new HashSet<>(itemIds);
+        for (int i = 0; i < lazyList.size(); i++) {
+            RssItem rssItem = lazyList.get(i);
+            if (rssItem != null && readItemIds.contains(rssItem.getId())) {
+                rssItem.setRead_temp(true);
+                notifyItemChanged(i);
+            }
+        }
+    }
+
     public void toggleReadStateOfItem(RssItemViewHolder viewHolder) {
         RssItem rssItem = viewHolder.getRssItem();
         boolean isRead = !rssItem.getRead_temp();
@@ -318,30 +356,47 @@ public class NewsListRecyclerAdapter extends RecyclerView.Adapter<RecyclerView.V
 
 
 
-    private List<RssItem> refreshAdapterData() {
-        List<RssItem> rssItems = new ArrayList<>();
+    /**
+     * Loads the list again from its start up to the last loaded item, so items which were added
+     * or changed in the meantime are shown. Only the first page is loaded if there is no cursor
+     * (yet).
+     */
+    private RssItemPage refreshAdapterData(RssItemQuery query, String cursor, boolean hasMore) {
+        if (query == null) {
+            return null;
+        }
         DatabaseConnectionOrm dbConn = new DatabaseConnectionOrm(activity);
-        for(int i = 0; i < cachedPages; i++) {
-            rssItems.addAll(dbConn.getCurrentRssItemView(i));
+        if (cursor != null) {
+            try {
+                return dbConn.getRssItemsUpTo(query, cursor, hasMore);
+            } catch (IllegalArgumentException e) {
+                // The sort direction was changed in the meantime
+                Log.w(TAG, "Can't restore list: " + e.getMessage());
+            }
         }
-        return rssItems;
+        return dbConn.getRssItemPage(query, null);
     }
 
+    private static List<RssItem> removeDuplicates(List<RssItem> rssItems, Set<String> fingerprints) {
+        List<RssItem> uniqueItems = new ArrayList<>(rssItems.size());
+        for (RssItem rssItem : rssItems) {
+            if (fingerprints.add(rssItem.getFingerprint())) {
+                uniqueItems.add(rssItem);
+            }
+        }
+        return uniqueItems;
+    }
 
 
-    public void updateAdapterData(List<RssItem> rssItems) {
+    public void updateAdapterData(RssItemPage page) {
         NewsReaderListActivity.stayUnreadItems.clear();
 
-        cachedPages = 1;
-
-        //if (this.lazyList != null) {
-            //this.lazyList.close();
-        //}
-        //new ReloadAdapterAsyncTask().execute();
-
-        totalItemCount = ((Long) dbConn.getCurrentRssItemViewCount()).intValue();
+        query = page.query;
+        cursor = page.cursor;
+        hasMore = page.hasMore;
+        fingerprints = new HashSet<>();
 
-        lazyList = rssItems;
+        lazyList = removeDuplicates(page.items, fingerprints);
         notifyDataSetChanged();
 
         loading = false;
@@ -355,9 +410,14 @@ public class NewsListRecyclerAdapter extends RecyclerView.Adapter<RecyclerView.V
         AsyncTaskHelper.StartAsyncTask(new RefreshDataAsyncTask(listener));
     }
 
-    private class RefreshDataAsyncTask extends AsyncTask<Void, Void, List<RssItem>> {
+    private class RefreshDataAsyncTask extends AsyncTask<Void, Void, RssItemPage> {
 
         private final IOnRefreshFinished listener;
+        private final RssItemQuery currentQuery = query;
+        private final String currentCursor = cursor;
+        private final boolean currentHasMore = hasMore;
+        private final Set<String> refreshedFingerprints = new HashSet<>();
+        private List<RssItem> refreshedItems;
 
         public RefreshDataAsyncTask(IOnRefreshFinished listener) {
             this.listener = listener;
@@ -371,84 +431,76 @@ public class NewsListRecyclerAdapter extends RecyclerView.Adapter<RecyclerView.V
         }
 
         @Override
-        protected List<RssItem> doInBackground(Void... params) {
+        protected RssItemPage doInBackground(Void... params) {
             StopWatch sw = new StopWatch();
             sw.start();
 
-            List<RssItem> rssItems = refreshAdapterData();
+            RssItemPage page = refreshAdapterData(currentQuery, currentCursor, currentHasMore);
+            if (page != null) {
+                refreshedItems = removeDuplicates(page.items, refreshedFingerprints);
+            }
 
             sw.stop();
             Log.v(TAG, "Time needed (refreshing adapter): " + sw.toString());
 
-            return rssItems;
+            return page;
         }
 
         @Override
-        protected void onPostExecute(List<RssItem> rssItems) {
-            lazyList = rssItems;
-            notifyDataSetChanged();
+        protected void onPostExecute(RssItemPage page) {
+            if (page != null && page.query == query) {
+                lazyList = refreshedItems;
+                cursor = page.cursor;
+                hasMore = page.hasMore;
+                fingerprints = refreshedFingerprints;
+                notifyDataSetChanged();
+            }
 
             loading = false;
 
             listener.OnRefreshFinished();
 
-            super.onPostExecute(rssItems);
+            super.onPostExecute(page);
         }
     }
 
 
-    private class LoadMoreItemsAsyncTask extends AsyncTask<Void, Void, List<RssItem>> {
+    private class LoadMoreItemsAsyncTask extends AsyncTask<Void, Void, RssItemPage> {
+        private final RssItemQuery currentQuery = query;
+        private final String currentCursor = cursor;
+
         @Override
-        protected List<RssItem> doInBackground(Void... params) {
+        protected RssItemPage doInBackground(Void... params) {
             StopWatch sw = new StopWatch();
             sw.start();
 
             DatabaseConnectionOrm dbConn = new DatabaseConnectionOrm(activity);
-            List<RssItem> items = dbConn.getCurrentRssItemView(cachedPages++);
+            RssItemPage page = dbConn.getRssItemPage(currentQuery, currentCursor);
 
             sw.stop();
             Log.v(TAG, "Time needed (loading more): " + sw.toString());
-            return items;
+            return page;
         }
 
         @Override
-        protected void onPostExecute(List<RssItem> rssItems) {
-            int prevSize = lazyList.size();
-            lazyList.remove(prevSize - 1);
-            lazyList.addAll(rssItems);
-
-            notifyItemRangeInserted(prevSize, rssItems.size());
+        protected void onPostExecute(RssItemPage page) {
+            // Skip the page if another list was loaded in the meantime
+            if (page.query == query) {
+                int progressPosition = lazyList.size() - 1;
+                lazyList.remove(progressPosition);
+                notifyItemRemoved(progressPosition);
+
+                List<RssItem> rssItems = removeDuplicates(page.items, fingerprints);
+                lazyList.addAll(rssItems);
+                cursor = page.cursor;
+                hasMore = page.hasMore;
+
+                notifyItemRangeInserted(progressPosition, rssItems.size());
+            }
 
             loading = false;
 
-            super.onPostExecute(rssItems);
-        }
-    }
-
-    private class ReloadAdapterAsyncTask extends AsyncTask<Void, Void, CurrentRssViewDataHolder> {
-
-        @Override
-        protected CurrentRssViewDataHolder doInBackground(Void... params) {
-            StopWatch sw = new StopWatch();
-            sw.start();
-
-            List<RssItem> list = dbConn.getCurrentRssItemView(0);
-
-            CurrentRssViewDataHolder holder = new CurrentRssViewDataHolder();
-            holder.maxCount = dbConn.getCurrentRssItemViewCount();
-            holder.rssItems = list;
-
-            sw.stop();
-            Log.v(TAG, "Reloaded CurrentRssView - time taken: " + sw.toString());
-            return holder;
-        }
-
-        @Override
-        protected void onPostExecute(CurrentRssViewDataHolder holder) {
-            lazyList = holder.rssItems;
-            totalItemCount = holder.maxCount.intValue();
-            cachedPages = 1;
-            notifyDataSetChanged();
+            super.onPostExecute(page);
         }
     }
-}
\ No newline at end of file
+}
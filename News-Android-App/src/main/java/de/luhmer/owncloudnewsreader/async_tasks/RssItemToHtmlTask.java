@@ -126,7 +126,7 @@ public class RssItemToHtmlTask extends AsyncTask<Void, Void, String> {
         }
 
         String description = rssItem.getBody();
-        if(description.isEmpty() && rssItem.getMediaDescription() != null) {
+        if((description == null || description.isEmpty()) && rssItem.getMediaDescription() != null) {
             // in case the rss body is empty, fallback to the media description (e.g. youtube / ted talks)
             description = rssItem.getMediaDescription();
         }
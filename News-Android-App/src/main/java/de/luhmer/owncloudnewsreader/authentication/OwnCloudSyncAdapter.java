@@ -16,42 +16,53 @@ import android.widget.Toast;
 import org.greenrobot.eventbus.EventBus;
 import org.reactivestreams.Publisher;
 import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
 
+import java.io.InterruptedIOException;
+import java.util.Date;
 import java.util.List;
 
 import javax.inject.Inject;
 
+import de.luhmer.owncloudnewsreader.BuildConfig;
 import de.luhmer.owncloudnewsreader.ListView.SubscriptionExpandableListAdapter;
 import de.luhmer.owncloudnewsreader.NewsReaderApplication;
 import de.luhmer.owncloudnewsreader.R;
 import de.luhmer.owncloudnewsreader.SettingsActivity;
 import de.luhmer.owncloudnewsreader.database.DatabaseConnectionOrm;
+import de.luhmer.owncloudnewsreader.database.RetentionPolicy;
 import de.luhmer.owncloudnewsreader.database.model.Feed;
 import de.luhmer.owncloudnewsreader.database.model.Folder;
+import de.luhmer.owncloudnewsreader.database.model.SyncStats;
 import de.luhmer.owncloudnewsreader.di.ApiProvider;
 import de.luhmer.owncloudnewsreader.helper.ForegroundListener;
+import de.luhmer.owncloudnewsreader.helper.NewsFileUtils;
 import de.luhmer.owncloudnewsreader.helper.StopWatch;
 import de.luhmer.owncloudnewsreader.notification.NextcloudNotificationManager;
 import de.luhmer.owncloudnewsreader.reader.InsertIntoDatabase;
 import de.luhmer.owncloudnewsreader.reader.nextcloud.ItemStateSync;
 import de.luhmer.owncloudnewsreader.reader.nextcloud.RssItemObservable;
+import de.luhmer.owncloudnewsreader.reader.nextcloud.SyncMetrics;
+import de.luhmer.owncloudnewsreader.reader.nextcloud.SyncSession;
 import de.luhmer.owncloudnewsreader.services.DownloadImagesService;
 import de.luhmer.owncloudnewsreader.services.events.SyncFailedEvent;
 import de.luhmer.owncloudnewsreader.services.events.SyncFinishedEvent;
 import de.luhmer.owncloudnewsreader.services.events.SyncStartedEvent;
+import de.luhmer.owncloudnewsreader.ssl.HttpCacheTracker;
 import de.luhmer.owncloudnewsreader.ssl.OkHttpSSLClient;
 import de.luhmer.owncloudnewsreader.widget.WidgetProvider;
+import io.reactivex.FlowableSubscriber;
 import io.reactivex.Observable;
-import io.reactivex.Observer;
 import io.reactivex.annotations.NonNull;
-import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
 import io.reactivex.functions.Function3;
-import io.reactivex.schedulers.Schedulers;
 
 public class OwnCloudSyncAdapter extends AbstractThreadedSyncAdapter {
 
     private static final String TAG = OwnCloudSyncAdapter.class.getCanonicalName();
     public boolean syncRunning = false;
+    private Throwable mSyncError;
+    private SyncSession mSession;
 
     protected @Inject SharedPreferences mPrefs;
     protected @Inject ApiProvider mApi;
@@ -70,13 +81,29 @@ public class OwnCloudSyncAdapter extends AbstractThreadedSyncAdapter {
         Log.d("udinic", "onPerformSync for account[" + account.name + "] [" + Thread.currentThread().getName() + "]\"");
         StopWatch syncStopWatch = new StopWatch();
         syncStopWatch.start();
+        Date syncStartedAt = new Date();
 
         // Send sync started event
         syncRunning = true;
+        mSyncError = null;
+        SyncSession session = SyncSession.start(); // Cancels a sync which might still be running
+        mSession = session;
         EventBus.getDefault().post(new SyncStartedEvent());
 
         // run actual sync
-        sync();
+        SyncMetrics syncMetrics = new SyncMetrics();
+        sync(syncMetrics);
+
+        // Delete old items (only after a successful sync, their state changes are uploaded then).
+        // The purge is part of the session, so a new sync waits for it or cancels it.
+        if(mSyncError == null) {
+            purgeRssItems(syncMetrics, session);
+        }
+
+        session.finish();
+
+        // Keep the statistics for the diagnostics screen (before the favicon download updates them)
+        saveSyncStats(syncMetrics.toSyncStats(syncStartedAt, System.currentTimeMillis() - syncStartedAt.getTime(), mSyncError));
 
         // Update Widget / Notification
         WidgetProvider.UpdateWidget(getContext());
@@ -92,10 +119,21 @@ public class OwnCloudSyncAdapter extends AbstractThreadedSyncAdapter {
 
         syncStopWatch.stop();
         Log.v(TAG, "Finished sync - time needed (synchronization): " + syncStopWatch.toString());
+        Log.v(TAG, "Finished sync - " + syncMetrics);
+        if(BuildConfig.DEBUG) {
+            Log.v(TAG, "Finished sync - " + new DatabaseConnectionOrm(getContext()).getQueryMetrics());
+        }
     }
 
 
 
+    @Override
+    public void onSyncCanceled() {
+        Log.d(TAG, "onSyncCanceled() called");
+        SyncSession.cancelCurrent();
+        super.onSyncCanceled();
+    }
+
     private static class NextcloudSyncResult {
         private final List<Folder> folders;
         private final List<Feed>   feeds;
@@ -110,7 +148,7 @@ public class OwnCloudSyncAdapter extends AbstractThreadedSyncAdapter {
 
 
     // Start sync
-    private void sync() {
+    private void sync(SyncMetrics syncMetrics) {
         if(mApi.getNewsAPI() == null) {
             throwException(new IllegalStateException("API is NOT initialized"));
             Log.e(TAG, "API is NOT initialized..");
@@ -120,29 +158,30 @@ public class OwnCloudSyncAdapter extends AbstractThreadedSyncAdapter {
         }
 
         final DatabaseConnectionOrm dbConn = new DatabaseConnectionOrm(getContext());
+        final SyncSession session = mSession;
 
         Observable<Boolean> rssStateSync = Observable.fromPublisher(
                 (Publisher<Boolean>) s -> {
                     Log.v(TAG, "(rssStateSync) subscribe() called with: s = [" + s + "] [" + Thread.currentThread().getName() + "]");
                     try {
-                        boolean success = ItemStateSync.PerformItemStateSync(mApi.getNewsAPI(), dbConn);
+                        long start = System.nanoTime();
+                        boolean success = ItemStateSync.PerformItemStateSync(mApi.getNewsAPI(), dbConn, session);
+                        syncMetrics.getStage(SyncMetrics.STAGE_STATE_SYNC).record(0, System.nanoTime() - start);
                         s.onNext(success);
                         s.onComplete();
                     } catch(Exception ex) {
                         s.onError(ex);
                     }
-                }).subscribeOn(Schedulers.newThread());
+                }).subscribeOn(SyncSession.getScheduler());
 
         // First sync Feeds and Folders and rss item states (in parallel)
-        Observable<List<Folder>> folderObservable = mApi
-                .getNewsAPI()
-                .folders()
-                .subscribeOn(Schedulers.newThread());
+        Observable<List<Folder>> folderObservable = Observable
+                .defer(() -> timed(mApi.getNewsAPI().folders(), syncMetrics.getStage(SyncMetrics.STAGE_FOLDERS)))
+                .subscribeOn(SyncSession.getScheduler());
 
-        Observable<List<Feed>> feedsObservable = mApi
-                .getNewsAPI()
-                .feeds()
-                .subscribeOn(Schedulers.newThread());
+        Observable<List<Feed>> feedsObservable = Observable
+                .defer(() -> timed(mApi.getNewsAPI().feeds(), syncMetrics.getStage(SyncMetrics.STAGE_FEEDS)))
+                .subscribeOn(SyncSession.getScheduler());
 
         // Wait for results
         Observable<NextcloudSyncResult> combined = Observable.zip(folderObservable, feedsObservable, rssStateSync, (folders, feeds, mRes) -> {
@@ -154,31 +193,69 @@ public class OwnCloudSyncAdapter extends AbstractThreadedSyncAdapter {
 
 
         try {
-            NextcloudSyncResult syncResult = combined.blockingFirst();
+            // If the sync gets cancelled, the requests which are still running are aborted
+            NextcloudSyncResult syncResult = session.await(combined);
 
-            InsertIntoDatabase.InsertFoldersIntoDatabase(syncResult.folders, dbConn);
-            InsertIntoDatabase.InsertFeedsIntoDatabase(syncResult.feeds, dbConn);
+            // Skip the reconciliation if the server reported that nothing changed (304) - unless
+            // the table is empty (e.g. the database was dropped while the response was cached)
+            if(!wasNotModified(HttpCacheTracker.ENDPOINT_FOLDERS, syncMetrics) || dbConn.getListOfFolders().isEmpty()) {
+                InsertIntoDatabase.InsertFoldersIntoDatabase(syncResult.folders, dbConn);
+            }
+            if(!wasNotModified(HttpCacheTracker.ENDPOINT_FEEDS, syncMetrics) || dbConn.getListOfFeeds().isEmpty()) {
+                InsertIntoDatabase.InsertFeedsIntoDatabase(syncResult.feeds, dbConn);
+            }
             Log.v(TAG, "State sync successful: " + syncResult.stateSyncSuccessful);
 
             // Start the sync (Rss Items)
-            syncRssItems(dbConn);
+            session.throwIfCancelled();
+            syncRssItems(dbConn, syncMetrics, session);
         } catch(Exception ex) {
             //Log.e(TAG, "throwException: ", ex);
             throwException(ex);
         }
     }
 
-    private void syncRssItems(final DatabaseConnectionOrm dbConn) {
+    /**
+     * Records the time from the subscription until the list was received in the given stage
+     */
+    private static <T> Observable<List<T>> timed(Observable<List<T>> request, SyncMetrics.Stage stage) {
+        final long start = System.nanoTime();
+        return request.doOnNext(list -> stage.record(list.size(), System.nanoTime() - start));
+    }
+
+    /**
+     * @return true if the last response of the endpoint was revalidated from the http cache
+     */
+    private boolean wasNotModified(String endpoint, SyncMetrics syncMetrics) {
+        HttpCacheTracker cacheTracker = mApi.getHttpCacheTracker();
+        if(cacheTracker == null) {
+            return false;
+        }
+
+        boolean notModified = cacheTracker.wasNotModified(endpoint);
+        syncMetrics.increment(notModified ? SyncMetrics.COUNTER_HTTP_CACHE_HITS : SyncMetrics.COUNTER_HTTP_CACHE_MISSES, 1);
+        Log.v(TAG, endpoint + " modified: " + !notModified);
+        return notModified;
+    }
+
+    private void syncRssItems(final DatabaseConnectionOrm dbConn, SyncMetrics syncMetrics, final SyncSession session) {
         Log.v(TAG, "syncRssItems() called with: dbConn = [" + dbConn + "] [" + Thread.currentThread().getName() + "]");
 
         // .observeOn(AndroidSchedulers.mainThread())
 
-        Observable.fromPublisher(new RssItemObservable(dbConn, mApi.getNewsAPI(), mPrefs))
-                .subscribeOn(Schedulers.newThread())
-                .blockingSubscribe(new Observer<Integer>() {
+        new RssItemObservable(dbConn, mApi.getNewsAPI(), mPrefs, syncMetrics, session)
+                .toFlowable()
+                .subscribeOn(SyncSession.getScheduler())
+                .blockingSubscribe(new FlowableSubscriber<Integer>() {
+                    private Subscription subscription;
+
                     @Override
-                    public void onSubscribe(@NonNull Disposable d) {
+                    public void onSubscribe(@NonNull Subscription s) {
                         Log.d(TAG, "[syncRssItems] - onSubscribe() called");
+                        subscription = s;
+                        // Cancelling stops waiting and interrupts the worker thread
+                        session.add(Disposables.fromSubscription(s));
+                        s.request(1);
                     }
 
                     @Override
@@ -190,6 +267,7 @@ public class OwnCloudSyncAdapter extends AbstractThreadedSyncAdapter {
                                 getContext(),
                                 getContext().getResources().getQuantityString(R.plurals.fetched_items_so_far, totalCount, totalCount),
                                 Toast.LENGTH_SHORT).show());
+                        subscription.request(1);
                     }
 
                     @Override
@@ -203,12 +281,23 @@ public class OwnCloudSyncAdapter extends AbstractThreadedSyncAdapter {
                         Log.v(TAG, "[syncRssItems] - onComplete() called");
                     }
                 });
+
+        // blockingSubscribe returns silently if the subscription was disposed
+        if(session.isCancelled() && mSyncError == null) {
+            throwException(new InterruptedIOException("Sync was cancelled"));
+        }
     }
 
 
     private void throwException(Throwable ex) {
         Log.e(TAG, "throwException() called [" + Thread.currentThread().getName() + "]", ex);
         syncRunning = false;
+        mSyncError = ex;
+
+        // Tear down the remaining requests of the failed sync
+        if(mSession != null) {
+            mSession.cancel();
+        }
         if(ex instanceof Exception) {
             EventBus.getDefault().post(SyncFailedEvent.create(OkHttpSSLClient.HandleExceptions((Exception) ex)));
         } else {
@@ -216,6 +305,26 @@ public class OwnCloudSyncAdapter extends AbstractThreadedSyncAdapter {
         }
     }
 
+    private void purgeRssItems(SyncMetrics syncMetrics, SyncSession session) {
+        try {
+            DatabaseConnectionOrm dbConn = new DatabaseConnectionOrm(getContext());
+            DatabaseConnectionOrm.PurgeResult purgeResult = dbConn.purgeRssItems(RetentionPolicy.fromPreferences(mPrefs), session);
+            int deletedFiles = NewsFileUtils.deleteFilesOfPurgedItems(getContext(), dbConn, purgeResult);
+            syncMetrics.increment(SyncMetrics.COUNTER_ITEMS_PURGED, purgeResult.deletedItems);
+            syncMetrics.increment(SyncMetrics.COUNTER_FILES_PURGED, deletedFiles);
+        } catch (Exception ex) {
+            Log.e(TAG, "Failed to apply the retention policy", ex);
+        }
+    }
+
+    private void saveSyncStats(SyncStats syncStats) {
+        try {
+            new DatabaseConnectionOrm(getContext()).insertSyncStats(syncStats);
+        } catch (Exception ex) {
+            Log.e(TAG, "Failed to save sync statistics", ex);
+        }
+    }
+
     private void updateNotification() {
         DatabaseConnectionOrm dbConn = new DatabaseConnectionOrm(getContext());
         int newItemsCount = Integer.parseInt(dbConn.getUnreadItemsCountForSpecificFolder(SubscriptionExpandableListAdapter.SPECIAL_FOLDERS.ALL_UNREAD_ITEMS));
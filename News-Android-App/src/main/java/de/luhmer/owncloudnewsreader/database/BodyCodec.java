@@ -0,0 +1,100 @@
+package de.luhmer.owncloudnewsreader.database;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Encoding of the article bodies stored in the database (column bodyCodec of RssItemContent).
+ * Bodies are compressed with {@link Deflater} - they are mostly html and shrink to a fraction of
+ * their size. Short bodies are stored as they are.
+ */
+public class BodyCodec {
+
+    public static final int PLAIN = 0; // utf-8
+    public static final int DEFLATE = 1; // utf-8, compressed with Deflater (zlib format)
+
+    // Compressing short bodies saves only a few bytes and costs a native Deflater each
+    private static final int MIN_DEFLATE_LENGTH = 512;
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    /**
+     * @return the codec which should be used to store the body
+     */
+    public static int getCodec(String body) {
+        return body == null || body.length() < MIN_DEFLATE_LENGTH ? PLAIN : DEFLATE;
+    }
+
+    public static byte[] encode(String body, int codec) {
+        if (body == null) {
+            return null;
+        }
+
+        byte[] plain = body.getBytes(StandardCharsets.UTF_8);
+        switch (codec) {
+            case PLAIN:
+                return plain;
+            case DEFLATE:
+                return deflate(plain);
+            default:
+                throw new IllegalArgumentException("Unknown body codec: " + codec);
+        }
+    }
+
+    public static String decode(byte[] data, int codec) {
+        if (data == null) {
+            return null;
+        }
+
+        switch (codec) {
+            case PLAIN:
+                return new String(data, StandardCharsets.UTF_8);
+            case DEFLATE:
+                return new String(inflate(data), StandardCharsets.UTF_8);
+            default:
+                throw new IllegalArgumentException("Unknown body codec: " + codec);
+        }
+    }
+
+    private static byte[] deflate(byte[] plain) {
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(plain);
+            deflater.finish();
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(plain.length / 4);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end(); // frees the native memory right away
+        }
+    }
+
+    private static byte[] inflate(byte[] compressed) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(compressed.length * 4);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && !inflater.finished() && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated data");
+                }
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Stored body is corrupt", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
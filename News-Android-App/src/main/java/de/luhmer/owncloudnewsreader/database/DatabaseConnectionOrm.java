@@ -2,37 +2,58 @@ package de.luhmer.owncloudnewsreader.database;
 
 import android.content.Context;
 import android.database.Cursor;
+import android.database.sqlite.SQLiteStatement;
 import android.os.AsyncTask;
+import android.text.TextUtils;
 import android.util.Log;
 import android.util.SparseArray;
 
+import androidx.annotation.VisibleForTesting;
+
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 
+import de.greenrobot.dao.Property;
 import de.greenrobot.dao.query.LazyList;
 import de.greenrobot.dao.query.QueryBuilder;
 import de.greenrobot.dao.query.WhereCondition;
-import de.luhmer.owncloudnewsreader.Constants;
 import de.luhmer.owncloudnewsreader.NewsReaderApplication;
 import de.luhmer.owncloudnewsreader.database.model.CurrentRssItemViewDao;
 import de.luhmer.owncloudnewsreader.database.model.DaoSession;
 import de.luhmer.owncloudnewsreader.database.model.Feed;
 import de.luhmer.owncloudnewsreader.database.model.FeedDao;
+import de.luhmer.owncloudnewsreader.database.model.FeedItemCountDao;
 import de.luhmer.owncloudnewsreader.database.model.Folder;
 import de.luhmer.owncloudnewsreader.database.model.FolderDao;
 import de.luhmer.owncloudnewsreader.database.model.RssItem;
+import de.luhmer.owncloudnewsreader.database.model.RssItemContent;
+import de.luhmer.owncloudnewsreader.database.model.RssItemContentDao;
 import de.luhmer.owncloudnewsreader.database.model.RssItemDao;
+import de.luhmer.owncloudnewsreader.database.model.SearchResultDao;
+import de.luhmer.owncloudnewsreader.database.model.SyncCheckpoint;
+import de.luhmer.owncloudnewsreader.database.model.SyncStats;
+import de.luhmer.owncloudnewsreader.database.model.SyncStatsDao;
 import de.luhmer.owncloudnewsreader.helper.AsyncTaskHelper;
+import de.luhmer.owncloudnewsreader.helper.ImageHandler;
 import de.luhmer.owncloudnewsreader.helper.StopWatch;
 import de.luhmer.owncloudnewsreader.model.PodcastFeedItem;
 import de.luhmer.owncloudnewsreader.model.PodcastItem;
+import de.luhmer.owncloudnewsreader.reader.nextcloud.SyncSession;
 import de.luhmer.owncloudnewsreader.services.PodcastDownloadService;
 
 import static de.luhmer.owncloudnewsreader.ListView.SubscriptionExpandableListAdapter.SPECIAL_FOLDERS;
@@ -62,16 +83,28 @@ public class DatabaseConnectionOrm {
     public enum SORT_DIRECTION { asc, desc }
 
     private final DaoSession daoSession;
+    // Read-only queries of the UI (see DatabaseHelperOrm#getReadDaoSession)
+    private final DaoSession readSession;
+    // Compiled statements of the recurring queries (see StatementCache)
+    private final StatementCache statements;
 
     private final static int PageSize = 100;
+    private final static long SYNC_CHECKPOINT_ID = 1;
+    private final static int MaxSqlVariables = 500;
+    private final static int MaxSyncStatsCount = 50;
+    private final static int PurgeBatchSize = 200;
 
     protected @Inject @Named("databaseFileName") String databasePath;
 
     public void resetDatabase() {
         daoSession.getRssItemDao().deleteAll();
+        daoSession.getRssItemContentDao().deleteAll();
         daoSession.getFeedDao().deleteAll();
         daoSession.getFolderDao().deleteAll();
         daoSession.getCurrentRssItemViewDao().deleteAll();
+        daoSession.getSyncCheckpointDao().deleteAll();
+        daoSession.getFeedItemCountDao().deleteAll();
+        daoSession.getSearchResultDao().deleteAll();
     }
 
     public DatabaseConnectionOrm(Context context) {
@@ -79,6 +112,27 @@ public class DatabaseConnectionOrm {
             ((NewsReaderApplication) context.getApplicationContext()).getAppComponent().injectDatabaseConnection(this);
         }
         daoSession = DatabaseHelperOrm.getDaoSession(context, databasePath);
+        readSession = DatabaseHelperOrm.getReadDaoSession(context, databasePath);
+        statements = DatabaseHelperOrm.getStatementCache(context, databasePath);
+    }
+
+    @VisibleForTesting
+    DatabaseConnectionOrm(DaoSession daoSession) {
+        this(daoSession, daoSession);
+    }
+
+    @VisibleForTesting
+    DatabaseConnectionOrm(DaoSession daoSession, DaoSession readSession) {
+        this.daoSession = daoSession;
+        this.readSession = readSession;
+        this.statements = new StatementCache(daoSession.getDatabase());
+    }
+
+    /**
+     * @return prepare and execute times of the queries (since the app was started)
+     */
+    public QueryMetrics getQueryMetrics() {
+        return statements.getMetrics();
     }
 
     /*
@@ -96,15 +150,42 @@ public class DatabaseConnectionOrm {
         });
     }
 
-    public void deleteOldAndInsertNewFolders (final Iterable<Folder> folder) {
+    /**
+     * Brings the folders in the database in line with the folders returned by the server, like
+     * {@link #reconcileFeeds(List)}: new folders are inserted, renamed folders updated and folders
+     * which no longer exist are removed - all in one transaction. Unchanged folders aren't written.
+     */
+    public void reconcileFolders(final List<Folder> folders) {
         daoSession.runInTx(new Runnable() {
             @Override
             public void run() {
-                daoSession.getFolderDao().deleteAll();
-                daoSession.getFolderDao().insertInTx(folder);
+                Map<Long, Folder> oldFolders = new HashMap<>();
+                for(Folder oldFolder : daoSession.getFolderDao().loadAll()) {
+                    oldFolders.put(oldFolder.getId(), oldFolder);
+                }
+
+                List<Folder> insertedFolders = new ArrayList<>();
+                List<Folder> updatedFolders = new ArrayList<>();
+                for(Folder newFolder : folders) {
+                    Folder oldFolder = oldFolders.remove(newFolder.getId());
+                    if(oldFolder == null) {
+                        insertedFolders.add(newFolder);
+                    } else if(!TextUtils.equals(oldFolder.getLabel(), newFolder.getLabel())) {
+                        updatedFolders.add(newFolder);
+                    }
+                }
+
+                // All folders which are left were removed on the server (their feeds are moved
+                // by the feed sync)
+                List<Long> removedFolderIds = new ArrayList<>(oldFolders.keySet());
+
+                daoSession.getFolderDao().insertOrReplaceInTx(insertedFolders);
+                daoSession.getFolderDao().updateInTx(updatedFolders);
+                daoSession.getFolderDao().deleteByKeyInTx(removedFolderIds);
+
+                Log.v(TAG, "Folders reconciled - inserted: " + insertedFolders.size() + ", updated: " + updatedFolders.size() + ", removed: " + removedFolderIds.size());
             }
         });
-
     }
 
     /*
@@ -117,19 +198,196 @@ public class DatabaseConnectionOrm {
         daoSession.getFeedDao().insertOrReplaceInTx(feeds);
     }
 
-    /*
-    public void insertNewItems(RssItem... items) {
-        daoSession.getRssItemDao().insertOrReplaceInTx(items);
+    /**
+     * Writes the items of a sync into the database. If an item already exists and its content
+     * didn't change (same fingerprint), only the state columns (read/starred/lastModified) are
+     * updated instead of rewriting the whole row and its body.
+     */
+    public UpsertStats insertNewItems(final Iterable<RssItem> items) {
+        final UpsertStats stats = new UpsertStats();
+        daoSession.runInTx(new Runnable() {
+            @Override
+            public void run() {
+                upsertItems(items, stats);
+            }
+        });
+        return stats;
     }
-*/
 
-    public void insertNewItems(Iterable<RssItem> items) {
-        daoSession.getRssItemDao().insertOrReplaceInTx(items);
+    /**
+     * Inserts the items and stores the sync checkpoint in the same transaction, so the checkpoint
+     * never points behind or ahead of the items in the database.
+     */
+    public UpsertStats insertNewItems(final Iterable<RssItem> items, final SyncCheckpoint checkpoint) {
+        final UpsertStats stats = new UpsertStats();
+        daoSession.runInTx(new Runnable() {
+            @Override
+            public void run() {
+                upsertItems(items, stats);
+                saveSyncCheckpoint(checkpoint);
+            }
+        });
+        return stats;
+    }
+
+    /**
+     * Has to be called within a transaction
+     */
+    private void upsertItems(Iterable<RssItem> items, UpsertStats stats) {
+        List<RssItem> itemList = new ArrayList<>();
+        for(RssItem rssItem : items) {
+            // The lists are paged by pubDate (see RssItemCursor) - NULL wouldn't match the cursor
+            if(rssItem.getPubDate() == null) {
+                rssItem.setPubDate(new Date(0));
+            }
+            itemList.add(rssItem);
+        }
+
+        Map<Long, String> storedFingerprints = getFingerprintsOfRssItems(itemList);
+        List<RssItem> changedItems = new ArrayList<>();
+        List<RssItem> unchangedItems = new ArrayList<>();
+        for(RssItem rssItem : itemList) {
+            String storedFingerprint = storedFingerprints.get(rssItem.getId());
+            if(storedFingerprint == null) {
+                stats.inserted++;
+                changedItems.add(rssItem);
+            } else if(!storedFingerprint.equals(rssItem.getFingerprint())) {
+                stats.replaced++;
+                changedItems.add(rssItem);
+            } else {
+                stats.stateUpdated++;
+                unchangedItems.add(rssItem);
+            }
+        }
+
+        daoSession.getRssItemDao().insertOrReplaceInTx(changedItems);
+
+        List<RssItemContent> changedContents = new ArrayList<>(changedItems.size());
+        for(RssItem rssItem : changedItems) {
+            changedContents.add(rssItem.toContent());
+        }
+        daoSession.getRssItemContentDao().insertOrReplaceInTx(changedContents);
+
+        if(!unchangedItems.isEmpty()) {
+            String sql = "UPDATE " + RssItemDao.TABLENAME + " SET " +
+                    RssItemDao.Properties.Read.columnName + " = ?, " +
+                    RssItemDao.Properties.Read_temp.columnName + " = ?, " +
+                    RssItemDao.Properties.Starred.columnName + " = ?, " +
+                    RssItemDao.Properties.Starred_temp.columnName + " = ?, " +
+                    RssItemDao.Properties.LastModified.columnName + " = ? " +
+                    "WHERE " + RssItemDao.Properties.Id.columnName + " = ?";
+            SQLiteStatement stmt = daoSession.getDatabase().compileStatement(sql);
+            try {
+                for (RssItem rssItem : unchangedItems) {
+                    stmt.clearBindings();
+                    bindBoolean(stmt, 1, rssItem.getRead());
+                    bindBoolean(stmt, 2, rssItem.getRead_temp());
+                    bindBoolean(stmt, 3, rssItem.getStarred());
+                    bindBoolean(stmt, 4, rssItem.getStarred_temp());
+                    if (rssItem.getLastModified() != null) {
+                        stmt.bindLong(5, rssItem.getLastModified().getTime());
+                    }
+                    stmt.bindLong(6, rssItem.getId());
+                    stmt.execute();
+                }
+            } finally {
+                stmt.close();
+            }
+
+            // Cached entities don't know about the update above
+            daoSession.clear();
+        }
+    }
+
+    private static void bindBoolean(SQLiteStatement stmt, int index, Boolean value) {
+        if(value != null) {
+            stmt.bindLong(index, value ? 1L : 0L);
+        }
+    }
+
+    /**
+     * @return the fingerprints of the given items which are already stored in the database (key: item id)
+     */
+    private Map<Long, String> getFingerprintsOfRssItems(List<RssItem> rssItems) {
+        Map<Long, String> fingerprints = new HashMap<>();
+        for(int i = 0; i < rssItems.size(); i += MaxSqlVariables) {
+            List<RssItem> chunk = rssItems.subList(i, Math.min(rssItems.size(), i + MaxSqlVariables));
+            List<String> ids = getRssItemsIdsFromList(chunk);
+
+            String buildSQL = "SELECT " + RssItemDao.Properties.Id.columnName + ", " + RssItemDao.Properties.Fingerprint.columnName +
+                    " FROM " + RssItemDao.TABLENAME +
+                    " WHERE " + RssItemDao.Properties.Id.columnName + " IN (" + TextUtils.join(",", ids) + ")";
+            try (Cursor cursor = daoSession.getDatabase().rawQuery(buildSQL, null)) {
+                while (cursor.moveToNext()) {
+                    fingerprints.put(cursor.getLong(0), cursor.getString(1));
+                }
+            }
+        }
+        return fingerprints;
+    }
+
+    /**
+     * @return the checkpoint of an interrupted first sync or null if there is none
+     */
+    public SyncCheckpoint getSyncCheckpoint() {
+        return daoSession.getSyncCheckpointDao().load(SYNC_CHECKPOINT_ID);
+    }
+
+    public void saveSyncCheckpoint(SyncCheckpoint checkpoint) {
+        checkpoint.setId(SYNC_CHECKPOINT_ID);
+        checkpoint.setUpdated(new Date());
+        daoSession.getSyncCheckpointDao().insertOrReplace(checkpoint);
+    }
+
+    public void removeSyncCheckpoint() {
+        daoSession.getSyncCheckpointDao().deleteAll();
+    }
+
+    /**
+     * Stores the statistics of a sync run. Only the last {@link #MaxSyncStatsCount} runs are kept.
+     */
+    public void insertSyncStats(final SyncStats syncStats) {
+        daoSession.runInTx(() -> {
+            daoSession.getSyncStatsDao().insert(syncStats);
+            daoSession.getDatabase().execSQL("DELETE FROM " + SyncStatsDao.TABLENAME +
+                    " WHERE " + SyncStatsDao.Properties.Id.columnName + " <= " + (syncStats.getId() - MaxSyncStatsCount));
+        });
+        daoSession.clear();
+    }
+
+    /**
+     * @return the id of the statistics of the most recent sync run or -1 if there are none
+     */
+    public long getLastSyncStatsId() {
+        String idColumn = SyncStatsDao.Properties.Id.columnName;
+        return getLongValueBySQL("SELECT " + idColumn + " FROM " + SyncStatsDao.TABLENAME +
+                " ORDER BY " + idColumn + " DESC LIMIT 1");
+    }
+
+    /**
+     * Sets the time needed for downloading the favicons of a sync run (the favicons are
+     * downloaded in the background after the sync finished)
+     */
+    public void updateFaviconMillisOfSyncStats(long syncStatsId, long faviconMillis) {
+        statements.executeUpdateDelete("UPDATE " + SyncStatsDao.TABLENAME +
+                " SET " + SyncStatsDao.Properties.FaviconMillis.columnName + " = ?" +
+                " WHERE " + SyncStatsDao.Properties.Id.columnName + " = ?", new Object[] { faviconMillis, syncStatsId });
+        daoSession.clear();
+    }
+
+    /**
+     * @return the statistics of the last sync runs (most recent first)
+     */
+    public List<SyncStats> getLastSyncStats() {
+        return daoSession.getSyncStatsDao().queryBuilder()
+                .orderDesc(SyncStatsDao.Properties.Id)
+                .limit(MaxSyncStatsCount)
+                .list();
     }
 
     public List<Folder> getListOfFolders() {
-        // return daoSession.getFolderDao().loadAll();
-        return daoSession.getFolderDao().queryBuilder().orderAsc(FolderDao.Properties.Label).list();
+        // return readSession.getFolderDao().loadAll();
+        return readSession.getFolderDao().queryBuilder().orderAsc(FolderDao.Properties.Label).list();
     }
 
 /*
@@ -138,13 +396,13 @@ public class DatabaseConnectionOrm {
                 new WhereCondition.PropertyCondition(FolderDao.Properties.Id, " IN "
                         + "(SELECT " + FeedDao.Properties.FolderId.columnName + " FROM " + FeedDao.TABLENAME + " feed "
                         + " JOIN " + RssItemDao.TABLENAME + " rss ON feed." + FeedDao.Properties.Id.columnName + " = rss." + RssItemDao.Properties.FeedId.columnName
-                        + " WHERE rss." + RssItemDao.Properties.Read_temp.columnName + " != 1)")
+                        + " WHERE rss." + RssItemDao.Properties.Read_temp.columnName + " = 0)")
         ).list();
     }
 */
 
     public List<Feed> getListOfFeeds() {
-        return daoSession.getFeedDao().queryBuilder().orderAsc(FeedDao.Properties.FeedTitle).list();
+        return readSession.getFeedDao().queryBuilder().orderAsc(FeedDao.Properties.FeedTitle).list();
     }
 
     public List<Feed> getListOfFeedsWithUnreadItems() {
@@ -170,30 +428,30 @@ public class DatabaseConnectionOrm {
     }
 
     public List<Feed> getListOfFeedsWithFolders() {
-        return daoSession.getFeedDao().queryBuilder().orderAsc(FeedDao.Properties.FeedTitle).where(FeedDao.Properties.FolderId.isNotNull()).list();
+        return readSession.getFeedDao().queryBuilder().orderAsc(FeedDao.Properties.FeedTitle).where(FeedDao.Properties.FolderId.isNotNull()).list();
     }
 
     public List<Feed> getListOfFeedsWithoutFolders(boolean onlyWithUnreadRssItems) {
         if(onlyWithUnreadRssItems) {
-            return daoSession.getFeedDao().queryBuilder().orderAsc(FeedDao.Properties.FeedTitle).where(FeedDao.Properties.FolderId.eq(0L),
-                    new WhereCondition.StringCondition(FeedDao.Properties.Id.columnName + " IN " + "(SELECT " + RssItemDao.Properties.FeedId.columnName + " FROM " + RssItemDao.TABLENAME + " WHERE " + RssItemDao.Properties.Read_temp.columnName + " != 1)")).list();
+            return readSession.getFeedDao().queryBuilder().orderAsc(FeedDao.Properties.FeedTitle).where(FeedDao.Properties.FolderId.eq(0L),
+                    new WhereCondition.StringCondition(FeedDao.Properties.Id.columnName + " IN " + "(SELECT " + RssItemDao.Properties.FeedId.columnName + " FROM " + RssItemDao.TABLENAME + " WHERE " + RssItemDao.Properties.Read_temp.columnName + " = 0)")).list();
         } else {
-            return daoSession.getFeedDao().queryBuilder().orderAsc(FeedDao.Properties.FeedTitle).where(FeedDao.Properties.FolderId.eq(0L)).list();
+            return readSession.getFeedDao().queryBuilder().orderAsc(FeedDao.Properties.FeedTitle).where(FeedDao.Properties.FolderId.eq(0L)).list();
         }
     }
 
     public List<Feed> getAllFeedsWithUnreadRssItems() {
-        return daoSession.getFeedDao().queryRaw(", " + RssItemDao.TABLENAME + " R " +
+        return readSession.getFeedDao().queryRaw(", " + RssItemDao.TABLENAME + " R " +
                 " WHERE R." + RssItemDao.Properties.FeedId.columnName + " = T._id " +
-                " AND " + RssItemDao.Properties.Read_temp.columnName + " != 1 GROUP BY T._id");
+                " AND " + RssItemDao.Properties.Read_temp.columnName + " = 0 GROUP BY T._id");
     }
 
     public List<Feed> getAllFeedsWithUnreadRssItemsForFolder(long folderId) {
-        return daoSession.getFeedDao().queryBuilder().orderAsc(FeedDao.Properties.FeedTitle).where(FeedDao.Properties.FolderId.eq(folderId)).list();
+        return readSession.getFeedDao().queryBuilder().orderAsc(FeedDao.Properties.FeedTitle).where(FeedDao.Properties.FolderId.eq(folderId)).list();
     }
 
     public List<Feed> getAllFeedsWithStarredRssItems() {
-        return daoSession.getFeedDao().queryBuilder().orderAsc(FeedDao.Properties.FeedTitle).where(
+        return readSession.getFeedDao().queryBuilder().orderAsc(FeedDao.Properties.FeedTitle).where(
                 new WhereCondition.StringCondition(FeedDao.Properties.Id.columnName + " IN " + "(SELECT " + RssItemDao.Properties.FeedId.columnName + " FROM " + RssItemDao.TABLENAME + " WHERE " + RssItemDao.Properties.Starred_temp.columnName + " = 1)")).list();
     }
 
@@ -265,8 +523,7 @@ public class DatabaseConnectionOrm {
     public void change_readUnreadStateOfItem(List<String> itemIds, boolean markAsRead)
     {
         if(itemIds != null)
-            for(String idItem : itemIds)
-                updateIsReadOfRssItem(idItem, markAsRead);
+            updateStateOfRssItems(itemIds, RssItemDao.Properties.Read, RssItemDao.Properties.Read_temp, markAsRead);
     }
 
     /**
@@ -277,8 +534,66 @@ public class DatabaseConnectionOrm {
     public void changeStarrUnstarrStateOfItem(List<String> itemIds, boolean markAsStarred)
     {
         if(itemIds != null)
-            for(String idItem : itemIds)
-                updateIsStarredOfRssItem(idItem, markAsStarred);
+            updateStateOfRssItems(itemIds, RssItemDao.Properties.Starred, RssItemDao.Properties.Starred_temp, markAsStarred);
+    }
+
+    /**
+     * Sets the state and the temp state of all given items with one UPDATE statement per chunk of ids
+     */
+    private void updateStateOfRssItems(final List<String> itemIds, final Property state, final Property tempState, final boolean value) {
+        daoSession.runInTx(new Runnable() {
+            @Override
+            public void run() {
+                for(int i = 0; i < itemIds.size(); i += MaxSqlVariables) {
+                    List<String> chunk = itemIds.subList(i, Math.min(itemIds.size(), i + MaxSqlVariables));
+                    String sql = "UPDATE " + RssItemDao.TABLENAME + " SET " +
+                            state.columnName + " = " + (value ? 1 : 0) + ", " +
+                            tempState.columnName + " = " + (value ? 1 : 0) +
+                            " WHERE " + RssItemDao.Properties.Id.columnName + " IN (" + joinIds(chunk) + ")";
+                    daoSession.getDatabase().execSQL(sql);
+                }
+
+                // Cached entities don't know about the update above
+                daoSession.clear();
+            }
+        });
+    }
+
+    /**
+     * Loads only the columns which are needed to identify the items on the server
+     * (id, feedId and guidHash) - with one query per chunk of ids
+     */
+    public List<RssItemKey> getRssItemKeys(List<String> itemIds) {
+        List<RssItemKey> keys = new ArrayList<>(itemIds.size());
+        for(int i = 0; i < itemIds.size(); i += MaxSqlVariables) {
+            List<String> chunk = itemIds.subList(i, Math.min(itemIds.size(), i + MaxSqlVariables));
+
+            String buildSQL = "SELECT " + RssItemDao.Properties.Id.columnName + ", " +
+                    RssItemDao.Properties.FeedId.columnName + ", " +
+                    RssItemDao.Properties.GuidHash.columnName +
+                    " FROM " + RssItemDao.TABLENAME +
+                    " WHERE " + RssItemDao.Properties.Id.columnName + " IN (" + joinIds(chunk) + ")";
+            try (Cursor cursor = daoSession.getDatabase().rawQuery(buildSQL, null)) {
+                while (cursor.moveToNext()) {
+                    keys.add(new RssItemKey(cursor.getLong(0), cursor.getLong(1), cursor.getString(2)));
+                }
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Joins the ids for an IN (...) clause. The ids are parsed to make sure only numbers end up in the statement.
+     */
+    private static String joinIds(List<String> itemIds) {
+        StringBuilder sb = new StringBuilder();
+        for(String itemId : itemIds) {
+            if(sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(Long.parseLong(itemId));
+        }
+        return sb.toString();
     }
 
     public void updateIsReadOfRssItem(String ITEM_ID, Boolean isRead) {
@@ -299,37 +614,69 @@ public class DatabaseConnectionOrm {
         daoSession.getRssItemDao().update(rssItem);
     }
 
-    public void markAllItemsAsReadForCurrentView() {
-        /*
-        String sql = "UPDATE " + RssItemDao.TABLENAME + " SET " + RssItemDao.Properties.Read_temp.columnName + " = 1 " +
-                "WHERE " + RssItemDao.Properties.Id.columnName + " IN (SELECT " + CurrentRssItemViewDao.Properties.RssItemId.columnName + " FROM " + CurrentRssItemViewDao.TABLENAME + ")";
-        daoSession.getDatabase().execSQL(sql);
-        */
+    /**
+     * The following methods mark all unread items of a view, feed, folder or time range as read
+     * with a single UPDATE statement (the sync uploads the new states afterwards).
+     *
+     * @return ids of the items which were unread before (to update the shown items without loading
+     *         them again - the unread counts are updated by triggers, see {@link FeedItemCounts})
+     */
+    public List<Long> markAllItemsAsReadForCurrentView() {
+        return markItemsAsRead(new SqlCondition(RssItemDao.Properties.Id.columnName + " IN " +
+                "(SELECT " + CurrentRssItemViewDao.Properties.RssItemId.columnName + " FROM " + CurrentRssItemViewDao.TABLENAME + ")"));
+    }
 
-        WhereCondition whereCondition = new WhereCondition.StringCondition(RssItemDao.Properties.Id.columnName + " IN " +
-                "(SELECT " + CurrentRssItemViewDao.Properties.RssItemId.columnName + " FROM " + CurrentRssItemViewDao.TABLENAME + ")");
+    public List<Long> markAllItemsAsReadForFeed(long feedId) {
+        return markItemsAsRead(SqlCondition.eq(RssItemDao.Properties.FeedId.columnName, feedId));
+    }
 
-        int iterationCount = 0;
-        final int itemsPerIteration = 100;
-        List<RssItem> rssItemList;
-        do {
-            int offset = iterationCount * itemsPerIteration;
-            rssItemList = daoSession
-                    .getRssItemDao()
-                    .queryBuilder()
-                    .where(whereCondition)
-                    .limit(itemsPerIteration)
-                    .offset(offset)
-                    .listLazy();
-            for (RssItem rssItem : rssItemList) {
-                rssItem.setRead_temp(true);
-            }
-            daoSession.getRssItemDao().updateInTx(rssItemList);
+    /**
+     * @param folderId id of a folder or one of the {@link SPECIAL_FOLDERS}
+     */
+    public List<Long> markAllItemsAsReadForFolder(long folderId) {
+        return markItemsAsRead(getItemsForFolderQuery(folderId, false, SORT_DIRECTION.desc).condition);
+    }
+
+    /**
+     * @param date items published before this date are marked as read
+     */
+    public List<Long> markAllItemsAsReadOlderThan(Date date) {
+        return markItemsAsRead(new SqlCondition(RssItemDao.Properties.PubDate.columnName + " < ?", date.getTime()));
+    }
 
-            iterationCount++;
-        } while(rssItemList.size() == itemsPerIteration);
+    public List<Long> markAllItemsAsRead() {
+        return markItemsAsRead(null);
     }
 
+    private List<Long> markItemsAsRead(SqlCondition condition) {
+        StopWatch sw = new StopWatch();
+        sw.start();
+
+        SqlCondition unread = new SqlCondition(RssItemDao.Properties.Read_temp.columnName + " = 0");
+        final SqlCondition where = condition != null ? unread.and(condition) : unread;
+        final String SQL_SELECT = "SELECT " + RssItemDao.Properties.Id.columnName + " FROM " + RssItemDao.TABLENAME + " WHERE " + where.getSql();
+        final String SQL_UPDATE = "UPDATE " + RssItemDao.TABLENAME + " SET " + RssItemDao.Properties.Read_temp.columnName + " = 1 WHERE " + where.getSql();
+
+        final List<Long> itemIds = new ArrayList<>();
+        daoSession.runInTx(new Runnable() {
+            @Override
+            public void run() {
+                try (Cursor cursor = statements.query(SQL_SELECT, where.getArgs())) {
+                    while (cursor.moveToNext()) {
+                        itemIds.add(cursor.getLong(0));
+                    }
+                }
+                statements.executeUpdateDelete(SQL_UPDATE, where.getBindArgs());
+
+                // Cached entities don't know about the update above
+                daoSession.clear();
+            }
+        });
+
+        sw.stop();
+        Log.v(TAG, "Time needed for marking " + itemIds.size() + " items as read: " + sw.toString());
+        return itemIds;
+    }
 
     public List<String> getRssItemsIdsFromList(List<RssItem> rssItemList) {
         List<String> itemIds = new ArrayList<>();
@@ -339,28 +686,53 @@ public class DatabaseConnectionOrm {
         return itemIds;
     }
 
-    public List<RssItem> getAllNewReadRssItems() {
-        return daoSession.getRssItemDao().queryBuilder().where(RssItemDao.Properties.Read.eq(false), RssItemDao.Properties.Read_temp.eq(true)).list();
+    /*
+     * Ids of the items whose state was changed locally and still has to be uploaded
+     * (state != temp state). Only the ids are loaded, not the whole items.
+     */
+
+    public List<String> getIdsOfNewReadRssItems() {
+        return getIdsOfChangedRssItems(RssItemDao.Properties.Read, RssItemDao.Properties.Read_temp, true);
     }
 
-    public List<RssItem> getAllNewUnreadRssItems() {
-        return daoSession.getRssItemDao().queryBuilder().where(RssItemDao.Properties.Read.eq(true), RssItemDao.Properties.Read_temp.eq(false)).list();
+    public List<String> getIdsOfNewUnreadRssItems() {
+        return getIdsOfChangedRssItems(RssItemDao.Properties.Read, RssItemDao.Properties.Read_temp, false);
     }
 
-    public List<RssItem> getAllNewStarredRssItems() {
-        return daoSession.getRssItemDao().queryBuilder().where(RssItemDao.Properties.Starred.eq(false), RssItemDao.Properties.Starred_temp.eq(true)).list();
+    public List<String> getIdsOfNewStarredRssItems() {
+        return getIdsOfChangedRssItems(RssItemDao.Properties.Starred, RssItemDao.Properties.Starred_temp, true);
     }
 
-    public List<RssItem> getAllNewUnstarredRssItems() {
-        return daoSession.getRssItemDao().queryBuilder().where(RssItemDao.Properties.Starred.eq(true), RssItemDao.Properties.Starred_temp.eq(false)).list();
+    public List<String> getIdsOfNewUnstarredRssItems() {
+        return getIdsOfChangedRssItems(RssItemDao.Properties.Starred, RssItemDao.Properties.Starred_temp, false);
+    }
+
+    private List<String> getIdsOfChangedRssItems(Property state, Property tempState, boolean newValue) {
+        String buildSQL = "SELECT " + RssItemDao.Properties.Id.columnName +
+                " FROM " + RssItemDao.TABLENAME +
+                " WHERE " + state.columnName + " = " + (newValue ? 0 : 1) +
+                " AND " + tempState.columnName + " = " + (newValue ? 1 : 0);
+
+        List<String> itemIds = new ArrayList<>();
+        try (Cursor cursor = daoSession.getDatabase().rawQuery(buildSQL, null)) {
+            while (cursor.moveToNext()) {
+                itemIds.add(cursor.getString(0));
+            }
+        }
+        return itemIds;
     }
 
     public LazyList<RssItem> getAllUnreadRssItemsForWidget() {
-        return daoSession.getRssItemDao().queryBuilder().where(RssItemDao.Properties.Read_temp.eq(false)).limit(100).orderDesc(RssItemDao.Properties.PubDate).listLazy();
+        return getAllUnreadRssItemsForWidgetQuery().listLazy();
+    }
+
+    @VisibleForTesting
+    QueryBuilder<RssItem> getAllUnreadRssItemsForWidgetQuery() {
+        return readSession.getRssItemDao().queryBuilder().where(RssItemDao.Properties.Read_temp.eq(false)).limit(100).orderDesc(RssItemDao.Properties.PubDate);
     }
 
     public LazyList<RssItem> getAllUnreadRssItemsForNotification(SORT_DIRECTION sortDirection) {
-        QueryBuilder<RssItem> qb = daoSession.getRssItemDao().queryBuilder().where(RssItemDao.Properties.Read_temp.eq(false)).limit(6);
+        QueryBuilder<RssItem> qb = readSession.getRssItemDao().queryBuilder().where(RssItemDao.Properties.Read_temp.eq(false)).limit(6);
         if (sortDirection == SORT_DIRECTION.asc) {
             qb = qb.orderAsc(RssItemDao.Properties.PubDate);
         } else {
@@ -369,23 +741,15 @@ public class DatabaseConnectionOrm {
         return qb.listLazy();
     }
 
-    public void markAllItemsAsRead() {
-        StopWatch sw = new StopWatch();
-        sw.start();
-
-        String sql = "UPDATE " + RssItemDao.TABLENAME + " SET " + RssItemDao.Properties.Read_temp.columnName + " = 1 WHERE " + RssItemDao.Properties.Read_temp.columnName + " = 0";
-        daoSession.getDatabase().execSQL(sql);
-
-        sw.stop();
-        Log.v(TAG, "Time needed for marking all unread items as read: " + sw.toString());
-    }
-
     public LazyList<RssItem> getAllUnreadRssItemsForDownloadWebPageService() {
         return daoSession.getRssItemDao().queryBuilder().where(RssItemDao.Properties.Read_temp.eq(false)).orderDesc(RssItemDao.Properties.PubDate).listLazy();
     }
 
-    public LazyList<RssItem> getAllItemsWithIdHigher(long id) {
-        return daoSession.getRssItemDao().queryBuilder().where(RssItemDao.Properties.Id.ge(id)).listLazy();
+    /**
+     * @return bodies/media descriptions of all items with an id higher or equal than the given one
+     */
+    public LazyList<RssItemContent> getContentOfItemsWithIdHigher(long id) {
+        return daoSession.getRssItemContentDao().queryBuilder().where(RssItemContentDao.Properties.Id.ge(id)).listLazy();
     }
 
     /***
@@ -441,15 +805,93 @@ public class DatabaseConnectionOrm {
             @Override
             public void run() {
                 daoSession.getFeedDao().deleteByKey(feedId);
+                deleteRssItemsOfFeeds(Collections.singletonList(feedId));
+            }
+        });
+    }
 
-                List<RssItem> list = daoSession.getRssItemDao().queryBuilder().where(RssItemDao.Properties.FeedId.eq(feedId)).list();
-                for (RssItem rssItem : list) {
-                    daoSession.getRssItemDao().delete(rssItem);
+    /**
+     * Brings the feeds in the database in line with the feeds returned by the server. New feeds
+     * are inserted, changed feeds updated (the locally calculated avgColour is kept) and feeds
+     * which no longer exist are removed together with their items - all in one transaction.
+     */
+    public void reconcileFeeds(final List<Feed> feeds) {
+        daoSession.runInTx(new Runnable() {
+            @Override
+            public void run() {
+                Map<Long, Feed> oldFeeds = new HashMap<>();
+                for(Feed oldFeed : daoSession.getFeedDao().loadAll()) {
+                    oldFeeds.put(oldFeed.getId(), oldFeed);
                 }
+
+                List<Feed> insertedFeeds = new ArrayList<>();
+                List<Feed> updatedFeeds = new ArrayList<>();
+                for(Feed newFeed : feeds) {
+                    Feed oldFeed = oldFeeds.remove(newFeed.getId());
+                    if(oldFeed == null) {
+                        insertedFeeds.add(newFeed);
+                    } else {
+                        //Set the avg color after sync again.
+                        newFeed.setAvgColour(oldFeed.getAvgColour());
+                        if(!isSameFeed(oldFeed, newFeed)) {
+                            updatedFeeds.add(newFeed);
+                        }
+                    }
+                }
+
+                // All feeds which are left were removed on the server
+                List<Long> removedFeedIds = new ArrayList<>(oldFeeds.keySet());
+
+                daoSession.getFeedDao().insertOrReplaceInTx(insertedFeeds);
+                daoSession.getFeedDao().updateInTx(updatedFeeds);
+                if(!removedFeedIds.isEmpty()) {
+                    daoSession.getFeedDao().deleteByKeyInTx(removedFeedIds);
+                    deleteRssItemsOfFeeds(removedFeedIds);
+                }
+
+                Log.v(TAG, "Feeds reconciled - inserted: " + insertedFeeds.size() + ", updated: " + updatedFeeds.size() + ", removed: " + removedFeedIds.size());
             }
         });
     }
 
+    /**
+     * Compares all columns of the feeds (the avgColour of the new feed was taken from the old one)
+     */
+    private static boolean isSameFeed(Feed oldFeed, Feed newFeed) {
+        return oldFeed.getId() == newFeed.getId()
+                && Objects.equals(oldFeed.getFolderId(), newFeed.getFolderId())
+                && TextUtils.equals(oldFeed.getFeedTitle(), newFeed.getFeedTitle())
+                && TextUtils.equals(oldFeed.getFaviconUrl(), newFeed.getFaviconUrl())
+                && TextUtils.equals(oldFeed.getLink(), newFeed.getLink())
+                && TextUtils.equals(oldFeed.getAvgColour(), newFeed.getAvgColour());
+    }
+
+    /**
+     * Deletes all items of the given feeds with one DELETE statement per chunk of feeds. Has to be
+     * called within a transaction.
+     */
+    private void deleteRssItemsOfFeeds(List<Long> feedIds) {
+        for(int i = 0; i < feedIds.size(); i += MaxSqlVariables) {
+            List<Long> chunk = feedIds.subList(i, Math.min(feedIds.size(), i + MaxSqlVariables));
+            String sql = "DELETE FROM " + RssItemDao.TABLENAME +
+                    " WHERE " + RssItemDao.Properties.FeedId.columnName + " IN (" + TextUtils.join(",", chunk) + ")";
+            daoSession.getDatabase().execSQL(sql);
+        }
+        deleteContentOfDeletedRssItems();
+
+        // Cached entities of the deleted items must not be returned anymore
+        daoSession.clear();
+    }
+
+    /**
+     * Deletes the bodies/media descriptions whose RSS Item doesn't exist anymore
+     */
+    private void deleteContentOfDeletedRssItems() {
+        daoSession.getDatabase().execSQL("DELETE FROM " + RssItemContentDao.TABLENAME +
+                " WHERE " + RssItemContentDao.Properties.Id.columnName + " NOT IN" +
+                " (SELECT " + RssItemDao.Properties.Id.columnName + " FROM " + RssItemDao.TABLENAME + ")");
+    }
+
     public void renameFeedById(long feedId, String newTitle) {
         Feed feed = daoSession.getFeedDao().queryBuilder().where(FeedDao.Properties.Id.eq(feedId)).unique();
         feed.setFeedTitle(newTitle);
@@ -465,19 +907,45 @@ public class DatabaseConnectionOrm {
         return favIconUrls;
     }
 
-    public long getCurrentRssItemViewCount() {
-        return daoSession.getCurrentRssItemViewDao().count();
+    /**
+     * Loads a page of the list straight from the item table (see {@link RssItemCursor}).
+     * The items of the lists and the detail view are loaded with the identity scope of the session
+     * (unlike the feeds and counts), so a read/starred change in one of them is seen by the other.
+     *
+     * @param cursor {@link RssItemPage#cursor} of the previous page or null for the first page
+     */
+    public RssItemPage getRssItemPage(RssItemQuery query, String cursor) {
+        SqlCondition condition = getRssItemPageCondition(query, cursor);
+        String where_clause = " WHERE " + condition.getSql() + query.getOrderBy() + " LIMIT " + PageSize;
+        List<RssItem> rssItems = daoSession.getRssItemDao().queryRaw(where_clause, condition.getArgs());
+        return new RssItemPage(query, rssItems, getCursorOfLastItem(query, rssItems, cursor), rssItems.size() == PageSize);
+    }
 
+    @VisibleForTesting
+    SqlCondition getRssItemPageCondition(RssItemQuery query, String cursor) {
+        if (cursor == null) {
+            return query.condition;
+        }
+        return query.condition.and(RssItemCursor.decode(cursor, query.sortDirection).getItemsAfterCondition());
     }
 
-    public List<RssItem> getCurrentRssItemView(int page) {
-        String where_clause = ", " + CurrentRssItemViewDao.TABLENAME + " C "
-                + " WHERE C." + CurrentRssItemViewDao.Properties.RssItemId.columnName + " = T."
-                + RssItemDao.Properties.Id.columnName
-                + " AND C._id > " + page * PageSize + " AND c._id <= " + ((page+1) * PageSize)
-                + " ORDER BY C." + CurrentRssItemViewDao.Properties.Id.columnName;
+    /**
+     * Loads all items of the list up to (including) the item of the cursor - e.g. to show the same
+     * items again after the activity was recreated.
+     */
+    public RssItemPage getRssItemsUpTo(RssItemQuery query, String cursor, boolean hasMore) {
+        SqlCondition condition = query.condition.and(RssItemCursor.decode(cursor, query.sortDirection).getItemsUpToCondition());
+        String where_clause = " WHERE " + condition.getSql() + query.getOrderBy();
+
+        List<RssItem> rssItems = daoSession.getRssItemDao().queryRaw(where_clause, condition.getArgs());
+        return new RssItemPage(query, rssItems, getCursorOfLastItem(query, rssItems, cursor), hasMore);
+    }
 
-        return daoSession.getRssItemDao().queryRaw(where_clause);
+    private static String getCursorOfLastItem(RssItemQuery query, List<RssItem> rssItems, String cursor) {
+        if (rssItems.isEmpty()) {
+            return cursor;
+        }
+        return RssItemCursor.of(rssItems.get(rssItems.size() - 1), query.sortDirection).encode();
     }
 
     public LazyList<RssItem> getAllRssItems() {
@@ -489,15 +957,6 @@ public class DatabaseConnectionOrm {
         return daoSession.getRssItemDao().queryRawCreate(where_clause).listLazy();
     }
 
-    /*
-    public void markAllItemsAsReadForCurrentView()
-    {
-        String sql = "UPDATE " + RssItemDao.TABLENAME + " SET " + RssItemDao.Properties.Read_temp.columnName + " = 1 WHERE " + RssItemDao.Properties.Id.columnName +
-                " IN (SELECT " + CurrentRssItemViewDao.Properties.RssItemId.columnName + " FROM " + CurrentRssItemViewDao.TABLENAME + ")";
-        daoSession.getDatabase().execSQL(sql);
-    }
-    */
-
     public static PodcastItem ParsePodcastItemFromRssItem(Context context, RssItem rssItem) {
         PodcastItem podcastItem = new PodcastItem();
         Feed feed = rssItem.getFeed();
@@ -523,33 +982,26 @@ public class DatabaseConnectionOrm {
     }
 
 
-    public String getAllItemsIdsForFeedSQL(long idFeed, boolean onlyUnread, boolean onlyStarredItems, SORT_DIRECTION sortDirection) {
+    public RssItemQuery getItemsForFeedQuery(long idFeed, boolean onlyUnread, boolean onlyStarredItems, SORT_DIRECTION sortDirection) {
 
-        String buildSQL =  "SELECT " + RssItemDao.Properties.Id.columnName +
-                " FROM " + RssItemDao.TABLENAME +
-                " WHERE " + RssItemDao.Properties.FeedId.columnName + " = " + idFeed;
+        SqlCondition condition = SqlCondition.eq(RssItemDao.Properties.FeedId.columnName, idFeed);
 
         if(onlyUnread && !onlyStarredItems)
-            buildSQL += " AND " + RssItemDao.Properties.Read_temp.columnName + " != 1";
+            condition = condition.and(new SqlCondition(RssItemDao.Properties.Read_temp.columnName + " = 0"));
         else if(onlyStarredItems)
-            buildSQL += " AND " + RssItemDao.Properties.Starred_temp.columnName + " = 1";
+            condition = condition.and(new SqlCondition(RssItemDao.Properties.Starred_temp.columnName + " = 1"));
 
-        buildSQL += " ORDER BY " + RssItemDao.Properties.PubDate.columnName + " " + sortDirection.toString();
-
-        return buildSQL;
+        return new RssItemQuery(condition, sortDirection);
     }
 
-    public String getAllItemsIdsForFeedSQLFilteredByTitle(final long feedId, boolean onlyUnread, boolean onlyStarredItems, SORT_DIRECTION sortDirection, final String searchString) {
-        String buildSQL = getAllItemsIdsForFeedSQL(feedId, onlyUnread, onlyStarredItems, sortDirection);
-        return new StringBuilder(
-                buildSQL).insert(buildSQL.indexOf("ORDER"), " AND " + RssItemDao.Properties.Title.columnName + " LIKE \"%" + searchString + "%\" ").toString();
+    public RssItemQuery getItemsForFeedQueryFilteredByTitle(final long feedId, boolean onlyUnread, boolean onlyStarredItems, SORT_DIRECTION sortDirection, final String searchString) {
+        return getItemsForFeedQuery(feedId, onlyUnread, onlyStarredItems, sortDirection)
+                .filteredBy(SqlCondition.contains(RssItemDao.Properties.Title.columnName, searchString));
     }
 
-    public String getAllItemsIdsForFeedSQLFilteredByBodySQL(final long feedId, boolean onlyUnread, boolean onlyStarredItems, SORT_DIRECTION sortDirection, final String searchString) {
-        String buildSQL = getAllItemsIdsForFeedSQL(feedId, onlyUnread, onlyStarredItems, sortDirection);
-        return new StringBuilder(buildSQL).insert(
-                buildSQL.indexOf("ORDER"), " AND " + RssItemDao.Properties.Body.columnName + " LIKE \"%" + searchString + "%\" ").toString();
-
+    public RssItemQuery getItemsForFeedQueryFilteredByBody(final long feedId, boolean onlyUnread, boolean onlyStarredItems, SORT_DIRECTION sortDirection, final String searchString) {
+        RssItemQuery query = getItemsForFeedQuery(feedId, onlyUnread, onlyStarredItems, sortDirection);
+        return query.filteredBy(getBodyContainsCondition(query.condition, searchString));
     }
 
 
@@ -564,71 +1016,138 @@ public class DatabaseConnectionOrm {
     }
 
 
-    public String getAllItemsIdsForFolderSQL(long ID_FOLDER, boolean onlyUnread, SORT_DIRECTION sortDirection) {
+    public RssItemQuery getItemsForFolderQuery(long ID_FOLDER, boolean onlyUnread, SORT_DIRECTION sortDirection) {
         //If all starred items are requested always return them in desc. order
         if(ID_FOLDER == ALL_STARRED_ITEMS.getValue())
             sortDirection = SORT_DIRECTION.desc;
 
-        String buildSQL = "SELECT " + RssItemDao.Properties.Id.columnName +
-                " FROM " + RssItemDao.TABLENAME;
+        SqlCondition condition;
 
         if(!(ID_FOLDER == ALL_UNREAD_ITEMS.getValue() || ID_FOLDER == ALL_STARRED_ITEMS.getValue()) || ID_FOLDER == ALL_ITEMS.getValue())//Wenn nicht Alle Artikel ausgewaehlt wurde (-10) oder (-11) fuer Starred Feeds
         {
-            buildSQL += " WHERE " + RssItemDao.Properties.FeedId.columnName + " IN " +
-                    "(SELECT sc." + FeedDao.Properties.Id.columnName +
-                    " FROM " + FeedDao.TABLENAME + " sc " +
-                    " JOIN " + FolderDao.TABLENAME + " f ON sc." + FeedDao.Properties.FolderId.columnName + " = f." + FolderDao.Properties.Id.columnName +
-                    " WHERE f." + FolderDao.Properties.Id.columnName + " = " + ID_FOLDER + ")";
+            condition = getFeedsOfFolderCondition(ID_FOLDER);
 
             if(onlyUnread)
-                buildSQL += " AND " + RssItemDao.Properties.Read_temp.columnName + " != 1";
+                condition = condition.and(new SqlCondition(RssItemDao.Properties.Read_temp.columnName + " = 0"));
         }
         else if(ID_FOLDER == ALL_UNREAD_ITEMS.getValue())
-            buildSQL += " WHERE " + RssItemDao.Properties.Read_temp.columnName + " != 1";
-        else if(ID_FOLDER == ALL_STARRED_ITEMS.getValue())
-            buildSQL += " WHERE " + RssItemDao.Properties.Starred_temp.columnName + " = 1";
+            condition = new SqlCondition(RssItemDao.Properties.Read_temp.columnName + " = 0");
+        else
+            condition = new SqlCondition(RssItemDao.Properties.Starred_temp.columnName + " = 1");
 
-        buildSQL += " ORDER BY " + RssItemDao.Properties.PubDate.columnName + " " + sortDirection.toString();
+        return new RssItemQuery(condition, sortDirection);
+    }
 
-        return buildSQL;
+    /**
+     * @param searchPredicate column which has to contain the search string
+     */
+    public RssItemQuery getItemsForFolderQuerySearch(long ID_FOLDER, SORT_DIRECTION sortDirection, String searchPredicate, String searchString) {
+        return getItemsForFolderQueryFilteredBy(ID_FOLDER, sortDirection, SqlCondition.contains(searchPredicate, searchString));
     }
 
-    public String getAllItemsIdsForFolderSQLSearch(long ID_FOLDER, SORT_DIRECTION sortDirection, String searchPredicate, String searchString) {
-        String buildSQL = "SELECT " + RssItemDao.Properties.Id.columnName +
-                " FROM " + RssItemDao.TABLENAME;
+    public RssItemQuery getItemsForFolderQueryFilteredByBody(long ID_FOLDER, SORT_DIRECTION sortDirection, String searchString) {
+        return getItemsForFolderQueryFilteredBy(ID_FOLDER, sortDirection, getBodyContainsCondition(getFolderSearchScope(ID_FOLDER), searchString));
+    }
 
-        if (!(ID_FOLDER == ALL_UNREAD_ITEMS.getValue() || ID_FOLDER == ALL_STARRED_ITEMS.getValue()) || ID_FOLDER == ALL_ITEMS.getValue())//Wenn nicht Alle Artikel ausgewaehlt wurde (-10) oder (-11) fuer Starred Feeds
-        {
-            buildSQL += " WHERE " + RssItemDao.Properties.FeedId.columnName + " IN " +
-                    "(SELECT sc." + FeedDao.Properties.Id.columnName +
-                    " FROM " + FeedDao.TABLENAME + " sc " +
-                    " JOIN " + FolderDao.TABLENAME + " f ON sc." + FeedDao.Properties.FolderId.columnName + " = f." + FolderDao.Properties.Id.columnName +
-                    " WHERE f." + FolderDao.Properties.Id.columnName + " = " + ID_FOLDER + ") AND ";
-        } else {
-            buildSQL += " WHERE ";
-        }
+    private RssItemQuery getItemsForFolderQueryFilteredBy(long ID_FOLDER, SORT_DIRECTION sortDirection, SqlCondition condition) {
+        return new RssItemQuery(getFolderSearchScope(ID_FOLDER).and(condition), sortDirection);
+    }
 
-        buildSQL += searchPredicate + " LIKE \"%" + searchString + "%\"";
+    /**
+     * @return condition for the items of the folder which are searched - the feeds of a folder or,
+     *         for "all unread"/"all starred", the unread/starred items like the list shows them
+     */
+    private SqlCondition getFolderSearchScope(long ID_FOLDER) {
+        return getItemsForFolderQuery(ID_FOLDER, false, SORT_DIRECTION.desc).condition;
+    }
+
+    private static SqlCondition getFeedsOfFolderCondition(long ID_FOLDER) {
+        return new SqlCondition(RssItemDao.Properties.FeedId.columnName + " IN " +
+                "(SELECT sc." + FeedDao.Properties.Id.columnName +
+                " FROM " + FeedDao.TABLENAME + " sc " +
+                " JOIN " + FolderDao.TABLENAME + " f ON sc." + FeedDao.Properties.FolderId.columnName + " = f." + FolderDao.Properties.Id.columnName +
+                " WHERE f." + FolderDao.Properties.Id.columnName + " = ?)", ID_FOLDER);
+    }
+    /**
+     * The bodies are stored compressed (see {@link BodyCodec}), so SQLite can't search in them.
+     * The bodies of the items within the scope are decoded one by one instead and the ids of the
+     * matching items are stored in the search result table, which only holds the result of the
+     * last body search. The list joins the table, so the ids don't have to be bound one by one.
+     *
+     * @param scope condition of the searched items
+     * @return condition which matches the items whose body contains the search string (case insensitive)
+     */
+    private SqlCondition getBodyContainsCondition(SqlCondition scope, String searchString) {
+        String needle = searchString.toLowerCase(Locale.ROOT);
+        final List<Long> ids = new ArrayList<>();
+        String buildSQL = "SELECT " + RssItemContentDao.Properties.Id.columnName + ", " +
+                RssItemContentDao.Properties.BodyData.columnName + ", " +
+                RssItemContentDao.Properties.BodyCodec.columnName +
+                " FROM " + RssItemContentDao.TABLENAME +
+                " WHERE " + RssItemContentDao.Properties.Id.columnName + " IN (SELECT " + RssItemDao.Properties.Id.columnName +
+                " FROM " + RssItemDao.TABLENAME + " WHERE " + scope.getSql() + ")";
+        try (Cursor cursor = statements.query(buildSQL, scope.getArgs())) {
+            while (cursor.moveToNext()) {
+                String body = BodyCodec.decode(cursor.isNull(1) ? null : cursor.getBlob(1), cursor.getInt(2));
+                if (body != null && body.toLowerCase(Locale.ROOT).contains(needle)) {
+                    ids.add(cursor.getLong(0));
+                }
+            }
+        }
 
-        buildSQL += " ORDER BY " + RssItemDao.Properties.PubDate.columnName + " " + sortDirection.toString();
+        final String SQL_INSERT_STATEMENT = "INSERT INTO " + SearchResultDao.TABLENAME +
+                " (" + SearchResultDao.Properties.Id.columnName + ") VALUES (?)";
+        daoSession.runInTx(new Runnable() {
+            @Override
+            public void run() {
+                daoSession.getSearchResultDao().deleteAll();
+
+                SQLiteStatement insert = daoSession.getDatabase().compileStatement(SQL_INSERT_STATEMENT);
+                try {
+                    for (Long id : ids) {
+                        insert.bindLong(1, id);
+                        insert.executeInsert();
+                    }
+                } finally {
+                    insert.close();
+                }
+            }
+        });
 
-        return buildSQL;
+        return new SqlCondition(RssItemDao.Properties.Id.columnName + " IN (SELECT " + SearchResultDao.Properties.Id.columnName +
+                " FROM " + SearchResultDao.TABLENAME + ")");
     }
 
-    public void insertIntoRssCurrentViewTable(String SQL_SELECT) {
+    /**
+     * Stores the ids of all items of the list for the detail view and "mark all as read" - in the
+     * order of the pages and, like the list, every fingerprint only once (first item wins).
+     */
+    public void insertIntoRssCurrentViewTable(RssItemQuery query) {
         StopWatch sw = new StopWatch();
         sw.start();
 
-        SQL_SELECT = "INSERT INTO " + CurrentRssItemViewDao.TABLENAME +
-                " (" + CurrentRssItemViewDao.Properties.RssItemId.columnName + ") " + SQL_SELECT;
-
-        final String SQL_INSERT_STATEMENT = SQL_SELECT;
+        final String SQL_SELECT = "SELECT T." + RssItemDao.Properties.Id.columnName + ", T." + RssItemDao.Properties.Fingerprint.columnName +
+                " FROM " + RssItemDao.TABLENAME + " T WHERE " + query.condition.getSql() + query.getOrderBy();
+        final String SQL_INSERT_STATEMENT = "INSERT INTO " + CurrentRssItemViewDao.TABLENAME +
+                " (" + CurrentRssItemViewDao.Properties.RssItemId.columnName + ") VALUES (?)";
 
         daoSession.runInTx(new Runnable() {
             @Override
             public void run() {
                 daoSession.getCurrentRssItemViewDao().deleteAll();
-                daoSession.getDatabase().execSQL(SQL_INSERT_STATEMENT);
+
+                Set<String> fingerprints = new HashSet<>();
+                SQLiteStatement insert = daoSession.getDatabase().compileStatement(SQL_INSERT_STATEMENT);
+                try (Cursor cursor = statements.query(SQL_SELECT, query.condition.getArgs())) {
+                    while (cursor.moveToNext()) {
+                        if (fingerprints.add(cursor.getString(1))) {
+                            insert.bindLong(1, cursor.getLong(0));
+                            insert.executeInsert();
+                        }
+                    }
+                } finally {
+                    insert.close();
+                }
             }
         });
 
@@ -637,17 +1156,17 @@ public class DatabaseConnectionOrm {
     }
 
     public String getUnreadItemsCountForSpecificFolder(SPECIAL_FOLDERS specialFolder) {
-        String buildSQL = "SELECT COUNT(1)" +
-                " FROM " + RssItemDao.TABLENAME + " rss ";
-
+        Property count;
         if(specialFolder != null && specialFolder.equals(SPECIAL_FOLDERS.ALL_STARRED_ITEMS)) {
-            buildSQL += " WHERE " + RssItemDao.Properties.Starred_temp.columnName + " = 1 ";
+            count = FeedItemCountDao.Properties.StarredCount;
         } else {
-            buildSQL += " WHERE " + RssItemDao.Properties.Read_temp.columnName + " != 1 ";
+            count = FeedItemCountDao.Properties.UnreadCount;
         }
 
-        SparseArray<String> values = getStringSparseArrayFromSQL(buildSQL, 0, 0);
-        return values.valueAt(0);
+        String buildSQL = "SELECT IFNULL(SUM(" + count.columnName + "), 0)" +
+                " FROM " + FeedItemCountDao.TABLENAME;
+
+        return String.valueOf(getLongValueBySQL(buildSQL));
     }
 
     /**
@@ -657,13 +1176,7 @@ public class DatabaseConnectionOrm {
     public SparseArray<String>[] getUnreadItemCountFeedFolder() {
         SparseArray<String>[] values = new SparseArray[2];
 
-        String buildSQL = "SELECT f." + FolderDao.Properties.Id.columnName + ", feed." + FeedDao.Properties.Id.columnName + ", COUNT(1)" +
-                " FROM " + RssItemDao.TABLENAME + " rss " +
-                " JOIN " + FeedDao.TABLENAME + " feed ON rss." + RssItemDao.Properties.FeedId.columnName + " = feed." + FeedDao.Properties.Id.columnName +
-                " LEFT OUTER JOIN " + FolderDao.TABLENAME + " f ON feed." + FeedDao.Properties.FolderId.columnName + " = f." + FolderDao.Properties.Id.columnName +
-                " WHERE " + RssItemDao.Properties.Read_temp.columnName + " != 1 " +
-                " GROUP BY f." + FolderDao.Properties.Id.columnName + ", feed." + FeedDao.Properties.Id.columnName;
-                //" GROUP BY (case when f." + FolderDao.Properties.Id.columnName + " IS NULL then feed." + FeedDao.Properties.Id.columnName + " ELSE f." + FolderDao.Properties.Id.columnName + " end)";
+        String buildSQL = getUnreadItemCountFeedFolderSQL();
 
         values[0] = new SparseArray<>();
         values[1] = new SparseArray<>();
@@ -704,47 +1217,215 @@ public class DatabaseConnectionOrm {
     }
 
     public SparseArray<String> getStarredItemCount() {
-        String buildSQL = "SELECT " + RssItemDao.Properties.FeedId.columnName + ", COUNT(1)" + // rowid as _id,
-                " FROM " + RssItemDao.TABLENAME +
-                " WHERE " + RssItemDao.Properties.Starred_temp.columnName + " = 1 " +
-                " GROUP BY " + RssItemDao.Properties.FeedId.columnName;
+        return getStringSparseArrayFromSQL(getStarredItemCountSQL(), 0, 1);
+    }
 
-        return getStringSparseArrayFromSQL(buildSQL, 0, 1);
+    /**
+     * Reads the counts of the counter table (see FeedItemCounts) instead of counting the items
+     */
+    @VisibleForTesting
+    String getUnreadItemCountFeedFolderSQL() {
+        return "SELECT f." + FolderDao.Properties.Id.columnName + ", feed." + FeedDao.Properties.Id.columnName + ", c." + FeedItemCountDao.Properties.UnreadCount.columnName +
+                " FROM " + FeedItemCountDao.TABLENAME + " c " +
+                " JOIN " + FeedDao.TABLENAME + " feed ON c." + FeedItemCountDao.Properties.Id.columnName + " = feed." + FeedDao.Properties.Id.columnName +
+                " LEFT OUTER JOIN " + FolderDao.TABLENAME + " f ON feed." + FeedDao.Properties.FolderId.columnName + " = f." + FolderDao.Properties.Id.columnName +
+                " WHERE c." + FeedItemCountDao.Properties.UnreadCount.columnName + " > 0";
     }
 
-    public void clearDatabaseOverSize()
-    {
-        //If i have 9023 rows in the database, when i run that query it should delete 8023 rows and leave me with 1000
-        //database.execSQL("DELETE FROM " + RSS_ITEM_TABLE + " WHERE " +  + "ORDER BY rowid DESC LIMIT 1000 *
+    @VisibleForTesting
+    String getStarredItemCountSQL() {
+        return "SELECT " + FeedItemCountDao.Properties.Id.columnName + ", " + FeedItemCountDao.Properties.StarredCount.columnName +
+                " FROM " + FeedItemCountDao.TABLENAME +
+                " WHERE " + FeedItemCountDao.Properties.StarredCount.columnName + " > 0";
+    }
 
-        //Let's say it said 1005 - you need to delete 5 rows.
-        //DELETE FROM table ORDER BY dateRegistered ASC LIMIT 5
+    /**
+     * Deletes the items which are over one of the limits of the policy, oldest first (see
+     * {@link RetentionPolicy} for the items which are never deleted). The items are deleted in
+     * batches of {@link #PurgeBatchSize} with one short transaction each, so the UI isn't blocked.
+     * The sizes are read from FEED_ITEM_COUNT, the items are not counted again.
+     *
+     * @param session the purge stops after the current batch if the sync is cancelled
+     * @return the number of deleted items and the links of the files which might belong to them
+     */
+    public PurgeResult purgeRssItems(RetentionPolicy policy, SyncSession session) {
+        StopWatch sw = new StopWatch();
+        sw.start();
 
+        PurgeResult result = new PurgeResult();
 
-        int max = Constants.maxItemsCount;
-        int total = (int) getLongValueBySQL("SELECT COUNT(*) FROM " + RssItemDao.TABLENAME);
-        int unread = (int) getLongValueBySQL("SELECT COUNT(*) FROM " + RssItemDao.TABLENAME + " WHERE " + RssItemDao.Properties.Read_temp.columnName + " != 1");
-        int read = total - unread;
+        if(policy.getMaxAgeMillis() > 0) {
+            SqlCondition condition = new SqlCondition("T." + RssItemDao.Properties.PubDate.columnName + " < ?",
+                    System.currentTimeMillis() - policy.getMaxAgeMillis());
+            while(!session.isCancelled() && purgeRssItemBatch(condition, PurgeBatchSize, Long.MAX_VALUE, result) == PurgeBatchSize) {
+                // next batch
+            }
+        }
 
-        if(total > max)
-        {
-            Log.v(TAG, "Clearing Database oversize");
-
-            int overSize = total - max;
-            //Soll verhindern, dass ungelesene Artikel gelöscht werden
-            if(overSize > read)
-                overSize = read;
-
-            String sqlStatement = "DELETE FROM " + RssItemDao.TABLENAME + " WHERE " + RssItemDao.Properties.Id.columnName +
-                                    " IN (SELECT " + RssItemDao.Properties.Id.columnName + " FROM " + RssItemDao.TABLENAME +
-                                    " WHERE " + RssItemDao.Properties.Read_temp.columnName + " = 1 AND " + RssItemDao.Properties.Starred_temp.columnName + " != 1 " +
-                                    " AND " + RssItemDao.Properties.Id.columnName + " NOT IN (SELECT " + CurrentRssItemViewDao.Properties.RssItemId.columnName + " FROM " + CurrentRssItemViewDao.TABLENAME + ")" +
-                                    " ORDER BY " + RssItemDao.Properties.Id.columnName + " asc LIMIT " + overSize + ")";
-            daoSession.getDatabase().execSQL(sqlStatement);
-    		/* SELECT * FROM rss_item WHERE read_temp = 1 ORDER BY rowid asc LIMIT 3; */
-        } else {
-            Log.v(TAG, "Clearing Database oversize not necessary");
+        if(policy.getMaxItemsPerFeed() > 0) {
+            Map<Long, Integer> itemCounts = getItemCountOfFeedsWithMoreItemsThan(policy.getMaxItemsPerFeed());
+            for(Map.Entry<Long, Integer> itemCount : itemCounts.entrySet()) {
+                SqlCondition condition = SqlCondition.eq("T." + RssItemDao.Properties.FeedId.columnName, itemCount.getKey());
+                int overSize = itemCount.getValue() - policy.getMaxItemsPerFeed();
+                while(overSize > 0 && !session.isCancelled()) {
+                    int deleted = purgeRssItemBatch(condition, Math.min(overSize, PurgeBatchSize), Long.MAX_VALUE, result);
+                    if(deleted == 0) { // Only protected items left
+                        break;
+                    }
+                    overSize -= deleted;
+                }
+            }
+        }
+
+        if(policy.getMaxBytes() > 0) {
+            long overSize = getContentByteCount() - policy.getMaxBytes();
+            while(overSize > 0 && !session.isCancelled()) {
+                if(purgeRssItemBatch(null, PurgeBatchSize, overSize, result) == 0) {
+                    break;
+                }
+                overSize = getContentByteCount() - policy.getMaxBytes();
+            }
         }
+
+        sw.stop();
+        Log.v(TAG, "Purged " + result.deletedItems + " items (" + result.deletedBytes + " bytes) - " + policy + ", time needed: " + sw.toString() +
+                (session.isCancelled() ? " (cancelled)" : ""));
+        return result;
+    }
+
+    /**
+     * Deletes the oldest items which may be purged and match the condition
+     *
+     * @param condition   additional condition (columns of RSS_ITEM with alias T) or null
+     * @param maxItems    maximum number of items which are deleted
+     * @param bytesToFree no more items are deleted as soon as their content has this size
+     * @return the number of deleted items
+     */
+    private int purgeRssItemBatch(SqlCondition condition, int maxItems, final long bytesToFree, final PurgeResult result) {
+        final String buildSQL = getPurgeCandidatesSQL(condition);
+        final String[] args = getPurgeCandidatesArgs(condition, maxItems);
+        final List<Long> itemIds = new ArrayList<>();
+        daoSession.runInTx(new Runnable() {
+            @Override
+            public void run() {
+                long freedBytes = 0;
+                try (Cursor cursor = statements.query(buildSQL, args)) {
+                    while (freedBytes < bytesToFree && cursor.moveToNext()) {
+                        itemIds.add(cursor.getLong(0));
+                        freedBytes += cursor.getLong(1);
+                        result.addFilesOf(cursor);
+                    }
+                }
+                if(itemIds.isEmpty()) {
+                    return;
+                }
+
+                String ids = TextUtils.join(",", itemIds);
+                daoSession.getDatabase().execSQL("DELETE FROM " + RssItemDao.TABLENAME +
+                        " WHERE " + RssItemDao.Properties.Id.columnName + " IN (" + ids + ")");
+                daoSession.getDatabase().execSQL("DELETE FROM " + RssItemContentDao.TABLENAME +
+                        " WHERE " + RssItemContentDao.Properties.Id.columnName + " IN (" + ids + ")");
+
+                result.deletedItems += itemIds.size();
+                result.deletedBytes += freedBytes;
+            }
+        });
+        result.addImageLinksOfBodies();
+
+        // Cached entities of the deleted items must not be returned anymore
+        daoSession.clear();
+        return itemIds.size();
+    }
+
+    /**
+     * @return statement which selects the oldest items which may be deleted by the retention policy:
+     *         read, not starred, not shown right now and without state changes which still have to
+     *         be uploaded. Columns: id, size of the content and the columns read by
+     *         {@link PurgeResult#addFilesOf(Cursor)}. The values of the condition and the limit are
+     *         bound, see {@link #getPurgeCandidatesArgs(SqlCondition, int)}.
+     */
+    @VisibleForTesting
+    String getPurgeCandidatesSQL(SqlCondition condition) {
+        return "SELECT T." + RssItemDao.Properties.Id.columnName +
+                ", IFNULL(LENGTH(C." + RssItemContentDao.Properties.BodyData.columnName + "), 0)" +
+                " + IFNULL(LENGTH(CAST(C." + RssItemContentDao.Properties.MediaDescription.columnName + " AS BLOB)), 0)" +
+                ", T." + RssItemDao.Properties.Link.columnName +
+                ", T." + RssItemDao.Properties.EnclosureLink.columnName +
+                ", T." + RssItemDao.Properties.MediaThumbnail.columnName +
+                ", C." + RssItemContentDao.Properties.BodyData.columnName +
+                ", C." + RssItemContentDao.Properties.BodyCodec.columnName +
+                " FROM " + RssItemDao.TABLENAME + " T" +
+                " LEFT JOIN " + RssItemContentDao.TABLENAME + " C ON C." + RssItemContentDao.Properties.Id.columnName + " = T." + RssItemDao.Properties.Id.columnName +
+                " WHERE T." + RssItemDao.Properties.Read_temp.columnName + " = 1" +
+                " AND T." + RssItemDao.Properties.Read.columnName + " = 1" +
+                " AND T." + RssItemDao.Properties.Starred_temp.columnName + " = 0" +
+                " AND T." + RssItemDao.Properties.Starred.columnName + " = 0" +
+                " AND T." + RssItemDao.Properties.Id.columnName + " NOT IN (SELECT " + CurrentRssItemViewDao.Properties.RssItemId.columnName + " FROM " + CurrentRssItemViewDao.TABLENAME + ")" +
+                (condition != null ? " AND " + condition.getSql() : "") +
+                " ORDER BY T." + RssItemDao.Properties.PubDate.columnName + " ASC LIMIT ?";
+    }
+
+    @VisibleForTesting
+    static String[] getPurgeCandidatesArgs(SqlCondition condition, int limit) {
+        String[] conditionArgs = condition != null ? condition.getArgs() : new String[0];
+        String[] args = Arrays.copyOf(conditionArgs, conditionArgs.length + 1);
+        args[conditionArgs.length] = String.valueOf(limit);
+        return args;
+    }
+
+    /**
+     * @return bytes of the content of all items (maintained by triggers, see {@link FeedItemCounts})
+     */
+    public long getContentByteCount() {
+        return getLongValueBySQL("SELECT IFNULL(SUM(" + FeedItemCountDao.Properties.ByteCount.columnName + "), 0) FROM " + FeedItemCountDao.TABLENAME);
+    }
+
+    /**
+     * @return number of items of the feeds which have more than maxItems items (key: feed id)
+     */
+    private Map<Long, Integer> getItemCountOfFeedsWithMoreItemsThan(int maxItems) {
+        Map<Long, Integer> itemCounts = new HashMap<>();
+        String buildSQL = "SELECT " + FeedItemCountDao.Properties.Id.columnName + ", " + FeedItemCountDao.Properties.ItemCount.columnName +
+                " FROM " + FeedItemCountDao.TABLENAME +
+                " WHERE " + FeedItemCountDao.Properties.ItemCount.columnName + " > ?";
+        try (Cursor cursor = statements.query(buildSQL, new String[] { String.valueOf(maxItems) })) {
+            while (cursor.moveToNext()) {
+                itemCounts.put(cursor.getLong(0), cursor.getInt(1));
+            }
+        }
+        return itemCounts;
+    }
+
+    /**
+     * @param links links of web pages or podcasts
+     * @return the links which are still used by an item (e.g. the same article in another feed)
+     */
+    public Set<String> getLinksInUse(Set<String> links) {
+        Set<String> linksInUse = new HashSet<>();
+        List<String> linkList = new ArrayList<>(links);
+        // Every link is bound twice
+        int chunkSize = MaxSqlVariables / 2;
+        for(int i = 0; i < linkList.size(); i += chunkSize) {
+            List<String> chunk = linkList.subList(i, Math.min(linkList.size(), i + chunkSize));
+            String placeholders = TextUtils.join(",", Collections.nCopies(chunk.size(), "?"));
+            // One pass over the items for both columns
+            String buildSQL = "SELECT " + RssItemDao.Properties.Link.columnName + ", " + RssItemDao.Properties.EnclosureLink.columnName +
+                    " FROM " + RssItemDao.TABLENAME +
+                    " WHERE " + RssItemDao.Properties.Link.columnName + " IN (" + placeholders + ")" +
+                    " OR " + RssItemDao.Properties.EnclosureLink.columnName + " IN (" + placeholders + ")";
+            List<String> args = new ArrayList<>(chunk);
+            args.addAll(chunk);
+            try (Cursor cursor = daoSession.getDatabase().rawQuery(buildSQL, args.toArray(new String[0]))) {
+                while (cursor.moveToNext()) {
+                    for (int column = 0; column < 2; column++) {
+                        if (!cursor.isNull(column) && links.contains(cursor.getString(column))) {
+                            linksInUse.add(cursor.getString(column));
+                        }
+                    }
+                }
+            }
+        }
+        return linksInUse;
     }
 
     public long getLastModified()
@@ -756,6 +1437,26 @@ public class DatabaseConnectionOrm {
         return 0;
     }
 
+    /**
+     * @return the highest lastModified of the items of the given feeds (0 if there are none)
+     */
+    public long getLastModifiedOfFeeds(Collection<Long> feedIds)
+    {
+        if(feedIds.isEmpty()) {
+            return 0;
+        }
+
+        List<RssItem> rssItemList = daoSession.getRssItemDao().queryBuilder()
+                .where(RssItemDao.Properties.FeedId.in(feedIds))
+                .orderDesc(RssItemDao.Properties.LastModified)
+                .limit(1)
+                .list();
+
+        if(rssItemList.size() > 0)
+            return rssItemList.get(0).getLastModified().getTime();
+        return 0;
+    }
+
     public long getLowestItemId(boolean onlyStarred)
     {
         List<RssItem> rssItemList;
@@ -786,17 +1487,15 @@ public class DatabaseConnectionOrm {
 
 
 
-    public long getLongValueBySQL(String buildSQL)
+    /**
+     * Runs the query with a compiled statement which is kept for the next call (see {@link StatementCache})
+     *
+     * @param buildSQL query with "?" for each of the values - never write values into the SQL
+     * @return the first column of the first row or -1 if there is no row
+     */
+    public long getLongValueBySQL(String buildSQL, Object... args)
     {
-        long result = -1;
-
-        try (Cursor cursor = daoSession.getDatabase().rawQuery(buildSQL, null)) {
-            if (cursor != null && cursor.moveToFirst()) {
-                result = cursor.getLong(0);
-            }
-        }
-
-        return result;
+        return statements.simpleQueryForLong(buildSQL, args, -1);
     }
 
     public SparseArray<Integer> getIntegerSparseArrayFromSQL(String buildSQL, int indexKey, int indexValue) {
@@ -849,4 +1548,119 @@ public class DatabaseConnectionOrm {
         }
         return sb.toString();
     }
+
+    /**
+     * Columns of an item which are needed to identify it on the server
+     */
+    public static class RssItemKey {
+        public final long id;
+        public final long feedId;
+        public final String guidHash;
+
+        RssItemKey(long id, long feedId, String guidHash) {
+            this.id = id;
+            this.feedId = feedId;
+            this.guidHash = guidHash;
+        }
+    }
+
+    /**
+     * Items deleted by {@link #purgeRssItems(RetentionPolicy)} and the links of the files which
+     * might have been downloaded for them (web archives, podcasts and cached images)
+     */
+    public static class PurgeResult {
+        public int deletedItems;
+        public long deletedBytes;
+        public final Set<String> links = new HashSet<>();
+        public final Set<String> enclosureLinks = new HashSet<>();
+        public final Set<String> imageLinks = new HashSet<>();
+        // Bodies of the current batch, their images are extracted after the batch was committed
+        private final List<RssItemContent> bodies = new ArrayList<>();
+
+        /**
+         * @param cursor row of {@link #getPurgeCandidatesSQL(SqlCondition)}
+         */
+        void addFilesOf(Cursor cursor) {
+            if(!cursor.isNull(2)) {
+                links.add(cursor.getString(2));
+            }
+            if(!cursor.isNull(3)) {
+                enclosureLinks.add(cursor.getString(3));
+            }
+            if(!cursor.isNull(4)) {
+                imageLinks.add(cursor.getString(4));
+            }
+            if(!cursor.isNull(5)) {
+                bodies.add(new RssItemContent(cursor.getLong(0), null, cursor.getBlob(5), cursor.getInt(6)));
+            }
+        }
+
+        /**
+         * Decodes the bodies added since the last call and adds their images. Called outside of the
+         * write transaction, so the sync doesn't wait while the bodies are inflated and scanned.
+         */
+        void addImageLinksOfBodies() {
+            for(RssItemContent content : bodies) {
+                String body = content.getBody();
+                if(body != null) {
+                    imageLinks.addAll(ImageHandler.getImageLinksFromText(body));
+                }
+            }
+            bodies.clear();
+        }
+    }
+
+    /**
+     * Number of rows which took each path in {@link #insertNewItems(Iterable)}
+     */
+    public static class UpsertStats {
+        /** items which didn't exist yet */
+        public int inserted;
+        /** items whose content changed (the whole row was rewritten) */
+        public int replaced;
+        /** items where only the state columns were updated */
+        public int stateUpdated;
+    }
+
+    /**
+     * Items of a list (feed, folder or search results) and their order
+     */
+    public static class RssItemQuery {
+        final SqlCondition condition;
+        final SORT_DIRECTION sortDirection;
+
+        RssItemQuery(SqlCondition condition, SORT_DIRECTION sortDirection) {
+            this.condition = condition;
+            this.sortDirection = sortDirection;
+        }
+
+        RssItemQuery filteredBy(SqlCondition filter) {
+            return new RssItemQuery(condition.and(filter), sortDirection);
+        }
+
+        // The id makes the order unique (several items can have the same pubDate)
+        String getOrderBy() {
+            return " ORDER BY T." + RssItemDao.Properties.PubDate.columnName + " " + sortDirection +
+                    ", T." + RssItemDao.Properties.Id.columnName + " " + sortDirection;
+        }
+    }
+
+    /**
+     * Page of an item list, see {@link #getRssItemPage(RssItemQuery, String)}
+     */
+    public static class RssItemPage {
+        public final RssItemQuery query;
+        public final List<RssItem> items;
+        /** position of the last item of the page (opaque, null if the list is empty) */
+        public final String cursor;
+        /** false if the end of the list was reached */
+        public final boolean hasMore;
+
+        public RssItemPage(RssItemQuery query, List<RssItem> items, String cursor, boolean hasMore) {
+            this.query = query;
+            this.items = items;
+            this.cursor = cursor;
+            this.hasMore = hasMore;
+        }
+    }
 }
@@ -23,19 +23,25 @@ package de.luhmer.owncloudnewsreader.database;
 
 import android.content.Context;
 import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
 
+import de.greenrobot.dao.identityscope.IdentityScopeType;
 import de.luhmer.owncloudnewsreader.database.model.DaoMaster;
 import de.luhmer.owncloudnewsreader.database.model.DaoSession;
 
 public class DatabaseHelperOrm {
+    private static final String TAG = DatabaseHelperOrm.class.getCanonicalName();
+
     private volatile static DaoSession daoSession;
+    private volatile static DaoSession readDaoSession;
+    private volatile static StatementCache statementCache;
 
     public static DaoSession getDaoSession(Context context, String DATABASE_NAME_ORM) {
         if(daoSession == null) {
             synchronized (DatabaseHelperOrm.class) {
                 if(daoSession == null) {
-                    // As we are in development we will use the DevOpenHelper which drops the database on a schema update
-                    DaoMaster.DevOpenHelper helper = new DaoMaster.DevOpenHelper(context, DATABASE_NAME_ORM, null);
+                    // Migrates the database on a schema update (see DatabaseMigrations)
+                    OpenHelper helper = new OpenHelper(context, DATABASE_NAME_ORM);
                     // Access the database using the helper
                     SQLiteDatabase db = helper.getWritableDatabase();
                     // Construct the DaoMaster which brokers DAOs for the Domain Objects
@@ -47,4 +53,67 @@ public class DatabaseHelperOrm {
         }
         return daoSession;
     }
+
+    /**
+     * Session for read-only queries of the UI (feeds, counts, widget) which runs on the same database
+     * but without an identity scope. Because of the write-ahead log the queries run on one of the
+     * reader connections of the database while the sync writes (on the primary connection) and they
+     * don't wait for the lock of the identity scope which is held during insertOrReplaceInTx.
+     * Entities of this session are not cached - changes have to be written with {@link #getDaoSession}.
+     */
+    public static DaoSession getReadDaoSession(Context context, String DATABASE_NAME_ORM) {
+        if(readDaoSession == null) {
+            DaoSession session = getDaoSession(context, DATABASE_NAME_ORM);
+            synchronized (DatabaseHelperOrm.class) {
+                if(readDaoSession == null) {
+                    readDaoSession = new DaoMaster(session.getDatabase()).newSession(IdentityScopeType.None);
+                }
+            }
+        }
+        return readDaoSession;
+    }
+
+    /**
+     * Compiled statements of the database, shared by all {@link DatabaseConnectionOrm} instances
+     */
+    static StatementCache getStatementCache(Context context, String DATABASE_NAME_ORM) {
+        if(statementCache == null) {
+            DaoSession session = getDaoSession(context, DATABASE_NAME_ORM);
+            synchronized (DatabaseHelperOrm.class) {
+                if(statementCache == null) {
+                    statementCache = new StatementCache(session.getDatabase());
+                }
+            }
+        }
+        return statementCache;
+    }
+
+    private static class OpenHelper extends DaoMaster.OpenHelper {
+
+        OpenHelper(Context context, String name) {
+            super(context, name, null);
+            // Readers get their own connections (up to the connection pool size of the device) and
+            // don't have to wait for a running write transaction; writes stay serialized on the
+            // primary connection
+            setWriteAheadLoggingEnabled(true);
+        }
+
+        @Override
+        public void onCreate(SQLiteDatabase db) {
+            super.onCreate(db);
+            FeedItemCounts.createTriggers(db);
+        }
+
+        @Override
+        public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+            if(DatabaseMigrations.canMigrate(oldVersion)) {
+                Log.i(TAG, "Migrating schema from version " + oldVersion + " to " + newVersion);
+                DatabaseMigrations.migrate(db, oldVersion, newVersion);
+            } else {
+                Log.i(TAG, "Upgrading schema from version " + oldVersion + " to " + newVersion + " by dropping all tables");
+                DaoMaster.dropAllTables(db, true);
+                onCreate(db);
+            }
+        }
+    }
 }
@@ -0,0 +1,249 @@
+package de.luhmer.owncloudnewsreader.database;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+
+/**
+ * Upgrades the database of a previous app version in place, so articles, read/starred states and
+ * the sync progress survive an update. There is one migration for every schema version (see
+ * database/generator) - the statements are frozen copies of what greenDAO generated for that
+ * version and must not be changed once released.
+ *
+ * Databases older than {@link #MIN_MIGRATABLE_VERSION} are recreated.
+ */
+public class DatabaseMigrations {
+
+    private static final String TAG = DatabaseMigrations.class.getCanonicalName();
+
+    static final int MIN_MIGRATABLE_VERSION = 7;
+
+    public static boolean canMigrate(int oldVersion) {
+        return oldVersion >= MIN_MIGRATABLE_VERSION;
+    }
+
+    /**
+     * Has to be called within a transaction (which is the case in SQLiteOpenHelper.onUpgrade)
+     */
+    public static void migrate(SQLiteDatabase db, int oldVersion, int newVersion) {
+        if (!canMigrate(oldVersion)) {
+            throw new IllegalArgumentException("Can't migrate schema version " + oldVersion);
+        }
+
+        for (int version = oldVersion + 1; version <= newVersion; version++) {
+            Log.i(TAG, "Migrating database to schema version " + version);
+            migrateTo(db, version);
+        }
+    }
+
+    private static void migrateTo(SQLiteDatabase db, int version) {
+        switch (version) {
+            case 8:
+                migrateTo8(db);
+                break;
+            case 9:
+                migrateTo9(db);
+                break;
+            case 10:
+                migrateTo10(db);
+                break;
+            case 11:
+                migrateTo11(db);
+                break;
+            case 12:
+                migrateTo12(db);
+                break;
+            case 13:
+                migrateTo13(db);
+                break;
+            case 14:
+                migrateTo14(db);
+                break;
+            case 15:
+                migrateTo15(db);
+                break;
+            default:
+                throw new IllegalStateException("No migration to schema version " + version);
+        }
+    }
+
+    /* Progress of the first sync */
+    private static void migrateTo8(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE \"SYNC_CHECKPOINT\" (" +
+                "\"_id\" INTEGER PRIMARY KEY NOT NULL ," +
+                "\"PHASE\" TEXT NOT NULL ," +
+                "\"OFFSET_CURSOR\" INTEGER NOT NULL ," +
+                "\"ITEMS_FETCHED\" INTEGER NOT NULL ," +
+                "\"UPDATED\" INTEGER);");
+    }
+
+    /* Statistics of the sync runs */
+    private static void migrateTo9(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE \"SYNC_STATS\" (" +
+                "\"_id\" INTEGER PRIMARY KEY ," +
+                "\"STARTED_AT\" INTEGER NOT NULL ," +
+                "\"SUCCESSFUL\" INTEGER NOT NULL ," +
+                "\"ERROR\" TEXT," +
+                "\"TOTAL_MILLIS\" INTEGER NOT NULL ," +
+                "\"STATE_SYNC_MILLIS\" INTEGER NOT NULL ," +
+                "\"FOLDERS_MILLIS\" INTEGER NOT NULL ," +
+                "\"FEEDS_MILLIS\" INTEGER NOT NULL ," +
+                "\"ITEM_PAGES\" INTEGER NOT NULL ," +
+                "\"ITEM_PAGES_MILLIS\" INTEGER NOT NULL ," +
+                "\"BYTES_DOWNLOADED\" INTEGER NOT NULL ," +
+                "\"ITEMS_INSERTED\" INTEGER NOT NULL ," +
+                "\"ITEMS_UPDATED\" INTEGER NOT NULL ," +
+                "\"ITEMS_SKIPPED\" INTEGER NOT NULL ," +
+                "\"TRANSACTIONS\" INTEGER NOT NULL ," +
+                "\"TRANSACTION_MILLIS\" INTEGER NOT NULL ," +
+                "\"FAVICON_MILLIS\" INTEGER NOT NULL );");
+    }
+
+    /* Body and media description moved from RSS_ITEM into RSS_ITEM_CONTENT */
+    private static void migrateTo10(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE \"RSS_ITEM_CONTENT\" (" +
+                "\"_id\" INTEGER PRIMARY KEY NOT NULL ," +
+                "\"BODY\" TEXT," +
+                "\"MEDIA_DESCRIPTION\" TEXT);");
+        db.execSQL("INSERT INTO RSS_ITEM_CONTENT (_id, BODY, MEDIA_DESCRIPTION)" +
+                " SELECT _id, BODY, MEDIA_DESCRIPTION FROM RSS_ITEM");
+
+        // SQLite can't drop columns - copy the remaining ones into a new table
+        String columns = "_id, FEED_ID, LINK, TITLE, READ, STARRED, AUTHOR, GUID, GUID_HASH, FINGERPRINT, " +
+                "READ_TEMP, STARRED_TEMP, LAST_MODIFIED, PUB_DATE, ENCLOSURE_LINK, ENCLOSURE_MIME, MEDIA_THUMBNAIL, RTL";
+        db.execSQL("CREATE TABLE \"RSS_ITEM_NEW\" (" +
+                "\"_id\" INTEGER PRIMARY KEY NOT NULL ," +
+                "\"FEED_ID\" INTEGER NOT NULL ," +
+                "\"LINK\" TEXT," +
+                "\"TITLE\" TEXT," +
+                "\"READ\" INTEGER," +
+                "\"STARRED\" INTEGER," +
+                "\"AUTHOR\" TEXT NOT NULL ," +
+                "\"GUID\" TEXT NOT NULL ," +
+                "\"GUID_HASH\" TEXT NOT NULL ," +
+                "\"FINGERPRINT\" TEXT NOT NULL ," +
+                "\"READ_TEMP\" INTEGER," +
+                "\"STARRED_TEMP\" INTEGER," +
+                "\"LAST_MODIFIED\" INTEGER," +
+                "\"PUB_DATE\" INTEGER," +
+                "\"ENCLOSURE_LINK\" TEXT," +
+                "\"ENCLOSURE_MIME\" TEXT," +
+                "\"MEDIA_THUMBNAIL\" TEXT," +
+                "\"RTL\" INTEGER);");
+        db.execSQL("INSERT INTO RSS_ITEM_NEW (" + columns + ") SELECT " + columns + " FROM RSS_ITEM");
+        db.execSQL("DROP TABLE RSS_ITEM");
+        db.execSQL("ALTER TABLE RSS_ITEM_NEW RENAME TO RSS_ITEM");
+        db.execSQL("CREATE INDEX IDX_RSS_ITEM_FEED_ID ON RSS_ITEM (\"FEED_ID\");");
+    }
+
+    /* Bodies are stored compressed (BODY replaced by BODY_DATA and BODY_CODEC) */
+    private static void migrateTo11(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE \"RSS_ITEM_CONTENT_NEW\" (" +
+                "\"_id\" INTEGER PRIMARY KEY NOT NULL ," +
+                "\"MEDIA_DESCRIPTION\" TEXT," +
+                "\"BODY_DATA\" BLOB," +
+                "\"BODY_CODEC\" INTEGER NOT NULL );");
+
+        SQLiteStatement insert = db.compileStatement("INSERT INTO RSS_ITEM_CONTENT_NEW" +
+                " (_id, MEDIA_DESCRIPTION, BODY_DATA, BODY_CODEC) VALUES (?, ?, ?, ?)");
+        try (Cursor cursor = db.rawQuery("SELECT _id, BODY, MEDIA_DESCRIPTION FROM RSS_ITEM_CONTENT", null)) {
+            while (cursor.moveToNext()) {
+                String body = cursor.isNull(1) ? null : cursor.getString(1);
+                int codec = BodyCodec.getCodec(body);
+                byte[] bodyData = BodyCodec.encode(body, codec);
+
+                insert.clearBindings();
+                insert.bindLong(1, cursor.getLong(0));
+                if (!cursor.isNull(2)) {
+                    insert.bindString(2, cursor.getString(2));
+                }
+                if (bodyData != null) {
+                    insert.bindBlob(3, bodyData);
+                }
+                insert.bindLong(4, codec);
+                insert.executeInsert();
+            }
+        } finally {
+            insert.close();
+        }
+
+        db.execSQL("DROP TABLE RSS_ITEM_CONTENT");
+        db.execSQL("ALTER TABLE RSS_ITEM_CONTENT_NEW RENAME TO RSS_ITEM_CONTENT");
+    }
+
+    /* Indices for the item lists and counts */
+    private static void migrateTo12(SQLiteDatabase db) {
+        db.execSQL("CREATE INDEX IDX_RSS_ITEM_FEED_ID_READ_TEMP_PUB_DATE ON RSS_ITEM (\"FEED_ID\",\"READ_TEMP\",\"PUB_DATE\");");
+        db.execSQL("CREATE INDEX IDX_RSS_ITEM_READ_TEMP_PUB_DATE ON RSS_ITEM (\"READ_TEMP\",\"PUB_DATE\");");
+        db.execSQL("CREATE INDEX IDX_RSS_ITEM_STARRED_TEMP_FEED_ID ON RSS_ITEM (\"STARRED_TEMP\",\"FEED_ID\");");
+    }
+
+    /* Unread/starred counts per feed, maintained by triggers */
+    private static void migrateTo13(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE \"FEED_ITEM_COUNT\" (" +
+                "\"_id\" INTEGER PRIMARY KEY NOT NULL ," +
+                "\"UNREAD_COUNT\" INTEGER NOT NULL ," +
+                "\"STARRED_COUNT\" INTEGER NOT NULL );");
+        // Triggers and counts of FeedItemCounts as released with version 13
+        for (String trigger : FEED_ITEM_COUNT_TRIGGERS_V13) {
+            db.execSQL(trigger);
+        }
+        db.execSQL("DELETE FROM FEED_ITEM_COUNT");
+        db.execSQL("INSERT INTO FEED_ITEM_COUNT (_id, UNREAD_COUNT, STARRED_COUNT)" +
+                " SELECT FEED_ID, SUM(READ_TEMP IS 0), SUM(STARRED_TEMP IS 1) FROM RSS_ITEM GROUP BY FEED_ID");
+    }
+
+    private static final String[] FEED_ITEM_COUNT_TRIGGERS_V13 = {
+            "CREATE TRIGGER FEED_ITEM_COUNT_BEFORE_INSERT BEFORE INSERT ON RSS_ITEM BEGIN " +
+                    "UPDATE FEED_ITEM_COUNT SET " +
+                    "UNREAD_COUNT = UNREAD_COUNT - (SELECT READ_TEMP IS 0 FROM RSS_ITEM WHERE _id = NEW._id), " +
+                    "STARRED_COUNT = STARRED_COUNT - (SELECT STARRED_TEMP IS 1 FROM RSS_ITEM WHERE _id = NEW._id) " +
+                    "WHERE _id = (SELECT FEED_ID FROM RSS_ITEM WHERE _id = NEW._id); " +
+                    "END",
+            "CREATE TRIGGER FEED_ITEM_COUNT_AFTER_INSERT AFTER INSERT ON RSS_ITEM BEGIN " +
+                    "INSERT INTO FEED_ITEM_COUNT (_id, UNREAD_COUNT, STARRED_COUNT) SELECT NEW.FEED_ID, 0, 0 " +
+                    "WHERE NOT EXISTS (SELECT 1 FROM FEED_ITEM_COUNT WHERE _id = NEW.FEED_ID); " +
+                    "UPDATE FEED_ITEM_COUNT SET UNREAD_COUNT = UNREAD_COUNT + (NEW.READ_TEMP IS 0), " +
+                    "STARRED_COUNT = STARRED_COUNT + (NEW.STARRED_TEMP IS 1) WHERE _id = NEW.FEED_ID; " +
+                    "END",
+            "CREATE TRIGGER FEED_ITEM_COUNT_AFTER_UPDATE AFTER UPDATE OF FEED_ID, READ_TEMP, STARRED_TEMP ON RSS_ITEM BEGIN " +
+                    "UPDATE FEED_ITEM_COUNT SET UNREAD_COUNT = UNREAD_COUNT - (OLD.READ_TEMP IS 0), " +
+                    "STARRED_COUNT = STARRED_COUNT - (OLD.STARRED_TEMP IS 1) WHERE _id = OLD.FEED_ID; " +
+                    "INSERT INTO FEED_ITEM_COUNT (_id, UNREAD_COUNT, STARRED_COUNT) SELECT NEW.FEED_ID, 0, 0 " +
+                    "WHERE NOT EXISTS (SELECT 1 FROM FEED_ITEM_COUNT WHERE _id = NEW.FEED_ID); " +
+                    "UPDATE FEED_ITEM_COUNT SET UNREAD_COUNT = UNREAD_COUNT + (NEW.READ_TEMP IS 0), " +
+                    "STARRED_COUNT = STARRED_COUNT + (NEW.STARRED_TEMP IS 1) WHERE _id = NEW.FEED_ID; " +
+                    "END",
+            "CREATE TRIGGER FEED_ITEM_COUNT_AFTER_DELETE AFTER DELETE ON RSS_ITEM BEGIN " +
+                    "UPDATE FEED_ITEM_COUNT SET UNREAD_COUNT = UNREAD_COUNT - (OLD.READ_TEMP IS 0), " +
+                    "STARRED_COUNT = STARRED_COUNT - (OLD.STARRED_TEMP IS 1) WHERE _id = OLD.FEED_ID; " +
+                    "END"
+    };
+
+    /* Item and byte counts per feed for the retention policy - the counts are derived data, so the
+       table is simply created again */
+    private static void migrateTo14(SQLiteDatabase db) {
+        FeedItemCounts.dropTriggers(db);
+        db.execSQL("DROP TABLE FEED_ITEM_COUNT");
+        db.execSQL("CREATE TABLE \"FEED_ITEM_COUNT\" (" +
+                "\"_id\" INTEGER PRIMARY KEY NOT NULL ," +
+                "\"UNREAD_COUNT\" INTEGER NOT NULL ," +
+                "\"STARRED_COUNT\" INTEGER NOT NULL ," +
+                "\"ITEM_COUNT\" INTEGER NOT NULL ," +
+                "\"BYTE_COUNT\" INTEGER NOT NULL );");
+        FeedItemCounts.createTriggers(db);
+        FeedItemCounts.rebuild(db);
+    }
+
+    /* Indices for the lists of all items of a feed and of all starred items. Items without pubDate
+       get 0, like new items, so the lists can be paged by the indexed column. The search result
+       table holds the ids of the items found by the body search. */
+    private static void migrateTo15(SQLiteDatabase db) {
+        db.execSQL("UPDATE RSS_ITEM SET PUB_DATE = 0 WHERE PUB_DATE IS NULL");
+        db.execSQL("CREATE INDEX IDX_RSS_ITEM_FEED_ID_PUB_DATE ON RSS_ITEM (\"FEED_ID\",\"PUB_DATE\");");
+        db.execSQL("CREATE INDEX IDX_RSS_ITEM_STARRED_TEMP_PUB_DATE ON RSS_ITEM (\"STARRED_TEMP\",\"PUB_DATE\");");
+        db.execSQL("CREATE TABLE \"SEARCH_RESULT\" (" +
+                "\"_id\" INTEGER PRIMARY KEY NOT NULL );");
+    }
+}
@@ -0,0 +1,134 @@
+package de.luhmer.owncloudnewsreader.database;
+
+import android.database.sqlite.SQLiteDatabase;
+
+/**
+ * Number of unread, starred and all items per feed and the bytes of their content (table
+ * FEED_ITEM_COUNT). The counts are kept up to date by triggers on RSS_ITEM and RSS_ITEM_CONTENT,
+ * so the unread/starred counts of the drawer and the sizes checked by the {@link RetentionPolicy}
+ * are read from a table with one row per feed instead of counting all items every time.
+ *
+ * Like the other queries, an item is unread if read_temp = 0 and starred if starred_temp = 1.
+ * The bytes are the ones of the (compressed) body and the media description. They belong to the
+ * feed of the item, no matter if the content is written before or after the item.
+ */
+public class FeedItemCounts {
+
+    private static final String[] TRIGGER_NAMES = {
+            "FEED_ITEM_COUNT_BEFORE_INSERT",
+            "FEED_ITEM_COUNT_AFTER_INSERT",
+            "FEED_ITEM_COUNT_AFTER_UPDATE",
+            "FEED_ITEM_COUNT_AFTER_DELETE",
+            "FEED_BYTE_COUNT_AFTER_FEED_CHANGE",
+            "FEED_BYTE_COUNT_BEFORE_CONTENT_INSERT",
+            "FEED_BYTE_COUNT_AFTER_CONTENT_INSERT",
+            "FEED_BYTE_COUNT_AFTER_CONTENT_UPDATE",
+            "FEED_BYTE_COUNT_AFTER_CONTENT_DELETE"
+    };
+
+    private static final String[] TRIGGERS = {
+            // An "INSERT OR REPLACE" of an existing item deletes the old row without firing the
+            // delete trigger (recursive triggers are disabled) - remove its counts before the insert.
+            // Trigger statements use no conflict clause, it would be overridden by the one of
+            // the insert ("OR REPLACE") which fired them.
+            "CREATE TRIGGER FEED_ITEM_COUNT_BEFORE_INSERT BEFORE INSERT ON RSS_ITEM BEGIN " +
+                    "UPDATE FEED_ITEM_COUNT SET " +
+                    "UNREAD_COUNT = UNREAD_COUNT - (SELECT READ_TEMP IS 0 FROM RSS_ITEM WHERE _id = NEW._id), " +
+                    "STARRED_COUNT = STARRED_COUNT - (SELECT STARRED_TEMP IS 1 FROM RSS_ITEM WHERE _id = NEW._id), " +
+                    "ITEM_COUNT = ITEM_COUNT - 1, " +
+                    "BYTE_COUNT = BYTE_COUNT - " + contentSize("NEW._id") + " " +
+                    "WHERE _id = (SELECT FEED_ID FROM RSS_ITEM WHERE _id = NEW._id); " +
+                    "END",
+            "CREATE TRIGGER FEED_ITEM_COUNT_AFTER_INSERT AFTER INSERT ON RSS_ITEM BEGIN " +
+                    insertCountRow("NEW.FEED_ID") +
+                    addCounts("+", "NEW", true) +
+                    "END",
+            "CREATE TRIGGER FEED_ITEM_COUNT_AFTER_UPDATE AFTER UPDATE OF FEED_ID, READ_TEMP, STARRED_TEMP ON RSS_ITEM BEGIN " +
+                    addCounts("-", "OLD", false) +
+                    insertCountRow("NEW.FEED_ID") +
+                    addCounts("+", "NEW", false) +
+                    "END",
+            "CREATE TRIGGER FEED_ITEM_COUNT_AFTER_DELETE AFTER DELETE ON RSS_ITEM BEGIN " +
+                    addCounts("-", "OLD", true) +
+                    "END",
+            // The bytes only move if the item moves to another feed (not on every read/starred change)
+            "CREATE TRIGGER FEED_BYTE_COUNT_AFTER_FEED_CHANGE AFTER UPDATE OF FEED_ID ON RSS_ITEM " +
+                    "WHEN OLD.FEED_ID IS NOT NEW.FEED_ID BEGIN " +
+                    insertCountRow("NEW.FEED_ID") +
+                    "UPDATE FEED_ITEM_COUNT SET BYTE_COUNT = BYTE_COUNT - " + contentSize("OLD._id") + " WHERE _id = OLD.FEED_ID; " +
+                    "UPDATE FEED_ITEM_COUNT SET BYTE_COUNT = BYTE_COUNT + " + contentSize("NEW._id") + " WHERE _id = NEW.FEED_ID; " +
+                    "END",
+            // Content of items which don't exist (yet) isn't counted - the item triggers add it
+            "CREATE TRIGGER FEED_BYTE_COUNT_BEFORE_CONTENT_INSERT BEFORE INSERT ON RSS_ITEM_CONTENT BEGIN " +
+                    addBytes("-", contentSize("NEW._id"), "NEW._id") +
+                    "END",
+            "CREATE TRIGGER FEED_BYTE_COUNT_AFTER_CONTENT_INSERT AFTER INSERT ON RSS_ITEM_CONTENT BEGIN " +
+                    addBytes("+", rowSize("NEW"), "NEW._id") +
+                    "END",
+            "CREATE TRIGGER FEED_BYTE_COUNT_AFTER_CONTENT_UPDATE AFTER UPDATE OF BODY_DATA, MEDIA_DESCRIPTION ON RSS_ITEM_CONTENT BEGIN " +
+                    addBytes("-", rowSize("OLD"), "OLD._id") +
+                    addBytes("+", rowSize("NEW"), "NEW._id") +
+                    "END",
+            "CREATE TRIGGER FEED_BYTE_COUNT_AFTER_CONTENT_DELETE AFTER DELETE ON RSS_ITEM_CONTENT BEGIN " +
+                    addBytes("-", rowSize("OLD"), "OLD._id") +
+                    "END"
+    };
+
+    private static String insertCountRow(String feedId) {
+        return "INSERT INTO FEED_ITEM_COUNT (_id, UNREAD_COUNT, STARRED_COUNT, ITEM_COUNT, BYTE_COUNT) SELECT " + feedId + ", 0, 0, 0, 0 " +
+                "WHERE NOT EXISTS (SELECT 1 FROM FEED_ITEM_COUNT WHERE _id = " + feedId + "); ";
+    }
+
+    private static String addCounts(String operator, String row, boolean withBytes) {
+        return "UPDATE FEED_ITEM_COUNT SET " +
+                "UNREAD_COUNT = UNREAD_COUNT " + operator + " (" + row + ".READ_TEMP IS 0), " +
+                "STARRED_COUNT = STARRED_COUNT " + operator + " (" + row + ".STARRED_TEMP IS 1), " +
+                "ITEM_COUNT = ITEM_COUNT " + operator + " 1" +
+                (withBytes ? ", BYTE_COUNT = BYTE_COUNT " + operator + " " + contentSize(row + "._id") : "") + " " +
+                "WHERE _id = " + row + ".FEED_ID; ";
+    }
+
+    private static String addBytes(String operator, String size, String itemId) {
+        return "UPDATE FEED_ITEM_COUNT SET BYTE_COUNT = BYTE_COUNT " + operator + " " + size + " " +
+                "WHERE _id = (SELECT FEED_ID FROM RSS_ITEM WHERE _id = " + itemId + "); ";
+    }
+
+    /**
+     * @return bytes of the stored content of the item with the given id (0 if there is none)
+     */
+    private static String contentSize(String itemId) {
+        return "IFNULL((SELECT " + rowSize("c") + " FROM RSS_ITEM_CONTENT c WHERE c._id = " + itemId + "), 0)";
+    }
+
+    private static String rowSize(String row) {
+        return "(IFNULL(LENGTH(" + row + ".BODY_DATA), 0) + IFNULL(LENGTH(CAST(" + row + ".MEDIA_DESCRIPTION AS BLOB)), 0))";
+    }
+
+    /**
+     * Creates the triggers which maintain the counts (the FEED_ITEM_COUNT table is created by greenDAO)
+     */
+    public static void createTriggers(SQLiteDatabase db) {
+        for (String trigger : TRIGGERS) {
+            db.execSQL(trigger);
+        }
+    }
+
+    /**
+     * Drops the triggers (if they exist), e.g. before a migration creates the current ones
+     */
+    public static void dropTriggers(SQLiteDatabase db) {
+        for (String name : TRIGGER_NAMES) {
+            db.execSQL("DROP TRIGGER IF EXISTS " + name);
+        }
+    }
+
+    /**
+     * Counts all items again (e.g. after the counter table was added by a migration)
+     */
+    public static void rebuild(SQLiteDatabase db) {
+        db.execSQL("DELETE FROM FEED_ITEM_COUNT");
+        db.execSQL("INSERT INTO FEED_ITEM_COUNT (_id, UNREAD_COUNT, STARRED_COUNT, ITEM_COUNT, BYTE_COUNT)" +
+                " SELECT i.FEED_ID, SUM(i.READ_TEMP IS 0), SUM(i.STARRED_TEMP IS 1), COUNT(*), IFNULL(SUM(" + rowSize("c") + "), 0)" +
+                " FROM RSS_ITEM i LEFT JOIN RSS_ITEM_CONTENT c ON c._id = i._id GROUP BY i.FEED_ID");
+    }
+}
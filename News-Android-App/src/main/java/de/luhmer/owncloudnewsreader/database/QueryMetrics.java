@@ -0,0 +1,140 @@
+package de.luhmer.owncloudnewsreader.database;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Time spent preparing (compiling) and executing the queries of {@link StatementCache}, per query
+ * shape (the SQL without values). A statement which is taken from the cache isn't prepared again,
+ * so a shape should have far fewer prepares than executions. All methods are thread safe.
+ *
+ * Only the most recently used shapes are kept, so queries with values in their SQL can't let the
+ * metrics grow for as long as the app runs.
+ */
+public class QueryMetrics {
+
+    // Number of shapes listed by toString (the ones which took the most time)
+    private static final int MaxShapesInSummary = 5;
+    // Far more than the fixed shapes of the app
+    static final int MaxShapes = 100;
+
+    private final Map<String, Shape> shapes = new LinkedHashMap<String, Shape>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Shape> eldest) {
+            return size() > MaxShapes;
+        }
+    };
+
+    synchronized void recordPrepare(String sql, long nanos) {
+        getShape(sql).recordPrepare(nanos);
+    }
+
+    synchronized void recordExecute(String sql, long nanos) {
+        getShape(sql).recordExecute(nanos);
+    }
+
+    /**
+     * @return the metrics of the query (created on first access)
+     */
+    public synchronized Shape getShape(String sql) {
+        Shape shape = shapes.get(sql);
+        if(shape == null) {
+            shape = new Shape(sql);
+            shapes.put(sql, shape);
+        }
+        return shape;
+    }
+
+    public synchronized List<Shape> getShapes() {
+        return new ArrayList<>(shapes.values());
+    }
+
+    @Override
+    public synchronized String toString() {
+        Shape total = new Shape("total");
+        for(Shape shape : shapes.values()) {
+            total.add(shape);
+        }
+
+        List<Shape> slowest = getShapes();
+        Collections.sort(slowest, new Comparator<Shape>() {
+            @Override
+            public int compare(Shape a, Shape b) {
+                return Long.compare(b.getTotalNanos(), a.getTotalNanos());
+            }
+        });
+
+        StringBuilder sb = new StringBuilder("QueryMetrics{").append(shapes.size()).append(" shapes, ").append(total);
+        for(Shape shape : slowest.subList(0, Math.min(MaxShapesInSummary, slowest.size()))) {
+            sb.append(", ").append(shape);
+        }
+        return sb.append('}').toString();
+    }
+
+    /**
+     * Prepare and execute times of one query
+     */
+    public static class Shape {
+        private final String sql;
+        private long prepares;
+        private long prepareNanos;
+        private long executions;
+        private long executeNanos;
+
+        Shape(String sql) {
+            this.sql = sql;
+        }
+
+        synchronized void recordPrepare(long nanos) {
+            prepares++;
+            prepareNanos += nanos;
+        }
+
+        synchronized void recordExecute(long nanos) {
+            executions++;
+            executeNanos += nanos;
+        }
+
+        synchronized void add(Shape other) {
+            prepares += other.getPrepareCount();
+            prepareNanos += other.getPrepareNanos();
+            executions += other.getExecuteCount();
+            executeNanos += other.getExecuteNanos();
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public synchronized long getPrepareCount() {
+            return prepares;
+        }
+
+        public synchronized long getPrepareNanos() {
+            return prepareNanos;
+        }
+
+        public synchronized long getExecuteCount() {
+            return executions;
+        }
+
+        public synchronized long getExecuteNanos() {
+            return executeNanos;
+        }
+
+        synchronized long getTotalNanos() {
+            return prepareNanos + executeNanos;
+        }
+
+        @Override
+        public synchronized String toString() {
+            return String.format(Locale.US, "%s: %d prepares in %.1fms, %d executions in %.1fms",
+                    sql, prepares, prepareNanos / 1e6, executions, executeNanos / 1e6);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package de.luhmer.owncloudnewsreader.database;
+
+import android.content.SharedPreferences;
+
+import java.util.concurrent.TimeUnit;
+
+import de.luhmer.owncloudnewsreader.SettingsActivity;
+
+/**
+ * Limits for the articles which are kept on the device, applied after every sync by
+ * {@link DatabaseConnectionOrm#purgeRssItems(RetentionPolicy)}. A limit of 0 means unlimited.
+ *
+ * Items which are unread, starred, shown in the current list or whose read/starred state wasn't
+ * uploaded yet are never deleted, so the limits can be exceeded if there are too many of them.
+ */
+public class RetentionPolicy {
+
+    public static final String DEFAULT_MAX_SIZE_MB = "100";
+    public static final String DEFAULT_MAX_ITEMS_PER_FEED = "500";
+    public static final String DEFAULT_MAX_AGE_DAYS = "0";
+
+    private static final long BYTES_PER_MB = 1024 * 1024;
+
+    private final long maxBytes;
+    private final int maxItemsPerFeed;
+    private final long maxAgeMillis;
+
+    /**
+     * @param maxBytes        bytes of the stored article content (bodies and media descriptions)
+     * @param maxItemsPerFeed items per feed
+     * @param maxAgeMillis    age of the items (by their pubDate)
+     */
+    public RetentionPolicy(long maxBytes, int maxItemsPerFeed, long maxAgeMillis) {
+        this.maxBytes = maxBytes;
+        this.maxItemsPerFeed = maxItemsPerFeed;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    public static RetentionPolicy fromPreferences(SharedPreferences prefs) {
+        long maxSizeMb = Long.parseLong(prefs.getString(SettingsActivity.SP_RETENTION_MAX_SIZE, DEFAULT_MAX_SIZE_MB));
+        int maxItemsPerFeed = Integer.parseInt(prefs.getString(SettingsActivity.SP_RETENTION_MAX_ITEMS_PER_FEED, DEFAULT_MAX_ITEMS_PER_FEED));
+        long maxAgeDays = Long.parseLong(prefs.getString(SettingsActivity.SP_RETENTION_MAX_AGE, DEFAULT_MAX_AGE_DAYS));
+        return new RetentionPolicy(maxSizeMb * BYTES_PER_MB, maxItemsPerFeed, TimeUnit.DAYS.toMillis(maxAgeDays));
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public int getMaxItemsPerFeed() {
+        return maxItemsPerFeed;
+    }
+
+    public long getMaxAgeMillis() {
+        return maxAgeMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "RetentionPolicy{maxBytes=" + maxBytes + ", maxItemsPerFeed=" + maxItemsPerFeed + ", maxAgeMillis=" + maxAgeMillis + "}";
+    }
+}
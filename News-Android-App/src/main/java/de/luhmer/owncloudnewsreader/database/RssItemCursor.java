@@ -0,0 +1,79 @@
+package de.luhmer.owncloudnewsreader.database;
+
+import java.util.Date;
+
+import de.luhmer.owncloudnewsreader.database.DatabaseConnectionOrm.SORT_DIRECTION;
+import de.luhmer.owncloudnewsreader.database.model.RssItem;
+import de.luhmer.owncloudnewsreader.database.model.RssItemDao;
+
+/**
+ * Position in an item list which is sorted by (pubDate, id). The next page starts directly after
+ * this position (keyset pagination), so loading a page costs the same no matter how far the user
+ * has scrolled and items which were added/removed in the meantime don't shift the pages.
+ *
+ * Callers only pass the encoded cursor back to {@link DatabaseConnectionOrm}, the format is not part
+ * of the API. A cursor is only valid for the sort direction it was created for.
+ */
+public class RssItemCursor {
+
+    private static final String SEPARATOR = ":";
+
+    private final SORT_DIRECTION sortDirection;
+    private final long pubDate;
+    private final long id;
+
+    private RssItemCursor(SORT_DIRECTION sortDirection, long pubDate, long id) {
+        this.sortDirection = sortDirection;
+        this.pubDate = pubDate;
+        this.id = id;
+    }
+
+    static RssItemCursor of(RssItem rssItem, SORT_DIRECTION sortDirection) {
+        // A missing pubDate is stored as 0 (see DatabaseConnectionOrm#insertNewItems)
+        Date pubDate = rssItem.getPubDate();
+        return new RssItemCursor(sortDirection, pubDate != null ? pubDate.getTime() : 0, rssItem.getId());
+    }
+
+    String encode() {
+        return sortDirection + SEPARATOR + pubDate + SEPARATOR + id;
+    }
+
+    static RssItemCursor decode(String cursor, SORT_DIRECTION sortDirection) {
+        String[] parts = cursor.split(SEPARATOR);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        if (!sortDirection.toString().equals(parts[0])) {
+            throw new IllegalArgumentException("Cursor " + cursor + " can't be used for a list sorted " + sortDirection);
+        }
+        try {
+            return new RssItemCursor(sortDirection, Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    /**
+     * @return condition which matches the items after this position. Written without row values
+     *         (not supported by the SQLite versions of older devices), the first part restricts the
+     *         range of the pubDate index.
+     */
+    SqlCondition getItemsAfterCondition() {
+        String pubDateColumn = "T." + RssItemDao.Properties.PubDate.columnName;
+        String idColumn = "T." + RssItemDao.Properties.Id.columnName;
+        String operator = sortDirection == SORT_DIRECTION.desc ? "<" : ">";
+        return new SqlCondition(pubDateColumn + " " + operator + "= ?" +
+                " AND (" + pubDateColumn + " " + operator + " ? OR " + idColumn + " " + operator + " ?)", pubDate, pubDate, id);
+    }
+
+    /**
+     * @return condition which matches the items up to (including) this position
+     */
+    SqlCondition getItemsUpToCondition() {
+        String pubDateColumn = "T." + RssItemDao.Properties.PubDate.columnName;
+        String idColumn = "T." + RssItemDao.Properties.Id.columnName;
+        String operator = sortDirection == SORT_DIRECTION.desc ? ">" : "<";
+        return new SqlCondition(pubDateColumn + " " + operator + "= ?" +
+                " AND (" + pubDateColumn + " " + operator + " ? OR " + idColumn + " " + operator + "= ?)", pubDate, pubDate, id);
+    }
+}
@@ -0,0 +1,107 @@
+package de.luhmer.owncloudnewsreader.database;
+
+import android.database.sqlite.SQLiteStatement;
+
+import java.util.Arrays;
+
+/**
+ * Part of a WHERE clause with "?" placeholders and the values which are bound to them. Values are
+ * never written into the SQL, so the SQL of a query only depends on its shape (e.g. "items of a
+ * feed") and SQLite can reuse the compiled statement for every feed - and user input like a
+ * search text can't change the query.
+ */
+class SqlCondition {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private final String sql;
+    private final Object[] args;
+
+    SqlCondition(String sql, Object... args) {
+        this.sql = sql;
+        this.args = args;
+    }
+
+    /**
+     * @return column = value
+     */
+    static SqlCondition eq(String column, long value) {
+        return new SqlCondition(column + " = ?", value);
+    }
+
+    /**
+     * @return condition which matches if the column contains the text (case insensitive for ASCII
+     *         characters, like LIKE). Wildcards in the text are matched literally.
+     */
+    static SqlCondition contains(String column, String text) {
+        return new SqlCondition(column + " LIKE ? ESCAPE '" + LIKE_ESCAPE + "'", "%" + escapeLike(text) + "%");
+    }
+
+    private static String escapeLike(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                sb.append(LIKE_ESCAPE);
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    SqlCondition and(SqlCondition other) {
+        Object[] joinedArgs = Arrays.copyOf(args, args.length + other.args.length);
+        System.arraycopy(other.args, 0, joinedArgs, args.length, other.args.length);
+        return new SqlCondition(sql + " AND " + other.sql, joinedArgs);
+    }
+
+    String getSql() {
+        return sql;
+    }
+
+    /**
+     * @return the values as strings for {@link android.database.sqlite.SQLiteDatabase#rawQuery} and
+     *         greenDAO's queryRaw (numbers are converted back by the affinity of the compared column)
+     */
+    String[] getArgs() {
+        String[] result = new String[args.length];
+        for (int i = 0; i < args.length; i++) {
+            result[i] = String.valueOf(args[i]);
+        }
+        return result;
+    }
+
+    Object[] getBindArgs() {
+        return args;
+    }
+
+    /**
+     * Binds the values (with their type) to the placeholders of a compiled statement, starting at
+     * index 1
+     */
+    static void bind(SQLiteStatement statement, Object[] args) {
+        statement.clearBindings();
+        for (int i = 0; i < args.length; i++) {
+            Object arg = args[i];
+            int index = i + 1;
+            if (arg == null) {
+                statement.bindNull(index);
+            } else if (arg instanceof Long || arg instanceof Integer) {
+                statement.bindLong(index, ((Number) arg).longValue());
+            } else if (arg instanceof Boolean) {
+                statement.bindLong(index, (Boolean) arg ? 1 : 0);
+            } else if (arg instanceof Double || arg instanceof Float) {
+                statement.bindDouble(index, ((Number) arg).doubleValue());
+            } else if (arg instanceof byte[]) {
+                statement.bindBlob(index, (byte[]) arg);
+            } else {
+                statement.bindString(index, arg.toString());
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return sql + " " + Arrays.toString(args);
+    }
+}
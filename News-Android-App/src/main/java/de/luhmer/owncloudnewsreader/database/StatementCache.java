@@ -0,0 +1,138 @@
+package de.luhmer.owncloudnewsreader.database;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteDoneException;
+import android.database.sqlite.SQLiteStatement;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compiled statements of the queries which run again and again (counts, sizes, "mark as read"),
+ * one per query shape. The values are bound (see {@link SqlCondition}), so a statement is compiled
+ * once and then only re-bound. Cursor queries can't be kept open, but they benefit as well: SQLite
+ * caches the prepared statements of every connection by their SQL, which only hits if the values
+ * aren't part of the SQL.
+ *
+ * The prepare and execute times are recorded in the {@link QueryMetrics}. A statement is only used
+ * by one thread at a time.
+ */
+class StatementCache {
+
+    // Like the statement cache of a SQLite connection - statements of further shapes are compiled
+    // for every execution (the shapes are fixed, so this only happens for ad hoc queries)
+    private static final int MaxStatements = 25;
+
+    private final SQLiteDatabase db;
+    private final Map<String, SQLiteStatement> statements = new HashMap<>();
+    private final QueryMetrics metrics = new QueryMetrics();
+
+    StatementCache(SQLiteDatabase db) {
+        this.db = db;
+    }
+
+    QueryMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return the value of the first column of the first row or defaultValue if there is no row
+     */
+    long simpleQueryForLong(String sql, Object[] args, long defaultValue) {
+        SQLiteStatement statement = acquire(sql);
+        try {
+            synchronized (statement) {
+                long start = System.nanoTime();
+                SqlCondition.bind(statement, args);
+                try {
+                    return statement.simpleQueryForLong();
+                } catch (SQLiteDoneException e) {
+                    return defaultValue;
+                } finally {
+                    metrics.recordExecute(sql, System.nanoTime() - start);
+                }
+            }
+        } finally {
+            release(sql, statement);
+        }
+    }
+
+    /**
+     * @return number of changed rows
+     */
+    int executeUpdateDelete(String sql, Object[] args) {
+        SQLiteStatement statement = acquire(sql);
+        try {
+            synchronized (statement) {
+                long start = System.nanoTime();
+                SqlCondition.bind(statement, args);
+                try {
+                    return statement.executeUpdateDelete();
+                } finally {
+                    metrics.recordExecute(sql, System.nanoTime() - start);
+                }
+            }
+        } finally {
+            release(sql, statement);
+        }
+    }
+
+    /**
+     * Runs the query and reads the first window of rows, so the time of the statement
+     * preparation and the execution can be recorded separately
+     */
+    Cursor query(String sql, String[] args) {
+        long start = System.nanoTime();
+        Cursor cursor = db.rawQuery(sql, args);
+        long prepared = System.nanoTime();
+        metrics.recordPrepare(sql, prepared - start);
+
+        try {
+            cursor.getCount();
+        } catch (RuntimeException e) {
+            cursor.close();
+            throw e;
+        }
+        metrics.recordExecute(sql, System.nanoTime() - prepared);
+        return cursor;
+    }
+
+    private SQLiteStatement acquire(String sql) {
+        synchronized (statements) {
+            SQLiteStatement statement = statements.get(sql);
+            if (statement != null) {
+                return statement;
+            }
+        }
+
+        long start = System.nanoTime();
+        SQLiteStatement statement = db.compileStatement(sql);
+        metrics.recordPrepare(sql, System.nanoTime() - start);
+
+        synchronized (statements) {
+            SQLiteStatement cached = statements.get(sql);
+            if (cached != null) {
+                // Compiled by another thread in the meantime
+                statement.close();
+                return cached;
+            }
+            if (statements.size() < MaxStatements) {
+                statements.put(sql, statement);
+            }
+        }
+        return statement;
+    }
+
+    /**
+     * Closes statements which aren't cached - cached ones stay open as long as the database
+     */
+    private void release(String sql, SQLiteStatement statement) {
+        synchronized (statements) {
+            if (statements.get(sql) == statement) {
+                return;
+            }
+        }
+        statement.close();
+    }
+}
@@ -21,7 +21,9 @@ public class DatabaseOrmGenerator {
     public static void main(String[] args) throws Exception {
         List<SchemaVersion> versions = new ArrayList<>();
 
-        versions.add(new Version7(true));
+        // A new version also needs a migration in DatabaseMigrations (and a test fixture of the
+        // previous version in src/test/resources/database)
+        versions.add(new Version15(true));
 
         validateSchemas(versions);
 
@@ -1,5 +1,10 @@
 package de.luhmer.owncloudnewsreader.database.generator;
 
+import java.util.Iterator;
+
+import de.greenrobot.daogenerator.Entity;
+import de.greenrobot.daogenerator.Index;
+import de.greenrobot.daogenerator.Property;
 import de.greenrobot.daogenerator.Schema;
 
 public abstract class SchemaVersion {
@@ -45,4 +50,52 @@ public abstract class SchemaVersion {
      * @return unique integer schema version identifier.
      */
     public abstract int getVersionNumber();
+
+    /**
+     * @return the entity with the given class name (added by a previous schema version)
+     */
+    protected static Entity getEntity(Schema schema, String className) {
+        for (Entity entity : schema.getEntities()) {
+            if (entity.getClassName().equals(className)) {
+                return entity;
+            }
+        }
+        throw new IllegalArgumentException("Entity " + className + " not found");
+    }
+
+    /**
+     * @return the property with the given name (added by a previous schema version)
+     */
+    protected static Property getProperty(Entity entity, String propertyName) {
+        for (Property property : entity.getProperties()) {
+            if (property.getPropertyName().equals(propertyName)) {
+                return property;
+            }
+        }
+        throw new IllegalArgumentException("Property " + propertyName + " not found in " + entity.getClassName());
+    }
+
+    /**
+     * Removes a property which was added by a previous schema version
+     */
+    protected static void removeProperty(Entity entity, String propertyName) {
+        for (Iterator<Property> iterator = entity.getProperties().iterator(); iterator.hasNext(); ) {
+            if (iterator.next().getPropertyName().equals(propertyName)) {
+                iterator.remove();
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Property " + propertyName + " not found in " + entity.getClassName());
+    }
+
+    /**
+     * Adds an index over the given properties (in this order)
+     */
+    protected static void addIndex(Entity entity, String... propertyNames) {
+        Index index = new Index();
+        for (String propertyName : propertyNames) {
+            index.addProperty(getProperty(entity, propertyName));
+        }
+        entity.addIndex(index);
+    }
 }
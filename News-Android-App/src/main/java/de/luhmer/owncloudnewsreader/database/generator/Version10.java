@@ -0,0 +1,42 @@
+package de.luhmer.owncloudnewsreader.database.generator;
+
+import de.greenrobot.daogenerator.Entity;
+import de.greenrobot.daogenerator.Schema;
+
+public class Version10 extends SchemaVersion {
+
+    /**
+     * Constructor
+     *
+     * @param current
+     */
+    public Version10(boolean current) {
+        super(current);
+
+        Schema schema = getSchema();
+        addEntitysToSchema(schema);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getVersionNumber() {
+        return 10;
+    }
+
+    protected static void addEntitysToSchema(Schema schema) {
+        Version9.addEntitysToSchema(schema);
+
+        /* Body and media description of the RSS Items - they are large and only needed when an
+           item is opened, so the lists don't have to read them (loaded on demand, see RssItem) */
+        Entity rssItem = getEntity(schema, "RssItem");
+        removeProperty(rssItem, "body");
+        removeProperty(rssItem, "mediaDescription");
+
+        Entity rssItemContent = schema.addEntity("RssItemContent");
+        rssItemContent.addIdProperty().notNull(); // same id as the RSS Item
+        rssItemContent.addStringProperty("body");
+        rssItemContent.addStringProperty("mediaDescription");
+    }
+}
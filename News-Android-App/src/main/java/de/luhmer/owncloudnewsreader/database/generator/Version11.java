@@ -0,0 +1,38 @@
+package de.luhmer.owncloudnewsreader.database.generator;
+
+import de.greenrobot.daogenerator.Entity;
+import de.greenrobot.daogenerator.Schema;
+
+public class Version11 extends SchemaVersion {
+
+    /**
+     * Constructor
+     *
+     * @param current
+     */
+    public Version11(boolean current) {
+        super(current);
+
+        Schema schema = getSchema();
+        addEntitysToSchema(schema);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getVersionNumber() {
+        return 11;
+    }
+
+    protected static void addEntitysToSchema(Schema schema) {
+        Version10.addEntitysToSchema(schema);
+
+        /* Bodies are stored compressed, bodyCodec tells how bodyData has to be decoded
+           (see BodyCodec) */
+        Entity rssItemContent = getEntity(schema, "RssItemContent");
+        removeProperty(rssItemContent, "body");
+        rssItemContent.addByteArrayProperty("bodyData");
+        rssItemContent.addIntProperty("bodyCodec").notNull();
+    }
+}
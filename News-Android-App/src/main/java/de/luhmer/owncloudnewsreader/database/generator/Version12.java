@@ -0,0 +1,38 @@
+package de.luhmer.owncloudnewsreader.database.generator;
+
+import de.greenrobot.daogenerator.Entity;
+import de.greenrobot.daogenerator.Schema;
+
+public class Version12 extends SchemaVersion {
+
+    /**
+     * Constructor
+     *
+     * @param current
+     */
+    public Version12(boolean current) {
+        super(current);
+
+        Schema schema = getSchema();
+        addEntitysToSchema(schema);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getVersionNumber() {
+        return 12;
+    }
+
+    protected static void addEntitysToSchema(Schema schema) {
+        Version11.addEntitysToSchema(schema);
+
+        /* Indices for the item lists and the unread/starred counts - they filter on read_temp or
+           starred_temp and order by pubDate */
+        Entity rssItem = getEntity(schema, "RssItem");
+        addIndex(rssItem, "feedId", "read_temp", "pubDate"); // items of a feed
+        addIndex(rssItem, "read_temp", "pubDate"); // all unread items, widget, notification, cleanup
+        addIndex(rssItem, "starred_temp", "feedId"); // starred items and their count per feed
+    }
+}
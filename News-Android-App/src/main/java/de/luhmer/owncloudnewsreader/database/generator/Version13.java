@@ -0,0 +1,37 @@
+package de.luhmer.owncloudnewsreader.database.generator;
+
+import de.greenrobot.daogenerator.Entity;
+import de.greenrobot.daogenerator.Schema;
+
+public class Version13 extends SchemaVersion {
+
+    /**
+     * Constructor
+     *
+     * @param current
+     */
+    public Version13(boolean current) {
+        super(current);
+
+        Schema schema = getSchema();
+        addEntitysToSchema(schema);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getVersionNumber() {
+        return 13;
+    }
+
+    protected static void addEntitysToSchema(Schema schema) {
+        Version12.addEntitysToSchema(schema);
+
+        /* Unread/starred items per feed - maintained by triggers on RSS_ITEM (see FeedItemCounts) */
+        Entity feedItemCount = schema.addEntity("FeedItemCount");
+        feedItemCount.addIdProperty().notNull(); // id of the feed
+        feedItemCount.addIntProperty("unreadCount").notNull();
+        feedItemCount.addIntProperty("starredCount").notNull();
+    }
+}
@@ -0,0 +1,37 @@
+package de.luhmer.owncloudnewsreader.database.generator;
+
+import de.greenrobot.daogenerator.Entity;
+import de.greenrobot.daogenerator.Schema;
+
+public class Version14 extends SchemaVersion {
+
+    /**
+     * Constructor
+     *
+     * @param current
+     */
+    public Version14(boolean current) {
+        super(current);
+
+        Schema schema = getSchema();
+        addEntitysToSchema(schema);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getVersionNumber() {
+        return 14;
+    }
+
+    protected static void addEntitysToSchema(Schema schema) {
+        Version13.addEntitysToSchema(schema);
+
+        /* Number of items and bytes of their content per feed - used by the retention policy,
+           maintained by triggers on RSS_ITEM and RSS_ITEM_CONTENT (see FeedItemCounts) */
+        Entity feedItemCount = getEntity(schema, "FeedItemCount");
+        feedItemCount.addIntProperty("itemCount").notNull();
+        feedItemCount.addLongProperty("byteCount").notNull();
+    }
+}
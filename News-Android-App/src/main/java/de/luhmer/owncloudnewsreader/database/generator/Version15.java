@@ -0,0 +1,42 @@
+package de.luhmer.owncloudnewsreader.database.generator;
+
+import de.greenrobot.daogenerator.Entity;
+import de.greenrobot.daogenerator.Schema;
+
+public class Version15 extends SchemaVersion {
+
+    /**
+     * Constructor
+     *
+     * @param current
+     */
+    public Version15(boolean current) {
+        super(current);
+
+        Schema schema = getSchema();
+        addEntitysToSchema(schema);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getVersionNumber() {
+        return 15;
+    }
+
+    protected static void addEntitysToSchema(Schema schema) {
+        Version14.addEntitysToSchema(schema);
+
+        /* Lists which don't filter on read_temp (all items of a feed, all starred items) have to
+           be sorted by pubDate in the index as well */
+        Entity rssItem = getEntity(schema, "RssItem");
+        addIndex(rssItem, "feedId", "pubDate"); // all items of a feed
+        addIndex(rssItem, "starred_temp", "pubDate"); // all starred items
+
+        /* Items whose body contains the text of the current search - the bodies are compressed, so
+           they are searched in Java (see DatabaseConnectionOrm) and the list only joins the ids */
+        Entity searchResult = schema.addEntity("SearchResult");
+        searchResult.addIdProperty().notNull(); // id of the rss item
+    }
+}
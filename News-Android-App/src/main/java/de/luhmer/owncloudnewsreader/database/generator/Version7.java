@@ -27,7 +27,7 @@ public class Version7 extends SchemaVersion {
     }
 
     @SuppressWarnings("unused") // id properties (folderId, etc.) need to be in database
-    private static void addEntitysToSchema(Schema schema) {
+    protected static void addEntitysToSchema(Schema schema) {
 
         /* Folder */
         Entity folder = schema.addEntity("Folder");
@@ -0,0 +1,39 @@
+package de.luhmer.owncloudnewsreader.database.generator;
+
+import de.greenrobot.daogenerator.Entity;
+import de.greenrobot.daogenerator.Schema;
+
+public class Version8 extends SchemaVersion {
+
+    /**
+     * Constructor
+     *
+     * @param current
+     */
+    public Version8(boolean current) {
+        super(current);
+
+        Schema schema = getSchema();
+        addEntitysToSchema(schema);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getVersionNumber() {
+        return 8;
+    }
+
+    protected static void addEntitysToSchema(Schema schema) {
+        Version7.addEntitysToSchema(schema);
+
+        /* Progress of the first sync (single row, removed once the sync finished) */
+        Entity syncCheckpoint = schema.addEntity("SyncCheckpoint");
+        syncCheckpoint.addIdProperty().notNull();
+        syncCheckpoint.addStringProperty("phase").notNull();
+        syncCheckpoint.addLongProperty("offsetCursor").notNull();
+        syncCheckpoint.addLongProperty("itemsFetched").notNull();
+        syncCheckpoint.addDateProperty("updated");
+    }
+}
@@ -0,0 +1,53 @@
+package de.luhmer.owncloudnewsreader.database.generator;
+
+import de.greenrobot.daogenerator.Entity;
+import de.greenrobot.daogenerator.Schema;
+
+public class Version9 extends SchemaVersion {
+
+    /**
+     * Constructor
+     *
+     * @param current
+     */
+    public Version9(boolean current) {
+        super(current);
+
+        Schema schema = getSchema();
+        addEntitysToSchema(schema);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getVersionNumber() {
+        return 9;
+    }
+
+    protected static void addEntitysToSchema(Schema schema) {
+        Version8.addEntitysToSchema(schema);
+
+        /* Statistics of a sync run (only the last runs are kept) */
+        Entity syncStats = schema.addEntity("SyncStats");
+        syncStats.addIdProperty();
+        syncStats.addDateProperty("startedAt").notNull();
+        syncStats.addBooleanProperty("successful").notNull();
+        syncStats.addStringProperty("error");
+        syncStats.addLongProperty("totalMillis").notNull();
+        syncStats.addLongProperty("stateSyncMillis").notNull();
+        syncStats.addLongProperty("foldersMillis").notNull();
+        syncStats.addLongProperty("feedsMillis").notNull();
+        syncStats.addIntProperty("itemPages").notNull();
+        syncStats.addLongProperty("itemPagesMillis").notNull();
+        syncStats.addLongProperty("bytesDownloaded").notNull();
+        syncStats.addIntProperty("itemsInserted").notNull();
+        // Items whose content changed and items where only the state changed (the columns kept
+        // their first names)
+        syncStats.addIntProperty("itemsReplaced").columnName("ITEMS_UPDATED").notNull();
+        syncStats.addIntProperty("itemsStateUpdated").columnName("ITEMS_SKIPPED").notNull();
+        syncStats.addIntProperty("transactions").notNull();
+        syncStats.addLongProperty("transactionMillis").notNull();
+        syncStats.addLongProperty("faviconMillis").notNull();
+    }
+}
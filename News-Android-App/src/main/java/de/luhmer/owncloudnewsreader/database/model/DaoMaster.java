@@ -11,10 +11,10 @@ import de.greenrobot.dao.identityscope.IdentityScopeType;
 
 // THIS CODE IS GENERATED BY greenDAO, DO NOT EDIT.
 /** 
- * Master of DAO (schema version 7): knows all DAOs.
+ * Master of DAO (schema version 15): knows all DAOs.
 */
 public class DaoMaster extends AbstractDaoMaster {
-    public static final int SCHEMA_VERSION = 7;
+    public static final int SCHEMA_VERSION = 15;
 
     /** Creates underlying database table using DAOs. */
     public static void createAllTables(SQLiteDatabase db, boolean ifNotExists) {
@@ -22,6 +22,11 @@ public class DaoMaster extends AbstractDaoMaster {
         FeedDao.createTable(db, ifNotExists);
         RssItemDao.createTable(db, ifNotExists);
         CurrentRssItemViewDao.createTable(db, ifNotExists);
+        SyncCheckpointDao.createTable(db, ifNotExists);
+        SyncStatsDao.createTable(db, ifNotExists);
+        RssItemContentDao.createTable(db, ifNotExists);
+        FeedItemCountDao.createTable(db, ifNotExists);
+        SearchResultDao.createTable(db, ifNotExists);
     }
     
     /** Drops underlying database table using DAOs. */
@@ -30,6 +35,11 @@ public class DaoMaster extends AbstractDaoMaster {
         FeedDao.dropTable(db, ifExists);
         RssItemDao.dropTable(db, ifExists);
         CurrentRssItemViewDao.dropTable(db, ifExists);
+        SyncCheckpointDao.dropTable(db, ifExists);
+        SyncStatsDao.dropTable(db, ifExists);
+        RssItemContentDao.dropTable(db, ifExists);
+        FeedItemCountDao.dropTable(db, ifExists);
+        SearchResultDao.dropTable(db, ifExists);
     }
     
     public static abstract class OpenHelper extends SQLiteOpenHelper {
@@ -65,6 +75,11 @@ public class DaoMaster extends AbstractDaoMaster {
         registerDaoClass(FeedDao.class);
         registerDaoClass(RssItemDao.class);
         registerDaoClass(CurrentRssItemViewDao.class);
+        registerDaoClass(SyncCheckpointDao.class);
+        registerDaoClass(SyncStatsDao.class);
+        registerDaoClass(RssItemContentDao.class);
+        registerDaoClass(FeedItemCountDao.class);
+        registerDaoClass(SearchResultDao.class);
     }
     
     public DaoSession newSession() {
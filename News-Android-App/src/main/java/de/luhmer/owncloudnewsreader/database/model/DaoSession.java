@@ -22,11 +22,21 @@ public class DaoSession extends AbstractDaoSession {
     private final DaoConfig feedDaoConfig;
     private final DaoConfig rssItemDaoConfig;
     private final DaoConfig currentRssItemViewDaoConfig;
+    private final DaoConfig syncCheckpointDaoConfig;
+    private final DaoConfig syncStatsDaoConfig;
+    private final DaoConfig rssItemContentDaoConfig;
+    private final DaoConfig feedItemCountDaoConfig;
+    private final DaoConfig searchResultDaoConfig;
 
     private final FolderDao folderDao;
     private final FeedDao feedDao;
     private final RssItemDao rssItemDao;
     private final CurrentRssItemViewDao currentRssItemViewDao;
+    private final SyncCheckpointDao syncCheckpointDao;
+    private final SyncStatsDao syncStatsDao;
+    private final RssItemContentDao rssItemContentDao;
+    private final FeedItemCountDao feedItemCountDao;
+    private final SearchResultDao searchResultDao;
 
     public DaoSession(SQLiteDatabase db, IdentityScopeType type, Map<Class<? extends AbstractDao<?, ?>>, DaoConfig>
             daoConfigMap) {
@@ -44,15 +54,40 @@ public class DaoSession extends AbstractDaoSession {
         currentRssItemViewDaoConfig = daoConfigMap.get(CurrentRssItemViewDao.class).clone();
         currentRssItemViewDaoConfig.initIdentityScope(type);
 
+        syncCheckpointDaoConfig = daoConfigMap.get(SyncCheckpointDao.class).clone();
+        syncCheckpointDaoConfig.initIdentityScope(type);
+
+        syncStatsDaoConfig = daoConfigMap.get(SyncStatsDao.class).clone();
+        syncStatsDaoConfig.initIdentityScope(type);
+
+        rssItemContentDaoConfig = daoConfigMap.get(RssItemContentDao.class).clone();
+        rssItemContentDaoConfig.initIdentityScope(type);
+
+        feedItemCountDaoConfig = daoConfigMap.get(FeedItemCountDao.class).clone();
+        feedItemCountDaoConfig.initIdentityScope(type);
+
+        searchResultDaoConfig = daoConfigMap.get(SearchResultDao.class).clone();
+        searchResultDaoConfig.initIdentityScope(type);
+
         folderDao = new FolderDao(folderDaoConfig, this);
         feedDao = new FeedDao(feedDaoConfig, this);
         rssItemDao = new RssItemDao(rssItemDaoConfig, this);
         currentRssItemViewDao = new CurrentRssItemViewDao(currentRssItemViewDaoConfig, this);
+        syncCheckpointDao = new SyncCheckpointDao(syncCheckpointDaoConfig, this);
+        syncStatsDao = new SyncStatsDao(syncStatsDaoConfig, this);
+        rssItemContentDao = new RssItemContentDao(rssItemContentDaoConfig, this);
+        feedItemCountDao = new FeedItemCountDao(feedItemCountDaoConfig, this);
+        searchResultDao = new SearchResultDao(searchResultDaoConfig, this);
 
         registerDao(Folder.class, folderDao);
         registerDao(Feed.class, feedDao);
         registerDao(RssItem.class, rssItemDao);
         registerDao(CurrentRssItemView.class, currentRssItemViewDao);
+        registerDao(SyncCheckpoint.class, syncCheckpointDao);
+        registerDao(SyncStats.class, syncStatsDao);
+        registerDao(RssItemContent.class, rssItemContentDao);
+        registerDao(FeedItemCount.class, feedItemCountDao);
+        registerDao(SearchResult.class, searchResultDao);
     }
     
     public void clear() {
@@ -60,6 +95,11 @@ public class DaoSession extends AbstractDaoSession {
         feedDaoConfig.getIdentityScope().clear();
         rssItemDaoConfig.getIdentityScope().clear();
         currentRssItemViewDaoConfig.getIdentityScope().clear();
+        syncCheckpointDaoConfig.getIdentityScope().clear();
+        syncStatsDaoConfig.getIdentityScope().clear();
+        rssItemContentDaoConfig.getIdentityScope().clear();
+        feedItemCountDaoConfig.getIdentityScope().clear();
+        searchResultDaoConfig.getIdentityScope().clear();
     }
 
     public FolderDao getFolderDao() {
@@ -78,4 +118,24 @@ public class DaoSession extends AbstractDaoSession {
         return currentRssItemViewDao;
     }
 
+    public SyncCheckpointDao getSyncCheckpointDao() {
+        return syncCheckpointDao;
+    }
+
+    public SyncStatsDao getSyncStatsDao() {
+        return syncStatsDao;
+    }
+
+    public RssItemContentDao getRssItemContentDao() {
+        return rssItemContentDao;
+    }
+
+    public FeedItemCountDao getFeedItemCountDao() {
+        return feedItemCountDao;
+    }
+
+    public SearchResultDao getSearchResultDao() {
+        return searchResultDao;
+    }
+
 }
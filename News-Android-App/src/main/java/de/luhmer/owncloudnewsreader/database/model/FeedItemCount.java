@@ -0,0 +1,79 @@
+package de.luhmer.owncloudnewsreader.database.model;
+
+// THIS CODE IS GENERATED BY greenDAO, EDIT ONLY INSIDE THE "KEEP"-SECTIONS
+
+// KEEP INCLUDES - put your custom includes here
+// KEEP INCLUDES END
+/**
+ * Entity mapped to table "FEED_ITEM_COUNT".
+ */
+public class FeedItemCount {
+
+    private long id;
+    private int unreadCount;
+    private int starredCount;
+    private int itemCount;
+    private long byteCount;
+
+    // KEEP FIELDS - put your custom fields here
+    // KEEP FIELDS END
+
+    public FeedItemCount() {
+    }
+
+    public FeedItemCount(long id) {
+        this.id = id;
+    }
+
+    public FeedItemCount(long id, int unreadCount, int starredCount, int itemCount, long byteCount) {
+        this.id = id;
+        this.unreadCount = unreadCount;
+        this.starredCount = starredCount;
+        this.itemCount = itemCount;
+        this.byteCount = byteCount;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public int getUnreadCount() {
+        return unreadCount;
+    }
+
+    public void setUnreadCount(int unreadCount) {
+        this.unreadCount = unreadCount;
+    }
+
+    public int getStarredCount() {
+        return starredCount;
+    }
+
+    public void setStarredCount(int starredCount) {
+        this.starredCount = starredCount;
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public void setItemCount(int itemCount) {
+        this.itemCount = itemCount;
+    }
+
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    public void setByteCount(long byteCount) {
+        this.byteCount = byteCount;
+    }
+
+    // KEEP METHODS - put your custom methods here
+    // KEEP METHODS END
+
+}
@@ -0,0 +1,112 @@
+package de.luhmer.owncloudnewsreader.database.model;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import de.greenrobot.dao.AbstractDao;
+import de.greenrobot.dao.Property;
+import de.greenrobot.dao.internal.DaoConfig;
+
+// THIS CODE IS GENERATED BY greenDAO, DO NOT EDIT.
+/** 
+ * DAO for table "FEED_ITEM_COUNT".
+*/
+public class FeedItemCountDao extends AbstractDao<FeedItemCount, Long> {
+
+    public static final String TABLENAME = "FEED_ITEM_COUNT";
+
+    /**
+     * Properties of entity FeedItemCount.<br/>
+     * Can be used for QueryBuilder and for referencing column names.
+    */
+    public static class Properties {
+        public final static Property Id = new Property(0, long.class, "id", true, "_id");
+        public final static Property UnreadCount = new Property(1, int.class, "unreadCount", false, "UNREAD_COUNT");
+        public final static Property StarredCount = new Property(2, int.class, "starredCount", false, "STARRED_COUNT");
+        public final static Property ItemCount = new Property(3, int.class, "itemCount", false, "ITEM_COUNT");
+        public final static Property ByteCount = new Property(4, long.class, "byteCount", false, "BYTE_COUNT");
+    };
+
+
+    public FeedItemCountDao(DaoConfig config) {
+        super(config);
+    }
+    
+    public FeedItemCountDao(DaoConfig config, DaoSession daoSession) {
+        super(config, daoSession);
+    }
+
+    /** Creates the underlying database table. */
+    public static void createTable(SQLiteDatabase db, boolean ifNotExists) {
+        String constraint = ifNotExists? "IF NOT EXISTS ": "";
+        db.execSQL("CREATE TABLE " + constraint + "\"FEED_ITEM_COUNT\" (" + //
+                "\"_id\" INTEGER PRIMARY KEY NOT NULL ," + // 0: id
+                "\"UNREAD_COUNT\" INTEGER NOT NULL ," + // 1: unreadCount
+                "\"STARRED_COUNT\" INTEGER NOT NULL ," + // 2: starredCount
+                "\"ITEM_COUNT\" INTEGER NOT NULL ," + // 3: itemCount
+                "\"BYTE_COUNT\" INTEGER NOT NULL );"); // 4: byteCount
+    }
+
+    /** Drops the underlying database table. */
+    public static void dropTable(SQLiteDatabase db, boolean ifExists) {
+        String sql = "DROP TABLE " + (ifExists ? "IF EXISTS " : "") + "\"FEED_ITEM_COUNT\"";
+        db.execSQL(sql);
+    }
+
+    @Override
+    protected void bindValues(SQLiteStatement stmt, FeedItemCount entity) {
+        stmt.clearBindings();
+        stmt.bindLong(1, entity.getId());
+        stmt.bindLong(2, entity.getUnreadCount());
+        stmt.bindLong(3, entity.getStarredCount());
+        stmt.bindLong(4, entity.getItemCount());
+        stmt.bindLong(5, entity.getByteCount());
+    }
+
+    @Override
+    public Long readKey(Cursor cursor, int offset) {
+        return cursor.getLong(offset);
+    }    
+
+    @Override
+    public FeedItemCount readEntity(Cursor cursor, int offset) {
+        return new FeedItemCount( //
+            cursor.getLong(offset), // id
+            cursor.getInt(offset + 1), // unreadCount
+            cursor.getInt(offset + 2), // starredCount
+            cursor.getInt(offset + 3), // itemCount
+            cursor.getLong(offset + 4) // byteCount
+        );
+    }
+     
+    @Override
+    public void readEntity(Cursor cursor, FeedItemCount entity, int offset) {
+        entity.setId(cursor.getLong(offset));
+        entity.setUnreadCount(cursor.getInt(offset + 1));
+        entity.setStarredCount(cursor.getInt(offset + 2));
+        entity.setItemCount(cursor.getInt(offset + 3));
+        entity.setByteCount(cursor.getLong(offset + 4));
+     }
+    
+    @Override
+    protected Long updateKeyAfterInsert(FeedItemCount entity, long rowId) {
+        entity.setId(rowId);
+        return rowId;
+    }
+    
+    @Override
+    public Long getKey(FeedItemCount entity) {
+        if(entity != null) {
+            return entity.getId();
+        } else {
+            return null;
+        }
+    }
+
+    @Override    
+    protected boolean isEntityUpdateable() {
+        return true;
+    }
+    
+}
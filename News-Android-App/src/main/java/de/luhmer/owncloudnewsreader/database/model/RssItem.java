@@ -16,7 +16,6 @@ public class RssItem implements HasId<Long> {
     private long feedId;
     private String link;
     private String title;
-    private String body;
     private Boolean read;
     private Boolean starred;
     /** Not-null value. */
@@ -34,7 +33,6 @@ public class RssItem implements HasId<Long> {
     private String enclosureLink;
     private String enclosureMime;
     private String mediaThumbnail;
-    private String mediaDescription;
     private Boolean rtl;
 
     /** Used to resolve relations */
@@ -48,6 +46,10 @@ public class RssItem implements HasId<Long> {
 
 
     // KEEP FIELDS - put your custom fields here
+    // Stored in RssItemContent and only loaded when they are needed (see loadContent())
+    private String body;
+    private String mediaDescription;
+    private transient boolean contentLoaded;
     // KEEP FIELDS END
 
     public RssItem() {
@@ -57,12 +59,11 @@ public class RssItem implements HasId<Long> {
         this.id = id;
     }
 
-    public RssItem(long id, long feedId, String link, String title, String body, Boolean read, Boolean starred, String author, String guid, String guidHash, String fingerprint, Boolean read_temp, Boolean starred_temp, java.util.Date lastModified, java.util.Date pubDate, String enclosureLink, String enclosureMime, String mediaThumbnail, String mediaDescription, Boolean rtl) {
+    public RssItem(long id, long feedId, String link, String title, Boolean read, Boolean starred, String author, String guid, String guidHash, String fingerprint, Boolean read_temp, Boolean starred_temp, java.util.Date lastModified, java.util.Date pubDate, String enclosureLink, String enclosureMime, String mediaThumbnail, Boolean rtl) {
         this.id = id;
         this.feedId = feedId;
         this.link = link;
         this.title = title;
-        this.body = body;
         this.read = read;
         this.starred = starred;
         this.author = author;
@@ -76,7 +77,6 @@ public class RssItem implements HasId<Long> {
         this.enclosureLink = enclosureLink;
         this.enclosureMime = enclosureMime;
         this.mediaThumbnail = mediaThumbnail;
-        this.mediaDescription = mediaDescription;
         this.rtl = rtl;
     }
 
@@ -118,14 +118,6 @@ public class RssItem implements HasId<Long> {
         this.title = title;
     }
 
-    public String getBody() {
-        return body;
-    }
-
-    public void setBody(String body) {
-        this.body = body;
-    }
-
     public Boolean getRead() {
         return read;
     }
@@ -238,14 +230,6 @@ public class RssItem implements HasId<Long> {
         this.mediaThumbnail = mediaThumbnail;
     }
 
-    public String getMediaDescription() {
-        return mediaDescription;
-    }
-
-    public void setMediaDescription(String mediaDescription) {
-        this.mediaDescription = mediaDescription;
-    }
-
     public Boolean getRtl() {
         return rtl;
     }
@@ -307,6 +291,53 @@ public class RssItem implements HasId<Long> {
     }
 
     // KEEP METHODS - put your custom methods here
+    public String getBody() {
+        loadContent();
+        return body;
+    }
+
+    public void setBody(String body) {
+        loadContent();
+        this.body = body;
+    }
+
+    public String getMediaDescription() {
+        loadContent();
+        return mediaDescription;
+    }
+
+    public void setMediaDescription(String mediaDescription) {
+        loadContent();
+        this.mediaDescription = mediaDescription;
+    }
+
+    /**
+     * Loads body and media description of an item which was read from the database. New items
+     * (not attached to a session) keep the values they were created with.
+     */
+    private void loadContent() {
+        if (contentLoaded) {
+            return;
+        }
+        contentLoaded = true;
+        if (daoSession != null) {
+            RssItemContent content = daoSession.getRssItemContentDao().load(id);
+            if (content != null) {
+                body = content.getBody();
+                mediaDescription = content.getMediaDescription();
+            }
+        }
+    }
+
+    /**
+     * @return the row which stores body and media description of this item
+     */
+    public RssItemContent toContent() {
+        RssItemContent content = new RssItemContent(id);
+        content.setBody(getBody());
+        content.setMediaDescription(getMediaDescription());
+        return content;
+    }
     // KEEP METHODS END
 
 }
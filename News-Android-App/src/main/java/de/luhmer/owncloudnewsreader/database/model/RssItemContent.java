@@ -0,0 +1,78 @@
+package de.luhmer.owncloudnewsreader.database.model;
+
+// THIS CODE IS GENERATED BY greenDAO, EDIT ONLY INSIDE THE "KEEP"-SECTIONS
+
+// KEEP INCLUDES - put your custom includes here
+import de.luhmer.owncloudnewsreader.database.BodyCodec;
+// KEEP INCLUDES END
+/**
+ * Entity mapped to table "RSS_ITEM_CONTENT".
+ */
+public class RssItemContent {
+
+    private long id;
+    private String mediaDescription;
+    private byte[] bodyData;
+    private int bodyCodec;
+
+    // KEEP FIELDS - put your custom fields here
+    // KEEP FIELDS END
+
+    public RssItemContent() {
+    }
+
+    public RssItemContent(long id) {
+        this.id = id;
+    }
+
+    public RssItemContent(long id, String mediaDescription, byte[] bodyData, int bodyCodec) {
+        this.id = id;
+        this.mediaDescription = mediaDescription;
+        this.bodyData = bodyData;
+        this.bodyCodec = bodyCodec;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getMediaDescription() {
+        return mediaDescription;
+    }
+
+    public void setMediaDescription(String mediaDescription) {
+        this.mediaDescription = mediaDescription;
+    }
+
+    public byte[] getBodyData() {
+        return bodyData;
+    }
+
+    public void setBodyData(byte[] bodyData) {
+        this.bodyData = bodyData;
+    }
+
+    public int getBodyCodec() {
+        return bodyCodec;
+    }
+
+    public void setBodyCodec(int bodyCodec) {
+        this.bodyCodec = bodyCodec;
+    }
+
+    // KEEP METHODS - put your custom methods here
+    public String getBody() {
+        return BodyCodec.decode(getBodyData(), getBodyCodec());
+    }
+
+    public void setBody(String body) {
+        setBodyCodec(BodyCodec.getCodec(body));
+        setBodyData(BodyCodec.encode(body, getBodyCodec()));
+    }
+    // KEEP METHODS END
+
+}
@@ -0,0 +1,115 @@
+package de.luhmer.owncloudnewsreader.database.model;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import de.greenrobot.dao.AbstractDao;
+import de.greenrobot.dao.Property;
+import de.greenrobot.dao.internal.DaoConfig;
+
+// THIS CODE IS GENERATED BY greenDAO, DO NOT EDIT.
+/** 
+ * DAO for table "RSS_ITEM_CONTENT".
+*/
+public class RssItemContentDao extends AbstractDao<RssItemContent, Long> {
+
+    public static final String TABLENAME = "RSS_ITEM_CONTENT";
+
+    /**
+     * Properties of entity RssItemContent.<br/>
+     * Can be used for QueryBuilder and for referencing column names.
+    */
+    public static class Properties {
+        public final static Property Id = new Property(0, long.class, "id", true, "_id");
+        public final static Property MediaDescription = new Property(1, String.class, "mediaDescription", false, "MEDIA_DESCRIPTION");
+        public final static Property BodyData = new Property(2, byte[].class, "bodyData", false, "BODY_DATA");
+        public final static Property BodyCodec = new Property(3, int.class, "bodyCodec", false, "BODY_CODEC");
+    };
+
+
+    public RssItemContentDao(DaoConfig config) {
+        super(config);
+    }
+    
+    public RssItemContentDao(DaoConfig config, DaoSession daoSession) {
+        super(config, daoSession);
+    }
+
+    /** Creates the underlying database table. */
+    public static void createTable(SQLiteDatabase db, boolean ifNotExists) {
+        String constraint = ifNotExists? "IF NOT EXISTS ": "";
+        db.execSQL("CREATE TABLE " + constraint + "\"RSS_ITEM_CONTENT\" (" + //
+                "\"_id\" INTEGER PRIMARY KEY NOT NULL ," + // 0: id
+                "\"MEDIA_DESCRIPTION\" TEXT," + // 1: mediaDescription
+                "\"BODY_DATA\" BLOB," + // 2: bodyData
+                "\"BODY_CODEC\" INTEGER NOT NULL );"); // 3: bodyCodec
+    }
+
+    /** Drops the underlying database table. */
+    public static void dropTable(SQLiteDatabase db, boolean ifExists) {
+        String sql = "DROP TABLE " + (ifExists ? "IF EXISTS " : "") + "\"RSS_ITEM_CONTENT\"";
+        db.execSQL(sql);
+    }
+
+    @Override
+    protected void bindValues(SQLiteStatement stmt, RssItemContent entity) {
+        stmt.clearBindings();
+        stmt.bindLong(1, entity.getId());
+ 
+        String mediaDescription = entity.getMediaDescription();
+        if (mediaDescription != null) {
+            stmt.bindString(2, mediaDescription);
+        }
+ 
+        byte[] bodyData = entity.getBodyData();
+        if (bodyData != null) {
+            stmt.bindBlob(3, bodyData);
+        }
+        stmt.bindLong(4, entity.getBodyCodec());
+    }
+
+    @Override
+    public Long readKey(Cursor cursor, int offset) {
+        return cursor.getLong(offset);
+    }    
+
+    @Override
+    public RssItemContent readEntity(Cursor cursor, int offset) {
+        return new RssItemContent( //
+            cursor.getLong(offset), // id
+            cursor.isNull(offset + 1) ? null : cursor.getString(offset + 1), // mediaDescription
+            cursor.isNull(offset + 2) ? null : cursor.getBlob(offset + 2), // bodyData
+            cursor.getInt(offset + 3) // bodyCodec
+        );
+    }
+     
+    @Override
+    public void readEntity(Cursor cursor, RssItemContent entity, int offset) {
+        entity.setId(cursor.getLong(offset));
+        entity.setMediaDescription(cursor.isNull(offset + 1) ? null : cursor.getString(offset + 1));
+        entity.setBodyData(cursor.isNull(offset + 2) ? null : cursor.getBlob(offset + 2));
+        entity.setBodyCodec(cursor.getInt(offset + 3));
+     }
+    
+    @Override
+    protected Long updateKeyAfterInsert(RssItemContent entity, long rowId) {
+        entity.setId(rowId);
+        return rowId;
+    }
+    
+    @Override
+    public Long getKey(RssItemContent entity) {
+        if(entity != null) {
+            return entity.getId();
+        } else {
+            return null;
+        }
+    }
+
+    @Override    
+    protected boolean isEntityUpdateable() {
+        return true;
+    }
+    
+}
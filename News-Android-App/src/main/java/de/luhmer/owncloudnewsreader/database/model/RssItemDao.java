@@ -31,22 +31,20 @@ public class RssItemDao extends AbstractDao<RssItem, Long> {
         public final static Property FeedId = new Property(1, long.class, "feedId", false, "FEED_ID");
         public final static Property Link = new Property(2, String.class, "link", false, "LINK");
         public final static Property Title = new Property(3, String.class, "title", false, "TITLE");
-        public final static Property Body = new Property(4, String.class, "body", false, "BODY");
-        public final static Property Read = new Property(5, Boolean.class, "read", false, "READ");
-        public final static Property Starred = new Property(6, Boolean.class, "starred", false, "STARRED");
-        public final static Property Author = new Property(7, String.class, "author", false, "AUTHOR");
-        public final static Property Guid = new Property(8, String.class, "guid", false, "GUID");
-        public final static Property GuidHash = new Property(9, String.class, "guidHash", false, "GUID_HASH");
-        public final static Property Fingerprint = new Property(10, String.class, "fingerprint", false, "FINGERPRINT");
-        public final static Property Read_temp = new Property(11, Boolean.class, "read_temp", false, "READ_TEMP");
-        public final static Property Starred_temp = new Property(12, Boolean.class, "starred_temp", false, "STARRED_TEMP");
-        public final static Property LastModified = new Property(13, java.util.Date.class, "lastModified", false, "LAST_MODIFIED");
-        public final static Property PubDate = new Property(14, java.util.Date.class, "pubDate", false, "PUB_DATE");
-        public final static Property EnclosureLink = new Property(15, String.class, "enclosureLink", false, "ENCLOSURE_LINK");
-        public final static Property EnclosureMime = new Property(16, String.class, "enclosureMime", false, "ENCLOSURE_MIME");
-        public final static Property MediaThumbnail = new Property(17, String.class, "mediaThumbnail", false, "MEDIA_THUMBNAIL");
-        public final static Property MediaDescription = new Property(18, String.class, "mediaDescription", false, "MEDIA_DESCRIPTION");
-        public final static Property Rtl = new Property(19, Boolean.class, "rtl", false, "RTL");
+        public final static Property Read = new Property(4, Boolean.class, "read", false, "READ");
+        public final static Property Starred = new Property(5, Boolean.class, "starred", false, "STARRED");
+        public final static Property Author = new Property(6, String.class, "author", false, "AUTHOR");
+        public final static Property Guid = new Property(7, String.class, "guid", false, "GUID");
+        public final static Property GuidHash = new Property(8, String.class, "guidHash", false, "GUID_HASH");
+        public final static Property Fingerprint = new Property(9, String.class, "fingerprint", false, "FINGERPRINT");
+        public final static Property Read_temp = new Property(10, Boolean.class, "read_temp", false, "READ_TEMP");
+        public final static Property Starred_temp = new Property(11, Boolean.class, "starred_temp", false, "STARRED_TEMP");
+        public final static Property LastModified = new Property(12, java.util.Date.class, "lastModified", false, "LAST_MODIFIED");
+        public final static Property PubDate = new Property(13, java.util.Date.class, "pubDate", false, "PUB_DATE");
+        public final static Property EnclosureLink = new Property(14, String.class, "enclosureLink", false, "ENCLOSURE_LINK");
+        public final static Property EnclosureMime = new Property(15, String.class, "enclosureMime", false, "ENCLOSURE_MIME");
+        public final static Property MediaThumbnail = new Property(16, String.class, "mediaThumbnail", false, "MEDIA_THUMBNAIL");
+        public final static Property Rtl = new Property(17, Boolean.class, "rtl", false, "RTL");
     };
 
     private DaoSession daoSession;
@@ -70,25 +68,33 @@ public class RssItemDao extends AbstractDao<RssItem, Long> {
                 "\"FEED_ID\" INTEGER NOT NULL ," + // 1: feedId
                 "\"LINK\" TEXT," + // 2: link
                 "\"TITLE\" TEXT," + // 3: title
-                "\"BODY\" TEXT," + // 4: body
-                "\"READ\" INTEGER," + // 5: read
-                "\"STARRED\" INTEGER," + // 6: starred
-                "\"AUTHOR\" TEXT NOT NULL ," + // 7: author
-                "\"GUID\" TEXT NOT NULL ," + // 8: guid
-                "\"GUID_HASH\" TEXT NOT NULL ," + // 9: guidHash
-                "\"FINGERPRINT\" TEXT NOT NULL ," + // 10: fingerprint
-                "\"READ_TEMP\" INTEGER," + // 11: read_temp
-                "\"STARRED_TEMP\" INTEGER," + // 12: starred_temp
-                "\"LAST_MODIFIED\" INTEGER," + // 13: lastModified
-                "\"PUB_DATE\" INTEGER," + // 14: pubDate
-                "\"ENCLOSURE_LINK\" TEXT," + // 15: enclosureLink
-                "\"ENCLOSURE_MIME\" TEXT," + // 16: enclosureMime
-                "\"MEDIA_THUMBNAIL\" TEXT," + // 17: mediaThumbnail
-                "\"MEDIA_DESCRIPTION\" TEXT," + // 18: mediaDescription
-                "\"RTL\" INTEGER);"); // 19: rtl
+                "\"READ\" INTEGER," + // 4: read
+                "\"STARRED\" INTEGER," + // 5: starred
+                "\"AUTHOR\" TEXT NOT NULL ," + // 6: author
+                "\"GUID\" TEXT NOT NULL ," + // 7: guid
+                "\"GUID_HASH\" TEXT NOT NULL ," + // 8: guidHash
+                "\"FINGERPRINT\" TEXT NOT NULL ," + // 9: fingerprint
+                "\"READ_TEMP\" INTEGER," + // 10: read_temp
+                "\"STARRED_TEMP\" INTEGER," + // 11: starred_temp
+                "\"LAST_MODIFIED\" INTEGER," + // 12: lastModified
+                "\"PUB_DATE\" INTEGER," + // 13: pubDate
+                "\"ENCLOSURE_LINK\" TEXT," + // 14: enclosureLink
+                "\"ENCLOSURE_MIME\" TEXT," + // 15: enclosureMime
+                "\"MEDIA_THUMBNAIL\" TEXT," + // 16: mediaThumbnail
+                "\"RTL\" INTEGER);"); // 17: rtl
         // Add Indexes
         db.execSQL("CREATE INDEX " + constraint + "IDX_RSS_ITEM_FEED_ID ON RSS_ITEM" +
                 " (\"FEED_ID\");");
+        db.execSQL("CREATE INDEX " + constraint + "IDX_RSS_ITEM_FEED_ID_READ_TEMP_PUB_DATE ON RSS_ITEM" +
+                " (\"FEED_ID\",\"READ_TEMP\",\"PUB_DATE\");");
+        db.execSQL("CREATE INDEX " + constraint + "IDX_RSS_ITEM_READ_TEMP_PUB_DATE ON RSS_ITEM" +
+                " (\"READ_TEMP\",\"PUB_DATE\");");
+        db.execSQL("CREATE INDEX " + constraint + "IDX_RSS_ITEM_STARRED_TEMP_FEED_ID ON RSS_ITEM" +
+                " (\"STARRED_TEMP\",\"FEED_ID\");");
+        db.execSQL("CREATE INDEX " + constraint + "IDX_RSS_ITEM_FEED_ID_PUB_DATE ON RSS_ITEM" +
+                " (\"FEED_ID\",\"PUB_DATE\");");
+        db.execSQL("CREATE INDEX " + constraint + "IDX_RSS_ITEM_STARRED_TEMP_PUB_DATE ON RSS_ITEM" +
+                " (\"STARRED_TEMP\",\"PUB_DATE\");");
     }
 
     /** Drops the underlying database table. */
@@ -114,68 +120,58 @@ public class RssItemDao extends AbstractDao<RssItem, Long> {
             stmt.bindString(4, title);
         }
  
-        String body = entity.getBody();
-        if (body != null) {
-            stmt.bindString(5, body);
-        }
- 
         Boolean read = entity.getRead();
         if (read != null) {
-            stmt.bindLong(6, read ? 1L: 0L);
+            stmt.bindLong(5, read ? 1L: 0L);
         }
  
         Boolean starred = entity.getStarred();
         if (starred != null) {
-            stmt.bindLong(7, starred ? 1L: 0L);
+            stmt.bindLong(6, starred ? 1L: 0L);
         }
-        stmt.bindString(8, entity.getAuthor());
-        stmt.bindString(9, entity.getGuid());
-        stmt.bindString(10, entity.getGuidHash());
-        stmt.bindString(11, entity.getFingerprint());
+        stmt.bindString(7, entity.getAuthor());
+        stmt.bindString(8, entity.getGuid());
+        stmt.bindString(9, entity.getGuidHash());
+        stmt.bindString(10, entity.getFingerprint());
  
         Boolean read_temp = entity.getRead_temp();
         if (read_temp != null) {
-            stmt.bindLong(12, read_temp ? 1L: 0L);
+            stmt.bindLong(11, read_temp ? 1L: 0L);
         }
  
         Boolean starred_temp = entity.getStarred_temp();
         if (starred_temp != null) {
-            stmt.bindLong(13, starred_temp ? 1L: 0L);
+            stmt.bindLong(12, starred_temp ? 1L: 0L);
         }
  
         java.util.Date lastModified = entity.getLastModified();
         if (lastModified != null) {
-            stmt.bindLong(14, lastModified.getTime());
+            stmt.bindLong(13, lastModified.getTime());
         }
  
         java.util.Date pubDate = entity.getPubDate();
         if (pubDate != null) {
-            stmt.bindLong(15, pubDate.getTime());
+            stmt.bindLong(14, pubDate.getTime());
         }
  
         String enclosureLink = entity.getEnclosureLink();
         if (enclosureLink != null) {
-            stmt.bindString(16, enclosureLink);
+            stmt.bindString(15, enclosureLink);
         }
  
         String enclosureMime = entity.getEnclosureMime();
         if (enclosureMime != null) {
-            stmt.bindString(17, enclosureMime);
+            stmt.bindString(16, enclosureMime);
         }
  
         String mediaThumbnail = entity.getMediaThumbnail();
         if (mediaThumbnail != null) {
-            stmt.bindString(18, mediaThumbnail);
-        }
- 
-        String mediaDescription = entity.getMediaDescription();
-        if (mediaDescription != null) {
-            stmt.bindString(19, mediaDescription);
+            stmt.bindString(17, mediaThumbnail);
         }
  
         Boolean rtl = entity.getRtl();
         if (rtl != null) {
-            stmt.bindLong(20, rtl ? 1L: 0L);
+            stmt.bindLong(18, rtl ? 1L: 0L);
         }
     }
 
@@ -199,22 +195,20 @@ public class RssItemDao extends AbstractDao<RssItem, Long> {
             cursor.getLong(offset + 1), // feedId
             cursor.isNull(offset + 2) ? null : cursor.getString(offset + 2), // link
             cursor.isNull(offset + 3) ? null : cursor.getString(offset + 3), // title
-            cursor.isNull(offset + 4) ? null : cursor.getString(offset + 4), // body
-            cursor.isNull(offset + 5) ? null : cursor.getShort(offset + 5) != 0, // read
-            cursor.isNull(offset + 6) ? null : cursor.getShort(offset + 6) != 0, // starred
-            cursor.getString(offset + 7), // author
-            cursor.getString(offset + 8), // guid
-            cursor.getString(offset + 9), // guidHash
-            cursor.getString(offset + 10), // fingerprint
-            cursor.isNull(offset + 11) ? null : cursor.getShort(offset + 11) != 0, // read_temp
-            cursor.isNull(offset + 12) ? null : cursor.getShort(offset + 12) != 0, // starred_temp
-            cursor.isNull(offset + 13) ? null : new java.util.Date(cursor.getLong(offset + 13)), // lastModified
-            cursor.isNull(offset + 14) ? null : new java.util.Date(cursor.getLong(offset + 14)), // pubDate
-            cursor.isNull(offset + 15) ? null : cursor.getString(offset + 15), // enclosureLink
-            cursor.isNull(offset + 16) ? null : cursor.getString(offset + 16), // enclosureMime
-            cursor.isNull(offset + 17) ? null : cursor.getString(offset + 17), // mediaThumbnail
-            cursor.isNull(offset + 18) ? null : cursor.getString(offset + 18), // mediaDescription
-            cursor.isNull(offset + 19) ? null : cursor.getShort(offset + 19) != 0 // rtl
+            cursor.isNull(offset + 4) ? null : cursor.getShort(offset + 4) != 0, // read
+            cursor.isNull(offset + 5) ? null : cursor.getShort(offset + 5) != 0, // starred
+            cursor.getString(offset + 6), // author
+            cursor.getString(offset + 7), // guid
+            cursor.getString(offset + 8), // guidHash
+            cursor.getString(offset + 9), // fingerprint
+            cursor.isNull(offset + 10) ? null : cursor.getShort(offset + 10) != 0, // read_temp
+            cursor.isNull(offset + 11) ? null : cursor.getShort(offset + 11) != 0, // starred_temp
+            cursor.isNull(offset + 12) ? null : new java.util.Date(cursor.getLong(offset + 12)), // lastModified
+            cursor.isNull(offset + 13) ? null : new java.util.Date(cursor.getLong(offset + 13)), // pubDate
+            cursor.isNull(offset + 14) ? null : cursor.getString(offset + 14), // enclosureLink
+            cursor.isNull(offset + 15) ? null : cursor.getString(offset + 15), // enclosureMime
+            cursor.isNull(offset + 16) ? null : cursor.getString(offset + 16), // mediaThumbnail
+            cursor.isNull(offset + 17) ? null : cursor.getShort(offset + 17) != 0 // rtl
         );
     }
      
@@ -225,22 +219,20 @@ public class RssItemDao extends AbstractDao<RssItem, Long> {
         entity.setFeedId(cursor.getLong(offset + 1));
         entity.setLink(cursor.isNull(offset + 2) ? null : cursor.getString(offset + 2));
         entity.setTitle(cursor.isNull(offset + 3) ? null : cursor.getString(offset + 3));
-        entity.setBody(cursor.isNull(offset + 4) ? null : cursor.getString(offset + 4));
-        entity.setRead(cursor.isNull(offset + 5) ? null : cursor.getShort(offset + 5) != 0);
-        entity.setStarred(cursor.isNull(offset + 6) ? null : cursor.getShort(offset + 6) != 0);
-        entity.setAuthor(cursor.getString(offset + 7));
-        entity.setGuid(cursor.getString(offset + 8));
-        entity.setGuidHash(cursor.getString(offset + 9));
-        entity.setFingerprint(cursor.getString(offset + 10));
-        entity.setRead_temp(cursor.isNull(offset + 11) ? null : cursor.getShort(offset + 11) != 0);
-        entity.setStarred_temp(cursor.isNull(offset + 12) ? null : cursor.getShort(offset + 12) != 0);
-        entity.setLastModified(cursor.isNull(offset + 13) ? null : new java.util.Date(cursor.getLong(offset + 13)));
-        entity.setPubDate(cursor.isNull(offset + 14) ? null : new java.util.Date(cursor.getLong(offset + 14)));
-        entity.setEnclosureLink(cursor.isNull(offset + 15) ? null : cursor.getString(offset + 15));
-        entity.setEnclosureMime(cursor.isNull(offset + 16) ? null : cursor.getString(offset + 16));
-        entity.setMediaThumbnail(cursor.isNull(offset + 17) ? null : cursor.getString(offset + 17));
-        entity.setMediaDescription(cursor.isNull(offset + 18) ? null : cursor.getString(offset + 18));
-        entity.setRtl(cursor.isNull(offset + 19) ? null : cursor.getShort(offset + 19) != 0);
+        entity.setRead(cursor.isNull(offset + 4) ? null : cursor.getShort(offset + 4) != 0);
+        entity.setStarred(cursor.isNull(offset + 5) ? null : cursor.getShort(offset + 5) != 0);
+        entity.setAuthor(cursor.getString(offset + 6));
+        entity.setGuid(cursor.getString(offset + 7));
+        entity.setGuidHash(cursor.getString(offset + 8));
+        entity.setFingerprint(cursor.getString(offset + 9));
+        entity.setRead_temp(cursor.isNull(offset + 10) ? null : cursor.getShort(offset + 10) != 0);
+        entity.setStarred_temp(cursor.isNull(offset + 11) ? null : cursor.getShort(offset + 11) != 0);
+        entity.setLastModified(cursor.isNull(offset + 12) ? null : new java.util.Date(cursor.getLong(offset + 12)));
+        entity.setPubDate(cursor.isNull(offset + 13) ? null : new java.util.Date(cursor.getLong(offset + 13)));
+        entity.setEnclosureLink(cursor.isNull(offset + 14) ? null : cursor.getString(offset + 14));
+        entity.setEnclosureMime(cursor.isNull(offset + 15) ? null : cursor.getString(offset + 15));
+        entity.setMediaThumbnail(cursor.isNull(offset + 16) ? null : cursor.getString(offset + 16));
+        entity.setRtl(cursor.isNull(offset + 17) ? null : cursor.getShort(offset + 17) != 0);
      }
     
     /** @inheritdoc */
@@ -0,0 +1,35 @@
+package de.luhmer.owncloudnewsreader.database.model;
+
+// THIS CODE IS GENERATED BY greenDAO, EDIT ONLY INSIDE THE "KEEP"-SECTIONS
+
+// KEEP INCLUDES - put your custom includes here
+// KEEP INCLUDES END
+/**
+ * Entity mapped to table "SEARCH_RESULT".
+ */
+public class SearchResult {
+
+    private long id;
+
+    // KEEP FIELDS - put your custom fields here
+    // KEEP FIELDS END
+
+    public SearchResult() {
+    }
+
+    public SearchResult(long id) {
+        this.id = id;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    // KEEP METHODS - put your custom methods here
+    // KEEP METHODS END
+
+}
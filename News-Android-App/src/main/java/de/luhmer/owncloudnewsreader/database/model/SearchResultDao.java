@@ -0,0 +1,92 @@
+package de.luhmer.owncloudnewsreader.database.model;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import de.greenrobot.dao.AbstractDao;
+import de.greenrobot.dao.Property;
+import de.greenrobot.dao.internal.DaoConfig;
+
+// THIS CODE IS GENERATED BY greenDAO, DO NOT EDIT.
+/** 
+ * DAO for table "SEARCH_RESULT".
+*/
+public class SearchResultDao extends AbstractDao<SearchResult, Long> {
+
+    public static final String TABLENAME = "SEARCH_RESULT";
+
+    /**
+     * Properties of entity SearchResult.<br/>
+     * Can be used for QueryBuilder and for referencing column names.
+    */
+    public static class Properties {
+        public final static Property Id = new Property(0, long.class, "id", true, "_id");
+    };
+
+
+    public SearchResultDao(DaoConfig config) {
+        super(config);
+    }
+    
+    public SearchResultDao(DaoConfig config, DaoSession daoSession) {
+        super(config, daoSession);
+    }
+
+    /** Creates the underlying database table. */
+    public static void createTable(SQLiteDatabase db, boolean ifNotExists) {
+        String constraint = ifNotExists? "IF NOT EXISTS ": "";
+        db.execSQL("CREATE TABLE " + constraint + "\"SEARCH_RESULT\" (" + //
+                "\"_id\" INTEGER PRIMARY KEY NOT NULL );"); // 0: id
+    }
+
+    /** Drops the underlying database table. */
+    public static void dropTable(SQLiteDatabase db, boolean ifExists) {
+        String sql = "DROP TABLE " + (ifExists ? "IF EXISTS " : "") + "\"SEARCH_RESULT\"";
+        db.execSQL(sql);
+    }
+
+    @Override
+    protected void bindValues(SQLiteStatement stmt, SearchResult entity) {
+        stmt.clearBindings();
+        stmt.bindLong(1, entity.getId());
+    }
+
+    @Override
+    public Long readKey(Cursor cursor, int offset) {
+        return cursor.getLong(offset);
+    }    
+
+    @Override
+    public SearchResult readEntity(Cursor cursor, int offset) {
+        return new SearchResult( //
+            cursor.getLong(offset) // id
+        );
+    }
+     
+    @Override
+    public void readEntity(Cursor cursor, SearchResult entity, int offset) {
+        entity.setId(cursor.getLong(offset));
+     }
+    
+    @Override
+    protected Long updateKeyAfterInsert(SearchResult entity, long rowId) {
+        entity.setId(rowId);
+        return rowId;
+    }
+    
+    @Override
+    public Long getKey(SearchResult entity) {
+        if(entity != null) {
+            return entity.getId();
+        } else {
+            return null;
+        }
+    }
+
+    @Override    
+    protected boolean isEntityUpdateable() {
+        return true;
+    }
+    
+}
@@ -0,0 +1,84 @@
+package de.luhmer.owncloudnewsreader.database.model;
+
+// THIS CODE IS GENERATED BY greenDAO, EDIT ONLY INSIDE THE "KEEP"-SECTIONS
+
+// KEEP INCLUDES - put your custom includes here
+// KEEP INCLUDES END
+/**
+ * Entity mapped to table "SYNC_CHECKPOINT".
+ */
+public class SyncCheckpoint {
+
+    private long id;
+    /** Not-null value. */
+    private String phase;
+    private long offsetCursor;
+    private long itemsFetched;
+    private java.util.Date updated;
+
+    // KEEP FIELDS - put your custom fields here
+    public static final String PHASE_UNREAD = "unread";
+    public static final String PHASE_STARRED = "starred";
+    // KEEP FIELDS END
+
+    public SyncCheckpoint() {
+    }
+
+    public SyncCheckpoint(long id) {
+        this.id = id;
+    }
+
+    public SyncCheckpoint(long id, String phase, long offsetCursor, long itemsFetched, java.util.Date updated) {
+        this.id = id;
+        this.phase = phase;
+        this.offsetCursor = offsetCursor;
+        this.itemsFetched = itemsFetched;
+        this.updated = updated;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    /** Not-null value. */
+    public String getPhase() {
+        return phase;
+    }
+
+    /** Not-null value; ensure this value is available before it is saved to the database. */
+    public void setPhase(String phase) {
+        this.phase = phase;
+    }
+
+    public long getOffsetCursor() {
+        return offsetCursor;
+    }
+
+    public void setOffsetCursor(long offsetCursor) {
+        this.offsetCursor = offsetCursor;
+    }
+
+    public long getItemsFetched() {
+        return itemsFetched;
+    }
+
+    public void setItemsFetched(long itemsFetched) {
+        this.itemsFetched = itemsFetched;
+    }
+
+    public java.util.Date getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(java.util.Date updated) {
+        this.updated = updated;
+    }
+
+    // KEEP METHODS - put your custom methods here
+    // KEEP METHODS END
+
+}
@@ -0,0 +1,116 @@
+package de.luhmer.owncloudnewsreader.database.model;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import de.greenrobot.dao.AbstractDao;
+import de.greenrobot.dao.Property;
+import de.greenrobot.dao.internal.DaoConfig;
+
+// THIS CODE IS GENERATED BY greenDAO, DO NOT EDIT.
+/** 
+ * DAO for table "SYNC_CHECKPOINT".
+*/
+public class SyncCheckpointDao extends AbstractDao<SyncCheckpoint, Long> {
+
+    public static final String TABLENAME = "SYNC_CHECKPOINT";
+
+    /**
+     * Properties of entity SyncCheckpoint.<br/>
+     * Can be used for QueryBuilder and for referencing column names.
+    */
+    public static class Properties {
+        public final static Property Id = new Property(0, long.class, "id", true, "_id");
+        public final static Property Phase = new Property(1, String.class, "phase", false, "PHASE");
+        public final static Property OffsetCursor = new Property(2, long.class, "offsetCursor", false, "OFFSET_CURSOR");
+        public final static Property ItemsFetched = new Property(3, long.class, "itemsFetched", false, "ITEMS_FETCHED");
+        public final static Property Updated = new Property(4, java.util.Date.class, "updated", false, "UPDATED");
+    };
+
+
+    public SyncCheckpointDao(DaoConfig config) {
+        super(config);
+    }
+    
+    public SyncCheckpointDao(DaoConfig config, DaoSession daoSession) {
+        super(config, daoSession);
+    }
+
+    /** Creates the underlying database table. */
+    public static void createTable(SQLiteDatabase db, boolean ifNotExists) {
+        String constraint = ifNotExists? "IF NOT EXISTS ": "";
+        db.execSQL("CREATE TABLE " + constraint + "\"SYNC_CHECKPOINT\" (" + //
+                "\"_id\" INTEGER PRIMARY KEY NOT NULL ," + // 0: id
+                "\"PHASE\" TEXT NOT NULL ," + // 1: phase
+                "\"OFFSET_CURSOR\" INTEGER NOT NULL ," + // 2: offsetCursor
+                "\"ITEMS_FETCHED\" INTEGER NOT NULL ," + // 3: itemsFetched
+                "\"UPDATED\" INTEGER);"); // 4: updated
+    }
+
+    /** Drops the underlying database table. */
+    public static void dropTable(SQLiteDatabase db, boolean ifExists) {
+        String sql = "DROP TABLE " + (ifExists ? "IF EXISTS " : "") + "\"SYNC_CHECKPOINT\"";
+        db.execSQL(sql);
+    }
+
+    @Override
+    protected void bindValues(SQLiteStatement stmt, SyncCheckpoint entity) {
+        stmt.clearBindings();
+        stmt.bindLong(1, entity.getId());
+        stmt.bindString(2, entity.getPhase());
+        stmt.bindLong(3, entity.getOffsetCursor());
+        stmt.bindLong(4, entity.getItemsFetched());
+ 
+        java.util.Date updated = entity.getUpdated();
+        if (updated != null) {
+            stmt.bindLong(5, updated.getTime());
+        }
+    }
+
+    @Override
+    public Long readKey(Cursor cursor, int offset) {
+        return cursor.getLong(offset);
+    }    
+
+    @Override
+    public SyncCheckpoint readEntity(Cursor cursor, int offset) {
+        return new SyncCheckpoint( //
+            cursor.getLong(offset), // id
+            cursor.getString(offset + 1), // phase
+            cursor.getLong(offset + 2), // offsetCursor
+            cursor.getLong(offset + 3), // itemsFetched
+            cursor.isNull(offset + 4) ? null : new java.util.Date(cursor.getLong(offset + 4)) // updated
+        );
+    }
+     
+    @Override
+    public void readEntity(Cursor cursor, SyncCheckpoint entity, int offset) {
+        entity.setId(cursor.getLong(offset));
+        entity.setPhase(cursor.getString(offset + 1));
+        entity.setOffsetCursor(cursor.getLong(offset + 2));
+        entity.setItemsFetched(cursor.getLong(offset + 3));
+        entity.setUpdated(cursor.isNull(offset + 4) ? null : new java.util.Date(cursor.getLong(offset + 4)));
+     }
+    
+    @Override
+    protected Long updateKeyAfterInsert(SyncCheckpoint entity, long rowId) {
+        entity.setId(rowId);
+        return rowId;
+    }
+    
+    @Override
+    public Long getKey(SyncCheckpoint entity) {
+        if(entity != null) {
+            return entity.getId();
+        } else {
+            return null;
+        }
+    }
+
+    @Override    
+    protected boolean isEntityUpdateable() {
+        return true;
+    }
+    
+}
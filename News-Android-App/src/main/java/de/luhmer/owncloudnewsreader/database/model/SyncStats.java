@@ -0,0 +1,202 @@
+package de.luhmer.owncloudnewsreader.database.model;
+
+// THIS CODE IS GENERATED BY greenDAO, EDIT ONLY INSIDE THE "KEEP"-SECTIONS
+
+// KEEP INCLUDES - put your custom includes here
+// KEEP INCLUDES END
+/**
+ * Entity mapped to table "SYNC_STATS".
+ */
+public class SyncStats {
+
+    private Long id;
+    /** Not-null value. */
+    private java.util.Date startedAt;
+    private boolean successful;
+    private String error;
+    private long totalMillis;
+    private long stateSyncMillis;
+    private long foldersMillis;
+    private long feedsMillis;
+    private int itemPages;
+    private long itemPagesMillis;
+    private long bytesDownloaded;
+    private int itemsInserted;
+    private int itemsReplaced;
+    private int itemsStateUpdated;
+    private int transactions;
+    private long transactionMillis;
+    private long faviconMillis;
+
+    // KEEP FIELDS - put your custom fields here
+    // KEEP FIELDS END
+
+    public SyncStats() {
+    }
+
+    public SyncStats(Long id) {
+        this.id = id;
+    }
+
+    public SyncStats(Long id, java.util.Date startedAt, boolean successful, String error, long totalMillis, long stateSyncMillis, long foldersMillis, long feedsMillis, int itemPages, long itemPagesMillis, long bytesDownloaded, int itemsInserted, int itemsReplaced, int itemsStateUpdated, int transactions, long transactionMillis, long faviconMillis) {
+        this.id = id;
+        this.startedAt = startedAt;
+        this.successful = successful;
+        this.error = error;
+        this.totalMillis = totalMillis;
+        this.stateSyncMillis = stateSyncMillis;
+        this.foldersMillis = foldersMillis;
+        this.feedsMillis = feedsMillis;
+        this.itemPages = itemPages;
+        this.itemPagesMillis = itemPagesMillis;
+        this.bytesDownloaded = bytesDownloaded;
+        this.itemsInserted = itemsInserted;
+        this.itemsReplaced = itemsReplaced;
+        this.itemsStateUpdated = itemsStateUpdated;
+        this.transactions = transactions;
+        this.transactionMillis = transactionMillis;
+        this.faviconMillis = faviconMillis;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    /** Not-null value. */
+    public java.util.Date getStartedAt() {
+        return startedAt;
+    }
+
+    /** Not-null value; ensure this value is available before it is saved to the database. */
+    public void setStartedAt(java.util.Date startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public boolean getSuccessful() {
+        return successful;
+    }
+
+    public void setSuccessful(boolean successful) {
+        this.successful = successful;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public long getTotalMillis() {
+        return totalMillis;
+    }
+
+    public void setTotalMillis(long totalMillis) {
+        this.totalMillis = totalMillis;
+    }
+
+    public long getStateSyncMillis() {
+        return stateSyncMillis;
+    }
+
+    public void setStateSyncMillis(long stateSyncMillis) {
+        this.stateSyncMillis = stateSyncMillis;
+    }
+
+    public long getFoldersMillis() {
+        return foldersMillis;
+    }
+
+    public void setFoldersMillis(long foldersMillis) {
+        this.foldersMillis = foldersMillis;
+    }
+
+    public long getFeedsMillis() {
+        return feedsMillis;
+    }
+
+    public void setFeedsMillis(long feedsMillis) {
+        this.feedsMillis = feedsMillis;
+    }
+
+    public int getItemPages() {
+        return itemPages;
+    }
+
+    public void setItemPages(int itemPages) {
+        this.itemPages = itemPages;
+    }
+
+    public long getItemPagesMillis() {
+        return itemPagesMillis;
+    }
+
+    public void setItemPagesMillis(long itemPagesMillis) {
+        this.itemPagesMillis = itemPagesMillis;
+    }
+
+    public long getBytesDownloaded() {
+        return bytesDownloaded;
+    }
+
+    public void setBytesDownloaded(long bytesDownloaded) {
+        this.bytesDownloaded = bytesDownloaded;
+    }
+
+    public int getItemsInserted() {
+        return itemsInserted;
+    }
+
+    public void setItemsInserted(int itemsInserted) {
+        this.itemsInserted = itemsInserted;
+    }
+
+    public int getItemsReplaced() {
+        return itemsReplaced;
+    }
+
+    public void setItemsReplaced(int itemsReplaced) {
+        this.itemsReplaced = itemsReplaced;
+    }
+
+    public int getItemsStateUpdated() {
+        return itemsStateUpdated;
+    }
+
+    public void setItemsStateUpdated(int itemsStateUpdated) {
+        this.itemsStateUpdated = itemsStateUpdated;
+    }
+
+    public int getTransactions() {
+        return transactions;
+    }
+
+    public void setTransactions(int transactions) {
+        this.transactions = transactions;
+    }
+
+    public long getTransactionMillis() {
+        return transactionMillis;
+    }
+
+    public void setTransactionMillis(long transactionMillis) {
+        this.transactionMillis = transactionMillis;
+    }
+
+    public long getFaviconMillis() {
+        return faviconMillis;
+    }
+
+    public void setFaviconMillis(long faviconMillis) {
+        this.faviconMillis = faviconMillis;
+    }
+
+    // KEEP METHODS - put your custom methods here
+    // KEEP METHODS END
+
+}
@@ -0,0 +1,180 @@
+package de.luhmer.owncloudnewsreader.database.model;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import de.greenrobot.dao.AbstractDao;
+import de.greenrobot.dao.Property;
+import de.greenrobot.dao.internal.DaoConfig;
+
+// THIS CODE IS GENERATED BY greenDAO, DO NOT EDIT.
+/** 
+ * DAO for table "SYNC_STATS".
+*/
+public class SyncStatsDao extends AbstractDao<SyncStats, Long> {
+
+    public static final String TABLENAME = "SYNC_STATS";
+
+    /**
+     * Properties of entity SyncStats.<br/>
+     * Can be used for QueryBuilder and for referencing column names.
+    */
+    public static class Properties {
+        public final static Property Id = new Property(0, Long.class, "id", true, "_id");
+        public final static Property StartedAt = new Property(1, java.util.Date.class, "startedAt", false, "STARTED_AT");
+        public final static Property Successful = new Property(2, boolean.class, "successful", false, "SUCCESSFUL");
+        public final static Property Error = new Property(3, String.class, "error", false, "ERROR");
+        public final static Property TotalMillis = new Property(4, long.class, "totalMillis", false, "TOTAL_MILLIS");
+        public final static Property StateSyncMillis = new Property(5, long.class, "stateSyncMillis", false, "STATE_SYNC_MILLIS");
+        public final static Property FoldersMillis = new Property(6, long.class, "foldersMillis", false, "FOLDERS_MILLIS");
+        public final static Property FeedsMillis = new Property(7, long.class, "feedsMillis", false, "FEEDS_MILLIS");
+        public final static Property ItemPages = new Property(8, int.class, "itemPages", false, "ITEM_PAGES");
+        public final static Property ItemPagesMillis = new Property(9, long.class, "itemPagesMillis", false, "ITEM_PAGES_MILLIS");
+        public final static Property BytesDownloaded = new Property(10, long.class, "bytesDownloaded", false, "BYTES_DOWNLOADED");
+        public final static Property ItemsInserted = new Property(11, int.class, "itemsInserted", false, "ITEMS_INSERTED");
+        public final static Property ItemsReplaced = new Property(12, int.class, "itemsReplaced", false, "ITEMS_UPDATED");
+        public final static Property ItemsStateUpdated = new Property(13, int.class, "itemsStateUpdated", false, "ITEMS_SKIPPED");
+        public final static Property Transactions = new Property(14, int.class, "transactions", false, "TRANSACTIONS");
+        public final static Property TransactionMillis = new Property(15, long.class, "transactionMillis", false, "TRANSACTION_MILLIS");
+        public final static Property FaviconMillis = new Property(16, long.class, "faviconMillis", false, "FAVICON_MILLIS");
+    };
+
+
+    public SyncStatsDao(DaoConfig config) {
+        super(config);
+    }
+    
+    public SyncStatsDao(DaoConfig config, DaoSession daoSession) {
+        super(config, daoSession);
+    }
+
+    /** Creates the underlying database table. */
+    public static void createTable(SQLiteDatabase db, boolean ifNotExists) {
+        String constraint = ifNotExists? "IF NOT EXISTS ": "";
+        db.execSQL("CREATE TABLE " + constraint + "\"SYNC_STATS\" (" + //
+                "\"_id\" INTEGER PRIMARY KEY ," + // 0: id
+                "\"STARTED_AT\" INTEGER NOT NULL ," + // 1: startedAt
+                "\"SUCCESSFUL\" INTEGER NOT NULL ," + // 2: successful
+                "\"ERROR\" TEXT," + // 3: error
+                "\"TOTAL_MILLIS\" INTEGER NOT NULL ," + // 4: totalMillis
+                "\"STATE_SYNC_MILLIS\" INTEGER NOT NULL ," + // 5: stateSyncMillis
+                "\"FOLDERS_MILLIS\" INTEGER NOT NULL ," + // 6: foldersMillis
+                "\"FEEDS_MILLIS\" INTEGER NOT NULL ," + // 7: feedsMillis
+                "\"ITEM_PAGES\" INTEGER NOT NULL ," + // 8: itemPages
+                "\"ITEM_PAGES_MILLIS\" INTEGER NOT NULL ," + // 9: itemPagesMillis
+                "\"BYTES_DOWNLOADED\" INTEGER NOT NULL ," + // 10: bytesDownloaded
+                "\"ITEMS_INSERTED\" INTEGER NOT NULL ," + // 11: itemsInserted
+                "\"ITEMS_UPDATED\" INTEGER NOT NULL ," + // 12: itemsReplaced
+                "\"ITEMS_SKIPPED\" INTEGER NOT NULL ," + // 13: itemsStateUpdated
+                "\"TRANSACTIONS\" INTEGER NOT NULL ," + // 14: transactions
+                "\"TRANSACTION_MILLIS\" INTEGER NOT NULL ," + // 15: transactionMillis
+                "\"FAVICON_MILLIS\" INTEGER NOT NULL );"); // 16: faviconMillis
+    }
+
+    /** Drops the underlying database table. */
+    public static void dropTable(SQLiteDatabase db, boolean ifExists) {
+        String sql = "DROP TABLE " + (ifExists ? "IF EXISTS " : "") + "\"SYNC_STATS\"";
+        db.execSQL(sql);
+    }
+
+    @Override
+    protected void bindValues(SQLiteStatement stmt, SyncStats entity) {
+        stmt.clearBindings();
+ 
+        Long id = entity.getId();
+        if (id != null) {
+            stmt.bindLong(1, id);
+        }
+        stmt.bindLong(2, entity.getStartedAt().getTime());
+        stmt.bindLong(3, entity.getSuccessful() ? 1L: 0L);
+ 
+        String error = entity.getError();
+        if (error != null) {
+            stmt.bindString(4, error);
+        }
+        stmt.bindLong(5, entity.getTotalMillis());
+        stmt.bindLong(6, entity.getStateSyncMillis());
+        stmt.bindLong(7, entity.getFoldersMillis());
+        stmt.bindLong(8, entity.getFeedsMillis());
+        stmt.bindLong(9, entity.getItemPages());
+        stmt.bindLong(10, entity.getItemPagesMillis());
+        stmt.bindLong(11, entity.getBytesDownloaded());
+        stmt.bindLong(12, entity.getItemsInserted());
+        stmt.bindLong(13, entity.getItemsReplaced());
+        stmt.bindLong(14, entity.getItemsStateUpdated());
+        stmt.bindLong(15, entity.getTransactions());
+        stmt.bindLong(16, entity.getTransactionMillis());
+        stmt.bindLong(17, entity.getFaviconMillis());
+    }
+
+    @Override
+    public Long readKey(Cursor cursor, int offset) {
+        return cursor.isNull(offset) ? null : cursor.getLong(offset);
+    }    
+
+    @Override
+    public SyncStats readEntity(Cursor cursor, int offset) {
+        return new SyncStats( //
+            cursor.isNull(offset) ? null : cursor.getLong(offset), // id
+            new java.util.Date(cursor.getLong(offset + 1)), // startedAt
+            cursor.getShort(offset + 2) != 0, // successful
+            cursor.isNull(offset + 3) ? null : cursor.getString(offset + 3), // error
+            cursor.getLong(offset + 4), // totalMillis
+            cursor.getLong(offset + 5), // stateSyncMillis
+            cursor.getLong(offset + 6), // foldersMillis
+            cursor.getLong(offset + 7), // feedsMillis
+            cursor.getInt(offset + 8), // itemPages
+            cursor.getLong(offset + 9), // itemPagesMillis
+            cursor.getLong(offset + 10), // bytesDownloaded
+            cursor.getInt(offset + 11), // itemsInserted
+            cursor.getInt(offset + 12), // itemsReplaced
+            cursor.getInt(offset + 13), // itemsStateUpdated
+            cursor.getInt(offset + 14), // transactions
+            cursor.getLong(offset + 15), // transactionMillis
+            cursor.getLong(offset + 16) // faviconMillis
+        );
+    }
+     
+    @Override
+    public void readEntity(Cursor cursor, SyncStats entity, int offset) {
+        entity.setId(cursor.isNull(offset) ? null : cursor.getLong(offset));
+        entity.setStartedAt(new java.util.Date(cursor.getLong(offset + 1)));
+        entity.setSuccessful(cursor.getShort(offset + 2) != 0);
+        entity.setError(cursor.isNull(offset + 3) ? null : cursor.getString(offset + 3));
+        entity.setTotalMillis(cursor.getLong(offset + 4));
+        entity.setStateSyncMillis(cursor.getLong(offset + 5));
+        entity.setFoldersMillis(cursor.getLong(offset + 6));
+        entity.setFeedsMillis(cursor.getLong(offset + 7));
+        entity.setItemPages(cursor.getInt(offset + 8));
+        entity.setItemPagesMillis(cursor.getLong(offset + 9));
+        entity.setBytesDownloaded(cursor.getLong(offset + 10));
+        entity.setItemsInserted(cursor.getInt(offset + 11));
+        entity.setItemsReplaced(cursor.getInt(offset + 12));
+        entity.setItemsStateUpdated(cursor.getInt(offset + 13));
+        entity.setTransactions(cursor.getInt(offset + 14));
+        entity.setTransactionMillis(cursor.getLong(offset + 15));
+        entity.setFaviconMillis(cursor.getLong(offset + 16));
+     }
+    
+    @Override
+    protected Long updateKeyAfterInsert(SyncStats entity, long rowId) {
+        entity.setId(rowId);
+        return rowId;
+    }
+    
+    @Override
+    public Long getKey(SyncStats entity) {
+        if(entity != null) {
+            return entity.getId();
+        } else {
+            return null;
+        }
+    }
+
+    @Override    
+    protected boolean isEntityUpdateable() {
+        return true;
+    }
+    
+}
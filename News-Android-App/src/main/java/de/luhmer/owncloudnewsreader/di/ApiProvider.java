@@ -16,13 +16,19 @@ import com.nostra13.universalimageloader.core.DisplayImageOptions;
 import com.nostra13.universalimageloader.core.ImageLoader;
 import com.nostra13.universalimageloader.core.ImageLoaderConfiguration;
 
+import java.io.File;
+import java.io.IOException;
+
 import de.luhmer.owncloudnewsreader.SettingsActivity;
 import de.luhmer.owncloudnewsreader.helper.GsonConfig;
 import de.luhmer.owncloudnewsreader.reader.OkHttpImageDownloader;
 import de.luhmer.owncloudnewsreader.reader.nextcloud.NewsAPI;
+import de.luhmer.owncloudnewsreader.reader.nextcloud.SyncSession;
 import de.luhmer.owncloudnewsreader.reader.nextcloud.OcsAPI;
+import de.luhmer.owncloudnewsreader.ssl.HttpCacheTracker;
 import de.luhmer.owncloudnewsreader.ssl.MemorizingTrustManager;
 import de.luhmer.owncloudnewsreader.ssl.OkHttpSSLClient;
+import okhttp3.Cache;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import retrofit2.NextcloudRetrofitApiBuilder;
@@ -37,6 +43,8 @@ import retrofit2.converter.gson.GsonConverterFactory;
 public class ApiProvider {
 
     private static final String TAG = ApiProvider.class.getCanonicalName();
+    private static final String HTTP_CACHE_DIRECTORY = "http";
+    private static final long HTTP_CACHE_SIZE = 2 * 1024 * 1024; // 2mb (only folders and feeds are cached)
     private final MemorizingTrustManager mMemorizingTrustManager;
     protected final SharedPreferences mPrefs;
     protected Context context;
@@ -44,6 +52,8 @@ public class ApiProvider {
 
     protected NewsAPI mNewsApi;
     private OcsAPI mServerApi;
+    private HttpCacheTracker mHttpCacheTracker;
+    private Cache mHttpCache;
 
 
 
@@ -61,12 +71,17 @@ public class ApiProvider {
     }
 
     public void initApi(@NonNull NextcloudAPI.ApiConnectedListener apiConnectedListener) {
+        // The account might have changed - don't let a running sync continue with the old one
+        SyncSession.cancelCurrent();
+
         if(mNextcloudSsoApi != null) {
             // Destroy previous Service Connection if we need to reconnect (e.g. login again)
             mNextcloudSsoApi.stop();
             mNextcloudSsoApi = null;
         }
 
+        mHttpCacheTracker = null;
+
         boolean useSSO = mPrefs.getBoolean(SettingsActivity.SW_USE_SINGLE_SIGN_ON, false);
         if(useSSO) {
             OkHttpClient client = new OkHttpClient.Builder().build();
@@ -81,7 +96,8 @@ public class ApiProvider {
                         .addPathSegments("index.php/apps/news/api/v1-2/")
                         .build();
                 Log.d("ApiModule", "HttpUrl: " + baseUrl.toString());
-                OkHttpClient client = OkHttpSSLClient.GetSslClient(baseUrl, username, password, mPrefs, mMemorizingTrustManager);
+                mHttpCacheTracker = new HttpCacheTracker(baseUrl);
+                OkHttpClient client = OkHttpSSLClient.GetSslClient(baseUrl, username, password, mPrefs, mMemorizingTrustManager, getHttpCache(), mHttpCacheTracker);
                 initImageLoader(mPrefs, client, context);
                 initRetrofitApi(baseUrl, client);
                 apiConnectedListener.onConnected();
@@ -137,6 +153,25 @@ public class ApiProvider {
         ImageLoader.getInstance().init(config);
     }
 
+    private synchronized Cache getHttpCache() {
+        if(mHttpCache == null) {
+            mHttpCache = new Cache(new File(context.getCacheDir(), HTTP_CACHE_DIRECTORY), HTTP_CACHE_SIZE);
+        }
+        return mHttpCache;
+    }
+
+    /**
+     * Removes the cached folders and feeds. Has to be called whenever the database is reset or the
+     * account changes - otherwise the server answers with 304 and the empty tables stay empty.
+     */
+    public void clearHttpCache() {
+        try {
+            getHttpCache().evictAll();
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to clear the http cache", e);
+        }
+    }
+
     public NewsAPI getNewsAPI() {
         return mNewsApi;
     }
@@ -145,6 +180,13 @@ public class ApiProvider {
         return mServerApi;
     }
 
+    /**
+     * @return the tracker of the http cache or null if no cache is used (e.g. single sign on)
+     */
+    public HttpCacheTracker getHttpCacheTracker() {
+        return mHttpCacheTracker;
+    }
+
     @VisibleForTesting
     public void setAPI(NewsAPI newsApi) {
         this.mNewsApi = newsApi;
@@ -89,8 +89,16 @@ public class FavIconHandler {
     }
 
     public void preCacheFavIcon(final Feed feed, Context context) throws IllegalStateException {
+        preCacheFavIcon(feed, context, null);
+    }
+
+    /**
+     * @param onFinished called once loading the favicon finished, failed or was skipped (may be null)
+     */
+    public void preCacheFavIcon(final Feed feed, Context context, final Runnable onFinished) throws IllegalStateException {
         if (feed.getFaviconUrl() == null) {
             Log.v(TAG, "No favicon for " + feed.getFeedTitle());
+            notifyFinished(onFinished);
             return;
         }
 
@@ -103,21 +111,31 @@ public class FavIconHandler {
 
             @Override
             public void onLoadingFailed(String imageUri, View view, FailReason failReason) {
-
+                notifyFinished(onFinished);
             }
 
             @Override
             public void onLoadingComplete(String imageUri, View view, Bitmap loadedImage) {
-                DownloadFinished(feed.getId(), loadedImage, context);
+                try {
+                    DownloadFinished(feed.getId(), loadedImage, context);
+                } finally {
+                    notifyFinished(onFinished);
+                }
             }
 
             @Override
             public void onLoadingCancelled(String imageUri, View view) {
-
+                notifyFinished(onFinished);
             }
         });
     }
 
+    private static void notifyFinished(Runnable onFinished) {
+        if (onFinished != null) {
+            onFinished.run();
+        }
+    }
+
     private void DownloadFinished(long feedId, Bitmap bitmap, Context context) {
         if (bitmap != null) {
             DatabaseConnectionOrm dbConn = new DatabaseConnectionOrm(context);
@@ -25,6 +25,9 @@ import android.content.Context;
 import android.os.Environment;
 import android.util.Log;
 
+import com.nostra13.universalimageloader.cache.disc.DiskCache;
+import com.nostra13.universalimageloader.core.ImageLoader;
+import com.nostra13.universalimageloader.utils.DiskCacheUtils;
 import com.nostra13.universalimageloader.utils.StorageUtils;
 
 import java.io.File;
@@ -33,7 +36,10 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.channels.FileChannel;
+import java.util.HashSet;
+import java.util.Set;
 
+import de.luhmer.owncloudnewsreader.database.DatabaseConnectionOrm;
 import de.luhmer.owncloudnewsreader.services.DownloadWebPageService;
 import de.luhmer.owncloudnewsreader.services.PodcastDownloadService;
 
@@ -86,6 +92,42 @@ public class NewsFileUtils {
         return false;
     }
 
+    /**
+     * Deletes the web archives, podcasts and cached images of the items purged by the retention
+     * policy. Web archives and podcasts which are still used by another item (e.g. the same
+     * article in another feed) are kept. Cached images are removed without such a check, an image
+     * which is used by another item as well is simply downloaded again when needed.
+     *
+     * @return the number of deleted files
+     */
+    public static int deleteFilesOfPurgedItems(Context context, DatabaseConnectionOrm dbConn, DatabaseConnectionOrm.PurgeResult purgeResult) {
+        Set<String> links = new HashSet<>(purgeResult.links);
+        links.addAll(purgeResult.enclosureLinks);
+        Set<String> linksInUse = links.isEmpty() ? links : dbConn.getLinksInUse(links);
+
+        int deletedFiles = 0;
+        for (String link : purgeResult.links) {
+            if (!linksInUse.contains(link) && DownloadWebPageService.getWebPageArchiveFileForUrl(context, link).delete()) {
+                deletedFiles++;
+            }
+        }
+        for (String enclosureLink : purgeResult.enclosureLinks) {
+            if (!linksInUse.contains(enclosureLink) && deletePodcastFile(context, enclosureLink)) {
+                deletedFiles++;
+            }
+        }
+
+        if (ImageLoader.getInstance().isInited()) {
+            DiskCache diskCache = ImageLoader.getInstance().getDiskCache();
+            for (String imageLink : purgeResult.imageLinks) {
+                if (DiskCacheUtils.removeFromCache(imageLink, diskCache)) {
+                    deletedFiles++;
+                }
+            }
+        }
+        return deletedFiles;
+    }
+
     public static boolean clearPodcastCache(Context context) {
         try {
             File dir = new File(getPathPodcasts(context));
@@ -3,12 +3,12 @@ package de.luhmer.owncloudnewsreader.helper;
 import android.content.Context;
 import android.content.SharedPreferences;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Collections;
 
 import de.luhmer.owncloudnewsreader.SettingsActivity;
 import de.luhmer.owncloudnewsreader.database.DatabaseConnectionOrm;
-import de.luhmer.owncloudnewsreader.database.model.RssItem;
+import de.luhmer.owncloudnewsreader.database.DatabaseConnectionOrm.RssItemPage;
+import de.luhmer.owncloudnewsreader.database.DatabaseConnectionOrm.RssItemQuery;
 import de.luhmer.owncloudnewsreader.database.model.RssItemDao;
 
 public class Search {
@@ -16,55 +16,53 @@ public class Search {
     private static final String SEARCH_IN_TITLE = "0";
     private static final String SEARCH_IN_BODY = "1";
     
-    public static List<RssItem> PerformSearch(Context context, Long idFolder, Long idFeed, String searchString, SharedPreferences mPrefs) {
+    public static RssItemPage PerformSearch(Context context, Long idFolder, Long idFeed, String searchString, SharedPreferences mPrefs) {
         DatabaseConnectionOrm.SORT_DIRECTION sortDirection = DatabaseUtils.getSortDirectionFromSettings(mPrefs);
         DatabaseConnectionOrm dbConn = new DatabaseConnectionOrm(context);
-        String sqlSelectStatement = null;
+        RssItemQuery query = null;
         if (idFeed != null) {
-            sqlSelectStatement = getFeedSQLStatement(idFeed, sortDirection, searchString, dbConn, mPrefs);
+            query = getFeedQuery(idFeed, sortDirection, searchString, dbConn, mPrefs);
         } else if (idFolder != null) {
-            sqlSelectStatement = getFolderSQLStatement(idFolder, sortDirection, searchString, dbConn, mPrefs);
+            query = getFolderQuery(idFolder, sortDirection, searchString, dbConn, mPrefs);
         }
 
-        List<RssItem> items = new ArrayList<>();
-        if (sqlSelectStatement != null) {
-            dbConn.insertIntoRssCurrentViewTable(sqlSelectStatement);
-            items = dbConn.getCurrentRssItemView(0);
+        if (query == null) {
+            return new RssItemPage(null, Collections.emptyList(), null, false);
         }
-        return items;
-
+        dbConn.insertIntoRssCurrentViewTable(query);
+        return dbConn.getRssItemPage(query, null);
     }
 
 
 
-    private static String getFeedSQLStatement(final long idFeed,
+    private static RssItemQuery getFeedQuery(final long idFeed,
                                        final DatabaseConnectionOrm.SORT_DIRECTION sortDirection,
                                        final String searchString,
                                        final DatabaseConnectionOrm dbConn,
                                        final SharedPreferences mPrefs) {
-        String sql = "";
+        RssItemQuery query = null;
         String searchIn = mPrefs.getString(SettingsActivity.SP_SEARCH_IN,"0");
         if(searchIn.equals(SEARCH_IN_TITLE)) {
-            sql = dbConn.getAllItemsIdsForFeedSQLFilteredByTitle(idFeed, false, false, sortDirection, searchString);
+            query = dbConn.getItemsForFeedQueryFilteredByTitle(idFeed, false, false, sortDirection, searchString);
         } else if(searchIn.equals(SEARCH_IN_BODY)) {
-            sql = dbConn.getAllItemsIdsForFeedSQLFilteredByBodySQL(idFeed, false, false, sortDirection, searchString);
+            query = dbConn.getItemsForFeedQueryFilteredByBody(idFeed, false, false, sortDirection, searchString);
         }
-        return sql;
+        return query;
     }
 
-    private static String getFolderSQLStatement(final long ID_FOLDER,
+    private static RssItemQuery getFolderQuery(final long ID_FOLDER,
                                          final DatabaseConnectionOrm.SORT_DIRECTION sortDirection,
                                          final String searchString,
                                          final DatabaseConnectionOrm dbConn,
                                          final SharedPreferences mPrefs) {
-        String sql = "";
+        RssItemQuery query = null;
         String searchIn = mPrefs.getString(SettingsActivity.SP_SEARCH_IN,"0");
         if(searchIn.equals(SEARCH_IN_TITLE)) {
-            sql = dbConn.getAllItemsIdsForFolderSQLSearch(ID_FOLDER, sortDirection, RssItemDao.Properties.Title.columnName, searchString);
+            query = dbConn.getItemsForFolderQuerySearch(ID_FOLDER, sortDirection, RssItemDao.Properties.Title.columnName, searchString);
         } else if(searchIn.equals(SEARCH_IN_BODY)) {
-            sql = dbConn.getAllItemsIdsForFolderSQLSearch(ID_FOLDER, sortDirection, RssItemDao.Properties.Body.columnName, searchString);
+            query = dbConn.getItemsForFolderQueryFilteredByBody(ID_FOLDER, sortDirection, searchString);
         }
 
-        return sql;
+        return query;
     }
 }
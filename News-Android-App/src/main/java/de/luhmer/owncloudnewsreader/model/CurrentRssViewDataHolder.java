@@ -1,10 +0,0 @@
-package de.luhmer.owncloudnewsreader.model;
-
-import java.util.List;
-
-import de.luhmer.owncloudnewsreader.database.model.RssItem;
-
-public class CurrentRssViewDataHolder {
-    public Long maxCount;
-    public List<RssItem> rssItems;
-}
@@ -26,6 +26,8 @@ public enum FeedItemTags {
 	MARK_ITEM_AS_UNREAD("unread"),
 	MARK_ITEM_AS_STARRED("star"),
 	MARK_ITEM_AS_UNSTARRED("unstar"),
+	FEED("0"),
+	FOLDER("1"),
 	ALL_STARRED("2"),
 	ALL("3");
 
@@ -21,8 +21,6 @@
 
 package de.luhmer.owncloudnewsreader.reader;
 
-import android.util.Log;
-
 import java.util.List;
 
 import de.luhmer.owncloudnewsreader.database.DatabaseConnectionOrm;
@@ -30,11 +28,9 @@ import de.luhmer.owncloudnewsreader.database.model.Feed;
 import de.luhmer.owncloudnewsreader.database.model.Folder;
 
 public class InsertIntoDatabase {
-    private static final String TAG = "InsertRssItemIntoDb";
-
     public static void InsertFoldersIntoDatabase(List<Folder> folderList, DatabaseConnectionOrm dbConn)
     {
-        dbConn.deleteOldAndInsertNewFolders(folderList);
+        dbConn.reconcileFolders(folderList);
 
         /*
         List<Feed> feeds = dbConn.getListOfFeeds();
@@ -66,33 +62,9 @@ public class InsertIntoDatabase {
 
     public static void InsertFeedsIntoDatabase(List<Feed> feeds, DatabaseConnectionOrm dbConn)
     {
-        List<Feed> oldFeeds = dbConn.getListOfFeeds();
-
         if(feeds != null)
         {
-            dbConn.insertNewFeed(feeds);
-
-            for(Feed oldFeed : oldFeeds)
-            {
-                boolean found = false;
-                for(Feed newFeed : feeds)
-                {
-                    if(oldFeed.getId() == newFeed.getId()) {
-                        found = true;
-
-                        //Set the avg color after sync again.
-                        newFeed.setAvgColour(oldFeed.getAvgColour());
-                        dbConn.updateFeed(newFeed);
-                        break;
-                    }
-
-                }
-                if(!found)
-                {
-                    dbConn.removeFeedById(oldFeed.getId());
-                    Log.v(TAG, "Remove Subscription: " + oldFeed.getFeedTitle());
-                }
-            }
+            dbConn.reconcileFeeds(feeds);
         }
     }
 }
@@ -0,0 +1,225 @@
+package de.luhmer.owncloudnewsreader.reader.nextcloud;
+
+import android.util.Log;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import de.luhmer.owncloudnewsreader.database.DatabaseConnectionOrm;
+import de.luhmer.owncloudnewsreader.database.model.RssItem;
+import de.luhmer.owncloudnewsreader.database.model.SyncCheckpoint;
+
+/**
+ * Two stage pipeline for writing rss items into the database. The thread which reads and parses
+ * the http response (parser stage) hands the items over to a single database writer, which runs
+ * as a task of the {@link SyncSession} (and is stopped if the session is cancelled). Both
+ * stages are connected by a bounded queue: if the writer can't keep up, {@link #add(RssItem)}
+ * blocks until a batch has been committed. This way the socket keeps draining while SQLite
+ * commits and SQLite keeps writing while we wait for the network.
+ *
+ * Optionally a {@link SyncCheckpoint} is stored together with every batch (see
+ * {@link CheckpointProvider}) so an interrupted sync can be resumed.
+ */
+class DatabaseWriterPipeline implements Closeable {
+
+    private static final String TAG = DatabaseWriterPipeline.class.getCanonicalName();
+    private static final Batch END_OF_STREAM = new Batch(new ArrayList<>(0), 0, null);
+
+    /**
+     * Creates the checkpoint which is committed together with a batch. Called on the parser
+     * thread when the batch is handed over to the writer.
+     */
+    interface CheckpointProvider {
+        SyncCheckpoint create(List<RssItem> batch);
+    }
+
+    private final DatabaseConnectionOrm mDbConn;
+    private final InsertBatchPolicy mBatchPolicy;
+    private final CheckpointProvider mCheckpointProvider;
+    private final BlockingQueue<Batch> mQueue;
+    private final SyncMetrics.Stage mParserStage;
+    private final SyncMetrics.Stage mWriterStage;
+    private final SyncMetrics mMetrics;
+    private final Future<Void> mWriter;
+    // Set by whoever comes first: the writer when it starts or close() if it never started
+    private final AtomicBoolean mWriterClaimed = new AtomicBoolean();
+    private final CountDownLatch mWriterStopped = new CountDownLatch(1);
+
+    private volatile Throwable mWriterError;
+    private List<RssItem> mBuffer = new ArrayList<>();
+    private long mBufferBytes = 0;
+    private long mLastAddNanos;
+    private boolean mFinished = false;
+
+    /**
+     * @param batchPolicy   decides how many items are written in one transaction
+     * @param queueCapacity number of batches that may wait for the writer
+     */
+    DatabaseWriterPipeline(DatabaseConnectionOrm dbConn, InsertBatchPolicy batchPolicy, int queueCapacity, SyncMetrics metrics, SyncSession session) throws InterruptedIOException {
+        this(dbConn, batchPolicy, queueCapacity, metrics, session, null);
+    }
+
+    /**
+     * @param checkpointProvider creates the checkpoint stored with each batch (may be null)
+     */
+    DatabaseWriterPipeline(DatabaseConnectionOrm dbConn, InsertBatchPolicy batchPolicy, int queueCapacity, SyncMetrics metrics, SyncSession session, CheckpointProvider checkpointProvider) throws InterruptedIOException {
+        this.mDbConn = dbConn;
+        this.mBatchPolicy = batchPolicy;
+        this.mCheckpointProvider = checkpointProvider;
+        this.mQueue = new ArrayBlockingQueue<>(queueCapacity);
+        this.mParserStage = metrics.getStage(SyncMetrics.STAGE_PARSER);
+        this.mWriterStage = metrics.getStage(SyncMetrics.STAGE_DB_WRITER);
+        this.mMetrics = metrics;
+
+        mWriter = session.submit(() -> {
+            if(mWriterClaimed.compareAndSet(false, true)) {
+                try {
+                    runWriter();
+                } finally {
+                    mWriterStopped.countDown();
+                }
+            }
+            return null;
+        });
+        mLastAddNanos = System.nanoTime();
+    }
+
+    /**
+     * Called by the parser stage for every parsed item. Blocks if the queue to the writer is full.
+     */
+    void add(RssItem rssItem) throws IOException, InterruptedException {
+        // Everything since the last call returned was spent reading/parsing
+        mParserStage.record(1, System.nanoTime() - mLastAddNanos);
+
+        mBuffer.add(rssItem);
+        mBufferBytes += InsertBatchPolicy.estimateSize(rssItem);
+        if(mBatchPolicy.isFull(mBuffer.size(), mBufferBytes)) {
+            flush();
+        }
+
+        mLastAddNanos = System.nanoTime();
+    }
+
+    /**
+     * Hands the buffered items over to the writer even if the batch isn't full yet (e.g. to
+     * make sure that a batch doesn't span two sync phases)
+     */
+    void flush() throws IOException, InterruptedException {
+        if(!mBuffer.isEmpty()) {
+            SyncCheckpoint checkpoint = mCheckpointProvider != null ? mCheckpointProvider.create(mBuffer) : null;
+            enqueue(new Batch(mBuffer, mBufferBytes, checkpoint));
+            mBuffer = new ArrayList<>(mBuffer.size());
+            mBufferBytes = 0;
+        }
+    }
+
+    /**
+     * Flushes the remaining items and waits until the writer committed all of them
+     */
+    void finish() throws IOException, InterruptedException {
+        flush();
+        enqueue(END_OF_STREAM);
+        try {
+            mWriter.get();
+        } catch (CancellationException e) {
+            throw new InterruptedIOException("Sync was cancelled");
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+        mFinished = true;
+        rethrowWriterError();
+    }
+
+    /**
+     * Stops the writer if the pipeline wasn't finished (e.g. because parsing failed). Batches
+     * which haven't been committed yet are discarded.
+     */
+    @Override
+    public void close() {
+        if(!mFinished) {
+            mWriter.cancel(true);
+            if(mWriterClaimed.compareAndSet(false, true)) {
+                // The writer never started
+                return;
+            }
+            try {
+                mWriterStopped.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void enqueue(Batch batch) throws IOException, InterruptedException {
+        // Don't wait forever in case the writer died or was stopped
+        while(!mQueue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+            boolean writerStopped = mWriter.isDone();
+            rethrowWriterError();
+            if(writerStopped) {
+                throw new InterruptedIOException("Database writer was stopped");
+            }
+        }
+        rethrowWriterError();
+    }
+
+    private void rethrowWriterError() throws IOException {
+        if(mWriterError != null) {
+            throw new IOException("Failed to write rss items into the database", mWriterError);
+        }
+    }
+
+    private void runWriter() {
+        try {
+            while(true) {
+                Batch batch = mQueue.take();
+                if(batch == END_OF_STREAM) {
+                    return;
+                }
+
+                long start = System.nanoTime();
+                DatabaseConnectionOrm.UpsertStats stats;
+                if(batch.checkpoint != null) {
+                    stats = mDbConn.insertNewItems(batch.items, batch.checkpoint);
+                } else {
+                    stats = mDbConn.insertNewItems(batch.items);
+                }
+                long nanos = System.nanoTime() - start;
+                mWriterStage.record(batch.items.size(), nanos);
+                mBatchPolicy.onCommitted(batch.bytes, nanos);
+
+                mMetrics.increment(SyncMetrics.COUNTER_ITEMS_INSERTED, stats.inserted);
+                mMetrics.increment(SyncMetrics.COUNTER_ITEMS_REPLACED, stats.replaced);
+                mMetrics.increment(SyncMetrics.COUNTER_ITEMS_STATE_UPDATED, stats.stateUpdated);
+            }
+        } catch (InterruptedException e) {
+            Log.v(TAG, "Writer stopped before all items were written");
+        } catch (Throwable t) {
+            Log.e(TAG, "Writer failed", t);
+            mWriterError = t;
+        }
+    }
+
+    private static class Batch {
+        final List<RssItem> items;
+        // Estimated size of the items, already calculated by add()
+        final long bytes;
+        final SyncCheckpoint checkpoint;
+
+        Batch(List<RssItem> items, long bytes, SyncCheckpoint checkpoint) {
+            this.items = items;
+            this.bytes = bytes;
+            this.checkpoint = checkpoint;
+        }
+    }
+}
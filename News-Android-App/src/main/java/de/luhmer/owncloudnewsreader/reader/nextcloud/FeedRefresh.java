@@ -0,0 +1,73 @@
+package de.luhmer.owncloudnewsreader.reader.nextcloud;
+
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import de.luhmer.owncloudnewsreader.Constants;
+import de.luhmer.owncloudnewsreader.database.DatabaseConnectionOrm;
+import de.luhmer.owncloudnewsreader.database.model.Feed;
+import de.luhmer.owncloudnewsreader.reader.FeedItemTags;
+import okhttp3.ResponseBody;
+import retrofit2.HttpException;
+import retrofit2.Response;
+
+/**
+ * Refreshes the items of a single feed or folder instead of syncing the whole account. Only the
+ * items of the feed/folder which changed since its newest item are requested from the server
+ * ("items/updated" with type and id) and merged into the database.
+ */
+public class FeedRefresh {
+
+    private static final String TAG = FeedRefresh.class.getCanonicalName();
+
+    /**
+     * @param session the session of the refresh - the requests are aborted if it is cancelled
+     * @return number of received items
+     */
+    public static int PerformFeedRefresh(NewsAPI newsApi, DatabaseConnectionOrm dbConn, SharedPreferences prefs, SyncSession session, long feedId) throws Exception {
+        return PerformRefresh(newsApi, dbConn, prefs, session, FeedItemTags.FEED, feedId, Collections.singletonList(feedId));
+    }
+
+    /**
+     * @param session the session of the refresh - the requests are aborted if it is cancelled
+     * @return number of received items
+     */
+    public static int PerformFolderRefresh(NewsAPI newsApi, DatabaseConnectionOrm dbConn, SharedPreferences prefs, SyncSession session, long folderId) throws Exception {
+        List<Long> feedIds = new ArrayList<>();
+        for (Feed feed : dbConn.getFolderById(folderId).getFeedList()) {
+            feedIds.add(feed.getId());
+        }
+        return PerformRefresh(newsApi, dbConn, prefs, session, FeedItemTags.FOLDER, folderId, feedIds);
+    }
+
+    private static int PerformRefresh(NewsAPI newsApi, DatabaseConnectionOrm dbConn, SharedPreferences prefs, SyncSession session, FeedItemTags type, long id, List<Long> feedIds) throws Exception {
+        // Upload pending read/starred changes first - otherwise they would be overwritten by the
+        // states the server sends back
+        ItemStateSync.PerformItemStateSync(newsApi, dbConn, session);
+
+        // The items of this feed/folder might get newer than the items of all other feeds, so
+        // remember how far the other feeds were synced (unless an earlier refresh already did)
+        if (!prefs.contains(Constants.FULL_SYNC_LAST_MODIFIED_STRING)) {
+            prefs.edit().putLong(Constants.FULL_SYNC_LAST_MODIFIED_STRING, dbConn.getLastModified()).apply();
+        }
+
+        long lastModified = dbConn.getLastModifiedOfFeeds(feedIds);
+        Response<ResponseBody> response = session.execute(newsApi.updatedItems(lastModified, Integer.parseInt(type.toString()), id));
+        ResponseBody responseBody = response.body();
+        if (!response.isSuccessful() || responseBody == null) {
+            throw new HttpException(response);
+        }
+
+        try {
+            RssItemObservable.SyncPage page = RssItemObservable.streamItems(responseBody.source(), new InsertBatchPolicy(), dbConn::insertNewItems);
+            Log.v(TAG, "Refreshed " + type.name() + " " + id + " - " + page.count + " items");
+            return page.count;
+        } finally {
+            responseBody.close();
+        }
+    }
+}
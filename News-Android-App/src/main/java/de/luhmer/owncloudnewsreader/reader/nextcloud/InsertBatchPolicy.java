@@ -0,0 +1,97 @@
+package de.luhmer.owncloudnewsreader.reader.nextcloud;
+
+import java.util.concurrent.TimeUnit;
+
+import de.luhmer.owncloudnewsreader.database.model.RssItem;
+
+/**
+ * Decides when a batch of parsed rss items is written into the database. Instead of a fixed
+ * number of items, a batch is flushed as soon as its estimated size exceeds a byte budget. After
+ * each commit the budget is adjusted to the measured write throughput, so that a transaction
+ * takes roughly {@link #TARGET_COMMIT_MILLIS}. A few huge articles (bodies may have up to 500k
+ * characters) therefore end up in small transactions, while feeds with short bodies get large
+ * ones.
+ */
+public class InsertBatchPolicy {
+
+    private static final long INITIAL_BYTE_BUDGET = 1024 * 1024; // 1mb
+    private static final long MIN_BYTE_BUDGET = 256 * 1024; // 256kb
+    private static final long MAX_BYTE_BUDGET = 8 * 1024 * 1024; // 8mb
+    private static final long TARGET_COMMIT_MILLIS = 250;
+    private static final int MAX_ITEMS_PER_BATCH = 1000;
+
+    // ids, dates, flags, hashes and the index entries of a row
+    private static final int ROW_OVERHEAD_BYTES = 256;
+
+    private final long minByteBudget;
+    private final long maxByteBudget;
+    private volatile long byteBudget;
+
+    public InsertBatchPolicy() {
+        this(INITIAL_BYTE_BUDGET, MIN_BYTE_BUDGET, MAX_BYTE_BUDGET);
+    }
+
+    /**
+     * @param initialByteBudget budget used until the first commit was measured
+     * @param minByteBudget     lower bound for the budget (use same value for all three params to disable adaption)
+     * @param maxByteBudget     upper bound for the budget
+     */
+    public InsertBatchPolicy(long initialByteBudget, long minByteBudget, long maxByteBudget) {
+        this.minByteBudget = minByteBudget;
+        this.maxByteBudget = maxByteBudget;
+        this.byteBudget = clamp(initialByteBudget);
+    }
+
+    /**
+     * @return true if a batch with the given number of items and estimated size should be written now
+     */
+    public boolean isFull(int itemCount, long estimatedBytes) {
+        return itemCount >= MAX_ITEMS_PER_BATCH || estimatedBytes >= byteBudget;
+    }
+
+    /**
+     * Adjusts the budget to the throughput of the last commit
+     *
+     * @param estimatedBytes estimated size of the committed batch
+     * @param nanos          time needed to write the batch
+     */
+    public synchronized void onCommitted(long estimatedBytes, long nanos) {
+        if(nanos <= 0 || estimatedBytes <= 0) {
+            return;
+        }
+
+        // Bytes that could have been written within the target time at the measured throughput
+        double projectedBudget = estimatedBytes * (double) TimeUnit.MILLISECONDS.toNanos(TARGET_COMMIT_MILLIS) / nanos;
+
+        // Move only half way to avoid jumping back and forth because of a single slow commit
+        byteBudget = clamp((long) ((byteBudget + projectedBudget) / 2));
+    }
+
+    public long getByteBudget() {
+        return byteBudget;
+    }
+
+    /**
+     * Rough estimate of the memory/disk footprint of an item. Strings are counted with two bytes
+     * per character (that's what they occupy on the java heap).
+     */
+    public static long estimateSize(RssItem rssItem) {
+        return ROW_OVERHEAD_BYTES + 2L * (
+                length(rssItem.getBody()) +
+                length(rssItem.getTitle()) +
+                length(rssItem.getLink()) +
+                length(rssItem.getGuid()) +
+                length(rssItem.getAuthor()) +
+                length(rssItem.getEnclosureLink()) +
+                length(rssItem.getMediaThumbnail()) +
+                length(rssItem.getMediaDescription()));
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    private long clamp(long budget) {
+        return Math.max(minByteBudget, Math.min(maxByteBudget, budget));
+    }
+}
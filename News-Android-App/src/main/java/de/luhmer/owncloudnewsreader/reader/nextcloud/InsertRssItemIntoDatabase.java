@@ -37,10 +37,6 @@ class InsertRssItemIntoDatabase {
     private final static String TAG = InsertRssItemIntoDatabase.class.getCanonicalName();
 
     static RssItem parseItem(JsonObject e) {
-		Date pubDate = new Date(e.get("pubDate").getAsLong() * 1000);
-
-        String content = e.get("body").getAsString();
-
         /*
         // URL Decoding content (some pages provide url decoded content - such as showrss.info
         try {
@@ -51,42 +47,50 @@ class InsertRssItemIntoDatabase {
         }
         */
 
-        //String url = e.get("url").getAsString();
-        String url = getStringOrDefault("url", "about:blank", e);
-        String guid = e.get("guid").getAsString();
-        String enclosureLink = getStringOrEmpty("enclosureLink", e);
-        String enclosureMime = getStringOrEmpty("enclosureMime", e);
-
-        String mediaDescription = getStringOrEmpty("mediaDescription", e);
-
-        Boolean rtl = getBooleanOrDefault("rtl", false, e);
-
-        if(enclosureLink.trim().equals("") && url.matches("^https?://(www.)?youtube.com/.*")) {
-            enclosureLink = url;
-            enclosureMime = "youtube";
-        }
-
         RssItem rssItem = new RssItem();
         rssItem.setId(e.get("id").getAsLong());
         rssItem.setFeedId(e.get("feedId").getAsLong());
-        rssItem.setGuid(guid);
+        rssItem.setGuid(e.get("guid").getAsString());
         rssItem.setGuidHash(e.get("guidHash").getAsString());
         rssItem.setFingerprint(getStringOrDefault("fingerprint", null, e));
         rssItem.setLastModified(new Date(e.get("lastModified").getAsLong()));
         rssItem.setRead(!e.get("unread").getAsBoolean());
-        rssItem.setRead_temp(rssItem.getRead());
         rssItem.setStarred(e.get("starred").getAsBoolean());
-        rssItem.setStarred_temp(rssItem.getStarred());
-        rssItem.setPubDate(pubDate);
-        rssItem.setRtl(rtl);
+        rssItem.setPubDate(new Date(e.get("pubDate").getAsLong() * 1000));
+        rssItem.setRtl(getBooleanOrDefault("rtl", false, e));
 
         //Possible XSS fields
         rssItem.setTitle(e.get("title").getAsString());
         rssItem.setAuthor(e.get("author").getAsString());
-        rssItem.setLink(url);
-        rssItem.setEnclosureLink(enclosureLink);
-        rssItem.setEnclosureMime(enclosureMime);
-        rssItem.setMediaDescription(mediaDescription);
+        //String url = e.get("url").getAsString();
+        rssItem.setLink(getStringOrDefault("url", "about:blank", e));
+        rssItem.setEnclosureLink(getStringOrEmpty("enclosureLink", e));
+        rssItem.setEnclosureMime(getStringOrEmpty("enclosureMime", e));
+        rssItem.setMediaDescription(getStringOrEmpty("mediaDescription", e));
+        rssItem.setMediaThumbnail(getStringOrEmpty("mediaThumbnail", e)); // Possible XSS Fields
+        rssItem.setBody(e.get("body").getAsString());
+
+        return completeItem(rssItem);
+	}
+
+    /**
+     * Applies the rules which are shared by all parsers (see {@link RssItemJsonDecoder}) once the
+     * raw fields of the item are set: temp states, missing pubDate, youtube enclosures, missing fingerprints,
+     * size limit of the body and extraction of the thumbnail.
+     */
+    static RssItem completeItem(RssItem rssItem) {
+        rssItem.setRead_temp(rssItem.getRead());
+        rssItem.setStarred_temp(rssItem.getStarred());
+
+        if(rssItem.getPubDate() == null) {
+            rssItem.setPubDate(new Date(0));
+        }
+
+        String url = rssItem.getLink();
+        if(rssItem.getEnclosureLink().trim().equals("") && url.matches("^https?://(www.)?youtube.com/.*")) {
+            rssItem.setEnclosureLink(url);
+            rssItem.setEnclosureMime("youtube");
+        }
 
         if(rssItem.getFingerprint() == null) {
             rssItem.setFingerprint(UUID.randomUUID().toString());
@@ -94,6 +98,7 @@ class InsertRssItemIntoDatabase {
 
         // Calculate the size of the rss items - useful if users run into a SQLiteBlobTooBigException
         // https://github.com/nextcloud/news-android/issues/887
+        String content = rssItem.getBody();
         int contentLength = content.length();
         double sizeInMb = contentLength/1024d/1024d;
         if(sizeInMb > 0.4) {
@@ -111,7 +116,7 @@ class InsertRssItemIntoDatabase {
 
         rssItem.setBody(content);
 
-        String mediaThumbnail = getStringOrEmpty("mediaThumbnail", e); // Possible XSS Fields
+        String mediaThumbnail = rssItem.getMediaThumbnail();
         if(mediaThumbnail.isEmpty()) {
             List<String> images = ImageHandler.getImageLinksFromText(content);
             if(images.size() > 0) {
@@ -124,7 +129,7 @@ class InsertRssItemIntoDatabase {
         rssItem.setMediaThumbnail(mediaThumbnail);
 
         return rssItem;
-	}
+    }
 
 	private static String getStringOrEmpty(String key, JsonObject jObj) {
         return getStringOrDefault(key, "", jObj);
@@ -2,11 +2,11 @@ package de.luhmer.owncloudnewsreader.reader.nextcloud;
 
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import de.luhmer.owncloudnewsreader.database.DatabaseConnectionOrm;
-import de.luhmer.owncloudnewsreader.database.model.RssItem;
 
 /**
  * Created by david on 26.05.17.
@@ -15,13 +15,12 @@ import de.luhmer.owncloudnewsreader.database.model.RssItem;
 public class ItemMap {
     private final Set<Map<String, Object>> items = new HashSet<>();
 
-    public ItemMap(Iterable<String> itemIds, DatabaseConnectionOrm dbConn) {
-        for(String idItem : itemIds)
+    public ItemMap(List<String> itemIds, DatabaseConnectionOrm dbConn) {
+        for(DatabaseConnectionOrm.RssItemKey rssItemKey : dbConn.getRssItemKeys(itemIds))
         {
-            RssItem rssItem = dbConn.getRssItemById(Long.parseLong(idItem));
             HashMap<String, Object> itemMap = new HashMap<>();
-            itemMap.put("feedId", rssItem.getFeedId());
-            itemMap.put("guidHash", rssItem.getGuidHash());
+            itemMap.put("feedId", rssItemKey.feedId);
+            itemMap.put("guidHash", rssItemKey.guidHash);
             this.items.add(itemMap);
         }
     }
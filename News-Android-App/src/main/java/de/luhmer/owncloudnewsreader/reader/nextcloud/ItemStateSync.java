@@ -1,7 +1,14 @@
 package de.luhmer.owncloudnewsreader.reader.nextcloud;
 
+import android.util.Log;
+
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import de.luhmer.owncloudnewsreader.database.DatabaseConnectionOrm;
 import de.luhmer.owncloudnewsreader.reader.FeedItemTags;
@@ -12,55 +19,129 @@ import de.luhmer.owncloudnewsreader.reader.FeedItemTags;
 
 public class ItemStateSync {
 
-    public static boolean PerformItemStateSync(NewsAPI newsApi, DatabaseConnectionOrm dbConn) throws IOException {
-        boolean successful;
-
-        //Mark as READ
-        List<String> itemIds = dbConn.getRssItemsIdsFromList(dbConn.getAllNewReadRssItems());
-        boolean result = PerformTagExecution(itemIds, FeedItemTags.MARK_ITEM_AS_READ, dbConn, newsApi);
-        if(result)
-            dbConn.change_readUnreadStateOfItem(itemIds, true);
-        successful = result;
-
-        //Mark as UNREAD
-        itemIds = dbConn.getRssItemsIdsFromList(dbConn.getAllNewUnreadRssItems());
-        result = PerformTagExecution(itemIds, FeedItemTags.MARK_ITEM_AS_UNREAD, dbConn, newsApi);
-        if(result)
-            dbConn.change_readUnreadStateOfItem(itemIds, false);
-        successful &= result;
-
-        //Mark as STARRED
-        itemIds = dbConn.getRssItemsIdsFromList(dbConn.getAllNewStarredRssItems());
-        result = PerformTagExecution(itemIds, FeedItemTags.MARK_ITEM_AS_STARRED, dbConn, newsApi);
-        if(result)
-            dbConn.changeStarrUnstarrStateOfItem(itemIds, true);
-        successful &= result;
-
-        //Mark as UNSTARRED
-        itemIds = dbConn.getRssItemsIdsFromList(dbConn.getAllNewUnstarredRssItems());
-        result = PerformTagExecution(itemIds, FeedItemTags.MARK_ITEM_AS_UNSTARRED, dbConn, newsApi);
-        if(result)
-            dbConn.changeStarrUnstarrStateOfItem(itemIds, false);
-        successful &= result;
-
-        return successful;
+    private static final String TAG = ItemStateSync.class.getCanonicalName();
+
+    // Number of item ids which are sent to the server in one request
+    private static final int CHUNK_SIZE = 500;
+
+    /**
+     * Uploads the locally changed read/unread/starred/unstarred states. The ids of every category
+     * are split into chunks, which are sent concurrently on the task thread pool of the
+     * {@code session}. Each chunk the server confirmed is committed locally right away, so if some
+     * chunks fail, only those are sent again on the next sync.
+     *
+     * @return true if all chunks were synced successfully
+     * @throws IOException the first network error which occurred (after all other chunks were
+     * processed) or an {@link java.io.InterruptedIOException} if the session was cancelled
+     */
+    public static boolean PerformItemStateSync(NewsAPI newsApi, DatabaseConnectionOrm dbConn, SyncSession session) throws IOException {
+        List<Chunk> chunks = new ArrayList<>();
+        addChunks(chunks, FeedItemTags.MARK_ITEM_AS_READ, dbConn.getIdsOfNewReadRssItems());
+        addChunks(chunks, FeedItemTags.MARK_ITEM_AS_UNREAD, dbConn.getIdsOfNewUnreadRssItems());
+        addChunks(chunks, FeedItemTags.MARK_ITEM_AS_STARRED, dbConn.getIdsOfNewStarredRssItems());
+        addChunks(chunks, FeedItemTags.MARK_ITEM_AS_UNSTARRED, dbConn.getIdsOfNewUnstarredRssItems());
+
+        if(chunks.isEmpty()) { // Nothing to sync --> Skip
+            return true;
+        }
+
+        List<Future<Boolean>> results = new ArrayList<>(chunks.size());
+        try {
+            for (final Chunk chunk : chunks) {
+                results.add(session.submit(() -> PerformChunkSync(chunk, dbConn, newsApi, session)));
+            }
+
+            boolean successful = true;
+            IOException firstError = null;
+            for (Future<Boolean> result : results) {
+                try {
+                    successful &= result.get();
+                } catch (ExecutionException e) {
+                    successful = false;
+                    if (firstError == null) {
+                        firstError = e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+                    }
+                }
+            }
+
+            if (firstError != null) {
+                throw firstError;
+            }
+            return successful;
+        } catch (CancellationException e) {
+            throw new InterruptedIOException("Item state sync was cancelled");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Item state sync was interrupted");
+        } finally {
+            // Don't leave any requests behind if we stopped waiting early
+            for (Future<Boolean> result : results) {
+                result.cancel(true);
+            }
+        }
+    }
+
+    private static void addChunks(List<Chunk> chunks, FeedItemTags tag, List<String> itemIds) {
+        for(int i = 0; i < itemIds.size(); i += CHUNK_SIZE) {
+            chunks.add(new Chunk(tag, itemIds.subList(i, Math.min(itemIds.size(), i + CHUNK_SIZE))));
+        }
+    }
+
+    /**
+     * Sends the chunk to the server and commits the state locally if the request was successful
+     */
+    private static boolean PerformChunkSync(Chunk chunk, DatabaseConnectionOrm dbConn, NewsAPI newsApi, SyncSession session) throws IOException {
+        boolean result = PerformTagExecution(chunk.itemIds, chunk.tag, dbConn, newsApi, session);
+        if(!result) {
+            Log.w(TAG, "Failed to sync " + chunk.itemIds.size() + " items (" + chunk.tag + ")");
+            return false;
+        }
+
+        switch(chunk.tag) {
+            case MARK_ITEM_AS_READ:
+                dbConn.change_readUnreadStateOfItem(chunk.itemIds, true);
+                break;
+            case MARK_ITEM_AS_UNREAD:
+                dbConn.change_readUnreadStateOfItem(chunk.itemIds, false);
+                break;
+            case MARK_ITEM_AS_STARRED:
+                dbConn.changeStarrUnstarrStateOfItem(chunk.itemIds, true);
+                break;
+            case MARK_ITEM_AS_UNSTARRED:
+                dbConn.changeStarrUnstarrStateOfItem(chunk.itemIds, false);
+                break;
+        }
+        return true;
     }
 
-    private static boolean PerformTagExecution(List<String> itemIds, FeedItemTags tag, DatabaseConnectionOrm dbConn, NewsAPI newsApi) throws IOException {
+    private static boolean PerformTagExecution(List<String> itemIds, FeedItemTags tag, DatabaseConnectionOrm dbConn, NewsAPI newsApi, SyncSession session) throws IOException {
         if(itemIds.size() <= 0) { // Nothing to sync --> Skip
             return true;
         }
 
         switch(tag) {
             case MARK_ITEM_AS_READ:
-                return newsApi.markItemsRead(new ItemIds(itemIds)).execute().isSuccessful();
+                return session.execute(newsApi.markItemsRead(new ItemIds(itemIds))).isSuccessful();
             case MARK_ITEM_AS_UNREAD:
-                return newsApi.markItemsUnread(new ItemIds(itemIds)).execute().isSuccessful();
+                return session.execute(newsApi.markItemsUnread(new ItemIds(itemIds))).isSuccessful();
             case MARK_ITEM_AS_STARRED:
-                return newsApi.markItemsStarred(new ItemMap(itemIds, dbConn)).execute().isSuccessful();
+                return session.execute(newsApi.markItemsStarred(new ItemMap(itemIds, dbConn))).isSuccessful();
             case MARK_ITEM_AS_UNSTARRED:
-                return newsApi.markItemsUnstarred(new ItemMap(itemIds, dbConn)).execute().isSuccessful();
+                return session.execute(newsApi.markItemsUnstarred(new ItemMap(itemIds, dbConn))).isSuccessful();
         }
         return false;
     }
+
+    /**
+     * Ids of up to {@link #CHUNK_SIZE} items which get the same state
+     */
+    private static class Chunk {
+        final FeedItemTags tag;
+        final List<String> itemIds;
+
+        Chunk(FeedItemTags tag, List<String> itemIds) {
+            this.tag = tag;
+            this.itemIds = itemIds;
+        }
+    }
 }
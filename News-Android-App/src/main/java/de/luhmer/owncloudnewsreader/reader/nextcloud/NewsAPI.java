@@ -77,9 +77,24 @@ public interface NewsAPI {
             @Query("oldestFirst") boolean oldestFirst
     );
 
+    /**
+     * Same as {@link #items(long, long, int, long, boolean, boolean)}, but the response is not
+     * deserialized by gson - use {@link RssItemObservable#streamItems} to parse it item by item
+     */
+    @GET("items")
+    @Streaming
+    Call<ResponseBody> itemsStreamed(
+            @Query("batchSize") long batchSize,
+            @Query("offset") long offset,
+            @Query("type") int type,
+            @Query("id") long id,
+            @Query("getRead") boolean getRead,
+            @Query("oldestFirst") boolean oldestFirst
+    );
+
     @GET("items/updated")
     @Streaming
-    Observable<ResponseBody> updatedItems(
+    Call<ResponseBody> updatedItems(
             @Query("lastModified") long lastModified,
             @Query("type") int type,
             @Query("id") long id
@@ -0,0 +1,122 @@
+package de.luhmer.owncloudnewsreader.reader.nextcloud;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.util.Date;
+
+import de.luhmer.owncloudnewsreader.database.model.RssItem;
+
+/**
+ * Maps the tokens of a single item of the items (or items/updated) endpoint directly onto a
+ * {@link RssItem}. In contrast to {@link InsertRssItemIntoDatabase#parseItem} no intermediate
+ * {@link com.google.gson.JsonObject} is created, so every value is read exactly once.
+ */
+class RssItemJsonDecoder {
+
+    private RssItemJsonDecoder() {}
+
+    /**
+     * Reads the next object of the reader (which has to be positioned in front of it)
+     */
+    static RssItem decode(JsonReader reader) throws IOException {
+        RssItem rssItem = new RssItem();
+
+        // defaults for optional fields (same as in InsertRssItemIntoDatabase.parseItem)
+        rssItem.setLink("about:blank");
+        rssItem.setEnclosureLink("");
+        rssItem.setEnclosureMime("");
+        rssItem.setMediaDescription("");
+        rssItem.setMediaThumbnail("");
+        rssItem.setRtl(false);
+        rssItem.setBody("");
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+
+            if (reader.peek() == JsonToken.NULL) {
+                reader.skipValue();
+                continue;
+            }
+
+            switch (name) {
+                case "id":
+                    rssItem.setId(reader.nextLong());
+                    break;
+                case "feedId":
+                    rssItem.setFeedId(reader.nextLong());
+                    break;
+                case "guid":
+                    rssItem.setGuid(reader.nextString());
+                    break;
+                case "guidHash":
+                    rssItem.setGuidHash(reader.nextString());
+                    break;
+                case "fingerprint":
+                    rssItem.setFingerprint(reader.nextString());
+                    break;
+                case "lastModified":
+                    rssItem.setLastModified(new Date(reader.nextLong()));
+                    break;
+                case "pubDate":
+                    rssItem.setPubDate(new Date(reader.nextLong() * 1000));
+                    break;
+                case "unread":
+                    rssItem.setRead(!nextBoolean(reader));
+                    break;
+                case "starred":
+                    rssItem.setStarred(nextBoolean(reader));
+                    break;
+                case "rtl":
+                    rssItem.setRtl(nextBoolean(reader));
+                    break;
+                //Possible XSS fields
+                case "title":
+                    rssItem.setTitle(reader.nextString());
+                    break;
+                case "author":
+                    rssItem.setAuthor(reader.nextString());
+                    break;
+                case "url":
+                    rssItem.setLink(reader.nextString());
+                    break;
+                case "body":
+                    rssItem.setBody(reader.nextString());
+                    break;
+                case "enclosureLink":
+                    rssItem.setEnclosureLink(reader.nextString());
+                    break;
+                case "enclosureMime":
+                    rssItem.setEnclosureMime(reader.nextString());
+                    break;
+                case "mediaDescription":
+                    rssItem.setMediaDescription(reader.nextString());
+                    break;
+                case "mediaThumbnail":
+                    rssItem.setMediaThumbnail(reader.nextString());
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return InsertRssItemIntoDatabase.completeItem(rssItem);
+    }
+
+    /**
+     * Be lenient in case a server sends 0/1 or "true"/"false" instead of a boolean
+     */
+    private static boolean nextBoolean(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case NUMBER:
+                return reader.nextLong() != 0;
+            case STRING:
+                return Boolean.parseBoolean(reader.nextString());
+            default:
+                return reader.nextBoolean();
+        }
+    }
+}
@@ -3,284 +3,408 @@ package de.luhmer.owncloudnewsreader.reader.nextcloud;
 import android.content.SharedPreferences;
 import android.util.Log;
 
-import com.google.gson.JsonObject;
 import com.google.gson.stream.JsonReader;
-import com.google.gson.stream.JsonToken;
 
-import org.reactivestreams.Publisher;
-import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 
 import de.luhmer.owncloudnewsreader.Constants;
 import de.luhmer.owncloudnewsreader.database.DatabaseConnectionOrm;
 import de.luhmer.owncloudnewsreader.database.model.RssItem;
+import de.luhmer.owncloudnewsreader.database.model.SyncCheckpoint;
 import de.luhmer.owncloudnewsreader.reader.FeedItemTags;
-import io.reactivex.Observable;
-import io.reactivex.ObservableSource;
-import io.reactivex.Observer;
-import io.reactivex.annotations.NonNull;
-import io.reactivex.disposables.Disposable;
-import io.reactivex.functions.Function;
+import io.reactivex.BackpressureStrategy;
+import io.reactivex.Emitter;
+import io.reactivex.Flowable;
+import io.reactivex.FlowableSubscriber;
+import io.reactivex.functions.Consumer;
 import okhttp3.ResponseBody;
+import okio.Buffer;
 import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+import retrofit2.HttpException;
+import retrofit2.Response;
 
 /**
- * onNext returns the current amount of synced items
+ * Downloads the rss items and writes them into the database. Use {@link #toFlowable()} to run
+ * the sync - onNext returns the current amount of synced items.
  */
-public class RssItemObservable implements Publisher<Integer> {
+public class RssItemObservable {
 
     private final DatabaseConnectionOrm mDbConn;
     private final NewsAPI mNewsApi;
     private final SharedPreferences mPrefs;
     private static final String TAG = RssItemObservable.class.getCanonicalName();
     private static int maxSizePerSync = 300;
-
-    public RssItemObservable(DatabaseConnectionOrm dbConn, NewsAPI newsApi, SharedPreferences prefs) {
+    private final SyncMetrics mSyncMetrics;
+    private final InsertBatchPolicy mBatchPolicy = new InsertBatchPolicy();
+    private final SyncSession mSession;
+
+    /**
+     * @param session all http calls are registered with the session, so the sync stops as soon
+     *                as the session is cancelled
+     */
+    public RssItemObservable(DatabaseConnectionOrm dbConn, NewsAPI newsApi, SharedPreferences prefs, SyncMetrics syncMetrics, SyncSession session) {
         this.mDbConn = dbConn;
         this.mNewsApi = newsApi;
         this.mPrefs = prefs;
+        this.mSyncMetrics = syncMetrics;
+        this.mSession = session;
     }
 
-    @Override
-    public void subscribe(Subscriber<? super Integer> s) {
-        try {
-            sync(s);
-            s.onComplete();
-        } catch (Exception ex) {
-            s.onError(ex);
-        }
+    /**
+     * Runs the sync when subscribed. Only the latest item count is of interest, so intermediate
+     * counts are dropped if the subscriber doesn't keep up.
+     */
+    public Flowable<Integer> toFlowable() {
+        return Flowable.create(emitter -> {
+            try {
+                sync(emitter);
+                emitter.onComplete();
+            } catch (Exception ex) {
+                // The subscriber might be gone already (e.g. sync was cancelled)
+                emitter.tryOnError(ex);
+            }
+        }, BackpressureStrategy.LATEST);
     }
 
-    public void sync(Subscriber<? super Integer> subscriber) throws IOException {
-
-        mDbConn.clearDatabaseOverSize();
+    private void sync(Emitter<Integer> emitter) throws Exception {
 
         //String authKey = AuthenticationManager.getGoogleAuthKey(username, password);
         //int maxItemsInDatabase = Integer.parseInt(mPrefs.getString(SettingsActivity.SP_MAX_ITEMS_SYNC, "200"));
 
-        long lastModified = mDbConn.getLastModified();
-        //dbConn.clearDatabaseOverSize();
+        long lastModified = getLastModifiedOfFullSync();
 
-        int requestCount = 0;
-        int totalCount   = 0;
-        int maxSyncSize = maxSizePerSync;
+        SyncCheckpoint checkpoint = mDbConn.getSyncCheckpoint();
 
-        if(lastModified == 0)//Only on first sync
+        if(checkpoint != null) //First sync was interrupted
+        {
+            Log.v(TAG, "Resuming first sync - phase=" + checkpoint.getPhase() + ", offset=" + checkpoint.getOffsetCursor() + ", itemsFetched=" + checkpoint.getItemsFetched());
+            performFirstSync(emitter, checkpoint);
+        }
+        else if(lastModified == 0)//Only on first sync
         {
-            long offset = 0;
-
             Log.v(TAG, "First sync - download all available unread articles!!");
-            int maxItemsInDatabase = Constants.maxItemsCount;
+            performFirstSync(emitter, new SyncCheckpoint(0, SyncCheckpoint.PHASE_UNREAD, 0, 0, null));
+        }
+        else
+        {
+            Log.v(TAG, "Incremental sync!!");
+            //First reset the count of last updated items
+            mPrefs.edit().putInt(Constants.LAST_UPDATE_NEW_ITEMS_COUNT_STRING, 0).apply();
 
-            do {
-                Log.v(TAG, "offset=" + offset + ",  requestCount=" + requestCount + "");
-                List<RssItem> buffer = (mNewsApi.items(maxSyncSize, offset, Integer.parseInt(FeedItemTags.ALL.toString()), 0, false, true).execute().body());
+            //long highestItemIdBeforeSync = mDbConn.getHighestItemId();
 
-                requestCount = 0;
-                if(buffer != null) {
-                    requestCount = buffer.size();
-                    performDatabaseBatchInsert(mDbConn, buffer);
-                }
+            //Get all updated items - parsing and writing into the database run in parallel
+            long pageStart = System.nanoTime();
+            Response<ResponseBody> response = mSession.execute(mNewsApi.updatedItems(lastModified, Integer.parseInt(FeedItemTags.ALL.toString()), 0));
+            if(!response.isSuccessful() || response.body() == null) {
+                throw new HttpException(response);
+            }
+            ResponseBody responseBody = response.body();
+            final int[] totalUpdatedUnreadItemCount = { 0 };
+
+            try (DatabaseWriterPipeline pipeline = new DatabaseWriterPipeline(mDbConn, mBatchPolicy, 2, mSyncMetrics, mSession)) {
+                SyncPage page = streamItems(countDownloadedBytes(responseBody.source()), rssItem -> {
+                    long rssLastModified = rssItem.getLastModified().getTime();
+                    // If updated item is unread and last modification was different from last sync time
+                    if(!rssItem.getRead() && rssLastModified != lastModified) {
+                        totalUpdatedUnreadItemCount[0]++;
+                    }
 
-                if(requestCount > 0)
-                    offset = mDbConn.getHighestItemId();
-                totalCount += requestCount;
+                    pipeline.add(rssItem);
+                });
+                mSyncMetrics.getStage(SyncMetrics.STAGE_ITEM_PAGES).record(page.count, System.nanoTime() - pageStart);
+                pipeline.finish();
+            } finally {
+                responseBody.close();
+            }
 
-                subscriber.onNext(totalCount);
-            } while(requestCount == maxSyncSize);
+            Log.v(TAG, "Incremental sync done - " + mSyncMetrics + ", batch budget: " + mBatchPolicy.getByteBudget() + " bytes");
 
-            Log.v(TAG, "[all] offset=" + offset + ",  requestCount=" + requestCount + ", maxSyncSize=" + maxSyncSize);
+            //If no exception occurs, set the number of updated items
+            mPrefs.edit().putInt(Constants.LAST_UPDATE_NEW_ITEMS_COUNT_STRING, totalUpdatedUnreadItemCount[0]).apply();
+        }
+
+        // All feeds are up to date again
+        mPrefs.edit().remove(Constants.FULL_SYNC_LAST_MODIFIED_STRING).apply();
+    }
 
-            Log.v(TAG, "Sync all items done - Synchronizing all starred articles now");
+    /**
+     * @return the lastModified timestamp up to which all feeds were synced. If single feeds were
+     * refreshed in the meantime (see {@link FeedRefresh}), their items may be newer than that.
+     */
+    private long getLastModifiedOfFullSync() {
+        long lastModified = mDbConn.getLastModified();
+        return Math.min(lastModified, mPrefs.getLong(Constants.FULL_SYNC_LAST_MODIFIED_STRING, lastModified));
+    }
 
-            mPrefs.edit().putInt(Constants.LAST_UPDATE_NEW_ITEMS_COUNT_STRING, totalCount).apply();
+    /**
+     * Downloads all unread and afterwards all starred items. Every committed batch updates the
+     * checkpoint, so if the sync gets interrupted it continues where it stopped on the next run.
+     *
+     * @param checkpoint the phase, offset and item count to start with
+     */
+    private void performFirstSync(Emitter<Integer> emitter, final SyncCheckpoint checkpoint) throws Exception {
+        int requestCount = 0;
+        final int maxSyncSize = maxSizePerSync;
+        final long[] totalCount = { checkpoint.getItemsFetched() };
+        long offset = checkpoint.getOffsetCursor();
+
+        // Runs on this thread when a batch is handed over to the writer, so phase and item count
+        // match the items of the batch (the items are sorted by id - oldest first)
+        DatabaseWriterPipeline.CheckpointProvider checkpointProvider = batch -> new SyncCheckpoint(0,
+                checkpoint.getPhase(), batch.get(batch.size() - 1).getId(), totalCount[0], null);
+
+        // The pages are parsed on this thread and written by the pipeline's writer thread.
+        // As the offset of the next page is taken from the parsed payload, the request for
+        // page N+1 is sent while page N is still being inserted.
+        try (DatabaseWriterPipeline pipeline = new DatabaseWriterPipeline(mDbConn, mBatchPolicy, 2, mSyncMetrics, mSession, checkpointProvider)) {
+            Consumer<RssItem> itemConsumer = rssItem -> {
+                totalCount[0]++;
+                pipeline.add(rssItem);
+            };
+
+            if(SyncCheckpoint.PHASE_UNREAD.equals(checkpoint.getPhase())) {
+                do {
+                    Log.v(TAG, "offset=" + offset + ",  requestCount=" + requestCount + "");
+                    SyncPage page = performStreamingPageInsert(itemConsumer, maxSyncSize, offset, FeedItemTags.ALL);
+                    requestCount = page.count;
+
+                    if(requestCount > 0)
+                        offset = page.maxId; // get maximum id of returned items
+
+                    emitter.onNext((int) totalCount[0]);
+                } while(requestCount == maxSyncSize);
+
+                Log.v(TAG, "[all] offset=" + offset + ",  requestCount=" + requestCount + ", maxSyncSize=" + maxSyncSize);
+
+                Log.v(TAG, "Sync all items done - Synchronizing all starred articles now");
+
+                mPrefs.edit().putInt(Constants.LAST_UPDATE_NEW_ITEMS_COUNT_STRING, (int) totalCount[0]).apply();
+
+                // Batches must not contain items of both phases
+                pipeline.flush();
+                checkpoint.setPhase(SyncCheckpoint.PHASE_STARRED);
+                offset = 0;
+            }
 
-            offset = 0;
             do {
-                List<RssItem> buffer = mNewsApi.items(maxSyncSize, offset, Integer.parseInt(FeedItemTags.ALL_STARRED.toString()), 0, false, true).execute().body();
-                requestCount = 0;
-                if(buffer != null) {
-                    requestCount = buffer.size();
-                    offset = getMaxIdFromItems(buffer); // get maximum id of returned items
-                    performDatabaseBatchInsert(mDbConn, buffer);
-                }
+                SyncPage page = performStreamingPageInsert(itemConsumer, maxSyncSize, offset, FeedItemTags.ALL_STARRED);
+                requestCount = page.count;
+                if(requestCount > 0)
+                    offset = page.maxId; // get maximum id of returned items
                 Log.v(TAG, "[starred] offset=" + offset + ",  requestCount=" + requestCount + ", maxSyncSize=" + maxSyncSize);
-                totalCount += requestCount;
 
-                subscriber.onNext(totalCount);
+                emitter.onNext((int) totalCount[0]);
             } while(requestCount == maxSyncSize);
+
+            pipeline.finish();
         }
-        else
-        {
-            Log.v(TAG, "Incremental sync!!");
-            //First reset the count of last updated items
-            mPrefs.edit().putInt(Constants.LAST_UPDATE_NEW_ITEMS_COUNT_STRING, 0).apply();
 
-            //long highestItemIdBeforeSync = mDbConn.getHighestItemId();
+        mDbConn.removeSyncCheckpoint();
+
+        Log.v(TAG, "First sync done - " + mSyncMetrics);
+    }
+
+    /**
+     * Downloads one page of the items endpoint and passes the items on while the page is being
+     * parsed. The page is never held in memory as a whole.
+     */
+    private SyncPage performStreamingPageInsert(Consumer<RssItem> itemConsumer, int batchSize, long offset, FeedItemTags type) throws Exception {
+        mSession.throwIfCancelled();
+
+        long start = System.nanoTime();
+        ResponseBody responseBody = mSession.execute(mNewsApi.itemsStreamed(batchSize, offset, Integer.parseInt(type.toString()), 0, false, true)).body();
+        if(responseBody == null) {
+            return new SyncPage(0, 0);
+        }
 
-            //Get all updated items
-            mNewsApi.updatedItems(lastModified, Integer.parseInt(FeedItemTags.ALL.toString()), 0)
-                    .flatMap((Function<ResponseBody, ObservableSource<RssItem>>) responseBody -> events(responseBody.source()))
-                    .subscribe(new Observer<RssItem>() {
-                        int totalUpdatedUnreadItemCount = 0;
-                        final int bufferSize = 150;
-                        final List<RssItem> buffer = new ArrayList<>(bufferSize); //Buffer of size X
-
-                        @Override
-                        public void onSubscribe(@NonNull Disposable d) {
-                            Log.v(TAG, "onSubscribe() called with Disposable: d = [" + d + "]");
-                        }
-
-                        @Override
-                        public void onNext(@NonNull RssItem rssItem) {
-                            long rssLastModified = rssItem.getLastModified().getTime();
-                            // If updated item is unread and last modification was different from last sync time
-                            if(!rssItem.getRead() && rssLastModified != lastModified) {
-                                totalUpdatedUnreadItemCount++;
-                            }
-
-                            buffer.add(rssItem);
-                            if (buffer.size() >= bufferSize) {
-                                performDatabaseBatchInsert(mDbConn, buffer);
-                            }
-                        }
-
-                        @Override
-                        public void onError(@NonNull Throwable e) {
-                            Log.e(TAG, "onError() called with: e = [" + e + "]");
-                        }
-
-                        @Override
-                        public void onComplete() {
-                            Log.v(TAG, "onComplete() called");
-                            performDatabaseBatchInsert(mDbConn, buffer);
-
-                            //If no exception occurs, set the number of updated items
-                            mPrefs.edit().putInt(Constants.LAST_UPDATE_NEW_ITEMS_COUNT_STRING, totalUpdatedUnreadItemCount).apply();
-                        }
-                    });
+        try {
+            SyncPage page = streamItems(countDownloadedBytes(responseBody.source()), itemConsumer);
+            mSyncMetrics.getStage(SyncMetrics.STAGE_ITEM_PAGES).record(page.count, System.nanoTime() - start);
+            return page;
+        } finally {
+            responseBody.close();
         }
     }
 
-    private static long getMaxIdFromItems(List<RssItem> buffer) {
-        long max = 0;
-        for(RssItem item : buffer) {
-            if(item.getId() > max) {
-                max = item.getId();
+    /**
+     * Wraps the source of a response body so that the bytes read from it are added to the
+     * {@link SyncMetrics#COUNTER_BYTES_DOWNLOADED} counter
+     */
+    private BufferedSource countDownloadedBytes(BufferedSource source) {
+        return Okio.buffer(new ForwardingSource(source) {
+            @Override
+            public long read(Buffer sink, long byteCount) throws IOException {
+                long read = super.read(sink, byteCount);
+                if(read > 0) {
+                    mSyncMetrics.increment(SyncMetrics.COUNTER_BYTES_DOWNLOADED, read);
+                }
+                return read;
             }
-        }
-        return max;
+        });
     }
 
-    public static boolean performDatabaseBatchInsert(DatabaseConnectionOrm dbConn, List<RssItem> buffer) {
-        Log.v(TAG, "performDatabaseBatchInsert() called with: dbConn = [" + dbConn + "], buffer = [" + buffer + "]");
-        dbConn.insertNewItems(buffer);
-        buffer.clear();
-        return true;
+    /**
+     * Emits the items of the "items" array of the response. The response is read token by token
+     * and only as far as the subscriber requested items - an item is not parsed (and the next
+     * bytes are not read from the socket) before it was requested.
+     */
+    public static Flowable<RssItem> items(final BufferedSource source) {
+        return Flowable.generate(
+                () -> openItemsArray(source),
+                (JsonReader reader, Emitter<RssItem> emitter) -> {
+                    if (reader.hasNext()) {
+                        emitter.onNext(RssItemJsonDecoder.decode(reader));
+                    } else {
+                        reader.endArray();
+                        emitter.onComplete();
+                    }
+                },
+                JsonReader::close);
     }
 
-    public static Observable<RssItem> events(final BufferedSource source) {
-        return Observable.create(e -> {
-            try {
-                InputStreamReader isr = new InputStreamReader(source.inputStream());
-                BufferedReader br = new BufferedReader(isr);
-                JsonReader reader = new JsonReader(br);
+    /**
+     * Reads the "items" array of the response and passes every parsed item to
+     * {@code itemConsumer}. The items are requested one at a time, so the next item is read only
+     * after the consumer returned. If the consumer blocks (e.g. because the database writer can't
+     * keep up), nothing is buffered - the data stays in the socket.
+     */
+    private static SyncPage streamItems(final BufferedSource source, final Consumer<RssItem> itemConsumer) throws Exception {
+        final int[] count = { 0 };
+        final long[] maxId = { 0 };
+        final Throwable[] error = { null };
+
+        items(source).blockingSubscribe(new FlowableSubscriber<RssItem>() {
+            private Subscription subscription;
+
+            @Override
+            public void onSubscribe(Subscription s) {
+                subscription = s;
+                s.request(1);
+            }
 
+            @Override
+            public void onNext(RssItem rssItem) {
+                maxId[0] = Math.max(maxId[0], rssItem.getId());
+                count[0]++;
                 try {
-                    reader.beginObject();
-
-                    String currentName;
-                    while(reader.hasNext() && (currentName = reader.nextName()) != null) {
-                        if(currentName.equals("items")) {
-                            break;
-                        } else {
-                            reader.skipValue();
-                        }
-                    }
-
-                    reader.beginArray();
-                    while (reader.hasNext()) {
-                        JsonObject jsonObj = getJsonObjectFromReader(reader);
-                        RssItem item = InsertRssItemIntoDatabase.parseItem(Objects.requireNonNull(jsonObj));
-                        e.onNext(item);
-                    }
-                    reader.endArray();
-                } finally {
-                    reader.close();
-                    br.close();
-                    isr.close();
+                    itemConsumer.accept(rssItem);
+                } catch (Throwable t) {
+                    error[0] = t;
+                    subscription.cancel();
+                    return;
                 }
-            } catch (IOException err) {
-                err.printStackTrace();
-                e.onError(err);
-            } catch(NullPointerException npe) {
-                npe.printStackTrace();
-                e.onError(npe);
+                subscription.request(1);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                error[0] = t;
+            }
+
+            @Override
+            public void onComplete() {
             }
-            e.onComplete();
         });
+
+        if (error[0] instanceof Exception) {
+            throw (Exception) error[0];
+        } else if (error[0] != null) {
+            throw (Error) error[0];
+        }
+
+        return new SyncPage(count[0], maxId[0]);
+    }
+
+    /**
+     * Reads the "items" array of the response token by token and hands the parsed items over in
+     * batches. The size of a batch is determined by the {@code batchPolicy} (estimated bytes and
+     * the time the consumer needed for the previous batches). Only the current batch is kept in
+     * memory. The list passed to {@code batchConsumer} is reused once the consumer returns.
+     */
+    public static SyncPage streamItems(final BufferedSource source, InsertBatchPolicy batchPolicy, Consumer<List<RssItem>> batchConsumer) throws Exception {
+        final List<RssItem> buffer = new ArrayList<>();
+        final long[] bufferBytes = { 0 };
+
+        SyncPage page = streamItems(source, rssItem -> {
+            buffer.add(rssItem);
+            bufferBytes[0] += InsertBatchPolicy.estimateSize(rssItem);
+
+            if (batchPolicy.isFull(buffer.size(), bufferBytes[0])) {
+                flushBatch(buffer, bufferBytes[0], batchPolicy, batchConsumer);
+                bufferBytes[0] = 0;
+            }
+        });
+
+        if (!buffer.isEmpty()) {
+            flushBatch(buffer, bufferBytes[0], batchPolicy, batchConsumer);
+        }
+
+        return page;
     }
 
+    /**
+     * Passes the buffer to the consumer, reports the time it took to the policy and clears the buffer
+     */
+    private static void flushBatch(List<RssItem> buffer, long bufferBytes, InsertBatchPolicy batchPolicy, Consumer<List<RssItem>> batchConsumer) throws Exception {
+        long start = System.nanoTime();
+        batchConsumer.accept(buffer);
+        batchPolicy.onCommitted(bufferBytes, System.nanoTime() - start);
+        buffer.clear();
+    }
 
-    private static JsonObject getJsonObjectFromReader(JsonReader jsonReader) {
-        JsonObject jObj = new JsonObject();
-        JsonToken tokenInstance;
+    /**
+     * Opens a reader which is positioned at the first element of the "items" array of the response
+     */
+    private static JsonReader openItemsArray(final BufferedSource source) throws IOException {
+        JsonReader reader = new JsonReader(new BufferedReader(new InputStreamReader(source.inputStream())));
         try {
-            tokenInstance = jsonReader.peek();
-            if(tokenInstance == JsonToken.BEGIN_OBJECT)
-                jsonReader.beginObject();
-            else if (tokenInstance == JsonToken.BEGIN_ARRAY)
-                jsonReader.beginArray();
-
-            while(jsonReader.hasNext()) {
-                JsonToken token;
-                String name;
-                try {
-                    name = jsonReader.nextName();
-                    token = jsonReader.peek();
-
-                    //Log.d(TAG, token.toString());
-
-                    switch(token) {
-                        case NUMBER:
-                            jObj.addProperty(name, jsonReader.nextLong());
-                            break;
-                        case NULL:
-                            jsonReader.skipValue();
-                            break;
-                        case BOOLEAN:
-                            jObj.addProperty(name, jsonReader.nextBoolean());
-                            break;
-                        case BEGIN_OBJECT:
-                            jObj.add(name, getJsonObjectFromReader(jsonReader));
-                            break;
-                        case BEGIN_ARRAY:
-                            jsonReader.skipValue();
-                            break;
-                        default:
-                            jObj.addProperty(name, jsonReader.nextString());
-                    }
-                } catch(Exception ex) {
-                    ex.printStackTrace();
-                    jsonReader.skipValue();
-                }
+            beginItemsArray(reader);
+        } catch (IOException | RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+        return reader;
+    }
+
+    /**
+     * Skips all top-level fields of the response until the "items" array is reached and steps into it
+     */
+    private static void beginItemsArray(JsonReader reader) throws IOException {
+        reader.beginObject();
+
+        String currentName;
+        while(reader.hasNext() && (currentName = reader.nextName()) != null) {
+            if(currentName.equals("items")) {
+                break;
+            } else {
+                reader.skipValue();
             }
+        }
 
-            if(tokenInstance == JsonToken.BEGIN_OBJECT)
-                jsonReader.endObject();
-            else if (tokenInstance == JsonToken.BEGIN_ARRAY)
-                jsonReader.endArray();
+        reader.beginArray();
+    }
 
-            return jObj;
-        } catch (Exception e) {
-            e.printStackTrace();
+    /**
+     * Result of a single page download
+     */
+    public static class SyncPage {
+        /** number of items in the page */
+        public final int count;
+        /** highest item id in the page (0 if the page was empty) */
+        public final long maxId;
+
+        SyncPage(int count, long maxId) {
+            this.count = count;
+            this.maxId = maxId;
         }
-        return null;
     }
 }
@@ -0,0 +1,148 @@
+package de.luhmer.owncloudnewsreader.reader.nextcloud;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import de.luhmer.owncloudnewsreader.database.model.SyncStats;
+
+/**
+ * Collects the metrics of a single sync run. An instance is created per sync and shared by all
+ * stages, therefore all methods are thread safe.
+ */
+public class SyncMetrics {
+
+    public static final String STAGE_STATE_SYNC = "state-sync";
+    public static final String STAGE_FOLDERS = "folders";
+    public static final String STAGE_FEEDS = "feeds";
+    public static final String STAGE_ITEM_PAGES = "item-pages";
+    public static final String STAGE_PARSER = "parser";
+    public static final String STAGE_DB_WRITER = "db-writer";
+
+    public static final String COUNTER_ITEMS_INSERTED = "items-inserted";
+    public static final String COUNTER_ITEMS_REPLACED = "items-replaced";
+    public static final String COUNTER_ITEMS_STATE_UPDATED = "items-state-updated";
+    public static final String COUNTER_HTTP_CACHE_HITS = "http-cache-hits";
+    public static final String COUNTER_HTTP_CACHE_MISSES = "http-cache-misses";
+    public static final String COUNTER_BYTES_DOWNLOADED = "bytes-downloaded";
+    public static final String COUNTER_ITEMS_PURGED = "items-purged";
+    public static final String COUNTER_FILES_PURGED = "files-purged";
+
+    private final Map<String, Stage> stages = new LinkedHashMap<>();
+    private final Map<String, Long> counters = new LinkedHashMap<>();
+
+    /**
+     * @return the stage with the given name (created on first access)
+     */
+    public synchronized Stage getStage(String name) {
+        Stage stage = stages.get(name);
+        if(stage == null) {
+            stage = new Stage(name);
+            stages.put(name, stage);
+        }
+        return stage;
+    }
+
+    public synchronized void increment(String counter, long delta) {
+        counters.put(counter, getCounter(counter) + delta);
+    }
+
+    /**
+     * @return the value of the counter (0 if it was never incremented)
+     */
+    public synchronized long getCounter(String counter) {
+        Long value = counters.get(counter);
+        return value != null ? value : 0;
+    }
+
+    /**
+     * Creates the record which is persisted for the diagnostics screen
+     *
+     * @param error the error the sync failed with (null if it was successful)
+     */
+    public SyncStats toSyncStats(Date startedAt, long totalMillis, Throwable error) {
+        Stage writer = getStage(STAGE_DB_WRITER);
+        Stage itemPages = getStage(STAGE_ITEM_PAGES);
+
+        SyncStats syncStats = new SyncStats();
+        syncStats.setStartedAt(startedAt);
+        syncStats.setSuccessful(error == null);
+        syncStats.setError(error != null ? error.toString() : null);
+        syncStats.setTotalMillis(totalMillis);
+        syncStats.setStateSyncMillis(getStage(STAGE_STATE_SYNC).getBusyTimeMillis());
+        syncStats.setFoldersMillis(getStage(STAGE_FOLDERS).getBusyTimeMillis());
+        syncStats.setFeedsMillis(getStage(STAGE_FEEDS).getBusyTimeMillis());
+        syncStats.setItemPages((int) itemPages.getRecordCount());
+        syncStats.setItemPagesMillis(itemPages.getBusyTimeMillis());
+        syncStats.setBytesDownloaded(getCounter(COUNTER_BYTES_DOWNLOADED));
+        syncStats.setItemsInserted((int) getCounter(COUNTER_ITEMS_INSERTED));
+        syncStats.setItemsReplaced((int) getCounter(COUNTER_ITEMS_REPLACED));
+        syncStats.setItemsStateUpdated((int) getCounter(COUNTER_ITEMS_STATE_UPDATED));
+        syncStats.setTransactions((int) writer.getRecordCount());
+        syncStats.setTransactionMillis(writer.getBusyTimeMillis());
+        return syncStats;
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder sb = new StringBuilder("SyncMetrics{");
+        String delimiter = "";
+        for(Stage stage : stages.values()) {
+            sb.append(delimiter).append(stage);
+            delimiter = ", ";
+        }
+        for(Map.Entry<String, Long> counter : counters.entrySet()) {
+            sb.append(delimiter).append(counter.getKey()).append(": ").append(counter.getValue());
+            delimiter = ", ";
+        }
+        return sb.append('}').toString();
+    }
+
+    /**
+     * Throughput of one processing stage (e.g. parsing or writing into the database). Only the
+     * time the stage was actually busy is taken into account - not the time it waited for
+     * other stages.
+     */
+    public static class Stage {
+        private final String name;
+        private long items;
+        private long records;
+        private long busyNanos;
+
+        Stage(String name) {
+            this.name = name;
+        }
+
+        public synchronized void record(long itemCount, long nanos) {
+            items += itemCount;
+            busyNanos += nanos;
+            records++;
+        }
+
+        /**
+         * @return how often {@link #record} was called (e.g. number of transactions)
+         */
+        public synchronized long getRecordCount() {
+            return records;
+        }
+
+        public synchronized long getItems() {
+            return items;
+        }
+
+        public synchronized long getBusyTimeMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(busyNanos);
+        }
+
+        public synchronized double getItemsPerSecond() {
+            return busyNanos > 0 ? items * 1e9 / busyNanos : 0;
+        }
+
+        @Override
+        public synchronized String toString() {
+            return String.format(Locale.US, "%s: %d items in %dms (%.0f items/s)", name, items, getBusyTimeMillis(), getItemsPerSecond());
+        }
+    }
+}
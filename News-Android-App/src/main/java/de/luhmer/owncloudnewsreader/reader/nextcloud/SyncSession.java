@@ -0,0 +1,254 @@
+package de.luhmer.owncloudnewsreader.reader.nextcloud;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * A single sync run. The stages of the sync (folders, feeds, item states, items) run on a shared,
+ * bounded thread pool (see {@link #getScheduler()}); the work the stages wait for (the chunks of
+ * the item state sync, the database writer) runs on a second pool (see {@link #submit(Callable)}),
+ * so a stage never waits for a task that is queued behind it. Every http call, subscription and
+ * task is registered with the session. {@link #cancel()} aborts all of them at once: running http
+ * calls are cancelled, the worker threads are interrupted and subsequent calls fail with an
+ * {@link InterruptedIOException}.
+ *
+ * Only one session is active at a time - starting a new one (see {@link #start()}) cancels the
+ * previous one, partial syncs wait for the running one or are skipped (see {@link #startWhenIdle()} and
+ * {@link #tryStart()}).
+ */
+public class SyncSession {
+
+    private static final String TAG = SyncSession.class.getCanonicalName();
+
+    // Folders, feeds and the item state sync run in parallel, followed by the items
+    private static final int MAX_STAGE_THREADS = 4;
+    // Tasks never wait for other tasks (the database writer only waits for the parsing stage), so
+    // they can't block each other - this only limits the concurrent requests of the state sync
+    private static final int MAX_TASK_THREADS = 4;
+
+    private static final ExecutorService STAGE_EXECUTOR = newExecutor(MAX_STAGE_THREADS, "SyncWorker-");
+    private static final ExecutorService TASK_EXECUTOR = newExecutor(MAX_TASK_THREADS, "SyncTask-");
+    private static final Scheduler SCHEDULER = Schedulers.from(STAGE_EXECUTOR, true);
+
+    private static SyncSession sCurrentSession;
+
+    private final CompositeDisposable mDisposables = new CompositeDisposable();
+    private final List<Call<?>> mCalls = new ArrayList<>();
+    private final List<Future<?>> mFutures = new ArrayList<>();
+    private volatile boolean mCancelled = false;
+
+    /**
+     * Cancels the currently running session (if any) and starts a new one
+     */
+    public static synchronized SyncSession start() {
+        if(sCurrentSession != null) {
+            Log.v(TAG, "Cancelling previous sync session");
+            sCurrentSession.cancel();
+        }
+        sCurrentSession = new SyncSession();
+        return sCurrentSession;
+    }
+
+    /**
+     * Starts a new session unless another one is running. Used by partial syncs which aren't
+     * needed while the whole account is synced (e.g. refreshing a single feed).
+     *
+     * @return the new session or null if another session is running
+     */
+    public static synchronized SyncSession tryStart() {
+        if(sCurrentSession != null) {
+            return null;
+        }
+        sCurrentSession = new SyncSession();
+        return sCurrentSession;
+    }
+
+    /**
+     * Waits until the running session (if any) finished and starts a new one. Used by partial
+     * syncs (e.g. uploading the item states) which must not abort a full sync or run in parallel
+     * to it.
+     */
+    public static synchronized SyncSession startWhenIdle() throws InterruptedException {
+        while(sCurrentSession != null) {
+            SyncSession.class.wait();
+        }
+        sCurrentSession = new SyncSession();
+        return sCurrentSession;
+    }
+
+    /**
+     * Cancels the currently running session (e.g. because the account was changed)
+     */
+    public static synchronized void cancelCurrent() {
+        if(sCurrentSession != null) {
+            sCurrentSession.cancel();
+            sCurrentSession = null;
+            SyncSession.class.notifyAll();
+        }
+    }
+
+    /**
+     * Scheduler backed by the shared sync thread pool. Disposing a subscription interrupts the
+     * thread it runs on.
+     */
+    public static Scheduler getScheduler() {
+        return SCHEDULER;
+    }
+
+    /**
+     * Marks the session as done. Does nothing if another session was started in the meantime.
+     */
+    public void finish() {
+        synchronized (SyncSession.class) {
+            if(sCurrentSession == this) {
+                sCurrentSession = null;
+                SyncSession.class.notifyAll();
+            }
+        }
+        mDisposables.clear();
+    }
+
+    public boolean isCancelled() {
+        return mCancelled;
+    }
+
+    /**
+     * Aborts all running calls, subscriptions and tasks of this session
+     */
+    public void cancel() {
+        List<Call<?>> calls;
+        List<Future<?>> futures;
+        synchronized (this) {
+            if(mCancelled) {
+                return;
+            }
+            mCancelled = true;
+            calls = new ArrayList<>(mCalls);
+            futures = new ArrayList<>(mFutures);
+        }
+
+        Log.v(TAG, "Cancelling sync - " + calls.size() + " calls, " + futures.size() + " tasks");
+        for(Call<?> call : calls) {
+            call.cancel();
+        }
+        for(Future<?> future : futures) {
+            future.cancel(true);
+        }
+        mDisposables.dispose();
+    }
+
+    /**
+     * @throws InterruptedIOException if the session was cancelled
+     */
+    public void throwIfCancelled() throws InterruptedIOException {
+        if(mCancelled) {
+            throw new InterruptedIOException("Sync was cancelled");
+        }
+    }
+
+    /**
+     * Disposes the subscription when the session is cancelled
+     */
+    public void add(Disposable disposable) {
+        if(!mDisposables.add(disposable)) {
+            // Session was already cancelled
+            disposable.dispose();
+        }
+    }
+
+    /**
+     * Executes the http call on the current thread. The call is cancelled if the session is
+     * cancelled while it is running.
+     */
+    public <T> Response<T> execute(Call<T> call) throws IOException {
+        synchronized (this) {
+            throwIfCancelled();
+            mCalls.add(call);
+        }
+        try {
+            return call.execute();
+        } catch (IOException e) {
+            // Report cancellations consistently, no matter in which state the call was aborted
+            throwIfCancelled();
+            throw e;
+        } finally {
+            synchronized (this) {
+                mCalls.remove(call);
+            }
+        }
+    }
+
+    /**
+     * Runs the task on the task thread pool. The task is interrupted if the session is cancelled.
+     * Tasks must not wait for other tasks (only the stages on {@link #getScheduler()} may).
+     */
+    public <T> Future<T> submit(Callable<T> task) throws InterruptedIOException {
+        synchronized (this) {
+            throwIfCancelled();
+            Future<T> future = TASK_EXECUTOR.submit(task);
+            mFutures.add(future);
+            return future;
+        }
+    }
+
+    /**
+     * Subscribes to the observable and waits for its first item. The subscription is disposed if
+     * the session is cancelled in the meantime. The observable should be subscribed on
+     * {@link #getScheduler()}, otherwise it runs on the current thread and can't be aborted.
+     */
+    public <T> T await(Observable<T> observable) throws Exception {
+        Future<T> future = observable.firstOrError().toFuture();
+        synchronized (this) {
+            mFutures.add(future);
+        }
+        if(mCancelled) {
+            future.cancel(true);
+        }
+
+        try {
+            return future.get();
+        } catch (CancellationException e) {
+            throw new InterruptedIOException("Sync was cancelled");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        } finally {
+            synchronized (this) {
+                mFutures.remove(future);
+            }
+        }
+    }
+
+    private static ExecutorService newExecutor(int threads, final String namePrefix) {
+        return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger mCount = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, namePrefix + mCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+}
@@ -36,13 +36,14 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import de.greenrobot.dao.query.LazyList;
 import de.luhmer.owncloudnewsreader.R;
 import de.luhmer.owncloudnewsreader.async_tasks.DownloadImageHandler;
 import de.luhmer.owncloudnewsreader.database.DatabaseConnectionOrm;
 import de.luhmer.owncloudnewsreader.database.model.Feed;
-import de.luhmer.owncloudnewsreader.database.model.RssItem;
+import de.luhmer.owncloudnewsreader.database.model.RssItemContent;
 import de.luhmer.owncloudnewsreader.helper.FavIconHandler;
 import de.luhmer.owncloudnewsreader.helper.ImageHandler;
 import de.luhmer.owncloudnewsreader.notification.NextcloudNotificationManager;
@@ -114,21 +115,34 @@ public class DownloadImagesService extends JobIntentService {
         mNotificationDownloadImages = NextcloudNotificationManager.buildNotificationDownloadImageService(this, CHANNEL_ID);
 
         if(Objects.equals(downloadMode, DownloadMode.FAVICONS_ONLY)) {
+            final long start = System.currentTimeMillis();
+            final long syncStatsId = dbConn.getLastSyncStatsId();
             List<Feed> feedList = dbConn.getListOfFeeds();
+
+            // The time needed is shown on the sync diagnostics screen - it's recorded once the last
+            // favicon finished loading instead of blocking this service until then
+            final AtomicInteger faviconsRemaining = new AtomicInteger(feedList.size());
+            Runnable onFaviconFinished = () -> {
+                if(faviconsRemaining.decrementAndGet() == 0 && syncStatsId != -1) {
+                    dbConn.updateFaviconMillisOfSyncStats(syncStatsId, System.currentTimeMillis() - start);
+                }
+            };
+
             FavIconHandler favIconHandler = new FavIconHandler(getApplicationContext());
             for(Feed feed : feedList) {
                 try {
-                    favIconHandler.preCacheFavIcon(feed, getApplicationContext());
+                    favIconHandler.preCacheFavIcon(feed, getApplicationContext(), onFaviconFinished);
                 } catch(IllegalStateException ex) {
                     Log.e(TAG, ex.getMessage());
+                    onFaviconFinished.run();
                 }
             }
         } else if(Objects.equals(downloadMode, DownloadMode.FAVICONS_AND_PICTURES) || Objects.equals(downloadMode, DownloadMode.PICTURES_ONLY)) {
             long lastId = intent.getLongExtra(LAST_ITEM_ID, 0);
-            List<RssItem> rssItemList = dbConn.getAllItemsWithIdHigher(lastId);
+            List<RssItemContent> rssItemContentList = dbConn.getContentOfItemsWithIdHigher(lastId);
             List<String> links = new ArrayList<>();
-            for(RssItem rssItem : rssItemList) {
-                String body = rssItem.getBody();
+            for(RssItemContent rssItemContent : rssItemContentList) {
+                String body = rssItemContent.getBody();
                 links.addAll(ImageHandler.getImageLinksFromText(body));
 
                 if(links.size() > 10000) {
@@ -136,7 +150,7 @@ public class DownloadImagesService extends JobIntentService {
                     break;
                 }
             }
-            ((LazyList)rssItemList).close();
+            ((LazyList)rssItemContentList).close();
 
             maxCount = links.size();
 
@@ -38,6 +38,7 @@ import de.luhmer.owncloudnewsreader.NewsReaderApplication;
 import de.luhmer.owncloudnewsreader.database.DatabaseConnectionOrm;
 import de.luhmer.owncloudnewsreader.di.ApiProvider;
 import de.luhmer.owncloudnewsreader.reader.nextcloud.ItemStateSync;
+import de.luhmer.owncloudnewsreader.reader.nextcloud.SyncSession;
 
 public class SyncItemStateService extends JobIntentService {
 
@@ -71,11 +72,22 @@ public class SyncItemStateService extends JobIntentService {
 
         final DatabaseConnectionOrm dbConn = new DatabaseConnectionOrm(this);
 
+        SyncSession session;
         try {
-            boolean success = ItemStateSync.PerformItemStateSync(mApi.getNewsAPI(), dbConn);
+            // Don't run in parallel to a sync (it uploads the states as well)
+            session = SyncSession.startWhenIdle();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        try {
+            boolean success = ItemStateSync.PerformItemStateSync(mApi.getNewsAPI(), dbConn, session);
             Log.v(TAG, "SyncItemStateService finished. Success: " + success);
         } catch (IOException e) {
             e.printStackTrace();
+        } finally {
+            session.finish();
         }
     }
 
@@ -0,0 +1,110 @@
+package de.luhmer.owncloudnewsreader.ssl;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Lets the http cache of the client revalidate responses of the news api with
+ * If-None-Match / If-Modified-Since and remembers whether the last response of an endpoint was
+ * unchanged (304), so that e.g. the folders and feeds don't have to be written into the database
+ * again.
+ */
+public class HttpCacheTracker {
+
+    public static final String ENDPOINT_FOLDERS = "folders";
+    public static final String ENDPOINT_FEEDS = "feeds";
+
+    // Only small lists which rarely change are worth caching (not the items)
+    private static final List<String> CACHED_ENDPOINTS = Arrays.asList(ENDPOINT_FOLDERS, ENDPOINT_FEEDS);
+
+    private final HttpUrl mHostUrl;
+    private final Map<String, Boolean> mNotModified = new ConcurrentHashMap<>();
+
+    public HttpCacheTracker(HttpUrl hostUrl) {
+        this.mHostUrl = hostUrl;
+    }
+
+    /**
+     * @param endpoint {@link #ENDPOINT_FOLDERS} or {@link #ENDPOINT_FEEDS}
+     * @return true if the last response of the endpoint was served from the cache because the
+     * server reported that it didn't change
+     */
+    public boolean wasNotModified(String endpoint) {
+        Boolean notModified = mNotModified.get(endpoint);
+        return notModified != null && notModified;
+    }
+
+    /**
+     * Application interceptor which records the outcome of the requests to the cached endpoints
+     */
+    Interceptor getApplicationInterceptor() {
+        return new Interceptor() {
+            @NonNull
+            @Override
+            public Response intercept(Chain chain) throws IOException {
+                Request request = chain.request();
+                Response response = chain.proceed(request);
+
+                String endpoint = getCachedEndpoint(request);
+                if(endpoint != null) {
+                    Response networkResponse = response.networkResponse();
+                    boolean notModified = response.cacheResponse() != null &&
+                            (networkResponse == null || networkResponse.code() == HttpURLConnection.HTTP_NOT_MODIFIED);
+                    mNotModified.put(endpoint, notModified);
+                }
+                return response;
+            }
+        };
+    }
+
+    /**
+     * Network interceptor which makes responses of the cached endpoints that carry a validator
+     * (ETag/Last-Modified) cacheable. The server marks them as not storable, so without this
+     * OkHttp would never send a conditional request. "no-cache" makes sure that a cached
+     * response is never used without revalidating it first.
+     */
+    Interceptor getNetworkInterceptor() {
+        return new Interceptor() {
+            @NonNull
+            @Override
+            public Response intercept(Chain chain) throws IOException {
+                Request request = chain.request();
+                Response response = chain.proceed(request);
+
+                boolean hasValidator = response.header("ETag") != null || response.header("Last-Modified") != null;
+                if(getCachedEndpoint(request) != null && hasValidator && response.isSuccessful()) {
+                    return response.newBuilder()
+                            .header("Cache-Control", "no-cache")
+                            .removeHeader("Pragma")
+                            .removeHeader("Expires")
+                            .build();
+                }
+                return response;
+            }
+        };
+    }
+
+    /**
+     * @return the endpoint if the request is a GET request to one of the cached endpoints - otherwise null
+     */
+    private String getCachedEndpoint(Request request) {
+        if(!"GET".equals(request.method()) || !mHostUrl.host().equals(request.url().host())) {
+            return null;
+        }
+
+        List<String> pathSegments = request.url().pathSegments();
+        String endpoint = pathSegments.get(pathSegments.size() - 1);
+        return CACHED_ENDPOINTS.contains(endpoint) ? endpoint : null;
+    }
+}
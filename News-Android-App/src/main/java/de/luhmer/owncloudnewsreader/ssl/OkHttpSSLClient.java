@@ -24,6 +24,7 @@ import javax.net.ssl.TrustManagerFactory;
 import javax.net.ssl.X509TrustManager;
 
 import de.luhmer.owncloudnewsreader.SettingsActivity;
+import okhttp3.Cache;
 import okhttp3.ConnectionSpec;
 import okhttp3.Credentials;
 import okhttp3.HttpUrl;
@@ -40,7 +41,11 @@ import okhttp3.logging.HttpLoggingInterceptor;
 
 public class OkHttpSSLClient {
 
-    public static OkHttpClient GetSslClient(HttpUrl baseUrl, String username, String password, SharedPreferences sp, MemorizingTrustManager mtm) {
+    /**
+     * @param cache        http cache used to revalidate the folders and feeds (may be null)
+     * @param cacheTracker records whether folders/feeds were modified (may be null)
+     */
+    public static OkHttpClient GetSslClient(HttpUrl baseUrl, String username, String password, SharedPreferences sp, MemorizingTrustManager mtm, Cache cache, HttpCacheTracker cacheTracker) {
         // set location of the keystore
         MemorizingTrustManager.setKeyStoreFile("private", "sslkeys.bks");
 
@@ -53,6 +58,12 @@ public class OkHttpSSLClient {
                 .addInterceptor(new AuthorizationInterceptor(baseUrl, Credentials.basic(username, password)))
                 .addInterceptor(interceptor);
 
+        if(cache != null && cacheTracker != null) {
+            clientBuilder.cache(cache)
+                    .addInterceptor(cacheTracker.getApplicationInterceptor())
+                    .addNetworkInterceptor(cacheTracker.getNetworkInterceptor());
+        }
+
         // register MemorizingTrustManager for HTTPS
         try {
             SSLContext sc = SSLContext.getInstance("TLS");
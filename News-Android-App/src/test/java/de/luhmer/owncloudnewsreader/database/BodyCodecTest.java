@@ -0,0 +1,54 @@
+package de.luhmer.owncloudnewsreader.database;
+
+import org.junit.Test;
+
+import de.luhmer.owncloudnewsreader.database.model.RssItemContent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Bodies are stored compressed unless they are short and decode to the text they were encoded from.
+ */
+public class BodyCodecTest {
+
+    private static final String LONG_BODY = buildArticle(200);
+
+    @Test
+    public void testBodyRoundTrip() {
+        for (String body : new String[] { null, "", "short body", "Ümläute ✓", LONG_BODY }) {
+            for (int codec : new int[] { BodyCodec.PLAIN, BodyCodec.DEFLATE }) {
+                assertEquals(body, BodyCodec.decode(BodyCodec.encode(body, codec), codec));
+            }
+        }
+    }
+
+    @Test
+    public void testLongBodiesAreCompressed() {
+        assertEquals(BodyCodec.PLAIN, BodyCodec.getCodec(null));
+        assertEquals(BodyCodec.PLAIN, BodyCodec.getCodec("short body"));
+        assertEquals(BodyCodec.DEFLATE, BodyCodec.getCodec(LONG_BODY));
+        assertTrue(BodyCodec.encode(LONG_BODY, BodyCodec.DEFLATE).length < LONG_BODY.length());
+    }
+
+    @Test
+    public void testContentStoresBodyWithCodec() {
+        RssItemContent content = new RssItemContent(1);
+        content.setBody(LONG_BODY);
+        assertEquals(BodyCodec.DEFLATE, content.getBodyCodec());
+        assertEquals(LONG_BODY, content.getBody());
+
+        content.setBody("short body");
+        assertEquals(BodyCodec.PLAIN, content.getBodyCodec());
+        assertEquals("short body", content.getBody());
+    }
+
+    private static String buildArticle(int paragraphs) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < paragraphs; i++) {
+            sb.append("<p>Paragraph ").append(i).append(" of the article with a <a href=\"https://example.com/")
+                    .append(i).append("\">link</a>.</p>\n");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,247 @@
+package de.luhmer.owncloudnewsreader.database;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import de.luhmer.owncloudnewsreader.database.model.DaoMaster;
+import de.luhmer.owncloudnewsreader.database.model.DaoSession;
+import de.luhmer.owncloudnewsreader.database.model.FeedItemCount;
+import de.luhmer.owncloudnewsreader.database.model.RssItem;
+import de.luhmer.owncloudnewsreader.database.model.RssItemContent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Migrates databases of the previous schema versions (test resources database/schema_vX.sql,
+ * created with the greenDAO statements of that version) to the current version and compares them
+ * with a freshly created database. The sample articles and their states have to survive.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class DatabaseMigrationsTest {
+
+    private static final String LONG_BODY = "<p>" + repeat("ab", 300) + "</p>";
+
+    @Test
+    public void testMigrateFromVersion7() throws IOException {
+        testMigration(7);
+    }
+
+    @Test
+    public void testMigrateFromVersion8() throws IOException {
+        testMigration(8);
+    }
+
+    @Test
+    public void testMigrateFromVersion9() throws IOException {
+        testMigration(9);
+    }
+
+    @Test
+    public void testMigrateFromVersion10() throws IOException {
+        testMigration(10);
+    }
+
+    @Test
+    public void testMigrateFromVersion11() throws IOException {
+        testMigration(11);
+    }
+
+    @Test
+    public void testMigrateFromVersion12() throws IOException {
+        testMigration(12);
+    }
+
+    @Test
+    public void testMigrateFromVersion13() throws IOException {
+        testMigration(13);
+    }
+
+    @Test
+    public void testMigrateFromVersion14() throws IOException {
+        testMigration(14);
+    }
+
+    @Test
+    public void testMissingPubDateIsSetWhileMigratingTo15() throws IOException {
+        SQLiteDatabase db = SQLiteDatabase.create(null);
+        try {
+            for (String statement : readStatements("database/schema_v14.sql")) {
+                db.execSQL(statement);
+            }
+            db.execSQL("UPDATE RSS_ITEM SET PUB_DATE = NULL WHERE _id = 100");
+            DatabaseMigrations.migrate(db, 14, 15);
+
+            assertEquals(0, new DaoMaster(db).newSession().getRssItemDao().load(100L).getPubDate().getTime());
+        } finally {
+            db.close();
+        }
+    }
+
+    @Test
+    public void testOlderVersionsCantBeMigrated() {
+        assertFalse(DatabaseMigrations.canMigrate(DatabaseMigrations.MIN_MIGRATABLE_VERSION - 1));
+        assertTrue(DatabaseMigrations.canMigrate(DatabaseMigrations.MIN_MIGRATABLE_VERSION));
+    }
+
+    private void testMigration(int oldVersion) throws IOException {
+        SQLiteDatabase expected = SQLiteDatabase.create(null);
+        SQLiteDatabase db = SQLiteDatabase.create(null);
+        try {
+            DaoMaster.createAllTables(expected, false);
+            FeedItemCounts.createTriggers(expected);
+
+            for (String statement : readStatements("database/schema_v" + oldVersion + ".sql")) {
+                db.execSQL(statement);
+            }
+            db.beginTransaction();
+            try {
+                DatabaseMigrations.migrate(db, oldVersion, DaoMaster.SCHEMA_VERSION);
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+
+            assertEquals(getSchema(expected), getSchema(db));
+            assertDataPreserved(new DaoMaster(db).newSession(), oldVersion);
+        } finally {
+            db.close();
+            expected.close();
+        }
+    }
+
+    private static void assertDataPreserved(DaoSession daoSession, int oldVersion) {
+        assertEquals("Tech", daoSession.getFolderDao().load(1L).getLabel());
+        assertEquals("Planet", daoSession.getFeedDao().load(10L).getFeedTitle());
+        assertEquals(2, daoSession.getRssItemDao().count());
+        assertEquals(101, daoSession.getCurrentRssItemViewDao().load(1L).getRssItemId());
+
+        RssItem first = daoSession.getRssItemDao().load(100L);
+        assertEquals("First", first.getTitle());
+        assertTrue(first.getRead_temp());
+        assertFalse(first.getStarred_temp());
+        assertEquals("<p>First body</p>", first.getBody());
+        assertNull(first.getMediaDescription());
+
+        RssItem second = daoSession.getRssItemDao().load(101L);
+        assertEquals("Second", second.getTitle());
+        assertFalse(second.getRead_temp());
+        assertTrue(second.getStarred_temp());
+        assertEquals("https://example.com/2.mp3", second.getEnclosureLink());
+        assertEquals(LONG_BODY, second.getBody());
+        assertEquals("A talk", second.getMediaDescription());
+
+        // Bodies are compressed while migrating to version 11 (already migrated ones stay as they are)
+        RssItemContent content = daoSession.getRssItemContentDao().load(101L);
+        assertEquals(oldVersion < 11 ? BodyCodec.DEFLATE : BodyCodec.PLAIN, content.getBodyCodec());
+
+        // Counts are calculated while migrating to version 14 - and kept up to date afterwards
+        FeedItemCount counts = daoSession.getFeedItemCountDao().load(10L);
+        assertEquals(1, counts.getUnreadCount());
+        assertEquals(1, counts.getStarredCount());
+        assertEquals(2, counts.getItemCount());
+        assertEquals(getContentSize(daoSession, 100L) + getContentSize(daoSession, 101L), counts.getByteCount());
+        second.setRead_temp(true);
+        daoSession.getRssItemDao().update(second);
+        assertEquals(0, daoSession.getFeedItemCountDao().load(10L).getUnreadCount());
+
+        if (oldVersion >= 8) {
+            assertEquals(100, daoSession.getSyncCheckpointDao().load(1L).getOffsetCursor());
+        }
+        if (oldVersion >= 9) {
+            assertEquals(1, daoSession.getSyncStatsDao().count());
+        }
+    }
+
+    private static long getContentSize(DaoSession daoSession, long itemId) {
+        RssItemContent content = daoSession.getRssItemContentDao().load(itemId);
+        long size = content.getBodyData() != null ? content.getBodyData().length : 0;
+        if (content.getMediaDescription() != null) {
+            size += content.getMediaDescription().getBytes(StandardCharsets.UTF_8).length;
+        }
+        return size;
+    }
+
+    /**
+     * @return columns (name, type, not null, primary key) of all tables, the columns of all indices
+     *         and the statements of all triggers
+     */
+    private static Map<String, List<String>> getSchema(SQLiteDatabase db) {
+        Map<String, List<String>> schema = new TreeMap<>();
+        try (Cursor cursor = db.rawQuery("SELECT type, name, sql FROM sqlite_master" +
+                " WHERE type IN ('table', 'index', 'trigger') AND name NOT LIKE 'sqlite_%' AND name NOT LIKE 'android_%'", null)) {
+            while (cursor.moveToNext()) {
+                String type = cursor.getString(0);
+                String name = cursor.getString(1);
+                if ("table".equals(type)) {
+                    schema.put(name, query(db, "PRAGMA table_info(\"" + name + "\")", "name", "type", "notnull", "pk"));
+                } else if ("index".equals(type)) {
+                    schema.put(name, query(db, "PRAGMA index_info(\"" + name + "\")", "name"));
+                } else {
+                    schema.put(name, Collections.singletonList(cursor.getString(2)));
+                }
+            }
+        }
+        return schema;
+    }
+
+    private static List<String> query(SQLiteDatabase db, String sql, String... columns) {
+        List<String> rows = new ArrayList<>();
+        try (Cursor cursor = db.rawQuery(sql, null)) {
+            while (cursor.moveToNext()) {
+                StringBuilder row = new StringBuilder();
+                for (String column : columns) {
+                    row.append(cursor.getString(cursor.getColumnIndexOrThrow(column))).append(' ');
+                }
+                rows.add(row.toString().trim());
+            }
+        }
+        return rows;
+    }
+
+    private static List<String> readStatements(String resource) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream is = DatabaseMigrationsTest.class.getClassLoader().getResourceAsStream(resource)) {
+            assertNotNull("Missing test resource " + resource, is);
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+
+        // SQLiteDatabase.execSQL only executes a single statement
+        List<String> statements = new ArrayList<>();
+        for (String statement : out.toString(StandardCharsets.UTF_8.name()).split(";\n")) {
+            if (!statement.trim().isEmpty()) {
+                statements.add(statement);
+            }
+        }
+        return statements;
+    }
+
+    private static String repeat(String s, int count) {
+        StringBuilder sb = new StringBuilder(s.length() * count);
+        for (int i = 0; i < count; i++) {
+            sb.append(s);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,194 @@
+package de.luhmer.owncloudnewsreader.database;
+
+import android.database.Cursor;
+import android.util.SparseArray;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import de.luhmer.owncloudnewsreader.database.model.Feed;
+import de.luhmer.owncloudnewsreader.database.model.Folder;
+import de.luhmer.owncloudnewsreader.database.model.RssItem;
+
+import static de.luhmer.owncloudnewsreader.ListView.SubscriptionExpandableListAdapter.SPECIAL_FOLDERS.ALL_STARRED_ITEMS;
+import static de.luhmer.owncloudnewsreader.ListView.SubscriptionExpandableListAdapter.SPECIAL_FOLDERS.ALL_UNREAD_ITEMS;
+import static de.luhmer.owncloudnewsreader.database.RssItemBuilder.item;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Changes the items in all the ways the app does (sync upserts, read/starred changes, mark all
+ * as read, removing feeds) and compares the counts maintained by the triggers with the counts of
+ * the items.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class FeedItemCountsTest {
+
+    private static final int FEED_COUNT = 5;
+    private static final int ITEM_COUNT = 200;
+
+    private TestDatabaseConnection dbConn;
+    private Random random;
+
+    @Before
+    public void setUp() {
+        dbConn = TestDatabaseConnection.create();
+        random = new Random(42);
+
+        dbConn.deleteOldAndInsertNewFolders(new Folder(1, "Folder"));
+        List<Feed> feeds = new ArrayList<>();
+        for (long feedId = 1; feedId <= FEED_COUNT; feedId++) {
+            feeds.add(new Feed(feedId, feedId % 2 == 0 ? 1L : 0L, "Feed " + feedId, null, null, null));
+        }
+        dbConn.insertNewFeed(feeds);
+    }
+
+    @After
+    public void tearDown() {
+        dbConn.close();
+    }
+
+    @Test
+    public void testCountsOfSyncedItems() {
+        dbConn.insertNewItems(randomItems(1, ITEM_COUNT, "a"));
+        assertCounts();
+
+        // Same fingerprints (only the states are updated) and changed fingerprints (replaced)
+        dbConn.insertNewItems(randomItems(1, ITEM_COUNT / 2, "a"));
+        assertCounts();
+        dbConn.insertNewItems(randomItems(ITEM_COUNT / 2, ITEM_COUNT, "b"));
+        assertCounts();
+    }
+
+    @Test
+    public void testCountsOfChangedStates() {
+        dbConn.insertNewItems(randomItems(1, ITEM_COUNT, "a"));
+
+        for (int i = 0; i < 20; i++) {
+            List<String> itemIds = new ArrayList<>();
+            for (int j = 0; j < 10; j++) {
+                itemIds.add(String.valueOf(1 + random.nextInt(ITEM_COUNT)));
+            }
+            if (random.nextBoolean()) {
+                dbConn.change_readUnreadStateOfItem(itemIds, random.nextBoolean());
+            } else {
+                dbConn.changeStarrUnstarrStateOfItem(itemIds, random.nextBoolean());
+            }
+            assertCounts();
+        }
+
+        RssItem rssItem = dbConn.getRssItemById(1);
+        rssItem.setRead_temp(!rssItem.getRead_temp());
+        rssItem.setStarred_temp(!rssItem.getStarred_temp());
+        rssItem.setFeedId(rssItem.getFeedId() % FEED_COUNT + 1);
+        dbConn.getDaoSession().getRssItemDao().update(rssItem);
+        assertCounts();
+
+        dbConn.markAllItemsAsRead();
+        assertCounts();
+    }
+
+    @Test
+    public void testCountsOfRemovedItems() {
+        dbConn.insertNewItems(randomItems(1, ITEM_COUNT, "a"));
+
+        dbConn.removeFeedById(1);
+        assertCounts();
+
+        dbConn.resetDatabase();
+        assertCounts();
+    }
+
+    private List<RssItem> randomItems(long firstId, long lastId, String fingerprint) {
+        List<RssItem> items = new ArrayList<>();
+        for (long id = firstId; id <= lastId; id++) {
+            items.add(item(id)
+                    .feedId(1 + random.nextInt(FEED_COUNT))
+                    .fingerprint(fingerprint + id)
+                    .read(random.nextBoolean())
+                    .starred(random.nextInt(5) == 0)
+                    // Different sizes, so replaced bodies change the byte counts
+                    .body("<p>" + fingerprint + repeat("x", random.nextInt(100)) + "</p>")
+                    .build());
+        }
+        return items;
+    }
+
+    private void assertCounts() {
+        Map<Integer, String> unread = new TreeMap<>();
+        Map<Integer, String> starred = new TreeMap<>();
+        Map<Integer, String> unreadOfFolders = new TreeMap<>();
+        int unreadTotal = 0;
+        int starredTotal = 0;
+
+        try (Cursor cursor = dbConn.getDatabase().rawQuery("SELECT rss.FEED_ID, feed.FOLDER_ID, SUM(rss.READ_TEMP = 0), SUM(rss.STARRED_TEMP = 1)" +
+                " FROM RSS_ITEM rss JOIN FEED feed ON rss.FEED_ID = feed._id GROUP BY rss.FEED_ID", null)) {
+            while (cursor.moveToNext()) {
+                int feedId = cursor.getInt(0);
+                int folderId = cursor.getInt(1);
+                int unreadCount = cursor.getInt(2);
+                int starredCount = cursor.getInt(3);
+                if (unreadCount > 0) {
+                    unread.put(feedId, String.valueOf(unreadCount));
+                    if (folderId != 0) {
+                        String folderCount = unreadOfFolders.get(folderId);
+                        unreadOfFolders.put(folderId, String.valueOf(unreadCount + (folderCount == null ? 0 : Integer.parseInt(folderCount))));
+                    }
+                }
+                if (starredCount > 0) {
+                    starred.put(feedId, String.valueOf(starredCount));
+                }
+                unreadTotal += unreadCount;
+                starredTotal += starredCount;
+            }
+        }
+        unreadOfFolders.put(ALL_UNREAD_ITEMS.getValue(), String.valueOf(unreadTotal));
+        unreadOfFolders.put(ALL_STARRED_ITEMS.getValue(), String.valueOf(starredTotal));
+
+        SparseArray<String>[] counts = dbConn.getUnreadItemCountFeedFolder();
+        assertEquals(unreadOfFolders, toMap(counts[0]));
+        assertEquals(unread, toMap(counts[1]));
+        assertEquals(starred, toMap(dbConn.getStarredItemCount()));
+        assertEquals(String.valueOf(unreadTotal), dbConn.getUnreadItemsCountForSpecificFolder(ALL_UNREAD_ITEMS));
+
+        // Item and byte counts used by the retention policy
+        assertEquals(
+                query("SELECT i.FEED_ID, COUNT(*), SUM(IFNULL(LENGTH(c.BODY_DATA), 0) + IFNULL(LENGTH(CAST(c.MEDIA_DESCRIPTION AS BLOB)), 0))" +
+                        " FROM RSS_ITEM i LEFT JOIN RSS_ITEM_CONTENT c ON c._id = i._id GROUP BY i.FEED_ID"),
+                query("SELECT _id, ITEM_COUNT, BYTE_COUNT FROM FEED_ITEM_COUNT WHERE ITEM_COUNT > 0 OR BYTE_COUNT > 0"));
+    }
+
+    private List<String> query(String sql) {
+        List<String> rows = new ArrayList<>();
+        try (Cursor cursor = dbConn.getDatabase().rawQuery(sql + " ORDER BY 1", null)) {
+            while (cursor.moveToNext()) {
+                rows.add(cursor.getLong(0) + ": " + cursor.getLong(1) + " items, " + cursor.getLong(2) + " bytes");
+            }
+        }
+        return rows;
+    }
+
+    private static String repeat(String s, int count) {
+        StringBuilder sb = new StringBuilder(s.length() * count);
+        for (int i = 0; i < count; i++) {
+            sb.append(s);
+        }
+        return sb.toString();
+    }
+
+    private static Map<Integer, String> toMap(SparseArray<String> sparseArray) {
+        Map<Integer, String> map = new TreeMap<>();
+        for (int i = 0; i < sparseArray.size(); i++) {
+            map.put(sparseArray.keyAt(i), sparseArray.valueAt(i));
+        }
+        return map;
+    }
+}
@@ -0,0 +1,130 @@
+package de.luhmer.owncloudnewsreader.database;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import de.luhmer.owncloudnewsreader.database.DatabaseConnectionOrm.SORT_DIRECTION;
+import de.luhmer.owncloudnewsreader.database.model.Feed;
+import de.luhmer.owncloudnewsreader.database.model.Folder;
+import de.luhmer.owncloudnewsreader.database.model.RssItem;
+
+import static de.luhmer.owncloudnewsreader.ListView.SubscriptionExpandableListAdapter.SPECIAL_FOLDERS.ALL_STARRED_ITEMS;
+import static de.luhmer.owncloudnewsreader.database.RssItemBuilder.DATE;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Every "mark all as read" has to return exactly the ids of the items it changed, the shown
+ * items are updated with them.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class MarkItemsAsReadTest {
+
+    private static final long FEED_IN_FOLDER = 1;
+    private static final long FEED_WITHOUT_FOLDER = 2;
+
+    private TestDatabaseConnection dbConn;
+
+    @Before
+    public void setUp() {
+        dbConn = TestDatabaseConnection.create();
+
+        dbConn.deleteOldAndInsertNewFolders(new Folder(1, "Folder"));
+        dbConn.insertNewFeed(Arrays.asList(
+                new Feed(FEED_IN_FOLDER, 1L, "Feed 1", null, null, null),
+                new Feed(FEED_WITHOUT_FOLDER, 0L, "Feed 2", null, null, null)));
+
+        // id: feed, read, starred, age in seconds
+        List<RssItem> items = new ArrayList<>();
+        items.add(item(1, FEED_IN_FOLDER, false, false, 10));
+        items.add(item(2, FEED_IN_FOLDER, true, false, 20));
+        items.add(item(3, FEED_IN_FOLDER, false, true, 30));
+        items.add(item(4, FEED_WITHOUT_FOLDER, false, false, 40));
+        items.add(item(5, FEED_WITHOUT_FOLDER, false, true, 50));
+        items.add(item(6, FEED_WITHOUT_FOLDER, true, true, 60));
+        dbConn.insertNewItems(items);
+    }
+
+    @After
+    public void tearDown() {
+        dbConn.close();
+    }
+
+    @Test
+    public void testMarkFeedAsRead() {
+        assertEquals(Arrays.asList(4L, 5L), sorted(dbConn.markAllItemsAsReadForFeed(FEED_WITHOUT_FOLDER)));
+        assertEquals(Arrays.asList(1L, 3L), getUnreadIds());
+    }
+
+    @Test
+    public void testMarkFolderAsRead() {
+        assertEquals(Arrays.asList(1L, 3L), sorted(dbConn.markAllItemsAsReadForFolder(1)));
+        assertEquals(Arrays.asList(4L, 5L), getUnreadIds());
+
+        assertEquals(Collections.singletonList(5L), sorted(dbConn.markAllItemsAsReadForFolder(ALL_STARRED_ITEMS.getValue())));
+        assertEquals(Collections.singletonList(4L), getUnreadIds());
+    }
+
+    @Test
+    public void testMarkOlderItemsAsRead() {
+        assertEquals(Arrays.asList(3L, 4L, 5L), sorted(dbConn.markAllItemsAsReadOlderThan(new Date(DATE - 25 * 1000))));
+        assertEquals(Collections.singletonList(1L), getUnreadIds());
+    }
+
+    @Test
+    public void testMarkCurrentViewAsRead() {
+        dbConn.insertIntoRssCurrentViewTable(dbConn.getItemsForFeedQuery(FEED_IN_FOLDER, false, false, SORT_DIRECTION.desc));
+        assertEquals(Arrays.asList(1L, 3L), sorted(dbConn.markAllItemsAsReadForCurrentView()));
+        assertEquals(Arrays.asList(4L, 5L), getUnreadIds());
+
+        // Nothing left to change
+        assertEquals(Collections.<Long>emptyList(), dbConn.markAllItemsAsReadForCurrentView());
+    }
+
+    @Test
+    public void testMarkAllAsRead() {
+        assertEquals(Arrays.asList(1L, 3L, 4L, 5L), sorted(dbConn.markAllItemsAsRead()));
+        assertEquals(Collections.<Long>emptyList(), getUnreadIds());
+        // The new states still have to be uploaded
+        assertEquals(Arrays.asList("1", "3", "4", "5"), sortedStrings(dbConn.getIdsOfNewReadRssItems()));
+    }
+
+    private List<Long> getUnreadIds() {
+        List<Long> ids = new ArrayList<>();
+        for (RssItem rssItem : dbConn.getDaoSession().getRssItemDao().loadAll()) {
+            if (!rssItem.getRead_temp()) {
+                ids.add(rssItem.getId());
+            }
+        }
+        return sorted(ids);
+    }
+
+    private static RssItem item(long id, long feedId, boolean read, boolean starred, int ageInSeconds) {
+        return RssItemBuilder.item(id)
+                .feedId(feedId)
+                .read(read)
+                .starred(starred)
+                .date(DATE - ageInSeconds * 1000L)
+                .build();
+    }
+
+    private static List<Long> sorted(List<Long> ids) {
+        List<Long> result = new ArrayList<>(ids);
+        Collections.sort(result);
+        return result;
+    }
+
+    private static List<String> sortedStrings(List<String> ids) {
+        List<String> result = new ArrayList<>(ids);
+        Collections.sort(result);
+        return result;
+    }
+}
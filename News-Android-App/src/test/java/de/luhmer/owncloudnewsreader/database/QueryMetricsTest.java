@@ -0,0 +1,40 @@
+package de.luhmer.owncloudnewsreader.database;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Only the most recently used query shapes are kept.
+ */
+public class QueryMetricsTest {
+
+    @Test
+    public void testLeastRecentlyUsedShapesAreDropped() {
+        QueryMetrics metrics = new QueryMetrics();
+        metrics.recordPrepare("SELECT 1", 10);
+        for (int i = 0; i < 2 * QueryMetrics.MaxShapes; i++) {
+            metrics.recordExecute("SELECT " + i + " FROM RSS_ITEM", 10);
+            // Used again and again
+            metrics.recordExecute("SELECT 1", 10);
+        }
+
+        List<String> sql = new ArrayList<>();
+        for (QueryMetrics.Shape shape : metrics.getShapes()) {
+            sql.add(shape.getSql());
+        }
+        assertEquals(QueryMetrics.MaxShapes, sql.size());
+        assertTrue(sql.contains("SELECT 1"));
+        assertTrue(sql.contains("SELECT " + (2 * QueryMetrics.MaxShapes - 1) + " FROM RSS_ITEM"));
+        assertFalse(sql.contains("SELECT 0 FROM RSS_ITEM"));
+
+        QueryMetrics.Shape shape = metrics.getShape("SELECT 1");
+        assertEquals(1, shape.getPrepareCount());
+        assertEquals(2 * QueryMetrics.MaxShapes, shape.getExecuteCount());
+    }
+}
@@ -0,0 +1,189 @@
+package de.luhmer.owncloudnewsreader.database;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.text.TextUtils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import de.greenrobot.dao.query.Query;
+import de.luhmer.owncloudnewsreader.database.model.DaoMaster;
+import de.luhmer.owncloudnewsreader.database.model.RssItem;
+import de.luhmer.owncloudnewsreader.database.model.RssItemDao;
+
+import static de.luhmer.owncloudnewsreader.ListView.SubscriptionExpandableListAdapter.SPECIAL_FOLDERS.ALL_STARRED_ITEMS;
+import static de.luhmer.owncloudnewsreader.ListView.SubscriptionExpandableListAdapter.SPECIAL_FOLDERS.ALL_UNREAD_ITEMS;
+import static de.luhmer.owncloudnewsreader.database.DatabaseConnectionOrm.SORT_DIRECTION;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Makes sure that the queries of the item lists and the cleanup search an index of the RSS item
+ * table which also gives the sort order, instead of scanning the table or sorting the items in a
+ * temporary B-tree (EXPLAIN QUERY PLAN).
+ */
+@RunWith(RobolectricTestRunner.class)
+public class QueryPlanTest {
+
+    private static final String TEMP_B_TREE = "USE TEMP B-TREE FOR ORDER BY";
+
+    // "SEARCH TABLE RSS_ITEM AS T USING INDEX ..." (older SQLite versions) or "SEARCH T USING INDEX ..."
+    private static final String ITEM_SEARCH = "^SEARCH (TABLE " + RssItemDao.TABLENAME + " AS )?T USING (COVERING )?INDEX \\w+ ";
+
+    // any step which reads the RSS item table
+    private static final Pattern ITEM_TABLE = Pattern.compile("\\b(" + RssItemDao.TABLENAME + "|T)\\b");
+
+    private SQLiteDatabase db;
+    private DatabaseConnectionOrm dbConn;
+
+    @Before
+    public void setUp() {
+        db = SQLiteDatabase.create(null);
+        DaoMaster.createAllTables(db, false);
+        dbConn = new DatabaseConnectionOrm(new DaoMaster(db).newSession());
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void testFeedQueriesUseIndex() {
+        assertPagesUseIndex(dbConn.getItemsForFeedQuery(1, true, false, SORT_DIRECTION.desc), "FEED_ID=? AND READ_TEMP=?");
+        assertPagesUseIndex(dbConn.getItemsForFeedQuery(1, false, true, SORT_DIRECTION.desc), "STARRED_TEMP=?", "FEED_ID=?");
+        assertPagesUseIndex(dbConn.getItemsForFeedQuery(1, false, false, SORT_DIRECTION.asc), "FEED_ID=?");
+    }
+
+    @Test
+    public void testFolderQueriesUseIndex() {
+        assertPagesUseIndex(dbConn.getItemsForFolderQuery(1, true, SORT_DIRECTION.desc), "READ_TEMP=?");
+        assertPagesUseIndex(dbConn.getItemsForFolderQuery(ALL_UNREAD_ITEMS.getValue(), true, SORT_DIRECTION.desc), "READ_TEMP=?");
+        assertPagesUseIndex(dbConn.getItemsForFolderQuery(ALL_UNREAD_ITEMS.getValue(), true, SORT_DIRECTION.asc), "READ_TEMP=?");
+        assertPagesUseIndex(dbConn.getItemsForFolderQuery(ALL_STARRED_ITEMS.getValue(), false, SORT_DIRECTION.desc), "STARRED_TEMP=?");
+    }
+
+    @Test
+    public void testBodySearchUsesIndex() {
+        assertPagesUseIndex(dbConn.getItemsForFeedQueryFilteredByBody(1, false, false, SORT_DIRECTION.desc, "needle"), "FEED_ID=?");
+        assertPagesUseIndex(dbConn.getItemsForFolderQueryFilteredByBody(ALL_UNREAD_ITEMS.getValue(), SORT_DIRECTION.desc, "needle"), "READ_TEMP=?");
+    }
+
+    @Test
+    public void testCountQueriesDontReadItems() {
+        assertNotReadingItems(dbConn.getUnreadItemCountFeedFolderSQL());
+        assertNotReadingItems(dbConn.getStarredItemCountSQL());
+    }
+
+    @Test
+    public void testWidgetQueryUsesIndex() throws Exception {
+        assertSearchesIndex(getSql(dbConn.getAllUnreadRssItemsForWidgetQuery().build()), new String[] { "0" }, "READ_TEMP=?");
+    }
+
+    @Test
+    public void testPurgeQueriesUseIndex() {
+        assertPurgeUsesIndex(null, "READ_TEMP=?", "STARRED_TEMP=?");
+        assertPurgeUsesIndex(SqlCondition.eq("T." + RssItemDao.Properties.FeedId.columnName, 1),
+                "FEED_ID=? AND READ_TEMP=?", "FEED_ID=?");
+        assertPurgeUsesIndex(new SqlCondition("T." + RssItemDao.Properties.PubDate.columnName + " < ?", 1600000000000L),
+                "READ_TEMP=? AND PUB_DATE<?", "STARRED_TEMP=? AND PUB_DATE<?");
+    }
+
+    private void assertPurgeUsesIndex(SqlCondition condition, String... keys) {
+        assertSearchesIndex(dbConn.getPurgeCandidatesSQL(condition), DatabaseConnectionOrm.getPurgeCandidatesArgs(condition, 100), keys);
+    }
+
+    /**
+     * Checks the first page and a following page (with a cursor), which has to search the index
+     * from the pubDate of the cursor on
+     *
+     * @param keys expected key columns of the index search of the first page (one of them)
+     */
+    private void assertPagesUseIndex(DatabaseConnectionOrm.RssItemQuery query, String... keys) {
+        RssItem rssItem = new RssItem(1000L);
+        rssItem.setPubDate(new Date(1600000000000L));
+        String cursor = RssItemCursor.of(rssItem, query.sortDirection).encode();
+
+        String pubDateKey = " AND PUB_DATE" + (query.sortDirection == SORT_DIRECTION.desc ? "<" : ">") + "?";
+        String[] cursorKeys = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            cursorKeys[i] = keys[i] + pubDateKey;
+        }
+
+        assertPageUsesIndex(query, dbConn.getRssItemPageCondition(query, null), keys);
+        assertPageUsesIndex(query, dbConn.getRssItemPageCondition(query, cursor), cursorKeys);
+    }
+
+    private void assertPageUsesIndex(DatabaseConnectionOrm.RssItemQuery query, SqlCondition condition, String... keys) {
+        assertSearchesIndex("SELECT T.* FROM " + RssItemDao.TABLENAME + " T WHERE " + condition.getSql() + query.getOrderBy() + " LIMIT 100",
+                condition.getArgs(), keys);
+    }
+
+    /**
+     * @param keys expected key columns of the index search (one of them), e.g. "FEED_ID=? AND PUB_DATE<?"
+     */
+    private void assertSearchesIndex(String sql, String[] args, String... keys) {
+        List<String> plan = getQueryPlan(sql, args);
+        List<String> quotedKeys = new ArrayList<>();
+        for (String key : keys) {
+            quotedKeys.add(Pattern.quote(key));
+        }
+        Pattern search = Pattern.compile(ITEM_SEARCH + "\\((" + TextUtils.join("|", quotedKeys) + ")\\)$");
+
+        int itemSteps = 0;
+        for (String step : plan) {
+            assertFalse("Items are sorted in " + sql + "\n" + plan, step.contains(TEMP_B_TREE));
+            if (ITEM_TABLE.matcher(step).find()) {
+                assertTrue("No index search " + Arrays.toString(keys) + " in " + sql + "\n" + plan, search.matcher(step).find());
+                itemSteps++;
+            }
+        }
+        assertEquals("Items aren't read once in " + sql + "\n" + plan, 1, itemSteps);
+    }
+
+    private void assertNotReadingItems(String sql) {
+        List<String> plan = getQueryPlan(sql);
+        for (String step : plan) {
+            assertFalse("Items are read in " + sql + "\n" + plan, ITEM_TABLE.matcher(step).find());
+        }
+    }
+
+    private List<String> getQueryPlan(String sql, String... args) {
+        List<String> plan = new ArrayList<>();
+        try (Cursor cursor = db.rawQuery("EXPLAIN QUERY PLAN " + sql, args)) {
+            int detailColumn = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                plan.add(cursor.getString(detailColumn));
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * greenDAO doesn't expose the sql of a built query
+     */
+    private static String getSql(Query<?> query) throws Exception {
+        for (Class<?> clazz = query.getClass(); clazz != null; clazz = clazz.getSuperclass()) {
+            try {
+                Field sqlField = clazz.getDeclaredField("sql");
+                sqlField.setAccessible(true);
+                return (String) sqlField.get(query);
+            } catch (NoSuchFieldException e) {
+                // declared in a super class
+            }
+        }
+        throw new NoSuchFieldException("sql");
+    }
+}
@@ -0,0 +1,80 @@
+package de.luhmer.owncloudnewsreader.database;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import de.luhmer.owncloudnewsreader.database.model.Feed;
+import de.luhmer.owncloudnewsreader.database.model.Folder;
+
+import static de.luhmer.owncloudnewsreader.database.RssItemBuilder.item;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * The folders and feeds of a sync replace the ones in the database: new ones are inserted,
+ * changed ones updated and removed ones deleted (feeds together with their items).
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ReconcileTest {
+
+    private TestDatabaseConnection dbConn;
+
+    @Before
+    public void setUp() {
+        dbConn = TestDatabaseConnection.create();
+        dbConn.reconcileFolders(Arrays.asList(new Folder(1, "Folder 1"), new Folder(2, "Folder 2")));
+        dbConn.reconcileFeeds(Arrays.asList(
+                new Feed(1, 1L, "Feed 1", "https://example.com/1.png", "https://example.com/1", null),
+                new Feed(2, 2L, "Feed 2", "https://example.com/2.png", "https://example.com/2", null)));
+        dbConn.insertNewItems(Arrays.asList(item(1).feedId(1).build(), item(2).feedId(2).build()));
+    }
+
+    @After
+    public void tearDown() {
+        dbConn.close();
+    }
+
+    @Test
+    public void testReconcileFolders() {
+        dbConn.reconcileFolders(Arrays.asList(new Folder(2, "Renamed"), new Folder(3, "Folder 3")));
+        assertEquals(Arrays.asList("2: Renamed", "3: Folder 3"), getFolders());
+
+        dbConn.reconcileFolders(Collections.<Folder>emptyList());
+        assertEquals(Collections.<String>emptyList(), getFolders());
+    }
+
+    @Test
+    public void testReconcileFeeds() {
+        Feed feed = dbConn.getFeedById(1);
+        feed.setAvgColour("#123456");
+        dbConn.getDaoSession().getFeedDao().update(feed);
+        dbConn.getDaoSession().clear();
+
+        // Moved to another folder, feed 2 was removed
+        dbConn.reconcileFeeds(Collections.singletonList(
+                new Feed(1, 2L, "Feed 1", "https://example.com/1.png", "https://example.com/1", null)));
+
+        Feed reconciled = dbConn.getFeedById(1);
+        assertEquals(Long.valueOf(2), reconciled.getFolderId());
+        assertEquals("#123456", reconciled.getAvgColour());
+        assertEquals(1, dbConn.getListOfFeeds().size());
+        assertNull(dbConn.getRssItemById(2));
+    }
+
+    private List<String> getFolders() {
+        List<String> folders = new ArrayList<>();
+        for (Folder folder : dbConn.getListOfFolders()) {
+            folders.add(folder.getId() + ": " + folder.getLabel());
+        }
+        Collections.sort(folders);
+        return folders;
+    }
+}
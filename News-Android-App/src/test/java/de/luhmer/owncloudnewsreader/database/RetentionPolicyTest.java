@@ -0,0 +1,189 @@
+package de.luhmer.owncloudnewsreader.database;
+
+import android.database.Cursor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import de.luhmer.owncloudnewsreader.database.DatabaseConnectionOrm.PurgeResult;
+import de.luhmer.owncloudnewsreader.database.model.CurrentRssItemView;
+import de.luhmer.owncloudnewsreader.database.model.Feed;
+import de.luhmer.owncloudnewsreader.database.model.Folder;
+import de.luhmer.owncloudnewsreader.database.model.RssItem;
+import de.luhmer.owncloudnewsreader.reader.nextcloud.SyncSession;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Applies the limits of the retention policy and checks that the oldest items are deleted first
+ * and that unread, starred, shown and not yet synced items are kept.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class RetentionPolicyTest {
+
+    private static final long NOW = System.currentTimeMillis();
+    private static final int BODY_SIZE = 1000;
+
+    private TestDatabaseConnection dbConn;
+    private SyncSession session;
+
+    @Before
+    public void setUp() {
+        dbConn = TestDatabaseConnection.create();
+        session = new SyncSession();
+
+        dbConn.deleteOldAndInsertNewFolders(new Folder(1, "Folder"));
+        dbConn.insertNewFeed(Arrays.asList(new Feed(1, 1L, "Feed 1", null, null, null), new Feed(2, 0L, "Feed 2", null, null, null)));
+    }
+
+    @After
+    public void tearDown() {
+        dbConn.close();
+    }
+
+    @Test
+    public void testMaxItemsPerFeed() {
+        // Item n is n days old
+        List<RssItem> items = new ArrayList<>();
+        for (long id = 1; id <= 10; id++) {
+            items.add(item(id, 1, true, false, id));
+        }
+        items.add(item(11, 1, false, false, 11)); // unread
+        items.add(item(12, 1, true, true, 12)); // starred
+        items.add(item(13, 2, true, false, 13)); // other feed
+        dbConn.insertNewItems(items);
+
+        PurgeResult result = dbConn.purgeRssItems(new RetentionPolicy(0, 5, 0), session);
+
+        // 12 items in feed 1 - the 7 oldest which may be deleted are gone (unread/starred ones are older)
+        assertEquals(7, result.deletedItems);
+        assertEquals(Arrays.asList(1L, 2L, 3L, 11L, 12L, 13L), getItemIds());
+    }
+
+    @Test
+    public void testMaxAge() {
+        dbConn.insertNewItems(Arrays.asList(
+                item(1, 1, true, false, 1),
+                item(2, 1, true, false, 40),
+                item(3, 2, true, false, 50),
+                item(4, 2, false, false, 60)));
+
+        dbConn.purgeRssItems(new RetentionPolicy(0, 0, TimeUnit.DAYS.toMillis(30)), session);
+
+        assertEquals(Arrays.asList(1L, 4L), getItemIds());
+    }
+
+    @Test
+    public void testMaxBytes() {
+        List<RssItem> items = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) {
+            items.add(item(id, 1 + id % 2, true, false, id));
+        }
+        dbConn.insertNewItems(items);
+        long totalBytes = dbConn.getContentByteCount();
+        long maxBytes = totalBytes * 3 / 4;
+
+        PurgeResult result = dbConn.purgeRssItems(new RetentionPolicy(maxBytes, 0, 0), session);
+
+        assertEquals(totalBytes - result.deletedBytes, dbConn.getContentByteCount());
+        assertTrue(dbConn.getContentByteCount() <= maxBytes);
+
+        // Only the oldest items are deleted - and not one more than needed
+        List<Long> remaining = getItemIds();
+        assertEquals(20 - result.deletedItems, remaining.size());
+        assertEquals(Long.valueOf(remaining.size()), remaining.get(remaining.size() - 1));
+        assertTrue(dbConn.getContentByteCount() + getContentSize(remaining.size() + 1) > maxBytes);
+    }
+
+    @Test
+    public void testProtectedItemsAreKept() {
+        RssItem notSynced = item(2, 1, true, false, 20);
+        notSynced.setRead(false); // marked as read on the device, but not uploaded yet
+        dbConn.insertNewItems(Arrays.asList(
+                item(1, 1, true, false, 10),
+                notSynced,
+                item(3, 1, false, false, 30),
+                item(4, 1, true, true, 40)));
+        dbConn.getDaoSession().getCurrentRssItemViewDao().insert(new CurrentRssItemView(1, 1));
+
+        PurgeResult result = dbConn.purgeRssItems(new RetentionPolicy(1, 1, 1), session);
+
+        assertEquals(0, result.deletedItems);
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L), getItemIds());
+    }
+
+    @Test
+    public void testFilesOfPurgedItems() {
+        RssItem sameArticle = item(2, 2, false, false, 1);
+        sameArticle.setLink("https://example.com/1");
+        dbConn.insertNewItems(Arrays.asList(item(1, 1, true, false, 10), sameArticle, item(3, 1, true, false, 10)));
+
+        PurgeResult result = dbConn.purgeRssItems(new RetentionPolicy(0, 0, TimeUnit.DAYS.toMillis(5)), session);
+
+        assertEquals(new HashSet<>(Arrays.asList("https://example.com/1", "https://example.com/3")), result.links);
+        assertEquals(new HashSet<>(Arrays.asList("https://example.com/1.mp3", "https://example.com/3.mp3")), result.enclosureLinks);
+        assertTrue(result.imageLinks.containsAll(Arrays.asList("https://example.com/1.jpg", "https://example.com/3.jpg",
+                "https://example.com/1.png", "https://example.com/3.png")));
+
+        // The web archive of the first article is still used by the second item
+        assertEquals(Collections.singleton("https://example.com/1"), dbConn.getLinksInUse(result.links));
+    }
+
+    @Test
+    public void testCancelledPurgeStops() {
+        dbConn.insertNewItems(Arrays.asList(item(1, 1, true, false, 40), item(2, 2, true, false, 50)));
+        session.cancel();
+
+        PurgeResult result = dbConn.purgeRssItems(new RetentionPolicy(1, 1, TimeUnit.DAYS.toMillis(30)), session);
+
+        assertEquals(0, result.deletedItems);
+        assertEquals(Arrays.asList(1L, 2L), getItemIds());
+    }
+
+    private List<Long> getItemIds() {
+        List<Long> ids = new ArrayList<>();
+        for (RssItem rssItem : dbConn.getDaoSession().getRssItemDao().loadAll()) {
+            ids.add(rssItem.getId());
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+
+    private long getContentSize(long itemId) {
+        try (Cursor cursor = dbConn.getDatabase().rawQuery("SELECT LENGTH(BODY_DATA) FROM RSS_ITEM_CONTENT WHERE _id = " + itemId, null)) {
+            cursor.moveToFirst();
+            return cursor.getLong(0);
+        }
+    }
+
+    private static RssItem item(long id, long feedId, boolean read, boolean starred, long ageInDays) {
+        String link = "https://example.com/" + id;
+        StringBuilder body = new StringBuilder("<img src=\"" + link + ".png\">");
+        Random random = new Random(id);
+        while (body.length() < BODY_SIZE) {
+            body.append((char) ('a' + random.nextInt(26)));
+        }
+        return RssItemBuilder.item(id)
+                .feedId(feedId)
+                .read(read)
+                .starred(starred)
+                .date(NOW - TimeUnit.DAYS.toMillis(ageInDays))
+                .link(link)
+                .enclosure(link + ".mp3", "audio/mpeg")
+                .mediaThumbnail(link + ".jpg")
+                .body(body.toString())
+                .build();
+    }
+}
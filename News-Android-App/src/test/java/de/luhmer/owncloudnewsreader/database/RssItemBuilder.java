@@ -0,0 +1,115 @@
+package de.luhmer.owncloudnewsreader.database;
+
+import java.util.Date;
+
+import de.luhmer.owncloudnewsreader.database.model.RssItem;
+
+/**
+ * Items for the database tests. Unless set otherwise an item is unread and not starred, belongs
+ * to feed 1, has an empty body, a guid/fingerprint derived from its id and was published
+ * (and last modified) id seconds after {@link #DATE}.
+ */
+public class RssItemBuilder {
+
+    public static final long DATE = 1600000000000L;
+
+    private final long id;
+    private long feedId = 1;
+    private String title;
+    private String link;
+    private String fingerprint;
+    private boolean read;
+    private boolean starred;
+    private Date pubDate;
+    private Date lastModified;
+    private String enclosureLink;
+    private String enclosureMime;
+    private String mediaThumbnail;
+    private String body = "";
+
+    private RssItemBuilder(long id) {
+        this.id = id;
+        this.title = "Item " + id;
+        this.fingerprint = "fingerprint-" + id;
+        this.pubDate = new Date(DATE + id * 1000);
+        this.lastModified = pubDate;
+    }
+
+    public static RssItemBuilder item(long id) {
+        return new RssItemBuilder(id);
+    }
+
+    public RssItemBuilder feedId(long feedId) {
+        this.feedId = feedId;
+        return this;
+    }
+
+    public RssItemBuilder title(String title) {
+        this.title = title;
+        return this;
+    }
+
+    public RssItemBuilder link(String link) {
+        this.link = link;
+        return this;
+    }
+
+    public RssItemBuilder fingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+        return this;
+    }
+
+    /**
+     * Sets the state and the temp state (the state is synced)
+     */
+    public RssItemBuilder read(boolean read) {
+        this.read = read;
+        return this;
+    }
+
+    /**
+     * Sets the state and the temp state (the state is synced)
+     */
+    public RssItemBuilder starred(boolean starred) {
+        this.starred = starred;
+        return this;
+    }
+
+    /**
+     * Sets pubDate and lastModified
+     */
+    public RssItemBuilder date(long millis) {
+        this.pubDate = new Date(millis);
+        this.lastModified = pubDate;
+        return this;
+    }
+
+    public RssItemBuilder pubDate(Date pubDate) {
+        this.pubDate = pubDate;
+        return this;
+    }
+
+    public RssItemBuilder enclosure(String enclosureLink, String enclosureMime) {
+        this.enclosureLink = enclosureLink;
+        this.enclosureMime = enclosureMime;
+        return this;
+    }
+
+    public RssItemBuilder mediaThumbnail(String mediaThumbnail) {
+        this.mediaThumbnail = mediaThumbnail;
+        return this;
+    }
+
+    public RssItemBuilder body(String body) {
+        this.body = body;
+        return this;
+    }
+
+    public RssItem build() {
+        RssItem item = new RssItem(id, feedId, link, title,
+                read, starred, "", "guid-" + id, "hash-" + id, fingerprint,
+                read, starred, lastModified, pubDate, enclosureLink, enclosureMime, mediaThumbnail, false);
+        item.setBody(body);
+        return item;
+    }
+}
@@ -0,0 +1,212 @@
+package de.luhmer.owncloudnewsreader.database;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import de.greenrobot.dao.query.LazyList;
+import de.luhmer.owncloudnewsreader.database.DatabaseConnectionOrm.RssItemPage;
+import de.luhmer.owncloudnewsreader.database.DatabaseConnectionOrm.RssItemQuery;
+import de.luhmer.owncloudnewsreader.database.DatabaseConnectionOrm.SORT_DIRECTION;
+import de.luhmer.owncloudnewsreader.database.model.CurrentRssItemView;
+import de.luhmer.owncloudnewsreader.database.model.CurrentRssItemViewDao;
+import de.luhmer.owncloudnewsreader.database.model.DaoSession;
+import de.luhmer.owncloudnewsreader.database.model.Feed;
+import de.luhmer.owncloudnewsreader.database.model.Folder;
+import de.luhmer.owncloudnewsreader.database.model.RssItem;
+
+import static de.luhmer.owncloudnewsreader.ListView.SubscriptionExpandableListAdapter.SPECIAL_FOLDERS.ALL_UNREAD_ITEMS;
+import static de.luhmer.owncloudnewsreader.database.RssItemBuilder.item;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Walks through the item lists page by page (many items share the same pubDate, so the pages
+ * have to be split by the id) and compares them with the whole sorted list.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class RssItemPageTest {
+
+    private static final int ITEM_COUNT = 450;
+
+    private TestDatabaseConnection dbConn;
+    private DaoSession daoSession;
+    private List<RssItem> items;
+
+    @Before
+    public void setUp() {
+        dbConn = TestDatabaseConnection.createWithReadSession();
+        daoSession = dbConn.getDaoSession();
+
+        dbConn.deleteOldAndInsertNewFolders(new Folder(1, "Folder"));
+        dbConn.insertNewFeed(Arrays.asList(new Feed(1, 1L, "Feed 1", null, null, null), new Feed(2, 0L, "Feed 2", null, null, null)));
+
+        Random random = new Random(42);
+        items = new ArrayList<>();
+        for (long id = 1; id <= ITEM_COUNT; id++) {
+            items.add(item(id)
+                    .date(RssItemBuilder.DATE + random.nextInt(50) * 1000L)
+                    .read(random.nextInt(3) == 0)
+                    .feedId(1 + random.nextInt(2))
+                    // Some articles are in both feeds
+                    .fingerprint("fingerprint-" + (id % 10 == 0 ? id - 1 : id))
+                    .build());
+        }
+        dbConn.insertNewItems(items);
+    }
+
+    @After
+    public void tearDown() {
+        dbConn.close();
+    }
+
+    @Test
+    public void testPagesOfFolder() {
+        for (SORT_DIRECTION sortDirection : SORT_DIRECTION.values()) {
+            RssItemQuery query = dbConn.getItemsForFolderQuery(ALL_UNREAD_ITEMS.getValue(), true, sortDirection);
+            assertEquals(getExpectedIds(null, sortDirection), getIds(loadAllPages(query)));
+        }
+    }
+
+    @Test
+    public void testPagesOfFeed() {
+        for (SORT_DIRECTION sortDirection : SORT_DIRECTION.values()) {
+            RssItemQuery query = dbConn.getItemsForFeedQuery(1, false, false, sortDirection);
+            assertEquals(getExpectedIds(1L, sortDirection), getIds(loadAllPages(query)));
+        }
+    }
+
+    @Test
+    public void testPagesWithItemsWithoutPubDate() {
+        // More than a page, so a page ends between them
+        List<RssItem> withoutPubDate = new ArrayList<>();
+        for (long id = ITEM_COUNT + 1; id <= ITEM_COUNT + 150; id++) {
+            withoutPubDate.add(item(id).pubDate(null).build());
+        }
+        dbConn.insertNewItems(withoutPubDate);
+        items.addAll(withoutPubDate);
+        assertEquals(0, daoSession.getRssItemDao().load(ITEM_COUNT + 1L).getPubDate().getTime());
+
+        for (SORT_DIRECTION sortDirection : SORT_DIRECTION.values()) {
+            RssItemQuery query = dbConn.getItemsForFeedQuery(1, false, false, sortDirection);
+            List<RssItem> pages = loadAllPages(query);
+            assertEquals(getExpectedIds(1L, sortDirection), getIds(pages));
+
+            RssItemPage restored = dbConn.getRssItemsUpTo(query, RssItemCursor.of(pages.get(120), sortDirection).encode(), true);
+            assertEquals(getIds(pages.subList(0, 121)), getIds(restored.items));
+        }
+    }
+
+    @Test
+    public void testItemsUpToCursor() {
+        RssItemQuery query = dbConn.getItemsForFolderQuery(ALL_UNREAD_ITEMS.getValue(), true, SORT_DIRECTION.desc);
+        RssItemPage firstPage = dbConn.getRssItemPage(query, null);
+        RssItemPage secondPage = dbConn.getRssItemPage(query, firstPage.cursor);
+
+        RssItemPage restored = dbConn.getRssItemsUpTo(query, secondPage.cursor, secondPage.hasMore);
+        List<RssItem> expected = new ArrayList<>(firstPage.items);
+        expected.addAll(secondPage.items);
+        assertEquals(getIds(expected), getIds(restored.items));
+        assertEquals(secondPage.cursor, restored.cursor);
+    }
+
+    @Test
+    public void testCurrentRssViewHasOrderOfPages() {
+        RssItemQuery query = dbConn.getItemsForFolderQuery(ALL_UNREAD_ITEMS.getValue(), true, SORT_DIRECTION.desc);
+        dbConn.insertIntoRssCurrentViewTable(query);
+
+        // The list shows every fingerprint only once
+        List<Long> expected = new ArrayList<>();
+        Set<String> fingerprints = new HashSet<>();
+        for (RssItem rssItem : loadAllPages(query)) {
+            if (fingerprints.add(rssItem.getFingerprint())) {
+                expected.add(rssItem.getId());
+            }
+        }
+
+        List<Long> currentRssView = new ArrayList<>();
+        for (CurrentRssItemView row : daoSession.getCurrentRssItemViewDao().queryBuilder().orderAsc(CurrentRssItemViewDao.Properties.Id).list()) {
+            currentRssView.add(row.getRssItemId());
+        }
+        assertEquals(expected, currentRssView);
+    }
+
+    @Test
+    public void testReadInDetailViewIsShownInList() {
+        RssItemQuery query = dbConn.getItemsForFeedQuery(1, false, false, SORT_DIRECTION.desc);
+        RssItemPage page = dbConn.getRssItemPage(query, null);
+        RssItem listItem = page.items.get(0);
+        boolean read = listItem.getRead_temp();
+
+        // The detail view changes the items of the current view
+        dbConn.insertIntoRssCurrentViewTable(query);
+        LazyList<RssItem> detailItems = dbConn.getAllRssItems();
+        try {
+            RssItem detailItem = detailItems.get(0);
+            assertEquals(listItem.getId(), detailItem.getId());
+            detailItem.setRead_temp(!read);
+            daoSession.getRssItemDao().update(detailItem);
+        } finally {
+            detailItems.close();
+        }
+
+        // The list redraws its items and loads them again when it's refreshed
+        assertEquals(!read, listItem.getRead_temp());
+        assertEquals(!read, dbConn.getRssItemsUpTo(query, page.cursor, page.hasMore).items.get(0).getRead_temp());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCursorOfOtherSortDirection() {
+        RssItemPage page = dbConn.getRssItemPage(dbConn.getItemsForFeedQuery(1, false, false, SORT_DIRECTION.desc), null);
+        dbConn.getRssItemPage(dbConn.getItemsForFeedQuery(1, false, false, SORT_DIRECTION.asc), page.cursor);
+    }
+
+    private List<RssItem> loadAllPages(RssItemQuery query) {
+        List<RssItem> rssItems = new ArrayList<>();
+        RssItemPage page = dbConn.getRssItemPage(query, null);
+        rssItems.addAll(page.items);
+        while (page.hasMore) {
+            page = dbConn.getRssItemPage(query, page.cursor);
+            rssItems.addAll(page.items);
+        }
+        assertFalse(rssItems.isEmpty());
+        return rssItems;
+    }
+
+    /**
+     * @param feedId all items of this feed or all unread items if null
+     */
+    private List<Long> getExpectedIds(Long feedId, SORT_DIRECTION sortDirection) {
+        List<RssItem> expected = new ArrayList<>();
+        for (RssItem rssItem : items) {
+            if (feedId != null ? rssItem.getFeedId() == feedId : !rssItem.getRead_temp()) {
+                expected.add(rssItem);
+            }
+        }
+        Comparator<RssItem> comparator = (a, b) -> {
+            int result = a.getPubDate().compareTo(b.getPubDate());
+            return result != 0 ? result : Long.compare(a.getId(), b.getId());
+        };
+        Collections.sort(expected, sortDirection == SORT_DIRECTION.asc ? comparator : Collections.reverseOrder(comparator));
+        return getIds(expected);
+    }
+
+    private static List<Long> getIds(List<RssItem> rssItems) {
+        List<Long> ids = new ArrayList<>();
+        for (RssItem rssItem : rssItems) {
+            ids.add(rssItem.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,157 @@
+package de.luhmer.owncloudnewsreader.database;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import de.luhmer.owncloudnewsreader.database.DatabaseConnectionOrm.RssItemQuery;
+import de.luhmer.owncloudnewsreader.database.DatabaseConnectionOrm.SORT_DIRECTION;
+import de.luhmer.owncloudnewsreader.database.model.Feed;
+import de.luhmer.owncloudnewsreader.database.model.Folder;
+import de.luhmer.owncloudnewsreader.database.model.RssItem;
+import de.luhmer.owncloudnewsreader.database.model.RssItemDao;
+
+import static de.luhmer.owncloudnewsreader.ListView.SubscriptionExpandableListAdapter.SPECIAL_FOLDERS.ALL_STARRED_ITEMS;
+import static de.luhmer.owncloudnewsreader.ListView.SubscriptionExpandableListAdapter.SPECIAL_FOLDERS.ALL_UNREAD_ITEMS;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Search texts are bound as values (quotes and wildcards are matched literally) and the compiled
+ * statements are reused.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class StatementCacheTest {
+
+    private static final String[] TITLES = { "He said \"hi\"", "It's 100% sure", "snake_case", "snakeXcase", "Back\\slash" };
+
+    private TestDatabaseConnection dbConn;
+
+    @Before
+    public void setUp() {
+        dbConn = TestDatabaseConnection.create();
+
+        dbConn.deleteOldAndInsertNewFolders(new Folder(1, "Folder"));
+        dbConn.insertNewFeed(Collections.singletonList(new Feed(1, 1L, "Feed 1", null, null, null)));
+
+        List<RssItem> items = new ArrayList<>();
+        for (int i = 0; i < TITLES.length; i++) {
+            long id = i + 1;
+            items.add(item(id, 1, TITLES[i], ""));
+        }
+        dbConn.insertNewItems(items);
+    }
+
+    @After
+    public void tearDown() {
+        dbConn.close();
+    }
+
+    @Test
+    public void testSearchTextIsNotPartOfTheQuery() {
+        assertEquals(Collections.singletonList(TITLES[0]), searchFeed("\""));
+        assertEquals(Collections.singletonList(TITLES[0]), searchFolder("\"hi\""));
+        assertEquals(Collections.singletonList(TITLES[1]), searchFeed("'"));
+        assertEquals(Collections.singletonList(TITLES[1]), searchFolder("0%"));
+        assertEquals(Collections.singletonList(TITLES[2]), searchFeed("e_c"));
+        assertEquals(Collections.singletonList(TITLES[4]), searchFolder("k\\s"));
+        assertEquals(Arrays.asList(TITLES[2], TITLES[3]), searchFeed("SNAKE"));
+    }
+
+    @Test
+    public void testStatementsAreReused() {
+        String sql = "SELECT COUNT(*) FROM " + RssItemDao.TABLENAME + " WHERE " + RssItemDao.Properties.FeedId.columnName + " = ?";
+        assertEquals(TITLES.length, dbConn.getLongValueBySQL(sql, 1L));
+        assertEquals(0, dbConn.getLongValueBySQL(sql, 2L));
+        assertEquals(TITLES.length, dbConn.getLongValueBySQL(sql, 1L));
+
+        QueryMetrics.Shape shape = dbConn.getQueryMetrics().getShape(sql);
+        assertEquals(1, shape.getPrepareCount());
+        assertEquals(3, shape.getExecuteCount());
+
+        // No row
+        assertEquals(-1, dbConn.getLongValueBySQL("SELECT " + RssItemDao.Properties.Id.columnName + " FROM " + RssItemDao.TABLENAME + " WHERE 0"));
+    }
+
+    @Test
+    public void testBodySearchIsLimitedToTheFeed() {
+        dbConn.insertNewFeed(Collections.singletonList(new Feed(2, 1L, "Feed 2", null, null, null)));
+        StringBuilder longBody = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            longBody.append("<p>Paragraph ").append(i).append("</p>");
+        }
+        dbConn.insertNewItems(Arrays.asList(
+                item(10, 1, "Needle 1", "a needle in feed 1"),
+                item(11, 2, "Needle 2", "a needle in feed 2"),
+                // Compressed body
+                item(12, 1, "Needle 3", longBody + "NEEDLE"),
+                item(13, 1, "No needle", longBody.toString())));
+
+        // The list shows the result of the last search
+        RssItemQuery feed1 = dbConn.getItemsForFeedQueryFilteredByBody(1, false, false, SORT_DIRECTION.asc, "needle");
+        assertEquals(Arrays.asList("Needle 1", "Needle 3"), getTitles(feed1));
+        RssItemQuery feed2 = dbConn.getItemsForFeedQueryFilteredByBody(2, false, false, SORT_DIRECTION.asc, "needle");
+        assertEquals(Collections.singletonList("Needle 2"), getTitles(feed2));
+        assertEquals(Arrays.asList("Needle 1", "Needle 2", "Needle 3"),
+                getTitles(dbConn.getItemsForFolderQueryFilteredByBody(1, SORT_DIRECTION.asc, "needle")));
+
+        // The found ids are stored, the SQL is the same for every result
+        assertEquals(feed1.condition.getSql(), feed2.condition.getSql());
+    }
+
+    @Test
+    public void testBodySearchIsLimitedToTheList() {
+        RssItem read = item(10, 1, "Read needle", "a needle");
+        read.setRead_temp(true);
+        RssItem starred = item(11, 1, "Starred needle", "a needle");
+        starred.setStarred_temp(true);
+        dbConn.insertNewItems(Arrays.asList(read, starred));
+
+        assertEquals(Collections.singletonList("Starred needle"),
+                getTitles(dbConn.getItemsForFolderQueryFilteredByBody(ALL_UNREAD_ITEMS.getValue(), SORT_DIRECTION.asc, "needle")));
+        assertEquals(Collections.singletonList("Starred needle"),
+                getTitles(dbConn.getItemsForFolderQueryFilteredByBody(ALL_STARRED_ITEMS.getValue(), SORT_DIRECTION.asc, "needle")));
+    }
+
+    @Test
+    public void testBodySearchWithManyResults() {
+        // More results than SQLite allows variables in a statement
+        List<RssItem> items = new ArrayList<>();
+        for (long id = 10; id < 1510; id++) {
+            items.add(item(id, 1, "Needle " + id, "a needle"));
+        }
+        dbConn.insertNewItems(items);
+
+        RssItemQuery query = dbConn.getItemsForFeedQueryFilteredByBody(1, false, false, SORT_DIRECTION.asc, "needle");
+        DatabaseConnectionOrm.RssItemPage page = dbConn.getRssItemPage(query, null);
+        assertEquals("Needle 10", page.items.get(0).getTitle());
+        dbConn.insertIntoRssCurrentViewTable(query);
+        assertEquals(1500, dbConn.getDaoSession().getCurrentRssItemViewDao().count());
+    }
+
+    private static RssItem item(long id, long feedId, String title, String body) {
+        return RssItemBuilder.item(id).feedId(feedId).title(title).body(body).build();
+    }
+
+    private List<String> searchFeed(String searchString) {
+        return getTitles(dbConn.getItemsForFeedQueryFilteredByTitle(1, false, false, SORT_DIRECTION.asc, searchString));
+    }
+
+    private List<String> searchFolder(String searchString) {
+        return getTitles(dbConn.getItemsForFolderQuerySearch(1, SORT_DIRECTION.asc, RssItemDao.Properties.Title.columnName, searchString));
+    }
+
+    private List<String> getTitles(RssItemQuery query) {
+        List<String> titles = new ArrayList<>();
+        for (RssItem rssItem : dbConn.getRssItemPage(query, null).items) {
+            titles.add(rssItem.getTitle());
+        }
+        return titles;
+    }
+}
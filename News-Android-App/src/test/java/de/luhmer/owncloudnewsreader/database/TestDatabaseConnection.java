@@ -0,0 +1,94 @@
+package de.luhmer.owncloudnewsreader.database;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import de.greenrobot.dao.identityscope.IdentityScopeType;
+import de.luhmer.owncloudnewsreader.database.model.DaoMaster;
+import de.luhmer.owncloudnewsreader.database.model.DaoSession;
+import de.luhmer.owncloudnewsreader.database.model.RssItem;
+import de.luhmer.owncloudnewsreader.database.model.SyncCheckpoint;
+
+/**
+ * Connection to an in-memory database with the tables and triggers of the app. Every item insert
+ * calls the {@link InsertListener} first, so tests can slow down or fail the writes.
+ */
+public class TestDatabaseConnection extends DatabaseConnectionOrm {
+
+    public interface InsertListener {
+        void beforeInsert(Iterable<RssItem> items) throws Exception;
+    }
+
+    private final SQLiteDatabase db;
+    private final DaoSession daoSession;
+    private volatile InsertListener insertListener;
+
+    public static TestDatabaseConnection create() {
+        SQLiteDatabase db = createDatabase();
+        DaoSession daoSession = new DaoMaster(db).newSession();
+        return new TestDatabaseConnection(db, daoSession, daoSession);
+    }
+
+    /**
+     * Like the app: the queries of the UI which don't change entities run on a second session
+     * without identity scope
+     */
+    public static TestDatabaseConnection createWithReadSession() {
+        SQLiteDatabase db = createDatabase();
+        return new TestDatabaseConnection(db, new DaoMaster(db).newSession(), new DaoMaster(db).newSession(IdentityScopeType.None));
+    }
+
+    private static SQLiteDatabase createDatabase() {
+        SQLiteDatabase db = SQLiteDatabase.create(null);
+        DaoMaster.createAllTables(db, false);
+        FeedItemCounts.createTriggers(db);
+        return db;
+    }
+
+    private TestDatabaseConnection(SQLiteDatabase db, DaoSession daoSession, DaoSession readSession) {
+        super(daoSession, readSession);
+        this.db = db;
+        this.daoSession = daoSession;
+    }
+
+    public void setInsertListener(InsertListener insertListener) {
+        this.insertListener = insertListener;
+    }
+
+    public SQLiteDatabase getDatabase() {
+        return db;
+    }
+
+    public DaoSession getDaoSession() {
+        return daoSession;
+    }
+
+    public void close() {
+        db.close();
+    }
+
+    @Override
+    public UpsertStats insertNewItems(Iterable<RssItem> items) {
+        beforeInsert(items);
+        return super.insertNewItems(items);
+    }
+
+    @Override
+    public UpsertStats insertNewItems(Iterable<RssItem> items, SyncCheckpoint checkpoint) {
+        beforeInsert(items);
+        return super.insertNewItems(items, checkpoint);
+    }
+
+    private void beforeInsert(Iterable<RssItem> items) {
+        InsertListener listener = insertListener;
+        if (listener == null) {
+            return;
+        }
+        try {
+            listener.beforeInsert(items);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
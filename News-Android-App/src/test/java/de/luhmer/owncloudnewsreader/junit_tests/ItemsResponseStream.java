@@ -0,0 +1,92 @@
+package de.luhmer.owncloudnewsreader.junit_tests;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Generates a response of the items endpoint on the fly, so that the test input itself
+ * doesn't need to be held in memory.
+ */
+class ItemsResponseStream extends InputStream {
+    private final int itemCount;
+    private final int bodySize;
+    private int currentItem = 0;
+    private byte[] chunk = "{\"items\":[".getBytes(StandardCharsets.UTF_8);
+    private int chunkPos = 0;
+    private int bodyCharsLeft = 0;
+    private boolean finished = false;
+
+    ItemsResponseStream(int itemCount, int bodySize) {
+        this.itemCount = itemCount;
+        this.bodySize = bodySize;
+    }
+
+    /**
+     * @return number of items of which at least the beginning was read from the stream
+     */
+    synchronized int getItemsStarted() {
+        return currentItem;
+    }
+
+    @Override
+    public synchronized int read() {
+        while (chunkPos >= chunk.length) {
+            if (!nextChunk()) {
+                return -1;
+            }
+        }
+        return chunk[chunkPos++];
+    }
+
+    @Override
+    public synchronized int read(byte[] b, int off, int len) {
+        while (chunkPos >= chunk.length) {
+            if (!nextChunk()) {
+                return -1;
+            }
+        }
+        int count = Math.min(len, chunk.length - chunkPos);
+        System.arraycopy(chunk, chunkPos, b, off, count);
+        chunkPos += count;
+        return count;
+    }
+
+    private boolean nextChunk() {
+        chunkPos = 0;
+        if (bodyCharsLeft > 0) {
+            int len = Math.min(bodyCharsLeft, 4096);
+            chunk = new byte[len];
+            Arrays.fill(chunk, (byte) 'a');
+            bodyCharsLeft -= len;
+            if (bodyCharsLeft == 0) {
+                chunk = concat(chunk, "\"}".getBytes(StandardCharsets.UTF_8));
+            }
+            return true;
+        }
+        if (currentItem < itemCount) {
+            currentItem++;
+            String header = (currentItem > 1 ? "," : "") +
+                    "{\"id\":" + currentItem + ",\"guid\":\"guid" + currentItem + "\",\"guidHash\":\"hash" + currentItem + "\"," +
+                    "\"url\":\"https://example.com/" + currentItem + "\",\"title\":\"Title\",\"author\":\"Author\"," +
+                    "\"pubDate\":1500000000,\"feedId\":1,\"unread\":true,\"starred\":false," +
+                    "\"lastModified\":1500000000,\"fingerprint\":\"fp" + currentItem + "\",\"body\":\"";
+            chunk = header.getBytes(StandardCharsets.UTF_8);
+            bodyCharsLeft = bodySize;
+            return true;
+        }
+        if (!finished) {
+            finished = true;
+            chunk = "]}".getBytes(StandardCharsets.UTF_8);
+            return true;
+        }
+        return false;
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] result = new byte[a.length + b.length];
+        System.arraycopy(a, 0, result, 0, a.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+}
@@ -0,0 +1,84 @@
+package de.luhmer.owncloudnewsreader.junit_tests;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import de.luhmer.owncloudnewsreader.database.model.RssItem;
+import de.luhmer.owncloudnewsreader.reader.nextcloud.InsertBatchPolicy;
+import de.luhmer.owncloudnewsreader.reader.nextcloud.RssItemObservable;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subscribers.TestSubscriber;
+import okio.Okio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Makes sure that the items of a response are only read from the network as fast as they are
+ * consumed. A slow consumer (e.g. the database writer) must not cause the parsed items to pile up
+ * in memory.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class RssItemBackpressureTest {
+
+    private static final int BODY_SIZE = 64 * 1024; // chars per article (larger than all read buffers)
+    private static final int ITEM_COUNT = 100;
+    private static final int PREFETCH = 4;
+
+    @Test
+    public void testItemsAreOnlyReadWhenRequested() {
+        ItemsResponseStream stream = new ItemsResponseStream(ITEM_COUNT, BODY_SIZE);
+        TestSubscriber<RssItem> subscriber = RssItemObservable.items(Okio.buffer(Okio.source(stream))).test(0);
+
+        subscriber.assertNoValues();
+        assertTrue(stream.getItemsStarted() <= 1);
+
+        subscriber.request(1);
+        subscriber.assertValueCount(1);
+        assertTrue(stream.getItemsStarted() <= 2);
+
+        subscriber.request(10);
+        subscriber.assertValueCount(11);
+        assertTrue(stream.getItemsStarted() <= 12);
+
+        subscriber.cancel();
+        assertTrue(stream.getItemsStarted() <= 12);
+    }
+
+    @Test
+    public void testReadAheadIsBoundedWithSlowAsyncConsumer() {
+        final ItemsResponseStream stream = new ItemsResponseStream(ITEM_COUNT, BODY_SIZE);
+        final int[] consumed = { 0 };
+        final int[] maxReadAhead = { 0 };
+
+        RssItemObservable.items(Okio.buffer(Okio.source(stream)))
+                .subscribeOn(Schedulers.io())
+                .blockingSubscribe(rssItem -> {
+                    Thread.sleep(2); // slow database
+                    consumed[0]++;
+                    maxReadAhead[0] = Math.max(maxReadAhead[0], stream.getItemsStarted() - consumed[0]);
+                }, PREFETCH);
+
+        assertEquals(ITEM_COUNT, consumed[0]);
+        assertTrue("Read " + maxReadAhead[0] + " items ahead", maxReadAhead[0] <= PREFETCH + 1);
+    }
+
+    @Test
+    public void testReadAheadIsBoundedWithSlowBatchConsumer() throws Exception {
+        final ItemsResponseStream stream = new ItemsResponseStream(ITEM_COUNT, BODY_SIZE);
+        final int[] consumed = { 0 };
+        final int[] maxReadAhead = { 0 };
+
+        // A budget of one byte flushes every item on its own
+        RssItemObservable.SyncPage page = RssItemObservable.streamItems(Okio.buffer(Okio.source(stream)), new InsertBatchPolicy(1, 1, 1), batch -> {
+            Thread.sleep(2); // slow database
+            consumed[0] += batch.size();
+            maxReadAhead[0] = Math.max(maxReadAhead[0], stream.getItemsStarted() - consumed[0]);
+        });
+
+        assertEquals(ITEM_COUNT, page.count);
+        assertEquals(ITEM_COUNT, consumed[0]);
+        assertTrue("Read " + maxReadAhead[0] + " items ahead", maxReadAhead[0] <= 1);
+    }
+}
@@ -0,0 +1,56 @@
+package de.luhmer.owncloudnewsreader.junit_tests;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import de.luhmer.owncloudnewsreader.reader.nextcloud.InsertBatchPolicy;
+import de.luhmer.owncloudnewsreader.reader.nextcloud.RssItemObservable;
+import okio.BufferedSource;
+import okio.Okio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Makes sure that the first sync does not materialize a whole page of the items endpoint.
+ * The peak heap usage while streaming a page has to be independent of the page size.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class RssItemStreamingMemoryTest {
+
+    private static final int BODY_SIZE = 200 * 1024; // chars per article
+    private static final long BATCH_BYTES = 4 * 1024 * 1024; // ~10 articles per batch
+    private static final long MAX_HEAP_GROWTH = 16 * 1024 * 1024; // 16mb
+
+    @Test
+    public void testPeakHeapIsIndependentOfPageSize() throws Exception {
+        long peakSmallPage = measurePeakHeap(50);
+        long peakLargePage = measurePeakHeap(500); // ~200mb of article bodies (as java strings)
+
+        assertTrue("Heap grew from " + peakSmallPage + " to " + peakLargePage + " bytes",
+                peakLargePage - peakSmallPage < MAX_HEAP_GROWTH);
+    }
+
+    private long measurePeakHeap(int pageSize) throws Exception {
+        final long[] peak = { 0 };
+        final int[] received = { 0 };
+
+        BufferedSource source = Okio.buffer(Okio.source(new ItemsResponseStream(pageSize, BODY_SIZE)));
+        RssItemObservable.SyncPage page = RssItemObservable.streamItems(source, new InsertBatchPolicy(BATCH_BYTES, BATCH_BYTES, BATCH_BYTES), buffer -> {
+            received[0] += buffer.size();
+            peak[0] = Math.max(peak[0], usedHeap());
+        });
+
+        assertEquals(pageSize, page.count);
+        assertEquals(pageSize, received[0]);
+        assertEquals(pageSize, page.maxId);
+        return peak[0];
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,204 @@
+package de.luhmer.owncloudnewsreader.reader.nextcloud;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.luhmer.owncloudnewsreader.database.RssItemBuilder;
+import de.luhmer.owncloudnewsreader.database.TestDatabaseConnection;
+import de.luhmer.owncloudnewsreader.database.model.RssItem;
+import de.luhmer.owncloudnewsreader.database.model.SyncCheckpoint;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * The writer of the full sync: batches are committed in the order they were added, the parser
+ * blocks while the queue is full and errors of the writer or a cancelled session end up at the
+ * parser.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class DatabaseWriterPipelineTest {
+
+    private static final int ITEM_COUNT = 50;
+    private static final int QUEUE_CAPACITY = 2;
+
+    private TestDatabaseConnection dbConn;
+    private SyncMetrics metrics;
+    private SyncSession session;
+
+    @Before
+    public void setUp() {
+        dbConn = TestDatabaseConnection.create();
+        metrics = new SyncMetrics();
+        session = new SyncSession();
+    }
+
+    @After
+    public void tearDown() {
+        session.cancel();
+        dbConn.close();
+    }
+
+    @Test
+    public void testBatchesAreWrittenInOrder() throws Exception {
+        final List<Long> writtenIds = Collections.synchronizedList(new ArrayList<Long>());
+        dbConn.setInsertListener(items -> {
+            for (RssItem rssItem : items) {
+                writtenIds.add(rssItem.getId());
+            }
+        });
+
+        List<Long> expectedIds = new ArrayList<>();
+        // The checkpoint of a batch points at its last item
+        DatabaseWriterPipeline.CheckpointProvider checkpointProvider = batch ->
+                new SyncCheckpoint(0, "items", batch.get(batch.size() - 1).getId(), 0, new Date());
+        try (DatabaseWriterPipeline pipeline = new DatabaseWriterPipeline(dbConn, singleItemBatches(), QUEUE_CAPACITY, metrics, session, checkpointProvider)) {
+            for (long id = 1; id <= ITEM_COUNT; id++) {
+                pipeline.add(item(id));
+                expectedIds.add(id);
+            }
+            pipeline.finish();
+        }
+
+        assertEquals(expectedIds, writtenIds);
+        assertEquals(ITEM_COUNT, metrics.getCounter(SyncMetrics.COUNTER_ITEMS_INSERTED));
+        assertEquals(ITEM_COUNT, metrics.getStage(SyncMetrics.STAGE_DB_WRITER).getRecordCount());
+        assertEquals(ITEM_COUNT, dbConn.getSyncCheckpoint().getOffsetCursor());
+        assertNotNull(dbConn.getRssItemById(ITEM_COUNT));
+    }
+
+    @Test
+    public void testParserBlocksWhileQueueIsFull() throws Exception {
+        final CountDownLatch writerBlocked = new CountDownLatch(1);
+        final CountDownLatch releaseWriter = new CountDownLatch(1);
+        dbConn.setInsertListener(items -> {
+            writerBlocked.countDown();
+            releaseWriter.await();
+        });
+
+        final AtomicInteger added = new AtomicInteger();
+        final Exception[] parserError = new Exception[1];
+        try (final DatabaseWriterPipeline pipeline = new DatabaseWriterPipeline(dbConn, singleItemBatches(), QUEUE_CAPACITY, metrics, session)) {
+            Thread parser = new Thread(() -> {
+                try {
+                    for (long id = 1; id <= ITEM_COUNT; id++) {
+                        pipeline.add(item(id));
+                        added.incrementAndGet();
+                    }
+                    pipeline.finish();
+                } catch (Exception e) {
+                    parserError[0] = e;
+                }
+            });
+            parser.start();
+
+            assertTrue(writerBlocked.await(5, TimeUnit.SECONDS));
+            Thread.sleep(200);
+            // One batch in the writer, the queue is full and the next add waits
+            assertEquals(1 + QUEUE_CAPACITY, added.get());
+
+            releaseWriter.countDown();
+            parser.join(TimeUnit.SECONDS.toMillis(10));
+            assertEquals(ITEM_COUNT, added.get());
+        }
+
+        if (parserError[0] != null) {
+            throw parserError[0];
+        }
+        assertEquals(ITEM_COUNT, metrics.getCounter(SyncMetrics.COUNTER_ITEMS_INSERTED));
+    }
+
+    @Test
+    public void testWriterErrorIsThrownByParser() throws Exception {
+        final RuntimeException writerError = new RuntimeException("disk full");
+        dbConn.setInsertListener(items -> {
+            if (items.iterator().next().getId() == 3) {
+                throw writerError;
+            }
+        });
+
+        try (DatabaseWriterPipeline pipeline = new DatabaseWriterPipeline(dbConn, singleItemBatches(), QUEUE_CAPACITY, metrics, session)) {
+            for (long id = 1; id <= ITEM_COUNT; id++) {
+                pipeline.add(item(id));
+            }
+            pipeline.finish();
+            fail("The error of the writer wasn't thrown");
+        } catch (IOException e) {
+            assertSame(writerError, e.getCause());
+        }
+
+        // Nothing after the failed batch was written
+        assertEquals(2, metrics.getCounter(SyncMetrics.COUNTER_ITEMS_INSERTED));
+    }
+
+    @Test
+    public void testCloseWithoutFinishStopsWriter() throws Exception {
+        final CountDownLatch writerBlocked = new CountDownLatch(1);
+        dbConn.setInsertListener(items -> {
+            writerBlocked.countDown();
+            // Until the writer is interrupted
+            new CountDownLatch(1).await();
+        });
+
+        DatabaseWriterPipeline pipeline = new DatabaseWriterPipeline(dbConn, singleItemBatches(), QUEUE_CAPACITY, metrics, session);
+        pipeline.add(item(1));
+        assertTrue(writerBlocked.await(5, TimeUnit.SECONDS));
+
+        // Returns although the batch was never committed (e.g. parsing failed)
+        pipeline.close();
+        assertEquals(0, metrics.getCounter(SyncMetrics.COUNTER_ITEMS_INSERTED));
+    }
+
+    @Test
+    public void testCancelledSessionStopsWriter() throws Exception {
+        try (DatabaseWriterPipeline pipeline = new DatabaseWriterPipeline(dbConn, singleItemBatches(), QUEUE_CAPACITY, metrics, session)) {
+            pipeline.add(item(1));
+            long timeout = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+            while (metrics.getCounter(SyncMetrics.COUNTER_ITEMS_INSERTED) == 0 && System.currentTimeMillis() < timeout) {
+                Thread.sleep(10);
+            }
+
+            // The writer waits for the next batch
+            session.cancel();
+
+            try {
+                for (long id = 2; id <= ITEM_COUNT; id++) {
+                    pipeline.add(item(id));
+                }
+                pipeline.finish();
+                fail("The parser wasn't stopped");
+            } catch (InterruptedIOException e) {
+                // Expected - the queue filled up and nobody takes the batches anymore
+            }
+        }
+
+        assertEquals(1, metrics.getCounter(SyncMetrics.COUNTER_ITEMS_INSERTED));
+    }
+
+    /**
+     * A budget of one byte flushes every item on its own
+     */
+    private static InsertBatchPolicy singleItemBatches() {
+        return new InsertBatchPolicy(1, 1, 1);
+    }
+
+    private static RssItem item(long id) {
+        return RssItemBuilder.item(id).link("https://example.com/" + id).body("Body " + id).build();
+    }
+}
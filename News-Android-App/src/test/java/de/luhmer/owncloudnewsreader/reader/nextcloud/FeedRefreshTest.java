@@ -0,0 +1,156 @@
+package de.luhmer.owncloudnewsreader.reader.nextcloud;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import de.luhmer.owncloudnewsreader.Constants;
+import de.luhmer.owncloudnewsreader.database.RssItemBuilder;
+import de.luhmer.owncloudnewsreader.database.TestDatabaseConnection;
+import de.luhmer.owncloudnewsreader.database.model.Feed;
+import de.luhmer.owncloudnewsreader.database.model.Folder;
+import de.luhmer.owncloudnewsreader.database.model.RssItem;
+import de.luhmer.owncloudnewsreader.helper.GsonConfig;
+import de.luhmer.owncloudnewsreader.reader.FeedItemTags;
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import retrofit2.Retrofit;
+import retrofit2.adapter.rxjava2.RxJava2CallAdapterFactory;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * A refresh only requests the items of the feed/folder which changed since its newest item and
+ * remembers up to which point the other feeds were synced.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class FeedRefreshTest {
+
+    private static final long FOLDER_ID = 1;
+    private static final long FEED_IN_FOLDER = 1;
+    private static final long OTHER_FEED_IN_FOLDER = 2;
+    private static final long FEED_WITHOUT_FOLDER = 3;
+
+    private MockWebServer server;
+    private NewsAPI newsApi;
+    private TestDatabaseConnection dbConn;
+    private SharedPreferences prefs;
+    private SyncSession session;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        newsApi = new Retrofit.Builder()
+                .addConverterFactory(GsonConverterFactory.create(GsonConfig.GetGson()))
+                .addCallAdapterFactory(RxJava2CallAdapterFactory.create())
+                .baseUrl(server.url("/"))
+                .build()
+                .create(NewsAPI.class);
+
+        prefs = RuntimeEnvironment.application.getSharedPreferences("FeedRefreshTest", Context.MODE_PRIVATE);
+        prefs.edit().clear().commit();
+        session = new SyncSession();
+
+        dbConn = TestDatabaseConnection.create();
+        dbConn.deleteOldAndInsertNewFolders(new Folder(FOLDER_ID, "Folder"));
+        dbConn.insertNewFeed(Arrays.asList(
+                new Feed(FEED_IN_FOLDER, FOLDER_ID, "Feed 1", null, null, null),
+                new Feed(OTHER_FEED_IN_FOLDER, FOLDER_ID, "Feed 2", null, null, null),
+                new Feed(FEED_WITHOUT_FOLDER, null, "Feed 3", null, null, null)));
+
+        List<RssItem> items = new ArrayList<>();
+        items.add(item(1, FEED_IN_FOLDER, 1000));
+        items.add(item(2, FEED_IN_FOLDER, 1100));
+        items.add(item(3, OTHER_FEED_IN_FOLDER, 1200));
+        items.add(item(4, FEED_WITHOUT_FOLDER, 1500));
+        dbConn.insertNewItems(items);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        session.cancel();
+        dbConn.close();
+        server.shutdown();
+    }
+
+    @Test
+    public void testFeedRefreshRequestsItemsSinceNewestItemOfFeed() throws Exception {
+        server.enqueue(itemsResponse(itemJson(5, FEED_IN_FOLDER, 2000)));
+
+        assertEquals(1, FeedRefresh.PerformFeedRefresh(newsApi, dbConn, prefs, session, FEED_IN_FOLDER));
+
+        HttpUrl url = server.takeRequest().getRequestUrl();
+        assertEquals("/items/updated", url.encodedPath());
+        assertEquals("1100", url.queryParameter("lastModified"));
+        assertEquals(FeedItemTags.FEED.toString(), url.queryParameter("type"));
+        assertEquals(String.valueOf(FEED_IN_FOLDER), url.queryParameter("id"));
+        assertNotNull(dbConn.getRssItemById(5));
+    }
+
+    @Test
+    public void testFolderRefreshRequestsItemsSinceNewestItemOfFolder() throws Exception {
+        server.enqueue(itemsResponse());
+
+        assertEquals(0, FeedRefresh.PerformFolderRefresh(newsApi, dbConn, prefs, session, FOLDER_ID));
+
+        RecordedRequest request = server.takeRequest();
+        // Newest item of both feeds of the folder - the feed without folder isn't taken into account
+        assertEquals("1200", request.getRequestUrl().queryParameter("lastModified"));
+        assertEquals(FeedItemTags.FOLDER.toString(), request.getRequestUrl().queryParameter("type"));
+        assertEquals(String.valueOf(FOLDER_ID), request.getRequestUrl().queryParameter("id"));
+    }
+
+    @Test
+    public void testRefreshRemembersLastModifiedOfFullSync() throws Exception {
+        server.enqueue(itemsResponse(itemJson(5, FEED_IN_FOLDER, 2000)));
+
+        FeedRefresh.PerformFeedRefresh(newsApi, dbConn, prefs, session, FEED_IN_FOLDER);
+
+        // The other feeds were only synced up to the newest item before the refresh
+        assertEquals(2000, dbConn.getLastModified());
+        assertEquals(1500, prefs.getLong(Constants.FULL_SYNC_LAST_MODIFIED_STRING, -1));
+    }
+
+    @Test
+    public void testRefreshKeepsLastModifiedOfEarlierRefresh() throws Exception {
+        server.enqueue(itemsResponse(itemJson(5, FEED_IN_FOLDER, 2000)));
+        server.enqueue(itemsResponse(itemJson(6, FEED_WITHOUT_FOLDER, 2100)));
+
+        FeedRefresh.PerformFeedRefresh(newsApi, dbConn, prefs, session, FEED_IN_FOLDER);
+        FeedRefresh.PerformFeedRefresh(newsApi, dbConn, prefs, session, FEED_WITHOUT_FOLDER);
+
+        assertEquals(2100, dbConn.getLastModified());
+        assertEquals(1500, prefs.getLong(Constants.FULL_SYNC_LAST_MODIFIED_STRING, -1));
+    }
+
+    private static RssItem item(long id, long feedId, long lastModified) {
+        return RssItemBuilder.item(id).feedId(feedId).read(true).date(lastModified).build();
+    }
+
+    private static String itemJson(long id, long feedId, long lastModified) {
+        return String.format(Locale.US, "{\"id\":%d,\"guid\":\"guid-%d\",\"guidHash\":\"hash-%d\"," +
+                "\"title\":\"Item %d\",\"body\":\"\",\"feedId\":%d,\"unread\":true,\"starred\":false," +
+                "\"pubDate\":%d,\"lastModified\":%d,\"fingerprint\":\"fingerprint-%d\"}",
+                id, id, id, id, feedId, lastModified, lastModified, id);
+    }
+
+    private static MockResponse itemsResponse(String... items) {
+        return new MockResponse().setBody("{\"items\":[" + String.join(",", items) + "]}");
+    }
+}
@@ -0,0 +1,92 @@
+package de.luhmer.owncloudnewsreader.reader.nextcloud;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Feeds fixed commit durations into the policy and checks that the byte budget follows the
+ * throughput and stays within its bounds.
+ */
+public class InsertBatchPolicyTest {
+
+    private static final long MB = 1024 * 1024;
+    private static final long MIN = MB / 4;
+    private static final long MAX = 8 * MB;
+
+    @Test
+    public void testFastCommitsGrowBudget() {
+        InsertBatchPolicy policy = new InsertBatchPolicy(MB, MIN, MAX);
+
+        long previous = policy.getByteBudget();
+        for (int i = 0; i < 20; i++) {
+            // A tenth of the target time
+            policy.onCommitted(policy.getByteBudget(), TimeUnit.MILLISECONDS.toNanos(25));
+            assertTrue(policy.getByteBudget() >= previous);
+            assertTrue(policy.getByteBudget() <= MAX);
+            previous = policy.getByteBudget();
+        }
+        assertEquals(MAX, policy.getByteBudget());
+    }
+
+    @Test
+    public void testSlowCommitsShrinkBudget() {
+        InsertBatchPolicy policy = new InsertBatchPolicy(MB, MIN, MAX);
+
+        long previous = policy.getByteBudget();
+        for (int i = 0; i < 20; i++) {
+            // Ten times the target time
+            policy.onCommitted(policy.getByteBudget(), TimeUnit.MILLISECONDS.toNanos(2500));
+            assertTrue(policy.getByteBudget() <= previous);
+            assertTrue(policy.getByteBudget() >= MIN);
+            previous = policy.getByteBudget();
+        }
+        assertEquals(MIN, policy.getByteBudget());
+    }
+
+    @Test
+    public void testCommitsAtTargetKeepBudget() {
+        InsertBatchPolicy policy = new InsertBatchPolicy(MB, MIN, MAX);
+
+        policy.onCommitted(MB, TimeUnit.MILLISECONDS.toNanos(250));
+        assertEquals(MB, policy.getByteBudget());
+    }
+
+    @Test
+    public void testSingleSlowCommitMovesHalfWay() {
+        InsertBatchPolicy policy = new InsertBatchPolicy(2 * MB, MIN, MAX);
+
+        // Projected budget: 1mb
+        policy.onCommitted(MB, TimeUnit.MILLISECONDS.toNanos(250));
+        assertEquals(3 * MB / 2, policy.getByteBudget());
+    }
+
+    @Test
+    public void testInvalidMeasurementsAreIgnored() {
+        InsertBatchPolicy policy = new InsertBatchPolicy(MB, MIN, MAX);
+
+        policy.onCommitted(MB, 0);
+        policy.onCommitted(0, TimeUnit.MILLISECONDS.toNanos(25));
+        assertEquals(MB, policy.getByteBudget());
+    }
+
+    @Test
+    public void testInitialBudgetIsClamped() {
+        assertEquals(MAX, new InsertBatchPolicy(100 * MB, MIN, MAX).getByteBudget());
+        assertEquals(MIN, new InsertBatchPolicy(1, MIN, MAX).getByteBudget());
+    }
+
+    @Test
+    public void testIsFull() {
+        InsertBatchPolicy policy = new InsertBatchPolicy(MB, MIN, MAX);
+
+        assertFalse(policy.isFull(10, MB - 1));
+        assertTrue(policy.isFull(10, MB));
+        // Many tiny items
+        assertTrue(policy.isFull(1000, 1));
+    }
+}
@@ -0,0 +1,187 @@
+package de.luhmer.owncloudnewsreader.reader.nextcloud;
+
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.luhmer.owncloudnewsreader.database.model.RssItem;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares {@link RssItemJsonDecoder} with the previous JsonObject based parsing
+ * ({@link #readJsonObject} + {@link InsertRssItemIntoDatabase#parseItem}) on the items of
+ * items_updated_sample.json and checks how unexpected values are handled.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class RssItemJsonDecoderTest {
+
+    private byte[] fixture;
+
+    @Before
+    public void setUp() throws IOException {
+        try (InputStream is = RssItemJsonDecoderTest.class.getClassLoader().getResourceAsStream("items_updated_sample.json")) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            fixture = out.toByteArray();
+        }
+    }
+
+    @Test
+    public void testDecoderMatchesJsonObjectPath() throws IOException {
+        List<RssItem> expected = new ArrayList<>();
+        List<RssItem> actual = new ArrayList<>();
+        parseWithJsonObject(fixture, expected);
+        parseWithDecoder(fixture, actual);
+
+        assertTrue(expected.size() > 0);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSameItem(expected.get(i), actual.get(i));
+        }
+    }
+
+    @Test
+    public void testNullsKeepDefaults() throws IOException {
+        RssItem rssItem = decode("{\"id\": 1, \"feedId\": 2, \"guidHash\": \"hash\", \"fingerprint\": \"fp\", " +
+                "\"url\": null, \"enclosureLink\": null, \"mediaThumbnail\": null, \"body\": null, " +
+                "\"unread\": true, \"starred\": false, \"pubDate\": 1367270544, \"lastModified\": 1367273003}");
+
+        assertEquals(Long.valueOf(1), rssItem.getId());
+        assertEquals("about:blank", rssItem.getLink());
+        assertEquals("", rssItem.getEnclosureLink());
+        assertEquals("", rssItem.getMediaThumbnail());
+        assertEquals("", rssItem.getBody());
+        assertEquals(1367270544000L, rssItem.getPubDate().getTime());
+    }
+
+    @Test
+    public void testMissingPubDateIsZero() throws IOException {
+        RssItem rssItem = decode("{\"id\": 1, \"feedId\": 2, \"guidHash\": \"hash\", \"fingerprint\": \"fp\", " +
+                "\"pubDate\": null, \"lastModified\": 1367273003}");
+
+        assertEquals(0, rssItem.getPubDate().getTime());
+    }
+
+    @Test
+    public void testLenientBooleansAndUnknownFields() throws IOException {
+        RssItem rssItem = decode("{\"id\": 1, \"feedId\": 2, \"guidHash\": \"hash\", \"fingerprint\": \"fp\", " +
+                "\"unread\": 0, \"starred\": \"true\", \"rtl\": 1, " +
+                "\"unknown\": {\"nested\": [1, 2, {\"a\": null}]}, \"tags\": [\"x\"], " +
+                "\"pubDate\": 1367270544, \"lastModified\": 1367273003}");
+
+        assertTrue(rssItem.getRead());
+        assertTrue(rssItem.getRead_temp());
+        assertTrue(rssItem.getStarred());
+        assertTrue(rssItem.getStarred_temp());
+        assertTrue(rssItem.getRtl());
+        assertEquals("fp", rssItem.getFingerprint());
+    }
+
+    private static RssItem decode(String json) throws IOException {
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            return RssItemJsonDecoder.decode(reader);
+        }
+    }
+
+    private static void parseWithDecoder(byte[] response, List<RssItem> sink) throws IOException {
+        try (JsonReader reader = openItemsArray(response)) {
+            while (reader.hasNext()) {
+                sink.add(RssItemJsonDecoder.decode(reader));
+            }
+        }
+    }
+
+    private static void parseWithJsonObject(byte[] response, List<RssItem> sink) throws IOException {
+        try (JsonReader reader = openItemsArray(response)) {
+            while (reader.hasNext()) {
+                sink.add(InsertRssItemIntoDatabase.parseItem(readJsonObject(reader)));
+            }
+        }
+    }
+
+    private static JsonReader openItemsArray(byte[] response) throws IOException {
+        JsonReader reader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(response), StandardCharsets.UTF_8));
+        reader.beginObject();
+        while (!reader.nextName().equals("items")) {
+            reader.skipValue();
+        }
+        reader.beginArray();
+        return reader;
+    }
+
+    /**
+     * The JsonObject based parsing which was used by RssItemObservable before the
+     * RssItemJsonDecoder was introduced
+     */
+    private static JsonObject readJsonObject(JsonReader jsonReader) throws IOException {
+        JsonObject jObj = new JsonObject();
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            String name = jsonReader.nextName();
+            JsonToken token = jsonReader.peek();
+            switch (token) {
+                case NUMBER:
+                    jObj.addProperty(name, jsonReader.nextLong());
+                    break;
+                case NULL:
+                case BEGIN_ARRAY:
+                    jsonReader.skipValue();
+                    break;
+                case BOOLEAN:
+                    jObj.addProperty(name, jsonReader.nextBoolean());
+                    break;
+                case BEGIN_OBJECT:
+                    jObj.add(name, readJsonObject(jsonReader));
+                    break;
+                default:
+                    jObj.addProperty(name, jsonReader.nextString());
+            }
+        }
+        jsonReader.endObject();
+        return jObj;
+    }
+
+    private static void assertSameItem(RssItem expected, RssItem actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getFeedId(), actual.getFeedId());
+        assertEquals(expected.getGuid(), actual.getGuid());
+        assertEquals(expected.getGuidHash(), actual.getGuidHash());
+        assertEquals(expected.getFingerprint(), actual.getFingerprint());
+        assertEquals(expected.getLink(), actual.getLink());
+        assertEquals(expected.getTitle(), actual.getTitle());
+        assertEquals(expected.getAuthor(), actual.getAuthor());
+        assertEquals(expected.getBody(), actual.getBody());
+        assertEquals(expected.getRead(), actual.getRead());
+        assertEquals(expected.getRead_temp(), actual.getRead_temp());
+        assertEquals(expected.getStarred(), actual.getStarred());
+        assertEquals(expected.getStarred_temp(), actual.getStarred_temp());
+        assertEquals(expected.getPubDate(), actual.getPubDate());
+        assertEquals(expected.getLastModified(), actual.getLastModified());
+        assertEquals(expected.getEnclosureLink(), actual.getEnclosureLink());
+        assertEquals(expected.getEnclosureMime(), actual.getEnclosureMime());
+        assertEquals(expected.getMediaThumbnail(), actual.getMediaThumbnail());
+        assertEquals(expected.getMediaDescription(), actual.getMediaDescription());
+        assertEquals(expected.getRtl(), actual.getRtl());
+    }
+}
@@ -0,0 +1,76 @@
+package de.luhmer.owncloudnewsreader.reader.nextcloud;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import de.luhmer.owncloudnewsreader.database.model.SyncStats;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Every column of the persisted statistics is filled from the matching stage or counter.
+ */
+public class SyncMetricsTest {
+
+    @Test
+    public void testToSyncStats() {
+        SyncMetrics metrics = new SyncMetrics();
+        metrics.getStage(SyncMetrics.STAGE_STATE_SYNC).record(5, millis(10));
+        metrics.getStage(SyncMetrics.STAGE_FOLDERS).record(2, millis(20));
+        metrics.getStage(SyncMetrics.STAGE_FEEDS).record(3, millis(30));
+        metrics.getStage(SyncMetrics.STAGE_ITEM_PAGES).record(100, millis(40));
+        metrics.getStage(SyncMetrics.STAGE_ITEM_PAGES).record(50, millis(45));
+        metrics.getStage(SyncMetrics.STAGE_DB_WRITER).record(90, millis(60));
+        metrics.getStage(SyncMetrics.STAGE_DB_WRITER).record(60, millis(70));
+        metrics.increment(SyncMetrics.COUNTER_BYTES_DOWNLOADED, 4096);
+        metrics.increment(SyncMetrics.COUNTER_ITEMS_INSERTED, 7);
+        metrics.increment(SyncMetrics.COUNTER_ITEMS_REPLACED, 11);
+        metrics.increment(SyncMetrics.COUNTER_ITEMS_STATE_UPDATED, 13);
+        // Not part of the statistics
+        metrics.increment(SyncMetrics.COUNTER_HTTP_CACHE_HITS, 2);
+
+        Date startedAt = new Date(1600000000000L);
+        SyncStats syncStats = metrics.toSyncStats(startedAt, 500, null);
+
+        assertEquals(startedAt, syncStats.getStartedAt());
+        assertTrue(syncStats.getSuccessful());
+        assertNull(syncStats.getError());
+        assertEquals(500, syncStats.getTotalMillis());
+        assertEquals(10, syncStats.getStateSyncMillis());
+        assertEquals(20, syncStats.getFoldersMillis());
+        assertEquals(30, syncStats.getFeedsMillis());
+        assertEquals(2, syncStats.getItemPages());
+        assertEquals(85, syncStats.getItemPagesMillis());
+        assertEquals(4096, syncStats.getBytesDownloaded());
+        assertEquals(7, syncStats.getItemsInserted());
+        assertEquals(11, syncStats.getItemsReplaced());
+        assertEquals(13, syncStats.getItemsStateUpdated());
+        assertEquals(2, syncStats.getTransactions());
+        assertEquals(130, syncStats.getTransactionMillis());
+        // Recorded later by the favicon download
+        assertEquals(0, syncStats.getFaviconMillis());
+    }
+
+    @Test
+    public void testToSyncStatsOfFailedSync() {
+        IOException error = new IOException("timeout");
+        SyncStats syncStats = new SyncMetrics().toSyncStats(new Date(), 5, error);
+
+        assertFalse(syncStats.getSuccessful());
+        assertEquals(error.toString(), syncStats.getError());
+        // Stages which never ran
+        assertEquals(0, syncStats.getItemPages());
+        assertEquals(0, syncStats.getTransactions());
+        assertEquals(0, syncStats.getItemsInserted());
+    }
+
+    private static long millis(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
@@ -0,0 +1,126 @@
+package de.luhmer.owncloudnewsreader.ssl;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+import okhttp3.Cache;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The folders are revalidated with the http cache. Once the cache is cleared (database reset,
+ * account change) the next response must count as modified, so the empty tables are filled again.
+ */
+public class HttpCacheTrackerTest {
+
+    private static final String FOLDERS = "{\"folders\":[{\"id\":1,\"name\":\"Folder\"}]}";
+    private static final String ETAG = "\"folders-1\"";
+
+    @Rule
+    public TemporaryFolder cacheDir = new TemporaryFolder();
+
+    private MockWebServer server;
+    private Cache cache;
+    private HttpCacheTracker tracker;
+    private OkHttpClient client;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+
+        cache = new Cache(cacheDir.getRoot(), 1024 * 1024);
+        tracker = new HttpCacheTracker(server.url("/"));
+        client = new OkHttpClient.Builder()
+                .cache(cache)
+                .addInterceptor(tracker.getApplicationInterceptor())
+                .addNetworkInterceptor(tracker.getNetworkInterceptor())
+                .build();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        cache.close();
+        server.shutdown();
+    }
+
+    @Test
+    public void testNotModifiedIsServedFromCache() throws Exception {
+        server.enqueue(foldersResponse());
+        server.enqueue(new MockResponse().setResponseCode(HttpURLConnection.HTTP_NOT_MODIFIED).setHeader("ETag", ETAG));
+
+        assertEquals(FOLDERS, getFolders());
+        assertFalse(tracker.wasNotModified(HttpCacheTracker.ENDPOINT_FOLDERS));
+        assertNull(server.takeRequest().getHeader("If-None-Match"));
+
+        assertEquals(FOLDERS, getFolders());
+        assertTrue(tracker.wasNotModified(HttpCacheTracker.ENDPOINT_FOLDERS));
+        assertEquals(ETAG, server.takeRequest().getHeader("If-None-Match"));
+    }
+
+    @Test
+    public void testClearedCacheIsNotRevalidated() throws Exception {
+        server.enqueue(foldersResponse());
+        server.enqueue(foldersResponse());
+
+        getFolders();
+        server.takeRequest();
+
+        // Reset of the database
+        cache.evictAll();
+
+        assertEquals(FOLDERS, getFolders());
+        RecordedRequest request = server.takeRequest();
+        assertNull(request.getHeader("If-None-Match"));
+        assertFalse(tracker.wasNotModified(HttpCacheTracker.ENDPOINT_FOLDERS));
+    }
+
+    @Test
+    public void testItemsAreNotCached() throws Exception {
+        server.enqueue(notStorable(new MockResponse().setBody("{\"items\":[]}")));
+        server.enqueue(notStorable(new MockResponse().setBody("{\"items\":[]}")));
+
+        get("items");
+        get("items");
+        server.takeRequest();
+        assertNull(server.takeRequest().getHeader("If-None-Match"));
+    }
+
+    private MockResponse foldersResponse() {
+        return notStorable(new MockResponse().setBody(FOLDERS));
+    }
+
+    /**
+     * Like the news api: a validator, but marked as not storable
+     */
+    private static MockResponse notStorable(MockResponse response) {
+        return response.setHeader("ETag", ETAG).setHeader("Cache-Control", "no-store");
+    }
+
+    private String getFolders() throws IOException {
+        return get(HttpCacheTracker.ENDPOINT_FOLDERS);
+    }
+
+    private String get(String endpoint) throws IOException {
+        HttpUrl url = server.url("/index.php/apps/news/api/v1-2/" + endpoint);
+        try (Response response = client.newCall(new Request.Builder().url(url).build()).execute()) {
+            return response.body().string();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+-- Database of schema version 14 (as created by greenDAO and FeedItemCounts) with some sample data
+CREATE TABLE "FOLDER" ("_id" INTEGER PRIMARY KEY NOT NULL ,"LABEL" TEXT NOT NULL );
+CREATE TABLE "FEED" ("_id" INTEGER PRIMARY KEY NOT NULL ,"FOLDER_ID" INTEGER,"FEED_TITLE" TEXT NOT NULL ,"FAVICON_URL" TEXT,"LINK" TEXT,"AVG_COLOUR" TEXT);
+CREATE TABLE "RSS_ITEM" ("_id" INTEGER PRIMARY KEY NOT NULL ,"FEED_ID" INTEGER NOT NULL ,"LINK" TEXT,"TITLE" TEXT,"READ" INTEGER,"STARRED" INTEGER,"AUTHOR" TEXT NOT NULL ,"GUID" TEXT NOT NULL ,"GUID_HASH" TEXT NOT NULL ,"FINGERPRINT" TEXT NOT NULL ,"READ_TEMP" INTEGER,"STARRED_TEMP" INTEGER,"LAST_MODIFIED" INTEGER,"PUB_DATE" INTEGER,"ENCLOSURE_LINK" TEXT,"ENCLOSURE_MIME" TEXT,"MEDIA_THUMBNAIL" TEXT,"RTL" INTEGER);
+CREATE TABLE "CURRENT_RSS_ITEM_VIEW" ("_id" INTEGER PRIMARY KEY NOT NULL ,"RSS_ITEM_ID" INTEGER NOT NULL );
+CREATE TABLE "SYNC_CHECKPOINT" ("_id" INTEGER PRIMARY KEY NOT NULL ,"PHASE" TEXT NOT NULL ,"OFFSET_CURSOR" INTEGER NOT NULL ,"ITEMS_FETCHED" INTEGER NOT NULL ,"UPDATED" INTEGER);
+CREATE TABLE "SYNC_STATS" ("_id" INTEGER PRIMARY KEY ,"STARTED_AT" INTEGER NOT NULL ,"SUCCESSFUL" INTEGER NOT NULL ,"ERROR" TEXT,"TOTAL_MILLIS" INTEGER NOT NULL ,"STATE_SYNC_MILLIS" INTEGER NOT NULL ,"FOLDERS_MILLIS" INTEGER NOT NULL ,"FEEDS_MILLIS" INTEGER NOT NULL ,"ITEM_PAGES" INTEGER NOT NULL ,"ITEM_PAGES_MILLIS" INTEGER NOT NULL ,"BYTES_DOWNLOADED" INTEGER NOT NULL ,"ITEMS_INSERTED" INTEGER NOT NULL ,"ITEMS_UPDATED" INTEGER NOT NULL ,"ITEMS_SKIPPED" INTEGER NOT NULL ,"TRANSACTIONS" INTEGER NOT NULL ,"TRANSACTION_MILLIS" INTEGER NOT NULL ,"FAVICON_MILLIS" INTEGER NOT NULL );
+CREATE TABLE "RSS_ITEM_CONTENT" ("_id" INTEGER PRIMARY KEY NOT NULL ,"MEDIA_DESCRIPTION" TEXT,"BODY_DATA" BLOB,"BODY_CODEC" INTEGER NOT NULL );
+CREATE TABLE "FEED_ITEM_COUNT" ("_id" INTEGER PRIMARY KEY NOT NULL ,"UNREAD_COUNT" INTEGER NOT NULL ,"STARRED_COUNT" INTEGER NOT NULL ,"ITEM_COUNT" INTEGER NOT NULL ,"BYTE_COUNT" INTEGER NOT NULL );
+CREATE INDEX IDX_FEED_FOLDER_ID ON FEED ("FOLDER_ID");
+CREATE INDEX IDX_RSS_ITEM_FEED_ID ON RSS_ITEM ("FEED_ID");
+CREATE INDEX IDX_RSS_ITEM_FEED_ID_READ_TEMP_PUB_DATE ON RSS_ITEM ("FEED_ID","READ_TEMP","PUB_DATE");
+CREATE INDEX IDX_RSS_ITEM_READ_TEMP_PUB_DATE ON RSS_ITEM ("READ_TEMP","PUB_DATE");
+CREATE INDEX IDX_RSS_ITEM_STARRED_TEMP_FEED_ID ON RSS_ITEM ("STARRED_TEMP","FEED_ID");
+CREATE TRIGGER FEED_ITEM_COUNT_BEFORE_INSERT BEFORE INSERT ON RSS_ITEM BEGIN UPDATE FEED_ITEM_COUNT SET UNREAD_COUNT = UNREAD_COUNT - (SELECT READ_TEMP IS 0 FROM RSS_ITEM WHERE _id = NEW._id), STARRED_COUNT = STARRED_COUNT - (SELECT STARRED_TEMP IS 1 FROM RSS_ITEM WHERE _id = NEW._id), ITEM_COUNT = ITEM_COUNT - 1, BYTE_COUNT = BYTE_COUNT - IFNULL((SELECT (IFNULL(LENGTH(c.BODY_DATA), 0) + IFNULL(LENGTH(CAST(c.MEDIA_DESCRIPTION AS BLOB)), 0)) FROM RSS_ITEM_CONTENT c WHERE c._id = NEW._id), 0) WHERE _id = (SELECT FEED_ID FROM RSS_ITEM WHERE _id = NEW._id); END;
+CREATE TRIGGER FEED_ITEM_COUNT_AFTER_INSERT AFTER INSERT ON RSS_ITEM BEGIN INSERT INTO FEED_ITEM_COUNT (_id, UNREAD_COUNT, STARRED_COUNT, ITEM_COUNT, BYTE_COUNT) SELECT NEW.FEED_ID, 0, 0, 0, 0 WHERE NOT EXISTS (SELECT 1 FROM FEED_ITEM_COUNT WHERE _id = NEW.FEED_ID); UPDATE FEED_ITEM_COUNT SET UNREAD_COUNT = UNREAD_COUNT + (NEW.READ_TEMP IS 0), STARRED_COUNT = STARRED_COUNT + (NEW.STARRED_TEMP IS 1), ITEM_COUNT = ITEM_COUNT + 1, BYTE_COUNT = BYTE_COUNT + IFNULL((SELECT (IFNULL(LENGTH(c.BODY_DATA), 0) + IFNULL(LENGTH(CAST(c.MEDIA_DESCRIPTION AS BLOB)), 0)) FROM RSS_ITEM_CONTENT c WHERE c._id = NEW._id), 0) WHERE _id = NEW.FEED_ID; END;
+CREATE TRIGGER FEED_ITEM_COUNT_AFTER_UPDATE AFTER UPDATE OF FEED_ID, READ_TEMP, STARRED_TEMP ON RSS_ITEM BEGIN UPDATE FEED_ITEM_COUNT SET UNREAD_COUNT = UNREAD_COUNT - (OLD.READ_TEMP IS 0), STARRED_COUNT = STARRED_COUNT - (OLD.STARRED_TEMP IS 1), ITEM_COUNT = ITEM_COUNT - 1 WHERE _id = OLD.FEED_ID; INSERT INTO FEED_ITEM_COUNT (_id, UNREAD_COUNT, STARRED_COUNT, ITEM_COUNT, BYTE_COUNT) SELECT NEW.FEED_ID, 0, 0, 0, 0 WHERE NOT EXISTS (SELECT 1 FROM FEED_ITEM_COUNT WHERE _id = NEW.FEED_ID); UPDATE FEED_ITEM_COUNT SET UNREAD_COUNT = UNREAD_COUNT + (NEW.READ_TEMP IS 0), STARRED_COUNT = STARRED_COUNT + (NEW.STARRED_TEMP IS 1), ITEM_COUNT = ITEM_COUNT + 1 WHERE _id = NEW.FEED_ID; END;
+CREATE TRIGGER FEED_ITEM_COUNT_AFTER_DELETE AFTER DELETE ON RSS_ITEM BEGIN UPDATE FEED_ITEM_COUNT SET UNREAD_COUNT = UNREAD_COUNT - (OLD.READ_TEMP IS 0), STARRED_COUNT = STARRED_COUNT - (OLD.STARRED_TEMP IS 1), ITEM_COUNT = ITEM_COUNT - 1, BYTE_COUNT = BYTE_COUNT - IFNULL((SELECT (IFNULL(LENGTH(c.BODY_DATA), 0) + IFNULL(LENGTH(CAST(c.MEDIA_DESCRIPTION AS BLOB)), 0)) FROM RSS_ITEM_CONTENT c WHERE c._id = OLD._id), 0) WHERE _id = OLD.FEED_ID; END;
+CREATE TRIGGER FEED_BYTE_COUNT_AFTER_FEED_CHANGE AFTER UPDATE OF FEED_ID ON RSS_ITEM WHEN OLD.FEED_ID IS NOT NEW.FEED_ID BEGIN INSERT INTO FEED_ITEM_COUNT (_id, UNREAD_COUNT, STARRED_COUNT, ITEM_COUNT, BYTE_COUNT) SELECT NEW.FEED_ID, 0, 0, 0, 0 WHERE NOT EXISTS (SELECT 1 FROM FEED_ITEM_COUNT WHERE _id = NEW.FEED_ID); UPDATE FEED_ITEM_COUNT SET BYTE_COUNT = BYTE_COUNT - IFNULL((SELECT (IFNULL(LENGTH(c.BODY_DATA), 0) + IFNULL(LENGTH(CAST(c.MEDIA_DESCRIPTION AS BLOB)), 0)) FROM RSS_ITEM_CONTENT c WHERE c._id = OLD._id), 0) WHERE _id = OLD.FEED_ID; UPDATE FEED_ITEM_COUNT SET BYTE_COUNT = BYTE_COUNT + IFNULL((SELECT (IFNULL(LENGTH(c.BODY_DATA), 0) + IFNULL(LENGTH(CAST(c.MEDIA_DESCRIPTION AS BLOB)), 0)) FROM RSS_ITEM_CONTENT c WHERE c._id = NEW._id), 0) WHERE _id = NEW.FEED_ID; END;
+CREATE TRIGGER FEED_BYTE_COUNT_BEFORE_CONTENT_INSERT BEFORE INSERT ON RSS_ITEM_CONTENT BEGIN UPDATE FEED_ITEM_COUNT SET BYTE_COUNT = BYTE_COUNT - IFNULL((SELECT (IFNULL(LENGTH(c.BODY_DATA), 0) + IFNULL(LENGTH(CAST(c.MEDIA_DESCRIPTION AS BLOB)), 0)) FROM RSS_ITEM_CONTENT c WHERE c._id = NEW._id), 0) WHERE _id = (SELECT FEED_ID FROM RSS_ITEM WHERE _id = NEW._id); END;
+CREATE TRIGGER FEED_BYTE_COUNT_AFTER_CONTENT_INSERT AFTER INSERT ON RSS_ITEM_CONTENT BEGIN UPDATE FEED_ITEM_COUNT SET BYTE_COUNT = BYTE_COUNT + (IFNULL(LENGTH(NEW.BODY_DATA), 0) + IFNULL(LENGTH(CAST(NEW.MEDIA_DESCRIPTION AS BLOB)), 0)) WHERE _id = (SELECT FEED_ID FROM RSS_ITEM WHERE _id = NEW._id); END;
+CREATE TRIGGER FEED_BYTE_COUNT_AFTER_CONTENT_UPDATE AFTER UPDATE OF BODY_DATA, MEDIA_DESCRIPTION ON RSS_ITEM_CONTENT BEGIN UPDATE FEED_ITEM_COUNT SET BYTE_COUNT = BYTE_COUNT - (IFNULL(LENGTH(OLD.BODY_DATA), 0) + IFNULL(LENGTH(CAST(OLD.MEDIA_DESCRIPTION AS BLOB)), 0)) WHERE _id = (SELECT FEED_ID FROM RSS_ITEM WHERE _id = OLD._id); UPDATE FEED_ITEM_COUNT SET BYTE_COUNT = BYTE_COUNT + (IFNULL(LENGTH(NEW.BODY_DATA), 0) + IFNULL(LENGTH(CAST(NEW.MEDIA_DESCRIPTION AS BLOB)), 0)) WHERE _id = (SELECT FEED_ID FROM RSS_ITEM WHERE _id = NEW._id); END;
+CREATE TRIGGER FEED_BYTE_COUNT_AFTER_CONTENT_DELETE AFTER DELETE ON RSS_ITEM_CONTENT BEGIN UPDATE FEED_ITEM_COUNT SET BYTE_COUNT = BYTE_COUNT - (IFNULL(LENGTH(OLD.BODY_DATA), 0) + IFNULL(LENGTH(CAST(OLD.MEDIA_DESCRIPTION AS BLOB)), 0)) WHERE _id = (SELECT FEED_ID FROM RSS_ITEM WHERE _id = OLD._id); END;
+INSERT INTO FOLDER (_id, LABEL) VALUES (1, 'Tech');
+INSERT INTO FEED (_id, FOLDER_ID, FEED_TITLE, FAVICON_URL, LINK, AVG_COLOUR) VALUES (10, 1, 'Planet', 'https://example.com/favicon.ico', 'https://example.com', '#123456');
+INSERT INTO RSS_ITEM (_id, FEED_ID, LINK, TITLE, READ, STARRED, AUTHOR, GUID, GUID_HASH, FINGERPRINT, READ_TEMP, STARRED_TEMP, LAST_MODIFIED, PUB_DATE, ENCLOSURE_LINK, ENCLOSURE_MIME, MEDIA_THUMBNAIL, RTL) VALUES (100, 10, 'https://example.com/1', 'First', 1, 0, 'Alice', 'guid-1', 'hash-1', 'fp-1', 1, 0, 1600000000000, 1590000000000, NULL, NULL, NULL, 0);
+INSERT INTO RSS_ITEM_CONTENT (_id, MEDIA_DESCRIPTION, BODY_DATA, BODY_CODEC) VALUES (100, NULL, CAST('<p>First body</p>' AS BLOB), 0);
+INSERT INTO RSS_ITEM (_id, FEED_ID, LINK, TITLE, READ, STARRED, AUTHOR, GUID, GUID_HASH, FINGERPRINT, READ_TEMP, STARRED_TEMP, LAST_MODIFIED, PUB_DATE, ENCLOSURE_LINK, ENCLOSURE_MIME, MEDIA_THUMBNAIL, RTL) VALUES (101, 10, 'https://example.com/2', 'Second', 0, 1, 'Bob', 'guid-2', 'hash-2', 'fp-2', 0, 1, 1600000001000, 1590000001000, 'https://example.com/2.mp3', 'audio/mpeg', 'https://example.com/2.jpg', 0);
+INSERT INTO RSS_ITEM_CONTENT (_id, MEDIA_DESCRIPTION, BODY_DATA, BODY_CODEC) VALUES (101, 'A talk', CAST('<p>' || replace(hex(zeroblob(300)), '00', 'ab') || '</p>' AS BLOB), 0);
+INSERT INTO CURRENT_RSS_ITEM_VIEW (_id, RSS_ITEM_ID) VALUES (1, 101);
+INSERT INTO SYNC_CHECKPOINT (_id, PHASE, OFFSET_CURSOR, ITEMS_FETCHED, UPDATED) VALUES (1, 'items', 100, 2, 1600000002000);
+INSERT INTO SYNC_STATS (_id, STARTED_AT, SUCCESSFUL, ERROR, TOTAL_MILLIS, STATE_SYNC_MILLIS, FOLDERS_MILLIS, FEEDS_MILLIS, ITEM_PAGES, ITEM_PAGES_MILLIS, BYTES_DOWNLOADED, ITEMS_INSERTED, ITEMS_UPDATED, ITEMS_SKIPPED, TRANSACTIONS, TRANSACTION_MILLIS, FAVICON_MILLIS) VALUES (1, 1600000003000, 1, NULL, 5000, 100, 200, 300, 1, 4000, 123456, 2, 0, 0, 1, 50, 0);